@@ -25,12 +25,14 @@ import org.dinky.data.enums.BusinessStatus;
 import org.dinky.data.model.OperateLog;
 import org.dinky.data.model.rbac.User;
 import org.dinky.data.result.Result;
-import org.dinky.service.impl.OperateLogServiceImpl;
+import org.dinky.service.OperateLogService;
 import org.dinky.utils.IpUtils;
 import org.dinky.utils.ServletUtils;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -52,17 +54,26 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.HandlerMapping;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import cn.dev33.satoken.stp.StpUtil;
-import cn.hutool.extra.spring.SpringUtil;
 import cn.hutool.json.JSONUtil;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /** 操作日志记录处理 */
 @Aspect
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class LogAspect {
 
+    /** 返回结果摘要的最大长度，超出部分截断 */
+    private static final int MAX_RESULT_LENGTH = 2000;
+
+    private final OperateLogService operateLogService;
+    private final ObjectMapper objectMapper;
+
     @Pointcut("@annotation(org.dinky.data.annotations.Log)")
     public void logPointCut() {}
 
@@ -100,14 +111,14 @@ public class LogAspect {
 
             // *========数据库日志=========*//
             OperateLog operLog = new OperateLog();
-            Result result = JSONUtil.toBean(JSONUtil.parseObj(jsonResult), Result.class);
-            operLog.setStatus(result.isSuccess() ? BusinessStatus.SUCCESS.ordinal() : BusinessStatus.FAIL.ordinal());
+            boolean success = !(jsonResult instanceof Result) || ((Result<?>) jsonResult).isSuccess();
+            operLog.setStatus(success ? BusinessStatus.SUCCESS.ordinal() : BusinessStatus.FAIL.ordinal());
 
             // 请求的地址
             String ip = IpUtils.getIpAddr(ServletUtils.getRequest());
             operLog.setOperateIp(ip);
-            // 返回参数
-            operLog.setJsonResult(JSONUtil.toJsonStr(jsonResult));
+            // 返回参数，只保留截断后的摘要
+            operLog.setJsonResult(summarizeResult(jsonResult));
 
             operLog.setOperateUrl(ServletUtils.getRequest().getRequestURI());
             if (user != null) {
@@ -119,7 +130,6 @@ public class LogAspect {
                 operLog.setStatus(BusinessStatus.FAIL.ordinal());
                 operLog.setErrorMsg(StringUtils.substring(e.getMessage(), 0, 2000));
             }
-            operLog.setStatus(BusinessStatus.SUCCESS.ordinal());
             // 设置方法名称
             String className = joinPoint.getTarget().getClass().getName();
             String methodName = joinPoint.getSignature().getName();
@@ -131,8 +141,8 @@ public class LogAspect {
 
             operLog.setOperateTime(LocalDateTime.now());
 
-            // 保存数据库
-            SpringUtil.getBean(OperateLogServiceImpl.class).saveLog(operLog);
+            // 交给后台线程批量写入数据库
+            operateLogService.saveLogAsync(operLog);
 
         } catch (Exception exp) {
             // 记录本地异常日志
@@ -140,6 +150,64 @@ public class LogAspect {
         }
     }
 
+    /**
+     * 序列化返回结果，超过 {@link #MAX_RESULT_LENGTH} 时停止序列化并截断
+     *
+     * @param jsonResult 返回结果
+     * @return 结果摘要
+     */
+    private String summarizeResult(Object jsonResult) {
+        if (jsonResult == null) {
+            return null;
+        }
+        LimitedWriter writer = new LimitedWriter(MAX_RESULT_LENGTH);
+        try {
+            objectMapper.writeValue(writer, jsonResult);
+        } catch (Exception e) {
+            if (!writer.isTruncated()) {
+                log.warn("Failed to serialize operate result: {}", e.getMessage());
+            }
+        }
+        return writer.isTruncated() ? writer + "..." : writer.toString();
+    }
+
+    /** 写入超过上限时抛出异常以中断序列化的 Writer */
+    private static class LimitedWriter extends Writer {
+        private final StringBuilder sb = new StringBuilder();
+        private final int limit;
+        private boolean truncated;
+
+        private LimitedWriter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int remain = limit - sb.length();
+            if (len > remain) {
+                sb.append(cbuf, off, remain);
+                truncated = true;
+                throw new IOException("Result exceeds " + limit + " chars");
+            }
+            sb.append(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+
+        private boolean isTruncated() {
+            return truncated;
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+
     /**
      * 获取注解中对方法的描述信息 用于Controller层注解
      *
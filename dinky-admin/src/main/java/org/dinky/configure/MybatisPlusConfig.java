@@ -22,6 +22,7 @@ package org.dinky.configure;
 import org.dinky.context.TenantContextHolder;
 import org.dinky.interceptor.PostgreSQLPrepareInterceptor;
 import org.dinky.interceptor.PostgreSQLQueryInterceptor;
+import org.dinky.interceptor.StatisticsInnerInterceptor;
 import org.dinky.mybatis.handler.DateMetaObjectHandler;
 import org.dinky.mybatis.properties.MybatisPlusFillProperties;
 
@@ -120,6 +121,7 @@ public class MybatisPlusConfig {
             }
         }));
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor());
+        interceptor.addInnerInterceptor(new StatisticsInnerInterceptor());
         return interceptor;
     }
 
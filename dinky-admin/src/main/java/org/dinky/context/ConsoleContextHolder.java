@@ -20,6 +20,7 @@
 package org.dinky.context;
 
 import org.dinky.aop.ProcessAspect;
+import org.dinky.data.constant.CommonConstant;
 import org.dinky.data.enums.ProcessStatus;
 import org.dinky.data.enums.ProcessStepType;
 import org.dinky.data.enums.ProcessType;
@@ -32,19 +33,24 @@ import org.dinky.utils.LogUtil;
 
 import org.apache.http.util.TextUtils;
 
+import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.MDC;
 
 import com.alibaba.fastjson2.JSONObject;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.lang.Assert;
@@ -65,7 +71,25 @@ public class ConsoleContextHolder {
         return instance;
     }
 
+    /** Max chars of log kept in memory per process or step, older logs are spilled to file */
+    private static final int MAX_LOG_LENGTH = 1024 * 1024;
+
+    /** SSE updates of a process are coalesced within this interval */
+    private static final long FLUSH_INTERVAL_MS = 200;
+
     private final Map<String, ProcessEntity> logPross = new ConcurrentHashMap<>();
+    private final Map<String, ProcessConsole> consoles = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("process-console-flush-%d")
+                    .setDaemon(true)
+                    .build());
+
+    protected ConsoleContextHolder() {
+        flushExecutor.scheduleWithFixedDelay(
+                this::flushAll, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
 
     /**
      * Get a list of all processes
@@ -114,6 +138,7 @@ public class ConsoleContextHolder {
     public boolean clearProcessLog(String processName) {
         // find process and delete
         String filePath = String.format("%s/tmp/log/%s.json", System.getProperty("user.dir"), processName);
+        FileUtil.del(getSpillDir(processName));
         if (FileUtil.exist(filePath)) {
             return FileUtil.del(filePath);
         }
@@ -129,29 +154,27 @@ public class ConsoleContextHolder {
      * @throws BusException Throws an exception if the process does not exist
      */
     public void appendLog(String processName, String stepPid, String logLine, boolean recordGlobal) {
-        if (!logPross.containsKey(processName)) {
+        ProcessConsole console = consoles.get(processName);
+        if (console == null) {
             log.debug("Process {} does not exist, This log was abandoned", processName);
             return;
         }
-        ProcessEntity process = logPross.get(processName);
-        if (recordGlobal) {
-            process.appendLog(logLine);
-        }
-        if (stepPid != null) {
-            ProcessStepEntity stepNode = getStepNode(stepPid, getStepsMap(processName));
-            if (stepNode != null) {
-                stepNode.appendLog(logLine);
+        ProcessEntity process = console.process;
+        synchronized (console) {
+            if (recordGlobal) {
+                console.appendLog(process.getKey(), process.getLog(), logLine);
+            }
+            if (stepPid != null) {
+                ProcessStepEntity stepNode = getStepNode(stepPid, console);
+                if (stepNode != null) {
+                    console.appendLog(stepNode.getKey(), stepNode.getLog(), logLine);
+                } else {
+                    log.error("process step not found {},{}", processName, stepPid);
+                }
                 process.setLastUpdateStep(stepNode);
-            } else {
-                log.error("process step not found {},{}", processName, stepPid);
             }
-            process.setLastUpdateStep(stepNode);
+            console.dirty = true;
         }
-        //   /TOPIC/PROCESS_CONSOLE/FlinkSubmit/12
-        String topic = StrFormatter.format("{}/{}", SseTopic.PROCESS_CONSOLE.getValue(), processName);
-        CompletableFuture.runAsync(() -> {
-            SseSessionContextHolder.sendTopic(topic, process);
-        });
     }
 
     /**
@@ -175,7 +198,9 @@ public class ConsoleContextHolder {
                 .children(new CopyOnWriteArrayList<>())
                 .threadId(Thread.currentThread().getId())
                 .build();
+        FileUtil.del(getSpillDir(processName));
         logPross.put(processName, entity);
+        consoles.put(processName, new ProcessConsole(processName, entity));
         appendLog(processName, null, "Start Process:" + processName, true);
     }
 
@@ -199,22 +224,27 @@ public class ConsoleContextHolder {
                 .children(new CopyOnWriteArrayList<>())
                 .build();
 
-        if (!logPross.containsKey(processName)) {
+        ProcessConsole console = consoles.get(processName);
+        if (console == null) {
             log.error(StrFormatter.format("Process {} does not exist", type));
             return processStepEntity;
         }
-        ProcessEntity process = logPross.get(processName);
-        process.setStatus(ProcessStatus.RUNNING);
-        if (TextUtils.isEmpty(parentStepPid)) {
-            // parentStep为空表示为顶级节点
-            process.getChildren().add(processStepEntity);
-        } else {
-            ProcessStepEntity stepNode = getStepNode(parentStepPid, process.getChildren());
-            if (stepNode == null) {
-                log.error("registerProcessStep {} failed in {}", type.getDesc(), processName);
+        ProcessEntity process = console.process;
+        synchronized (console) {
+            process.setStatus(ProcessStatus.RUNNING);
+            if (TextUtils.isEmpty(parentStepPid)) {
+                // parentStep为空表示为顶级节点
+                process.getChildren().add(processStepEntity);
             } else {
-                stepNode.getChildren().add(processStepEntity);
+                ProcessStepEntity stepNode = getStepNode(parentStepPid, console);
+                if (stepNode == null) {
+                    log.error("registerProcessStep {} failed in {}", type.getDesc(), processName);
+                } else {
+                    stepNode.getChildren().add(processStepEntity);
+                }
             }
+            console.steps.put(processStepEntity.getKey(), processStepEntity);
+            console.dirty = true;
         }
         return processStepEntity;
     }
@@ -250,6 +280,7 @@ public class ConsoleContextHolder {
             appendLog(processName, null, LogUtil.getError(ex.getCause()), true);
             log.error("finishedProcess error", ex);
         } finally {
+            flush(consoles.remove(processName));
             logPross.remove(processName);
         }
     }
@@ -263,7 +294,7 @@ public class ConsoleContextHolder {
      * @param e           exception object, optional
      */
     public void finishedStep(String processName, ProcessStepEntity step, ProcessStatus status, Exception e) {
-        if (!logPross.containsKey(processName)) {
+        if (!consoles.containsKey(processName)) {
             return;
         }
         step.setStatus(status);
@@ -279,8 +310,8 @@ public class ConsoleContextHolder {
                 true);
     }
 
-    private ProcessStepEntity getStepNode(String stepPid, CopyOnWriteArrayList<ProcessStepEntity> stepsMap) {
-        ProcessStepEntity stepNode = findStepNode(stepPid, stepsMap);
+    private ProcessStepEntity getStepNode(String stepPid, ProcessConsole console) {
+        ProcessStepEntity stepNode = console.steps.get(stepPid);
         if (stepNode != null) {
             return stepNode;
         }
@@ -294,24 +325,121 @@ public class ConsoleContextHolder {
         return null;
     }
 
+    private void flushAll() {
+        consoles.values().forEach(console -> {
+            try {
+                flush(console);
+            } catch (Exception e) {
+                log.warn("Flush process console {} failed", console.processName, e);
+            }
+        });
+    }
+
     /**
-     * 递归查找节点
+     * Send the logs appended since the last flush of a process to SSE.
+     * The process tree is sent with every node carrying only its new log lines.
      */
-    private ProcessStepEntity findStepNode(String stepPid, CopyOnWriteArrayList<ProcessStepEntity> stepsMap) {
-        for (ProcessStepEntity processStepEntity : stepsMap) {
-            if (processStepEntity.getKey().equals(stepPid)) {
-                return processStepEntity;
-            } else {
-                ProcessStepEntity stepNode = findStepNode(stepPid, processStepEntity.getChildren());
-                if (stepNode != null) {
-                    return stepNode;
-                }
+    private void flush(ProcessConsole console) {
+        if (console == null) {
+            return;
+        }
+        ProcessEntity snapshot;
+        synchronized (console) {
+            if (!console.dirty) {
+                return;
             }
+            snapshot = console.snapshot();
+            console.dirty = false;
         }
-        return null;
+        //   /TOPIC/PROCESS_CONSOLE/FlinkSubmit/12
+        String topic = StrFormatter.format("{}/{}", SseTopic.PROCESS_CONSOLE.getValue(), console.processName);
+        SseSessionContextHolder.sendTopic(topic, snapshot);
+    }
+
+    private static File getSpillDir(String processName) {
+        return FileUtil.file(System.getProperty("user.dir"), "tmp", "log", processName);
     }
 
-    private CopyOnWriteArrayList<ProcessStepEntity> getStepsMap(String processName) {
-        return logPross.get(processName).getChildren();
+    /**
+     * Runtime state of a registered process: the step index and the logs not yet sent to SSE.
+     */
+    private static class ProcessConsole {
+        private final String processName;
+        private final ProcessEntity process;
+        private final Map<String, ProcessStepEntity> steps = new HashMap<>();
+        private final Map<String, StringBuilder> pendingLogs = new HashMap<>();
+        private boolean dirty = true;
+
+        private ProcessConsole(String processName, ProcessEntity process) {
+            this.processName = processName;
+            this.process = process;
+        }
+
+        private void appendLog(String key, StringBuilder log, String logLine) {
+            log.append(logLine).append(CommonConstant.LineSep);
+            if (log.length() > MAX_LOG_LENGTH) {
+                spill(key, log);
+            }
+            pendingLogs.computeIfAbsent(key, k -> new StringBuilder()).append(logLine).append(CommonConstant.LineSep);
+        }
+
+        /**
+         * Move the older half of the log to the spill file of the node, so memory per node stays bounded.
+         */
+        private void spill(String key, StringBuilder log) {
+            File spillFile = FileUtil.file(getSpillDir(processName), key + ".log");
+            String hint = StrFormatter.format("... earlier logs are kept in {}{}", spillFile, CommonConstant.LineSep);
+            int start = log.indexOf(hint) == 0 ? hint.length() : 0;
+            int end = log.indexOf(CommonConstant.LineSep, log.length() - MAX_LOG_LENGTH / 2);
+            end = end < 0 ? log.length() - MAX_LOG_LENGTH / 2 : end + CommonConstant.LineSep.length();
+            FileUtil.appendUtf8String(log.substring(start, end), spillFile);
+            log.replace(0, end, hint);
+        }
+
+        private ProcessEntity snapshot() {
+            Map<String, ProcessStepEntity> stepSnapshots = new HashMap<>();
+            CopyOnWriteArrayList<ProcessStepEntity> children = snapshot(process.getChildren(), stepSnapshots);
+            ProcessStepEntity lastUpdateStep = process.getLastUpdateStep();
+            ProcessEntity snapshot = ProcessEntity.builder()
+                    .key(process.getKey())
+                    .title(process.getTitle())
+                    .log(pendingLog(process.getKey()))
+                    .type(process.getType())
+                    .status(process.getStatus())
+                    .startTime(process.getStartTime())
+                    .endTime(process.getEndTime())
+                    .time(process.getTime())
+                    .lastUpdateStep(lastUpdateStep == null ? null : stepSnapshots.get(lastUpdateStep.getKey()))
+                    .children(children)
+                    .threadId(process.getThreadId())
+                    .build();
+            pendingLogs.clear();
+            return snapshot;
+        }
+
+        private CopyOnWriteArrayList<ProcessStepEntity> snapshot(
+                List<ProcessStepEntity> steps, Map<String, ProcessStepEntity> stepSnapshots) {
+            CopyOnWriteArrayList<ProcessStepEntity> snapshots = new CopyOnWriteArrayList<>();
+            for (ProcessStepEntity step : steps) {
+                ProcessStepEntity snapshot = ProcessStepEntity.builder()
+                        .key(step.getKey())
+                        .title(step.getTitle())
+                        .status(step.getStatus())
+                        .type(step.getType())
+                        .startTime(step.getStartTime())
+                        .endTime(step.getEndTime())
+                        .time(step.getTime())
+                        .log(pendingLog(step.getKey()))
+                        .children(snapshot(step.getChildren(), stepSnapshots))
+                        .build();
+                stepSnapshots.put(step.getKey(), snapshot);
+                snapshots.add(snapshot);
+            }
+            return snapshots;
+        }
+
+        private StringBuilder pendingLog(String key) {
+            return pendingLogs.getOrDefault(key, new StringBuilder());
+        }
     }
 }
@@ -0,0 +1,179 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.context;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableSet;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Materialized statistics of the home dashboard, kept per tenant.
+ *
+ * <p>Each section is loaded from the database on first read and reused until a write to one of its
+ * tables marks it dirty, see {@link #onTableChanged}. Job status counts are also adjusted in place
+ * on every status transition. Every section is reconciled with the database after {@link
+ * #RECONCILE_INTERVAL} at the latest.
+ */
+@Slf4j
+public class HomeStatisticsContextHolder {
+
+    private static final long RECONCILE_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    public static final Set<String> RESOURCE_TABLES = ImmutableSet.of(
+            "dinky_cluster",
+            "dinky_cluster_configuration",
+            "dinky_database",
+            "dinky_fragment",
+            "dinky_git_project",
+            "dinky_alert_group",
+            "dinky_alert_instance");
+    public static final String TASK_TABLE = "dinky_task";
+    public static final String JOB_INSTANCE_TABLE = "dinky_job_instance";
+
+    /** Key for writes without a tenant, e.g. from background threads, they invalidate all tenants. */
+    private static final Integer ALL_TENANTS = -1;
+
+    private static final Map<Integer, TenantStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+    private HomeStatisticsContextHolder() {}
+
+    public enum Section {
+        RESOURCE,
+        TASK,
+        JOB_STATUS
+    }
+
+    private static class CachedSection {
+        private volatile Object value;
+        private volatile long loadedAt;
+        private volatile boolean dirty;
+
+        private boolean isValid(long now) {
+            return value != null && !dirty && now - loadedAt < RECONCILE_INTERVAL;
+        }
+    }
+
+    private static class TenantStatistics {
+        private final Map<Section, CachedSection> sections = new ConcurrentHashMap<>();
+        private final Map<String, AtomicLong> jobStatusCounts = new ConcurrentHashMap<>();
+
+        private CachedSection section(Section section) {
+            return sections.computeIfAbsent(section, s -> new CachedSection());
+        }
+    }
+
+    /**
+     * Get the section of the tenant, loading it if it is missing, dirty or due for reconciliation.
+     *
+     * @param tenantId tenant id
+     * @param section statistics section
+     * @param loader loads the section from the database, runs in the caller's tenant context
+     * @return the section value
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(Integer tenantId, Section section, Supplier<T> loader) {
+        CachedSection cached = statistics(tenantId).section(section);
+        if (cached.isValid(System.currentTimeMillis())) {
+            return (T) cached.value;
+        }
+        // clear the flag first, a write during loading marks the section dirty again
+        cached.dirty = false;
+        T value = loader.get();
+        cached.value = value;
+        cached.loadedAt = System.currentTimeMillis();
+        return value;
+    }
+
+    /**
+     * Get the job status counts of the tenant, loading them like {@link #get}.
+     *
+     * @param tenantId tenant id
+     * @param loader loads the count of every job status from the database
+     * @return job status to count
+     */
+    public static Map<String, AtomicLong> getJobStatusCounts(Integer tenantId, Supplier<Map<String, Long>> loader) {
+        TenantStatistics statistics = statistics(tenantId);
+        get(tenantId, Section.JOB_STATUS, () -> {
+            Map<String, Long> counts = loader.get();
+            statistics.jobStatusCounts.clear();
+            counts.forEach((status, count) -> statistics.jobStatusCounts.put(status, new AtomicLong(count)));
+            return counts;
+        });
+        return statistics.jobStatusCounts;
+    }
+
+    /**
+     * Called after a write to a table, marks the sections built from it dirty.
+     *
+     * @param tenantId tenant of the write, null if unknown
+     * @param tableName table name
+     * @param update whether the write is an update, updates of job instances are status refreshes
+     *     and are counted by {@link #onJobStatusChanged} instead
+     */
+    public static void onTableChanged(Integer tenantId, String tableName, boolean update) {
+        Section section;
+        if (RESOURCE_TABLES.contains(tableName)) {
+            section = Section.RESOURCE;
+        } else if (TASK_TABLE.equals(tableName)) {
+            section = Section.TASK;
+        } else if (JOB_INSTANCE_TABLE.equals(tableName) && !update) {
+            section = Section.JOB_STATUS;
+        } else {
+            return;
+        }
+        if (tenantId == null || ALL_TENANTS.equals(tenantId)) {
+            STATISTICS.values().forEach(statistics -> statistics.section(section).dirty = true);
+        } else {
+            statistics(tenantId).section(section).dirty = true;
+        }
+    }
+
+    /**
+     * Move a job instance from one status to another in the job status counts.
+     *
+     * @param tenantId tenant of the job instance
+     * @param oldStatus status before the transition
+     * @param newStatus status after the transition
+     */
+    public static void onJobStatusChanged(Integer tenantId, String oldStatus, String newStatus) {
+        if (tenantId == null || newStatus == null || newStatus.equals(oldStatus)) {
+            return;
+        }
+        TenantStatistics statistics = STATISTICS.get(tenantId);
+        if (statistics == null || statistics.section(Section.JOB_STATUS).value == null) {
+            return;
+        }
+        if (oldStatus != null) {
+            statistics.jobStatusCounts.computeIfAbsent(oldStatus, s -> new AtomicLong()).decrementAndGet();
+        }
+        statistics.jobStatusCounts.computeIfAbsent(newStatus, s -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static TenantStatistics statistics(Integer tenantId) {
+        return STATISTICS.computeIfAbsent(tenantId == null ? ALL_TENANTS : tenantId, t -> new TenantStatistics());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.context;
+
+import org.dinky.data.flink.job.JobDoneHook;
+import org.dinky.data.flink.job.JobStateEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * State pushed by the Dinky metric reporter, kept per Flink job id.
+ *
+ * <p>The monitoring loop polls the JobManager only for jobs whose push stream is silent for longer than
+ * {@link #SILENCE_TIMEOUT}, or right after a pushed status change, checkpoint or removal. Jobs that never
+ * push are polled as before.
+ */
+@Slf4j
+public class JobPushContextHolder {
+
+    /** Three report intervals of the reporter with the default configuration. */
+    private static final long SILENCE_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    /** Streams of jobs that are not monitored, e.g. submitted outside of dinky, are dropped after this. */
+    private static final long EVICT_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Map<String, PushStream> STREAMS = new ConcurrentHashMap<>();
+    private static final AtomicLong LAST_EVICT_TIME = new AtomicLong(System.currentTimeMillis());
+
+    private JobPushContextHolder() {}
+
+    private static class PushStream {
+        private volatile long lastPushTime;
+        private volatile boolean changed;
+        /** Every task manager pushes only its own subtasks, so the pushes are merged by vertex and metric id. */
+        private final Map<String, Map<String, String>> metrics = new ConcurrentHashMap<>();
+        private volatile JobDoneHook doneHook;
+    }
+
+    /**
+     * Accept a batch pushed by a reporter.
+     *
+     * @param events pushed events
+     */
+    public static void accept(List<JobStateEvent> events) {
+        long now = System.currentTimeMillis();
+        for (JobStateEvent event : events) {
+            if (event.getJobId() == null || event.getType() == null) {
+                continue;
+            }
+            PushStream stream = STREAMS.computeIfAbsent(event.getJobId(), id -> new PushStream());
+            stream.lastPushTime = now;
+            if (event.getType() == JobStateEvent.Type.METRICS) {
+                if (event.getMetrics() != null) {
+                    event.getMetrics().forEach((vertexId, values) -> stream.metrics
+                            .computeIfAbsent(vertexId, id -> new ConcurrentHashMap<>())
+                            .putAll(values));
+                }
+            } else {
+                log.debug("Job {} pushed {} {}", event.getJobId(), event.getType(), event.getStatus());
+                stream.changed = true;
+            }
+        }
+        evictIdle(now);
+    }
+
+    /**
+     * Accept the hook a dinky-app sent when its job reached a terminal state. The final state is kept until the job
+     * is removed, as the application cluster may already be gone when the job is refreshed.
+     *
+     * @param hook job done hook
+     */
+    public static void acceptDone(JobDoneHook hook) {
+        if (hook.getJobId() == null || hook.getStatus() == null) {
+            return;
+        }
+        PushStream stream = STREAMS.computeIfAbsent(hook.getJobId(), id -> new PushStream());
+        stream.lastPushTime = System.currentTimeMillis();
+        stream.doneHook = hook;
+        stream.changed = true;
+    }
+
+    /**
+     * Get the final state a job reported through its done hook.
+     *
+     * @param jobId flink job id
+     * @return the hook, or null if the job did not send one
+     */
+    public static JobDoneHook getDoneHook(String jobId) {
+        PushStream stream = jobId == null ? null : STREAMS.get(jobId);
+        return stream == null ? null : stream.doneHook;
+    }
+
+    /**
+     * Whether the job must be polled now: it does not push, its stream went silent, or it pushed a change.
+     * A pushed change is consumed by this call.
+     *
+     * @param jobId flink job id
+     * @return true if the caller should poll the JobManager
+     */
+    public static boolean needPoll(String jobId) {
+        PushStream stream = jobId == null ? null : STREAMS.get(jobId);
+        if (stream == null || System.currentTimeMillis() - stream.lastPushTime > SILENCE_TIMEOUT) {
+            return true;
+        }
+        if (stream.changed) {
+            stream.changed = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the latest metrics pushed for a live stream.
+     *
+     * @param jobId flink job id
+     * @return metric values by vertex id, or null if the job does not push
+     */
+    public static Map<String, Map<String, String>> getMetrics(String jobId) {
+        PushStream stream = jobId == null ? null : STREAMS.get(jobId);
+        if (stream == null || System.currentTimeMillis() - stream.lastPushTime > SILENCE_TIMEOUT) {
+            return null;
+        }
+        return stream.metrics;
+    }
+
+    public static void remove(String jobId) {
+        if (jobId != null) {
+            STREAMS.remove(jobId);
+        }
+    }
+
+    private static void evictIdle(long now) {
+        long last = LAST_EVICT_TIME.get();
+        if (now - last < SILENCE_TIMEOUT || !LAST_EVICT_TIME.compareAndSet(last, now)) {
+            return;
+        }
+        STREAMS.values().removeIf(stream -> now - stream.lastPushTime > EVICT_TIMEOUT);
+    }
+}
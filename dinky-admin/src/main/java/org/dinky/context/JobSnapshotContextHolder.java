@@ -0,0 +1,199 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.context;
+
+import org.dinky.data.dto.ClusterConfigurationDTO;
+import org.dinky.data.dto.JobDataDto;
+import org.dinky.data.dto.TaskDTO;
+import org.dinky.data.model.ClusterInstance;
+import org.dinky.data.model.ext.JobInfoDetail;
+import org.dinky.data.model.job.History;
+import org.dinky.data.model.job.JobInstance;
+import org.dinky.utils.JsonUtils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Snapshots of the monitored jobs, one per job instance.
+ *
+ * <p>Only the monitoring loop writes here: {@link org.dinky.job.FlinkJobTask} publishes a copy of its
+ * {@link JobInfoDetail} after every refresh and removes it once the job is done. UI reads and alert
+ * evaluation use the last published snapshot, so any number of viewers of a running job cost no
+ * database or Flink REST call. A published snapshot is never modified, readers must not modify it either.
+ * Snapshots of jobs that stop being refreshed, such as lost jobs, expire after {@link #SNAPSHOT_TTL}.
+ */
+public class JobSnapshotContextHolder {
+
+    /** The task of a job is rarely edited while it runs, alerts may use a task up to this old. */
+    private static final long TASK_INFO_TTL = TimeUnit.MINUTES.toMillis(1);
+
+    /** A job that has not been refreshed for this long is no longer monitored, its snapshot is dropped. */
+    private static final long SNAPSHOT_TTL = TimeUnit.MINUTES.toMillis(5);
+
+    private static final AtomicLong LAST_EVICTION = new AtomicLong();
+
+    private static final Map<Integer, JobSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+    private static final Map<Integer, CachedTask> TASKS = new ConcurrentHashMap<>();
+
+    private JobSnapshotContextHolder() {}
+
+    @Getter
+    @AllArgsConstructor
+    public static class JobSnapshot {
+        /** Incremented on every publish of the same job instance. */
+        private final long version;
+
+        private final long publishTime;
+        private final JobInfoDetail detail;
+    }
+
+    @AllArgsConstructor
+    private static class CachedTask {
+        private final TaskDTO task;
+        private final long loadTime;
+    }
+
+    /**
+     * Publish the current state of a job, the detail is copied so the caller can keep updating it.
+     *
+     * @param jobInfoDetail the detail owned by the monitoring loop
+     * @return the published snapshot
+     */
+    public static JobSnapshot publish(JobInfoDetail jobInfoDetail) {
+        evictExpired();
+        JobInfoDetail copy = copyOf(jobInfoDetail);
+        return SNAPSHOTS.compute(
+                jobInfoDetail.getId(),
+                (id, previous) ->
+                        new JobSnapshot(previous == null ? 1 : previous.version + 1, System.currentTimeMillis(), copy));
+    }
+
+    /**
+     * Get the last published snapshot of a job instance visible to the current tenant.
+     *
+     * @param jobInstanceId job instance id
+     * @return the snapshot, or null if the job is not monitored
+     */
+    public static JobSnapshot getSnapshot(Integer jobInstanceId) {
+        JobSnapshot snapshot = jobInstanceId == null ? null : SNAPSHOTS.get(jobInstanceId);
+        if (snapshot != null && isExpired(snapshot, System.currentTimeMillis())) {
+            remove(jobInstanceId);
+            return null;
+        }
+        if (snapshot == null || !isVisible(snapshot.detail.getInstance())) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get the detail of the last published snapshot of a job instance.
+     *
+     * @param jobInstanceId job instance id
+     * @return the detail, or null if the job is not monitored
+     */
+    public static JobInfoDetail get(Integer jobInstanceId) {
+        JobSnapshot snapshot = getSnapshot(jobInstanceId);
+        return snapshot == null ? null : snapshot.detail;
+    }
+
+    /**
+     * Get the task of a monitored job, loading it at most once per {@link #TASK_INFO_TTL}.
+     *
+     * @param jobInstanceId job instance id
+     * @param taskId task id
+     * @param loader loads the task when it is not cached or expired
+     * @return the task
+     */
+    public static TaskDTO getTask(Integer jobInstanceId, Integer taskId, Function<Integer, TaskDTO> loader) {
+        long now = System.currentTimeMillis();
+        CachedTask cached = TASKS.get(jobInstanceId);
+        if (cached != null && now - cached.loadTime < TASK_INFO_TTL) {
+            return cached.task;
+        }
+        // Concurrent alerts of the same job share a single load
+        return TASKS.compute(jobInstanceId, (id, current) -> {
+                    if (current != null && now - current.loadTime < TASK_INFO_TTL) {
+                        return current;
+                    }
+                    return new CachedTask(loader.apply(taskId), System.currentTimeMillis());
+                })
+                .task;
+    }
+
+    /**
+     * Remove the snapshot of a job instance, readers fall back to the database afterwards.
+     *
+     * @param jobInstanceId job instance id
+     */
+    public static void remove(Integer jobInstanceId) {
+        SNAPSHOTS.remove(jobInstanceId);
+        TASKS.remove(jobInstanceId);
+    }
+
+    private static boolean isExpired(JobSnapshot snapshot, long now) {
+        return now - snapshot.publishTime > SNAPSHOT_TTL;
+    }
+
+    /** Drop the snapshots of jobs that are lost or no longer refreshed, at most once per minute. */
+    private static void evictExpired() {
+        long now = System.currentTimeMillis();
+        long last = LAST_EVICTION.get();
+        if (now - last < TimeUnit.MINUTES.toMillis(1) || !LAST_EVICTION.compareAndSet(last, now)) {
+            return;
+        }
+        SNAPSHOTS.forEach((id, snapshot) -> {
+            if (isExpired(snapshot, now)) {
+                remove(id);
+            }
+        });
+    }
+
+    private static boolean isVisible(JobInstance instance) {
+        Object tenantId = TenantContextHolder.get();
+        return TenantContextHolder.isIgnoreTenant()
+                || tenantId == null
+                || instance == null
+                || Objects.equals(String.valueOf(tenantId), String.valueOf(instance.getTenantId()));
+    }
+
+    /** Deep copy of the detail, nothing is shared with the one the refresh keeps updating. */
+    private static JobInfoDetail copyOf(JobInfoDetail source) {
+        JobInfoDetail copy = new JobInfoDetail(source.getId());
+        copy.setInstance(deepCopy(source.getInstance(), JobInstance.class));
+        copy.setClusterInstance(deepCopy(source.getClusterInstance(), ClusterInstance.class));
+        copy.setClusterConfiguration(deepCopy(source.getClusterConfiguration(), ClusterConfigurationDTO.class));
+        copy.setHistory(deepCopy(source.getHistory(), History.class));
+        copy.setJobDataDto(deepCopy(source.getJobDataDto(), JobDataDto.class));
+        return copy;
+    }
+
+    private static <T> T deepCopy(T source, Class<T> type) {
+        return source == null ? null : JsonUtils.convertValue(source, type);
+    }
+}
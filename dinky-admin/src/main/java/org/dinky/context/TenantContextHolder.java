@@ -31,6 +31,10 @@ public class TenantContextHolder {
         IGNORE_TENANT.set(true);
     }
 
+    public static void clearIgnoreTenant() {
+        IGNORE_TENANT.remove();
+    }
+
     public static boolean isIgnoreTenant() {
         return Optional.ofNullable(IGNORE_TENANT.get()).orElse(false);
     }
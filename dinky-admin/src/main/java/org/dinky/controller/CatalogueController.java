@@ -37,6 +37,10 @@ import org.dinky.service.catalogue.CatalogueService;
 import java.io.File;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -132,12 +136,27 @@ public class CatalogueController {
     /**
      * query catalogue tree data
      *
+     * The response carries an ETag, a request whose If-None-Match still matches is answered with 304 and no body.
+     *
      * @param catalogueTreeQueryDto {@link CatalogueTreeQueryDTO}
      * @return {@link Result}< {@link List}< {@link Catalogue}>>}
      */
     @PostMapping("/getCatalogueTreeData")
     @ApiOperation("Get Catalogue Tree Data")
-    public Result<List<Catalogue>> getCatalogueTree(@RequestBody CatalogueTreeQueryDTO catalogueTreeQueryDto) {
+    public Result<List<Catalogue>> getCatalogueTree(
+            @RequestBody CatalogueTreeQueryDTO catalogueTreeQueryDto,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        String etag = catalogueService.getCatalogueTreeETag(catalogueTreeQueryDto);
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return null;
+            }
+        }
         List<Catalogue> catalogues = catalogueService.getCatalogueTree(catalogueTreeQueryDto);
         return Result.succeed(catalogues);
     }
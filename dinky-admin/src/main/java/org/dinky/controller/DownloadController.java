@@ -21,30 +21,31 @@ package org.dinky.controller;
 
 import org.dinky.assertion.Asserts;
 import org.dinky.data.exception.BusException;
-import org.dinky.data.model.FlinkUdfManifest;
 import org.dinky.function.constant.PathConstant;
-import org.dinky.function.util.ZipWriter;
 import org.dinky.resource.BaseResourceManager;
+import org.dinky.utils.DependencyBundleUtil;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.convert.Convert;
 import cn.hutool.core.io.FileUtil;
-import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.extra.servlet.ServletUtil;
-import cn.hutool.json.JSONUtil;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
@@ -58,44 +59,50 @@ import lombok.extern.slf4j.Slf4j;
 @RequestMapping("/download")
 public class DownloadController {
 
+    private static final String TOMCAT_SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String TOMCAT_SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String TOMCAT_SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String TOMCAT_SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @GetMapping("downloadDepJar/{taskId}")
     @ApiOperation("Download UDF Jar")
-    public void downloadJavaUDF(@PathVariable Integer taskId, HttpServletResponse resp) {
+    public void downloadJavaUDF(@PathVariable Integer taskId, HttpServletRequest req, HttpServletResponse resp)
+            throws IOException {
         if (Asserts.isNull(taskId)) {
             throw new BusException("task id can not null!");
         }
-        String udfPackagePath = PathConstant.getUdfPackagePath(taskId);
-        File depManifestFile = FileUtil.file(udfPackagePath + PathConstant.DEP_MANIFEST);
-        if (!depManifestFile.exists()) {
+        DependencyBundleUtil.Bundle bundle = DependencyBundleUtil.getBundle(taskId);
+        if (bundle == null) {
             return;
         }
-        FlinkUdfManifest flinkUdfManifest =
-                JSONUtil.toBean(FileUtil.readUtf8String(depManifestFile), FlinkUdfManifest.class);
-        List<String> filePath =
-                flinkUdfManifest.getJars().stream().map(Convert::toStr).collect(Collectors.toList());
-        List<String> pyFilePath =
-                flinkUdfManifest.getPythonFiles().stream().map(Convert::toStr).collect(Collectors.toList());
-        String[] jarNameList =
-                filePath.stream().map(FileUtil::getName).map(x -> "jar/" + x).toArray(String[]::new);
-        String[] pyFileNameList =
-                pyFilePath.stream().map(FileUtil::getName).map(x -> "py/" + x).toArray(String[]::new);
-
-        File zipFile = FileUtil.file(udfPackagePath + PathConstant.DEP_ZIP);
-        InputStream[] inputStreams =
-                filePath.stream().map(FileUtil::getInputStream).toArray(InputStream[]::new);
-        InputStream[] pyInputStreams =
-                pyFilePath.stream().map(FileUtil::getInputStream).toArray(InputStream[]::new);
-        try (ZipWriter zip = new ZipWriter(zipFile, Charset.defaultCharset())) {
-            if (ArrayUtil.isNotEmpty(jarNameList)) {
-                zip.add(jarNameList, inputStreams);
-            }
-            if (ArrayUtil.isNotEmpty(pyFileNameList)) {
-                zip.add(pyFileNameList, pyInputStreams);
+        // Bundles are immutable, the hash of the content is a strong validator
+        String etag = "\"" + bundle.getHash() + "\"";
+        resp.setHeader(HttpHeaders.ETAG, etag);
+        resp.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        String ifNoneMatch = req.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || "*".equals(ifNoneMatch.trim()))) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        File file = bundle.getFile();
+        resp.setContentType("application/zip");
+        resp.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + PathConstant.DEP_ZIP);
+        resp.setContentLengthLong(file.length());
+        if (Boolean.TRUE.equals(req.getAttribute(TOMCAT_SENDFILE_SUPPORT))) {
+            // Let tomcat send the file with sendfile once the request returns, no copy through the heap
+            req.setAttribute(TOMCAT_SENDFILE_FILENAME, file.getCanonicalPath());
+            req.setAttribute(TOMCAT_SENDFILE_START, 0L);
+            req.setAttribute(TOMCAT_SENDFILE_END, file.length());
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(resp.getOutputStream());
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
             }
-            zip.add(depManifestFile.getName(), FileUtil.getInputStream(depManifestFile));
         }
-        ServletUtil.write(resp, FileUtil.getInputStream(zipFile));
-        FileUtil.del(zipFile);
     }
 
     /**
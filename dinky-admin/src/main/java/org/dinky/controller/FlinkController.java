@@ -30,6 +30,7 @@ import java.util.Map;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import cn.dev33.satoken.annotation.SaCheckLogin;
@@ -55,6 +56,18 @@ public class FlinkController {
         return Result.data(INSTANCE.readCheckpoint(path, operatorId));
     }
 
+    @GetMapping("/readCheckPointPage")
+    @ApiOperation("Read One Page Of A Checkpoint State")
+    public Result<CheckPointReadTable> readCheckPointPage(
+            String path,
+            String operatorId,
+            String stateType,
+            String stateName,
+            @RequestParam(defaultValue = "1") int pageNum,
+            @RequestParam(defaultValue = "20") int pageSize) {
+        return Result.data(INSTANCE.readCheckpointPage(path, operatorId, stateType, stateName, pageNum, pageSize));
+    }
+
     @GetMapping("/configOptions")
     @ApiOperation("Query Flink Configuration Options")
     public Result<List<CascaderVO>> loadDataByGroup() {
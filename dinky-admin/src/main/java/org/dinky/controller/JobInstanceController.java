@@ -24,7 +24,10 @@ import org.dinky.assertion.Asserts;
 import org.dinky.data.annotations.Log;
 import org.dinky.data.enums.BusinessType;
 import org.dinky.data.enums.Status;
+import org.dinky.data.flink.job.JobDoneHook;
+import org.dinky.data.flink.job.JobStateEvent;
 import org.dinky.data.model.ID;
+import org.dinky.data.model.SystemConfiguration;
 import org.dinky.data.model.devops.TaskManagerConfiguration;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.home.JobInstanceStatus;
@@ -35,19 +38,30 @@ import org.dinky.data.vo.task.JobInstanceVo;
 import org.dinky.explainer.lineage.LineageResult;
 import org.dinky.service.JobInstanceService;
 import org.dinky.utils.BuildConfiguration;
+import org.dinky.utils.FlinkLogProxy;
+import org.dinky.utils.JsonUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.io.ByteStreams;
 
 import cn.dev33.satoken.annotation.SaCheckLogin;
 import cn.dev33.satoken.annotation.SaIgnore;
@@ -71,6 +85,12 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @SaCheckLogin
 public class JobInstanceController {
+    /** Decompressed size limit of one push, far above what a reporter sends per interval. */
+    private static final int MAX_INGEST_SIZE = 16 * 1024 * 1024;
+
+    /** The log endpoints returning a json result only return this tail, /streamLog serves the whole log. */
+    private static final long MAX_LOG_TAIL_SIZE = 1024 * 1024;
+
     private final JobInstanceService jobInstanceService;
 
     @PutMapping
@@ -194,7 +214,8 @@ public class JobInstanceController {
             paramType = "query",
             required = true)
     public Result<String> getJobManagerLog(@RequestParam String address) {
-        return Result.succeed(FlinkAPI.build(address).getJobManagerLog(), "");
+        return Result.succeed(
+                FlinkLogProxy.tail(FlinkAPI.build(address).openJobManagerLog(null), MAX_LOG_TAIL_SIZE), "");
     }
 
     @GetMapping("/getJobManagerStdOut")
@@ -206,7 +227,8 @@ public class JobInstanceController {
             paramType = "query",
             required = true)
     public Result<String> getJobManagerStdOut(@RequestParam String address) {
-        return Result.succeed(FlinkAPI.build(address).getJobManagerStdOut(), "");
+        return Result.succeed(
+                FlinkLogProxy.tail(FlinkAPI.build(address).openJobManagerStdOut(), MAX_LOG_TAIL_SIZE), "");
     }
 
     @GetMapping("/getJobManagerThreadDump")
@@ -221,6 +243,94 @@ public class JobInstanceController {
         return Result.succeed(FlinkAPI.build(address).getJobManagerThreadDump(), "");
     }
 
+    @GetMapping("/streamLog")
+    @ApiOperation("Stream a JobManager or TaskManager log, supports http Range, tail and grep")
+    @ApiImplicitParams({
+        @ApiImplicitParam(
+                name = "address",
+                value = "JobManager address",
+                dataType = "String",
+                paramType = "query",
+                required = true),
+        @ApiImplicitParam(
+                name = "containerId",
+                value = "TaskManager container id, the JobManager log if empty",
+                dataType = "String",
+                paramType = "query"),
+        @ApiImplicitParam(
+                name = "logName",
+                value = "Log file name, the main log if empty",
+                dataType = "String",
+                paramType = "query"),
+        @ApiImplicitParam(name = "tailKb", value = "Only the last N KB", dataType = "Long", paramType = "query"),
+        @ApiImplicitParam(
+                name = "grep",
+                value = "Only the lines containing this text",
+                dataType = "String",
+                paramType = "query")
+    })
+    public void streamLog(
+            @RequestParam String address,
+            @RequestParam(required = false) String containerId,
+            @RequestParam(required = false) String logName,
+            @RequestParam(required = false) Long tailKb,
+            @RequestParam(required = false) String grep,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        FlinkAPI flinkAPI = FlinkAPI.build(address);
+        FlinkLogProxy.forward(
+                Asserts.isNullString(containerId)
+                        ? flinkAPI.openJobManagerLog(logName)
+                        : flinkAPI.openTaskManagerLog(containerId, logName),
+                request,
+                response,
+                tailKb,
+                grep);
+    }
+
+    @GetMapping("/streamStdOut")
+    @ApiOperation("Stream the JobManager stdout, supports http Range")
+    @ApiImplicitParam(
+            name = "address",
+            value = "JobManager address",
+            dataType = "String",
+            paramType = "query",
+            required = true)
+    public void streamStdOut(@RequestParam String address, HttpServletRequest request, HttpServletResponse response) {
+        FlinkLogProxy.forward(FlinkAPI.build(address).openJobManagerStdOut(), request, response, null, null);
+    }
+
+    @GetMapping("/streamThreadDump")
+    @ApiOperation("Stream a JobManager or TaskManager thread dump")
+    @ApiImplicitParams({
+        @ApiImplicitParam(
+                name = "address",
+                value = "JobManager address",
+                dataType = "String",
+                paramType = "query",
+                required = true),
+        @ApiImplicitParam(
+                name = "containerId",
+                value = "TaskManager container id, the JobManager thread dump if empty",
+                dataType = "String",
+                paramType = "query")
+    })
+    public void streamThreadDump(
+            @RequestParam String address,
+            @RequestParam(required = false) String containerId,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        FlinkAPI flinkAPI = FlinkAPI.build(address);
+        FlinkLogProxy.forward(
+                Asserts.isNullString(containerId)
+                        ? flinkAPI.openJobManagerThreadDump()
+                        : flinkAPI.openTaskManagerThreadDump(containerId),
+                request,
+                response,
+                null,
+                null);
+    }
+
     @GetMapping("/getTaskManagerList")
     @ApiOperation("Get task manager List")
     @ApiImplicitParam(
@@ -260,7 +370,9 @@ public class JobInstanceController {
                 required = true)
     })
     public Result<String> getTaskManagerLog(@RequestParam String address, @RequestParam String containerId) {
-        return Result.succeed(FlinkAPI.build(address).getTaskManagerLog(containerId), "");
+        return Result.succeed(
+                FlinkLogProxy.tail(FlinkAPI.build(address).openTaskManagerLog(containerId, null), MAX_LOG_TAIL_SIZE),
+                "");
     }
 
     @GetMapping("/getJobMetricsItems")
@@ -327,4 +439,59 @@ public class JobInstanceController {
             return Result.failed();
         }
     }
+
+    /**
+     * 接收 dinky-app 上报的作业最终状态 | Accept the final job state reported by dinky-app, signed with the hook secret
+     */
+    @PostMapping("/hookJobDone")
+    @ApiOperation("hookJobDone with the final job state")
+    @SaIgnore
+    public Result<Dict> hookJobDone(
+            @RequestBody String body,
+            @RequestHeader(value = JobDoneHook.SIGNATURE_HEADER, required = false) String signature) {
+        String secret = SystemConfiguration.getInstances().getHookSecret().getValue();
+        if (!JobDoneHook.verify(secret, body, signature)) {
+            log.warn("Reject job done hook with a missing or wrong signature");
+            return Result.failed("Invalid hook signature");
+        }
+        boolean done = jobInstanceService.hookJobDone(JsonUtils.parseObject(body, JobDoneHook.class));
+        if (done) {
+            return Result.succeed();
+        } else {
+            return Result.failed();
+        }
+    }
+
+    /**
+     * 接收 Dinky metric reporter 推送的作业状态 | Ingest the job state pushed by the Dinky metric reporter, the json
+     * batch is signed with the hook secret like the job done hook
+     */
+    @PostMapping("/ingest")
+    @ApiOperation("Ingest pushed job state")
+    @SaIgnore
+    public Result<Void> ingestJobEvents(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String signature = request.getHeader(JobDoneHook.SIGNATURE_HEADER);
+        if (signature == null) {
+            log.warn("Reject pushed job state without a signature");
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return Result.failed("Invalid hook signature");
+        }
+        InputStream body = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        byte[] content = ByteStreams.toByteArray(ByteStreams.limit(body, MAX_INGEST_SIZE + 1));
+        if (content.length > MAX_INGEST_SIZE) {
+            return Result.failed("Pushed job state exceeds " + MAX_INGEST_SIZE + " bytes");
+        }
+        String json = new String(content, StandardCharsets.UTF_8);
+        String secret = SystemConfiguration.getInstances().getHookSecret().getValue();
+        if (!JobDoneHook.verify(secret, json, signature)) {
+            log.warn("Reject pushed job state with a wrong signature");
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return Result.failed("Invalid hook signature");
+        }
+        jobInstanceService.ingestJobEvents(JsonUtils.toList(json, JobStateEvent.class));
+        return Result.succeed();
+    }
 }
@@ -101,6 +101,16 @@ public class SchedulerController {
         return Result.succeed(Status.DS_ADD_TASK_DEFINITION_SUCCESS);
     }
 
+    /**
+     * batch create or update
+     */
+    @PostMapping("/createOrUpdateTaskDefinitions")
+    @ApiOperation("Batch Create or Update Task Definitions")
+    public Result<String> createOrUpdateTaskDefinitions(@RequestBody List<DinkyTaskRequest> dinkyTaskRequests) {
+        schedulerService.pushAddTasks(dinkyTaskRequests);
+        return Result.succeed(Status.DS_ADD_TASK_DEFINITION_SUCCESS);
+    }
+
     /**
      * 获取任务组
      * @param projectCode
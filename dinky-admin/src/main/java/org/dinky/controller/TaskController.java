@@ -24,6 +24,7 @@ import org.dinky.data.annotations.ExecuteProcess;
 import org.dinky.data.annotations.Log;
 import org.dinky.data.annotations.ProcessId;
 import org.dinky.data.annotations.TaskId;
+import org.dinky.data.dto.TaskBatchSubmitDto;
 import org.dinky.data.dto.TaskDTO;
 import org.dinky.data.dto.TaskRollbackVersionDTO;
 import org.dinky.data.dto.TaskSaveDTO;
@@ -38,6 +39,7 @@ import org.dinky.data.model.Task;
 import org.dinky.data.result.ProTableResult;
 import org.dinky.data.result.Result;
 import org.dinky.data.result.SqlExplainResult;
+import org.dinky.data.vo.task.TaskBatchSubmitVo;
 import org.dinky.gateway.enums.SavePointType;
 import org.dinky.gateway.result.SavePointResult;
 import org.dinky.job.JobResult;
@@ -93,6 +95,20 @@ public class TaskController {
         }
     }
 
+    @PostMapping("/submitTasks")
+    @ApiOperation("Submit Tasks")
+    @Log(title = "Submit Tasks", businessType = BusinessType.SUBMIT)
+    @ApiImplicitParam(
+            name = "submitDto",
+            value = "Batch of tasks to submit",
+            required = true,
+            dataType = "TaskBatchSubmitDto",
+            paramType = "body")
+    @ExecuteProcess(type = ProcessType.FLINK_BATCH_SUBMIT)
+    public Result<List<TaskBatchSubmitVo>> submitTasks(@RequestBody TaskBatchSubmitDto submitDto) {
+        return Result.succeed(taskService.submitTasks(submitDto), Status.EXECUTE_SUCCESS);
+    }
+
     @PostMapping("/debugTask")
     @ApiOperation("Debug Task")
     @Log(title = "Debug Task", businessType = BusinessType.DEBUG)
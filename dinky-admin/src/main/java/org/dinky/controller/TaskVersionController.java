@@ -22,6 +22,7 @@ package org.dinky.controller;
 import org.dinky.data.annotations.Log;
 import org.dinky.data.dto.TaskVersionHistoryDTO;
 import org.dinky.data.enums.BusinessType;
+import org.dinky.data.enums.Status;
 import org.dinky.data.model.TaskVersion;
 import org.dinky.data.result.ProTableResult;
 import org.dinky.data.result.Result;
@@ -32,6 +33,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -40,6 +42,7 @@ import cn.dev33.satoken.annotation.SaCheckLogin;
 import cn.hutool.core.bean.BeanUtil;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -60,7 +63,7 @@ public class TaskVersionController {
     private final TaskVersionService versionService;
 
     /**
-     * query task version list
+     * query task version list, without statements
      *
      * @return {@link ProTableResult}<{@link TaskVersionHistoryDTO}>
      */
@@ -75,12 +78,69 @@ public class TaskVersionController {
         return Result.succeed(collect);
     }
 
+    /**
+     * get a task version with its statement
+     *
+     * @return {@link Result}<{@link TaskVersionHistoryDTO}>
+     */
+    @GetMapping("/detail")
+    @ApiOperation("Get Task Version with its statement")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "taskId", value = "Task Id", dataType = "int", paramType = "query", required = true),
+        @ApiImplicitParam(
+                name = "versionId",
+                value = "Version Id",
+                dataType = "int",
+                paramType = "query",
+                required = true)
+    })
+    public Result<TaskVersionHistoryDTO> getTaskVersion(@RequestParam int taskId, @RequestParam int versionId) {
+        TaskVersion taskVersion = versionService.getTaskVersion(taskId, versionId);
+        if (taskVersion == null) {
+            return Result.failed(Status.TASK_VERSION_NOT_EXIST);
+        }
+        return Result.succeed(BeanUtil.copyProperties(taskVersion, TaskVersionHistoryDTO.class));
+    }
+
+    /**
+     * diff the statements of two task versions
+     *
+     * @return {@link Result}<{@link String}> unified diff
+     */
+    @GetMapping("/diff")
+    @ApiOperation("Diff the statements of two Task Versions")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "taskId", value = "Task Id", dataType = "int", paramType = "query", required = true),
+        @ApiImplicitParam(
+                name = "from",
+                value = "Old Version Id",
+                dataType = "int",
+                paramType = "query",
+                required = true),
+        @ApiImplicitParam(name = "to", value = "New Version Id", dataType = "int", paramType = "query", required = true)
+    })
+    public Result<String> diffTaskVersion(@RequestParam int taskId, @RequestParam int from, @RequestParam int to) {
+        return Result.succeed(versionService.diffTaskVersion(taskId, from, to));
+    }
+
     @DeleteMapping
     @ApiOperation("Delete Task Version")
     @ApiImplicitParam(name = "id", value = "Task Version Id", dataType = "int", paramType = "query", required = true)
     @Log(title = "Delete Task Version", businessType = BusinessType.DELETE)
     public Result<Boolean> deleteVersion(@RequestParam int id) {
-        boolean b = versionService.removeById(id);
+        boolean b = versionService.deleteTaskVersion(id);
         return Result.succeed(b);
     }
+
+    /**
+     * store every task version in full, run it before rolling back the delta storage of task versions
+     *
+     * @return {@link Result}<{@link Integer}> the number of versions stored in full
+     */
+    @PutMapping("/restoreFullStatements")
+    @ApiOperation("Store every Task Version in full")
+    @Log(title = "Store every Task Version in full", businessType = BusinessType.UPDATE)
+    public Result<Integer> restoreFullStatements() {
+        return Result.succeed(versionService.restoreFullStatements());
+    }
 }
@@ -41,4 +41,11 @@ public class CatalogueTreeQueryDTO {
 
     @ApiModelProperty(value = "Sort Type", dataType = "String", example = "asc")
     private String sortType;
+
+    @ApiModelProperty(
+            value = "Root ID",
+            dataType = "Integer",
+            example = "1",
+            notes = "Only return the subtree of this catalogue, all catalogues when empty")
+    private Integer rootId;
 }
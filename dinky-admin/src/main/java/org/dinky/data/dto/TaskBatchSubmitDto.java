@@ -0,0 +1,55 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.dto;
+
+import org.dinky.data.annotations.ProcessId;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+@Data
+@ApiModel(value = "TaskBatchSubmitDto", description = "Submit a batch of published tasks")
+public class TaskBatchSubmitDto {
+
+    @ProcessId
+    @ApiModelProperty(
+            value = "Batch Name",
+            dataType = "String",
+            example = "restart-tenant-1",
+            notes = "Name of the batch, the progress is shown in the process console under this name")
+    private String name;
+
+    @ApiModelProperty(
+            value = "Task IDs",
+            dataType = "List<Integer>",
+            example = "[1, 2, 3]",
+            notes = "The tasks to submit")
+    private List<Integer> taskIds;
+
+    @ApiModelProperty(
+            value = "Parallelism",
+            dataType = "Integer",
+            example = "4",
+            notes = "Max number of tasks submitted at the same time to one cluster")
+    private Integer parallelism;
+}
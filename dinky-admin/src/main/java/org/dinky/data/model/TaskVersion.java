@@ -68,6 +68,20 @@ public class TaskVersion implements Serializable {
     @TableField(value = "`statement`")
     private String statement;
 
+    @ApiModelProperty(
+            value = "Base Version ID",
+            dataType = "Integer",
+            notes = "Version the statement delta applies to, null if the statement is stored in full")
+    @TableField(value = "base_version_id")
+    private Integer baseVersionId;
+
+    @ApiModelProperty(
+            value = "Statement Delta",
+            dataType = "String",
+            notes = "Compressed line delta of the statement against the base version")
+    @TableField(value = "statement_delta")
+    private String statementDelta;
+
     @ApiModelProperty(value = "Name", dataType = "String", notes = "Name of the version")
     @TableField(value = "`name`")
     private String name;
@@ -0,0 +1,82 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.model.ext;
+
+import org.dinky.context.FreeMarkerHolder;
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.options.JobAlertRuleOptions;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import freemarker.template.ObjectWrapper;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * Read only template view over {@link JobAlertData}, keys are the same json names the alert rules and templates
+ * use, values are read from the data on access instead of being copied into a map for every render.
+ */
+public class JobAlertTemplateModel implements TemplateHashModel {
+
+    private static final Map<String, Field> FIELDS = Collections.unmodifiableMap(
+            Arrays.stream(JobAlertData.class.getDeclaredFields())
+                    .filter(field -> field.isAnnotationPresent(JsonProperty.class))
+                    .peek(field -> field.setAccessible(true))
+                    .collect(Collectors.toMap(
+                            field -> field.getAnnotation(JsonProperty.class).value(), Function.identity())));
+
+    private final JobAlertData data;
+    private final AlertRuleDTO alertRule;
+    private final ObjectWrapper wrapper = FreeMarkerHolder.getObjectWrapper();
+
+    public JobAlertTemplateModel(JobAlertData data, AlertRuleDTO alertRule) {
+        this.data = data;
+        this.alertRule = alertRule;
+    }
+
+    @Override
+    public TemplateModel get(String key) throws TemplateModelException {
+        if (JobAlertRuleOptions.OPTIONS_JOB_ALERT_RULE.equals(key)) {
+            return wrapper.wrap(alertRule);
+        }
+        Field field = FIELDS.get(key);
+        if (field == null) {
+            return null;
+        }
+        try {
+            return wrapper.wrap(field.get(data));
+        } catch (IllegalAccessException e) {
+            throw new TemplateModelException("Can not read alert data field " + key, e);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+}
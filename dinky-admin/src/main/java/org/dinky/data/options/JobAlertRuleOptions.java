@@ -21,6 +21,7 @@ package org.dinky.data.options;
 
 public class JobAlertRuleOptions {
     public static final String OPTIONS_JOB_ALERT_RULE = "jobAlertRule";
+    public static final String OPTIONS_JOB_ALERT_DATA = "jobAlertData";
 
     /**
      * Job Alert Data Filed record
@@ -0,0 +1,45 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.vo.task;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+@Data
+public class TaskBatchSubmitVo {
+
+    @ApiModelProperty(value = "Task ID", dataType = "Integer", example = "1", notes = "ID of the submitted task")
+    private Integer taskId;
+
+    @ApiModelProperty(value = "Task Name", dataType = "String", notes = "Name of the submitted task")
+    private String taskName;
+
+    @ApiModelProperty(value = "Success", dataType = "Boolean", notes = "Whether the task was submitted")
+    private boolean success;
+
+    @ApiModelProperty(value = "Job Instance ID", dataType = "Integer", notes = "Job instance of the submitted task")
+    private Integer jobInstanceId;
+
+    @ApiModelProperty(value = "Error", dataType = "String", notes = "Why the task was not submitted")
+    private String error;
+
+    @ApiModelProperty(value = "Duration", dataType = "Long", notes = "Submission time of the task in milliseconds")
+    private long duration;
+}
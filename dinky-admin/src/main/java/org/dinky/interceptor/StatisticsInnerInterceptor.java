@@ -0,0 +1,66 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.interceptor;
+
+import org.dinky.context.HomeStatisticsContextHolder;
+import org.dinky.context.TenantContextHolder;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+
+/** Reports writes of mapped entities to {@link HomeStatisticsContextHolder}. */
+public class StatisticsInnerInterceptor implements InnerInterceptor {
+
+    private static final String UNKNOWN_TABLE = "";
+
+    /** Mapper namespace to table name. */
+    private final Map<String, String> tableNames = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) {
+        String id = ms.getId();
+        String namespace = id.substring(0, id.lastIndexOf('.'));
+        String tableName = tableNames.computeIfAbsent(namespace, this::getTableName);
+        if (UNKNOWN_TABLE.equals(tableName)) {
+            return;
+        }
+        Object tenantId = TenantContextHolder.get();
+        HomeStatisticsContextHolder.onTableChanged(
+                tenantId instanceof Integer ? (Integer) tenantId : null,
+                tableName,
+                ms.getSqlCommandType() == SqlCommandType.UPDATE);
+    }
+
+    private String getTableName(String namespace) {
+        return TableInfoHelper.getTableInfos().stream()
+                .filter(tableInfo -> namespace.equals(tableInfo.getCurrentNamespace()))
+                .findFirst()
+                .map(TableInfo::getTableName)
+                .orElse(UNKNOWN_TABLE);
+    }
+}
@@ -25,12 +25,14 @@ import org.dinky.daemon.task.DaemonTaskConfig;
 import org.dinky.data.model.Configuration;
 import org.dinky.data.model.SystemConfiguration;
 import org.dinky.job.handler.ClearJobHistoryHandler;
+import org.dinky.mapper.HistoryMapper;
+import org.dinky.mapper.JobInstanceMapper;
 import org.dinky.service.ClusterInstanceService;
-import org.dinky.service.HistoryService;
 import org.dinky.service.JobHistoryService;
-import org.dinky.service.JobInstanceService;
 import org.dinky.service.impl.ClusterInstanceServiceImpl;
 
+import java.util.List;
+
 import org.springframework.context.annotation.DependsOn;
 
 import lombok.Data;
@@ -43,9 +45,9 @@ public class ClearJobHistoryTask implements DaemonTask {
 
     public static final String TYPE = ClearJobHistoryTask.class.toString();
 
-    private static final JobInstanceService jobInstanceService;
+    private static final JobInstanceMapper jobInstanceMapper;
     private static final JobHistoryService jobHistoryService;
-    private static final HistoryService historyService;
+    private static final HistoryMapper historyMapper;
     private static final ClearJobHistoryHandler clearJobHistoryHandler;
     private static final ClusterInstanceService clusterService;
 
@@ -53,13 +55,13 @@ public class ClearJobHistoryTask implements DaemonTask {
     private static Configuration<Integer> maxRetainCount;
 
     static {
-        jobInstanceService = SpringContextUtils.getBean("jobInstanceServiceImpl", JobInstanceService.class);
+        jobInstanceMapper = SpringContextUtils.getBeanByClass(JobInstanceMapper.class);
         jobHistoryService = SpringContextUtils.getBean("jobHistoryServiceImpl", JobHistoryService.class);
-        historyService = SpringContextUtils.getBean("historyServiceImpl", HistoryService.class);
+        historyMapper = SpringContextUtils.getBeanByClass(HistoryMapper.class);
         clusterService = SpringContextUtils.getBean("clusterInstanceServiceImpl", ClusterInstanceServiceImpl.class);
         clearJobHistoryHandler = ClearJobHistoryHandler.builder()
-                .historyService(historyService)
-                .jobInstanceService(jobInstanceService)
+                .historyMapper(historyMapper)
+                .jobInstanceMapper(jobInstanceMapper)
                 .jobHistoryService(jobHistoryService)
                 .clusterService(clusterService)
                 .build();
@@ -70,8 +72,15 @@ public class ClearJobHistoryTask implements DaemonTask {
     @Override
     public boolean dealTask() {
         if (maxRetainCount.getValue() > 0) {
-            clearJobHistoryHandler.clearDinkyHistory(maxRetainDays.getValue(), maxRetainCount.getValue());
-            clearJobHistoryHandler.clearJobHistory(maxRetainDays.getValue(), maxRetainCount.getValue());
+            List<ClearJobHistoryHandler.RetentionReport> reports =
+                    clearJobHistoryHandler.clear(maxRetainDays.getValue(), maxRetainCount.getValue());
+            for (ClearJobHistoryHandler.RetentionReport report : reports) {
+                log.info(
+                        "Retention cleared {} rows from {} in {} ms",
+                        report.getDeleted(),
+                        report.getTable(),
+                        report.getDurationMillis());
+            }
         }
         return false;
     }
@@ -20,10 +20,13 @@
 package org.dinky.job;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.context.JobPushContextHolder;
+import org.dinky.context.JobSnapshotContextHolder;
 import org.dinky.context.SpringContextUtils;
 import org.dinky.daemon.constant.FlinkTaskConstant;
 import org.dinky.daemon.task.DaemonTask;
 import org.dinky.daemon.task.DaemonTaskConfig;
+import org.dinky.data.enums.JobStatus;
 import org.dinky.data.model.SystemConfiguration;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.job.handler.JobAlertHandler;
@@ -70,7 +73,9 @@ public class FlinkJobTask implements DaemonTask {
     @Override
     public DaemonTask setConfig(DaemonTaskConfig config) {
         this.config = config;
-        this.jobInfoDetail = jobInstanceService.getJobInfoDetail(config.getId());
+        // The monitoring loop owns the snapshot, so it always starts from the database
+        this.jobInfoDetail = jobInstanceService.getJobInfoDetailInfo(jobInstanceService.getById(config.getId()));
+        JobSnapshotContextHolder.publish(jobInfoDetail);
         // Get a list of metrics and deduplicate them based on vertices and metrics
         monitorService
                 .getMetricsLayoutByTaskId(jobInfoDetail.getInstance().getTaskId())
@@ -101,13 +106,32 @@ public class FlinkJobTask implements DaemonTask {
     public boolean dealTask() {
         volatilityBalance();
 
-        boolean isDone = JobRefreshHandler.refreshJob(jobInfoDetail, isNeedSave());
+        String jobId = jobInfoDetail.getInstance().getJid();
+        boolean isNeedSave = isNeedSave();
+        // A job pushing its state is only polled after a pushed change, while in transition, or when saving
+        boolean isDone = false;
+        if (JobPushContextHolder.needPoll(jobId)
+                || isNeedSave
+                || JobStatus.isTransition(jobInfoDetail.getInstance().getStatus())) {
+            isDone = JobRefreshHandler.refreshJob(jobInfoDetail, isNeedSave);
+        }
         if (Asserts.isAllNotNull(jobInfoDetail.getClusterInstance())) {
             JobAlertHandler.getInstance().check(jobInfoDetail);
             if (SystemConfiguration.getInstances().getMetricsSysEnable().getValue()) {
-                JobMetricsHandler.refreshAndWriteFlinkMetrics(jobInfoDetail, verticesAndMetricsMap);
+                Map<String, Map<String, String>> pushedMetrics = JobPushContextHolder.getMetrics(jobId);
+                if (pushedMetrics != null) {
+                    JobMetricsHandler.writePushedFlinkMetrics(jobInfoDetail, verticesAndMetricsMap, pushedMetrics);
+                } else {
+                    JobMetricsHandler.refreshAndWriteFlinkMetrics(jobInfoDetail, verticesAndMetricsMap);
+                }
             }
         }
+        if (isDone) {
+            JobSnapshotContextHolder.remove(jobInfoDetail.getId());
+            JobPushContextHolder.remove(jobId);
+        } else {
+            JobSnapshotContextHolder.publish(jobInfoDetail);
+        }
         return isDone;
     }
 
@@ -0,0 +1,319 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job;
+
+import org.dinky.context.ConsoleContextHolder;
+import org.dinky.data.dto.TaskDTO;
+import org.dinky.data.dto.TaskSubmitDto;
+import org.dinky.data.enums.JobLifeCycle;
+import org.dinky.data.vo.task.TaskBatchSubmitVo;
+import org.dinky.explainer.lineage.LineageRelation;
+import org.dinky.explainer.lineage.LineageResult;
+import org.dinky.explainer.lineage.LineageTable;
+import org.dinky.service.TaskService;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.MDC;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import cn.hutool.core.text.StrFormatter;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Submits a batch of published tasks.
+ *
+ * <p>The lineage of every task is resolved first, a task reading a table written by another task of the
+ * batch is submitted after it, and skipped if that task failed. Independent tasks are submitted concurrently,
+ * with at most {@code parallelism} submissions running against the same cluster. Environment statements,
+ * global variables and the flink connection sql are loaded once per batch. Progress is written to the process
+ * console of the batch.
+ */
+@Slf4j
+@Builder
+public class TaskBatchSubmitter {
+
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int MAX_THREADS = 32;
+
+    /** Setup shared by the submissions of the running batch, keyed by what it was loaded from. */
+    private static final ThreadLocal<Map<String, Object>> SHARED_SETUP = new ThreadLocal<>();
+
+    private TaskService taskService;
+    private String processName;
+    private Integer parallelism;
+
+    /** Everything known about a task of the batch before it is submitted. */
+    private static class BatchTask {
+        private final Integer id;
+        private TaskDTO task;
+        private final Set<String> sources = new HashSet<>();
+        private final Set<String> sinks = new HashSet<>();
+        private final Set<Integer> dependencies = new HashSet<>();
+
+        private BatchTask(Integer id) {
+            this.id = id;
+        }
+
+        private String clusterKey() {
+            if (task == null) {
+                return "";
+            }
+            // Session tasks share their cluster, per-job and application tasks share their cluster configuration
+            return task.getClusterId() != null
+                    ? "cluster-" + task.getClusterId()
+                    : StrFormatter.format("{}-{}", task.getType(), task.getClusterConfigurationId());
+        }
+    }
+
+    /**
+     * Get a setup value shared by the running batch, or load it when not in a batch.
+     *
+     * @param key identifies the setup
+     * @param loader loads the setup
+     * @return the setup
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T shared(String key, Supplier<T> loader) {
+        Map<String, Object> shared = SHARED_SETUP.get();
+        if (shared == null) {
+            return loader.get();
+        }
+        return (T) shared.computeIfAbsent(key, k -> loader.get());
+    }
+
+    public List<TaskBatchSubmitVo> submit(List<Integer> taskIds) {
+        Map<Integer, BatchTask> tasks = new LinkedHashMap<>();
+        taskIds.stream().distinct().forEach(id -> tasks.put(id, new BatchTask(id)));
+        int threads = Math.max(1, Math.min(MAX_THREADS, tasks.size()));
+        ExecutorService executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("task-batch-submit-%d").build());
+        Map<String, Object> shared = new ConcurrentHashMap<>();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        try {
+            progress("Resolve lineage of {} tasks", tasks.size());
+            CompletableFuture.allOf(tasks.values().stream()
+                            .map(task -> CompletableFuture.runAsync(
+                                    () -> runInBatch(mdc, shared, () -> resolve(task)), executor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+            linkDependencies(tasks);
+            return schedule(tasks, executor, mdc, shared);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void resolve(BatchTask batchTask) {
+        try {
+            batchTask.task = taskService.getTaskInfoById(batchTask.id);
+            LineageResult lineage = taskService.getTaskLineage(batchTask.id);
+            if (lineage == null || lineage.getTables() == null || lineage.getRelations() == null) {
+                return;
+            }
+            Map<String, String> tableNames = lineage.getTables().stream()
+                    .collect(Collectors.toMap(LineageTable::getId, LineageTable::getName, (a, b) -> a));
+            for (LineageRelation relation : lineage.getRelations()) {
+                Optional.of(relation.getSrcTableId()).map(tableNames::get).ifPresent(batchTask.sources::add);
+                Optional.of(relation.getTgtTableId()).map(tableNames::get).ifPresent(batchTask.sinks::add);
+            }
+        } catch (Exception e) {
+            // A task without lineage is submitted without waiting for other tasks
+            log.warn("Resolve lineage of task {} failed: {}", batchTask.id, e.getMessage());
+        }
+    }
+
+    /** Link each task to the tasks writing the tables it reads, cycles are broken in submission order. */
+    private void linkDependencies(Map<Integer, BatchTask> tasks) {
+        Map<String, List<Integer>> writers = new HashMap<>();
+        tasks.values().forEach(task -> task.sinks.forEach(
+                table -> writers.computeIfAbsent(table, t -> new ArrayList<>()).add(task.id)));
+        for (BatchTask task : tasks.values()) {
+            for (String table : task.sources) {
+                for (Integer writer : writers.getOrDefault(table, Collections.emptyList())) {
+                    if (!Objects.equals(writer, task.id)) {
+                        task.dependencies.add(writer);
+                    }
+                }
+            }
+        }
+        // Kahn's algorithm, the dependencies of the tasks left in a cycle are dropped
+        Map<Integer, Integer> inDegree = new HashMap<>();
+        Map<Integer, List<Integer>> dependents = new HashMap<>();
+        for (BatchTask task : tasks.values()) {
+            inDegree.put(task.id, task.dependencies.size());
+            task.dependencies.forEach(
+                    dependency -> dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(task.id));
+        }
+        Deque<Integer> ready = inDegree.entrySet().stream()
+                .filter(e -> e.getValue() == 0)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(ArrayDeque::new));
+        Set<Integer> ordered = new HashSet<>();
+        while (!ready.isEmpty()) {
+            Integer id = ready.poll();
+            ordered.add(id);
+            for (Integer dependent : dependents.getOrDefault(id, Collections.emptyList())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        tasks.values().stream().filter(task -> !ordered.contains(task.id)).forEach(task -> {
+            progress("Task {} is part of a dependency cycle, submit it without waiting", task.id);
+            task.dependencies.clear();
+        });
+    }
+
+    private List<TaskBatchSubmitVo> schedule(
+            Map<Integer, BatchTask> tasks, ExecutorService executor, Map<String, String> mdc, Map<String, Object> shared) {
+        int limit = parallelism == null || parallelism <= 0 ? DEFAULT_PARALLELISM : parallelism;
+        Map<String, Semaphore> clusterPermits = new ConcurrentHashMap<>();
+        Map<Integer, CompletableFuture<TaskBatchSubmitVo>> futures = new HashMap<>();
+        AtomicInteger finished = new AtomicInteger();
+        // Dependencies are scheduled before their dependents, the resolved cycles have no dependencies left
+        Deque<BatchTask> pending = new ArrayDeque<>(tasks.values());
+        while (!pending.isEmpty()) {
+            BatchTask task = pending.poll();
+            if (!futures.keySet().containsAll(task.dependencies)) {
+                pending.add(task);
+                continue;
+            }
+            List<CompletableFuture<TaskBatchSubmitVo>> dependencies =
+                    task.dependencies.stream().map(futures::get).collect(Collectors.toList());
+            Semaphore permits = clusterPermits.computeIfAbsent(task.clusterKey(), k -> new Semaphore(limit));
+            futures.put(
+                    task.id,
+                    CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]))
+                            .thenApplyAsync(
+                                    v -> inBatch(mdc, shared, () -> submit(task, permits, dependencies)),
+                                    executor)
+                            .whenComplete((vo, e) -> progress(
+                                    "[{}/{}] Task {} {}",
+                                    finished.incrementAndGet(),
+                                    tasks.size(),
+                                    task.task == null ? task.id : task.task.getName(),
+                                    vo != null && vo.isSuccess() ? "submitted" : "failed")));
+        }
+        return tasks.keySet().stream().map(id -> futures.get(id).join()).collect(Collectors.toList());
+    }
+
+    private TaskBatchSubmitVo submit(
+            BatchTask batchTask, Semaphore permits, List<CompletableFuture<TaskBatchSubmitVo>> dependencies) {
+        TaskBatchSubmitVo vo = new TaskBatchSubmitVo();
+        vo.setTaskId(batchTask.id);
+        long start = System.currentTimeMillis();
+        try {
+            if (batchTask.task == null) {
+                vo.setError("Task does not exist");
+                return vo;
+            }
+            vo.setTaskName(batchTask.task.getName());
+            // A task reading the tables of a failed task would run on missing or stale data
+            Optional<TaskBatchSubmitVo> failedUpstream = dependencies.stream()
+                    .map(CompletableFuture::join)
+                    .filter(upstream -> !upstream.isSuccess())
+                    .findFirst();
+            if (failedUpstream.isPresent()) {
+                vo.setError(StrFormatter.format("Skipped, upstream task {} failed", failedUpstream.get().getTaskId()));
+                return vo;
+            }
+            if (!Objects.equals(batchTask.task.getStep(), JobLifeCycle.PUBLISH.getValue())) {
+                vo.setError("Only published tasks can be submitted in a batch");
+                return vo;
+            }
+            permits.acquire();
+            try {
+                JobResult jobResult = taskService.submitTask(
+                        TaskSubmitDto.builder().id(batchTask.id).build());
+                vo.setSuccess(jobResult.isSuccess());
+                vo.setJobInstanceId(jobResult.getJobInstanceId());
+                vo.setError(jobResult.getError());
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            vo.setError(e.getMessage());
+        } catch (Exception e) {
+            log.error("Submit task {} failed", batchTask.id, e);
+            vo.setError(e.getMessage());
+        } finally {
+            vo.setDuration(System.currentTimeMillis() - start);
+        }
+        return vo;
+    }
+
+    private static <T> T inBatch(Map<String, String> mdc, Map<String, Object> shared, Supplier<T> action) {
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        SHARED_SETUP.set(shared);
+        try {
+            return action.get();
+        } finally {
+            SHARED_SETUP.remove();
+            MDC.clear();
+        }
+    }
+
+    private static void runInBatch(Map<String, String> mdc, Map<String, Object> shared, Runnable action) {
+        inBatch(mdc, shared, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void progress(String template, Object... args) {
+        String line = StrFormatter.format(template, args);
+        log.info(line);
+        if (processName != null) {
+            ConsoleContextHolder.getInstances().appendLog(processName, null, line, true);
+        }
+    }
+}
@@ -19,127 +19,192 @@
 
 package org.dinky.job.handler;
 
-import org.dinky.assertion.Asserts;
+import org.dinky.data.constant.MonitorTableConstant;
 import org.dinky.data.model.ClusterInstance;
 import org.dinky.data.model.job.History;
 import org.dinky.data.model.job.JobInstance;
+import org.dinky.mapper.HistoryMapper;
+import org.dinky.mapper.JobInstanceMapper;
 import org.dinky.service.ClusterInstanceService;
-import org.dinky.service.HistoryService;
 import org.dinky.service.JobHistoryService;
-import org.dinky.service.JobInstanceService;
+import org.dinky.utils.SqliteUtil;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Retention of job instances, job histories, dinky histories and metrics.
+ *
+ * <p>The rows to delete are computed with one ranked scan per table: only tasks above the quota are read,
+ * ordered by task and newest first, so the rank of a row within its task is its position in the scan.
+ * Rows ranked after maxRetainCount and older than maxRetainDays are deleted by ascending id in bounded
+ * chunks, with a short pause between two chunks to keep each transaction and its locks small.
+ */
+@Slf4j
 @Builder
 public class ClearJobHistoryHandler {
-    private JobInstanceService jobInstanceService;
+
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final long CHUNK_INTERVAL_MILLIS = 100;
+
+    private JobInstanceMapper jobInstanceMapper;
     private JobHistoryService jobHistoryService;
-    private HistoryService historyService;
+    private HistoryMapper historyMapper;
     private ClusterInstanceService clusterService;
 
+    /** Deleted rows and elapsed time of one table in one run. */
+    @Data
+    @AllArgsConstructor
+    public static class RetentionReport {
+        private String table;
+        private long deleted;
+        private long durationMillis;
+    }
+
     /**
-     * Clears job history records based on the specified criteria.
+     * Apply the retention policy to every table it covers.
+     * @param maxRetainDays The maximum number of days to retain records.
+     * @param maxRetainCount The maximum count of records to retain per task.
+     * @return deleted rows and durations per table
+     */
+    public List<RetentionReport> clear(Integer maxRetainDays, Integer maxRetainCount) {
+        List<RetentionReport> reports = new ArrayList<>();
+        reports.add(clearDinkyHistory(maxRetainDays, maxRetainCount));
+        reports.addAll(clearJobHistory(maxRetainDays, maxRetainCount));
+        reports.add(clearMetrics(maxRetainDays));
+        return reports;
+    }
+
+    /**
+     * Clears job instances together with their job history and auto registered cluster.
      * @param maxRetainDays The maximum number of days to retain job history.
      * @param maxRetainCount The maximum count to retain job history.
+     * @return deleted rows and durations of the job instance, job history and cluster tables
      */
-    public void clearJobHistory(Integer maxRetainDays, Integer maxRetainCount) {
-        // Query job instance records, grouped by task ID
-        List<JobInstance> jobInstanceList = jobInstanceService
-                .lambdaQuery()
-                .select(JobInstance::getTaskId, JobInstance::getCount)
-                .groupBy(JobInstance::getTaskId)
-                .list();
-
-        // Iterate over job instance records
-        for (JobInstance jobInstance : jobInstanceList) {
-            // Check if the count exceeds the maximum retain count
-            if (jobInstance.getCount() > maxRetainCount) {
-                // Create a query wrapper to delete job instances older than the maximum retain days
-                QueryWrapper<JobInstance> deleteWrapper = new QueryWrapper<>();
-                // Don't delete the last instance, keep it
-                List<JobInstance> reservedInstances = jobInstanceService
-                        .lambdaQuery()
-                        .eq(JobInstance::getTaskId, jobInstance.getTaskId())
-                        .orderByDesc(JobInstance::getId)
-                        .last("limit " + maxRetainCount)
-                        .list();
-                deleteWrapper
-                        .lambda()
-                        .eq(JobInstance::getTaskId, jobInstance.getTaskId())
-                        .lt(JobInstance::getCreateTime, LocalDateTime.now().minusDays(maxRetainDays))
-                        .notIn(
-                                true,
-                                JobInstance::getId,
-                                reservedInstances.stream()
-                                        .map(JobInstance::getId)
-                                        .toArray());
-
-                // Retrieve the list of job instances to be deleted
-                List<JobInstance> deleteList = jobInstanceService.list(deleteWrapper);
-                List<Integer> historyDeleteIds =
-                        deleteList.stream().map(JobInstance::getHistoryId).collect(Collectors.toList());
-                List<Integer> clusterDeleteIds =
-                        deleteList.stream().map(JobInstance::getClusterId).collect(Collectors.toList());
-                if (Asserts.isNotNullCollection(deleteList)) {
-                    jobInstanceService.remove(deleteWrapper);
-                }
-                if (Asserts.isNotNullCollection(historyDeleteIds)) {
-                    jobHistoryService.removeBatchByIds(historyDeleteIds);
-                }
-                if (Asserts.isNotNullCollection(clusterDeleteIds)) {
-                    // Delete the cluster from the instance to be deleted, but filter the manually registered clusters
-                    QueryWrapper<ClusterInstance> clusterDeleteWrapper = new QueryWrapper<>();
-                    clusterDeleteWrapper
-                            .lambda()
-                            .in(true, ClusterInstance::getId, clusterDeleteIds)
-                            .eq(ClusterInstance::isAutoRegisters, true);
-                    clusterService.remove(clusterDeleteWrapper);
+    public List<RetentionReport> clearJobHistory(Integer maxRetainDays, Integer maxRetainCount) {
+        long start = System.currentTimeMillis();
+        LocalDateTime expireTime = LocalDateTime.now().minusDays(maxRetainDays);
+        TaskRank rank = new TaskRank();
+        TreeSet<Integer> instanceIds = new TreeSet<>();
+        TreeSet<Integer> clusterIds = new TreeSet<>();
+        jobInstanceMapper.scanRetention(maxRetainCount, context -> {
+            JobInstance instance = context.getResultObject();
+            if (rank.next(instance.getTaskId()) > maxRetainCount
+                    && instance.getCreateTime() != null
+                    && instance.getCreateTime().isBefore(expireTime)) {
+                instanceIds.add(instance.getId());
+                if (instance.getClusterId() != null) {
+                    clusterIds.add(instance.getClusterId());
                 }
             }
-        }
+        });
+        long scanMillis = System.currentTimeMillis() - start;
+
+        List<RetentionReport> reports = new ArrayList<>();
+        reports.add(deleteInChunks("dinky_job_instance", scanMillis, instanceIds, jobInstanceMapper::deleteBatchIds));
+        // The job history shares the id of its job instance
+        reports.add(deleteInChunks("dinky_job_history", 0, instanceIds, jobHistoryService.getBaseMapper()::deleteBatchIds));
+        // Delete the cluster of the deleted instances, but keep the manually registered clusters
+        reports.add(deleteInChunks(
+                "dinky_cluster",
+                0,
+                clusterIds,
+                ids -> clusterService.getBaseMapper().delete(new LambdaQueryWrapper<ClusterInstance>()
+                        .in(ClusterInstance::getId, ids)
+                        .eq(ClusterInstance::isAutoRegisters, true))));
+        return reports;
     }
 
     /**
-     * Clears dinky history records based on the specified criteria.
+     * Clears dinky history records, including their statement and result, based on the specified criteria.
      * @param maxRetainDays The maximum number of days to retain dinky history.
      * @param maxRetainCount The maximum count to retain dinky history.
+     * @return deleted rows and duration of the dinky history table
+     */
+    public RetentionReport clearDinkyHistory(Integer maxRetainDays, Integer maxRetainCount) {
+        long start = System.currentTimeMillis();
+        LocalDateTime expireTime = LocalDateTime.now().minusDays(maxRetainDays);
+        TaskRank rank = new TaskRank();
+        TreeSet<Integer> historyIds = new TreeSet<>();
+        historyMapper.scanRetention(maxRetainCount, context -> {
+            History history = context.getResultObject();
+            if (rank.next(history.getTaskId()) > maxRetainCount
+                    && history.getStartTime() != null
+                    && history.getStartTime().isBefore(expireTime)) {
+                historyIds.add(history.getId());
+            }
+        });
+        return deleteInChunks(
+                "dinky_history", System.currentTimeMillis() - start, historyIds, historyMapper::deleteBatchIds);
+    }
+
+    /**
+     * Clears the metrics older than maxRetainDays from the local metrics store.
+     * @param maxRetainDays The maximum number of days to retain metrics.
+     * @return deleted rows and duration of the metrics table
      */
-    public void clearDinkyHistory(Integer maxRetainDays, Integer maxRetainCount) {
-        // Query history records, grouped by task ID
-        List<History> historyList = historyService
-                .lambdaQuery()
-                .select(History::getTaskId, History::getCount)
-                .groupBy(History::getTaskId)
-                .list();
-
-        // Iterate over history records
-        for (History history : historyList) {
-            // Check if the count exceeds the maximum retain count
-            if (history.getCount() > maxRetainCount) {
-                List<History> reservedHistory = historyService
-                        .lambdaQuery()
-                        .eq(History::getTaskId, history.getTaskId())
-                        .orderByDesc(History::getId)
-                        .last("limit " + maxRetainCount)
-                        .list();
-                // Create a query wrapper to delete history records older than the maximum retain days
-                QueryWrapper<History> deleteWrapper = new QueryWrapper<>();
-                deleteWrapper
-                        .lambda()
-                        .eq(History::getTaskId, history.getTaskId())
-                        .lt(History::getStartTime, LocalDateTime.now().minusDays(maxRetainDays))
-                        .notIn(
-                                true,
-                                History::getId,
-                                reservedHistory.stream().map(History::getId).toArray());
-                historyService.remove(deleteWrapper);
+    public RetentionReport clearMetrics(Integer maxRetainDays) {
+        long start = System.currentTimeMillis();
+        String cutoff = LocalDateTime.now().minusDays(maxRetainDays).toString();
+        long deleted = 0;
+        try {
+            deleted = SqliteUtil.INSTANCE.deleteBefore(
+                    MonitorTableConstant.DINKY_METRICS, MonitorTableConstant.HEART_TIME, cutoff, DELETE_CHUNK_SIZE);
+        } catch (SQLException e) {
+            log.error("Failed to clear metrics: {}", e.getMessage());
+        }
+        return new RetentionReport(MonitorTableConstant.DINKY_METRICS, deleted, System.currentTimeMillis() - start);
+    }
+
+    private RetentionReport deleteInChunks(
+            String table, long elapsedMillis, TreeSet<Integer> ids, Function<List<Integer>, Integer> deleter) {
+        long start = System.currentTimeMillis();
+        List<Integer> sortedIds = new ArrayList<>(ids);
+        long deleted = 0;
+        for (int from = 0; from < sortedIds.size(); from += DELETE_CHUNK_SIZE) {
+            if (from > 0 && !pause()) {
+                break;
+            }
+            List<Integer> chunk = sortedIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, sortedIds.size()));
+            deleted += deleter.apply(Collections.unmodifiableList(chunk));
+        }
+        return new RetentionReport(table, deleted, elapsedMillis + System.currentTimeMillis() - start);
+    }
+
+    private static boolean pause() {
+        try {
+            Thread.sleep(CHUNK_INTERVAL_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Position of the current row within its task, the scan returns the rows of a task together. */
+    private static class TaskRank {
+        private Integer taskId;
+        private int rank;
+
+        int next(Integer currentTaskId) {
+            if (rank == 0 || !Objects.equals(taskId, currentTaskId)) {
+                taskId = currentTaskId;
+                rank = 0;
             }
+            return ++rank;
         }
     }
 }
@@ -26,6 +26,7 @@ import org.dinky.alert.dingtalk.DingTalkConstants;
 import org.dinky.alert.sms.SmsConstants;
 import org.dinky.assertion.Asserts;
 import org.dinky.context.FreeMarkerHolder;
+import org.dinky.context.JobSnapshotContextHolder;
 import org.dinky.context.SpringContextUtils;
 import org.dinky.daemon.pool.FlinkJobThreadPool;
 import org.dinky.data.dto.AlertRuleDTO;
@@ -40,6 +41,7 @@ import org.dinky.data.model.alert.AlertGroup;
 import org.dinky.data.model.alert.AlertHistory;
 import org.dinky.data.model.alert.AlertInstance;
 import org.dinky.data.model.ext.JobAlertData;
+import org.dinky.data.model.ext.JobAlertTemplateModel;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.rbac.User;
 import org.dinky.data.options.JobAlertRuleOptions;
@@ -68,6 +70,7 @@ import org.jeasy.rules.core.RuleBuilder;
 import org.jeasy.rules.spel.SpELCondition;
 import org.springframework.context.annotation.DependsOn;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -76,6 +79,7 @@ import cn.hutool.core.text.StrFormatter;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
@@ -89,6 +93,11 @@ public class JobAlertHandler {
     private static final SystemConfiguration systemConfiguration = SystemConfiguration.getInstances();
     private static final UserService userService;
 
+    /**
+     * Window in which identical alert renders of the same rule are reused.
+     */
+    private static final int RENDER_DEDUP_SECONDS = 30;
+
     /**
      * Rules for evaluating alert conditions.
      */
@@ -104,6 +113,12 @@ public class JobAlertHandler {
      */
     private FreeMarkerHolder freeMarkerHolder;
 
+    /**
+     * Rendered alert content keyed by rule and alert data, so that a cluster outage does not render the
+     * same content for every check in a row.
+     */
+    private Cache<RenderKey, String> renderCache;
+
     /**
      * 缓存告警发送记录，用于防止单位时间内频繁发送重复告警 key为任务实例id，
      * value为告警发送记录map，key为告警id，value为触发次数 |
@@ -170,6 +185,7 @@ public class JobAlertHandler {
             }
             ruleFacts.put(k, v);
         });
+        ruleFacts.put(JobAlertRuleOptions.OPTIONS_JOB_ALERT_DATA, jobAlertData);
         rulesEngine.fire(rules, ruleFacts);
     }
 
@@ -179,12 +195,21 @@ public class JobAlertHandler {
     public void refreshRulesData() {
         List<AlertRuleDTO> ruleDTOS = alertRuleService.getBaseMapper().selectWithTemplate();
         freeMarkerHolder = new FreeMarkerHolder();
+        renderCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(RENDER_DEDUP_SECONDS, TimeUnit.SECONDS)
+                .maximumSize(1024)
+                .build();
         rulesEngine = new DefaultRulesEngine();
         rules = new Rules();
 
         ruleDTOS.forEach(ruleDto -> {
             if (ruleDto.getTemplateName() != null && !ruleDto.getTemplateName().isEmpty()) {
-                freeMarkerHolder.putTemplate(ruleDto.getTemplateName(), ruleDto.getTemplateContent());
+                try {
+                    freeMarkerHolder.putTemplate(ruleDto.getTemplateName(), ruleDto.getTemplateContent());
+                } catch (IllegalArgumentException e) {
+                    log.error("Alert Rule: {} has an invalid template: {}", ruleDto.getName(), e.getMessage());
+                    return;
+                }
                 ruleDto.setName(Status.findMessageByKey(ruleDto.getName()));
                 ruleDto.setDescription(Status.findMessageByKey(ruleDto.getDescription()));
                 rules.register(buildRule(ruleDto));
@@ -240,14 +265,20 @@ public class JobAlertHandler {
         }
         map.put(ruleId, map.get(ruleId) + 1);
 
-        TaskDTO task = taskService.getTaskInfoById(taskId);
+        TaskDTO task = JobSnapshotContextHolder.getTask(jobInstanceId, taskId, taskService::getTaskInfoById);
         if (!Objects.equals(task.getStep(), JobLifeCycle.PUBLISH.getValue())) {
             // Only publish job can be alerted
             return;
         }
-        Map<String, Object> dataModel = new HashMap<>(facts.asMap());
-        dataModel.put(JobAlertRuleOptions.OPTIONS_JOB_ALERT_RULE, alertRuleDTO);
-        String alertContent = freeMarkerHolder.buildWithData(alertRuleDTO.getTemplateName(), dataModel);
+        JobAlertData jobAlertData = facts.get(JobAlertRuleOptions.OPTIONS_JOB_ALERT_DATA);
+        // The alert time and the job duration change on every check, they are left out of the key.
+        // A reused render keeps the values of its first render.
+        RenderKey renderKey = new RenderKey(
+                ruleId, jobAlertData.toBuilder().alertTime("").duration(0L).build());
+        String alertContent = renderCache.get(
+                renderKey,
+                () -> freeMarkerHolder.buildWithData(
+                        alertRuleDTO.getTemplateName(), new JobAlertTemplateModel(jobAlertData, alertRuleDTO)));
 
         if (!Asserts.isNull(task.getAlertGroup())) {
             // 获取任务的责任人和维护人对应的用户信息|Get the responsible person and maintainer of the task
@@ -360,6 +391,13 @@ public class JobAlertHandler {
         alertHistoryService.save(alertHistory);
     }
 
+    @Data
+    @AllArgsConstructor
+    private static class RenderKey {
+        private Integer ruleId;
+        private JobAlertData data;
+    }
+
     @Data
     private static class RuleItem {
         private String ruleKey;
@@ -68,17 +68,42 @@ public class JobMetricsHandler {
         // Wait for all Completable Future executions to finish
         try {
             AsyncUtil.waitAll(array);
-            MetricsVO metricsVO = new MetricsVO();
-            metricsVO.setContent(customMetricsList);
-            metricsVO.setHeartTime(LocalDateTime.now());
-            metricsVO.setModel(jobId);
-            metricsVO.setDate(TimeUtil.nowStr("yyyy-MM-dd"));
-            MetricsContextHolder.getInstance().saveToSqlite(metricsVO.getModel(), metricsVO);
+            writeFlinkMetrics(jobId, customMetricsList);
         } catch (Exception e) {
             log.error("Get and save Flink metrics error", e);
         }
     }
 
+    /**
+     * The writePushedFlinkMetrics method writes the metrics pushed by the Dinky metric reporter.  </br>
+     * Only the metrics of the layout are kept, the others pushed by the reporter are ignored. </br>
+     */
+    public static void writePushedFlinkMetrics(
+            JobInfoDetail jobInfoDetail,
+            Map<String, Map<String, String>> customMetricsList,
+            Map<String, Map<String, String>> pushedMetrics) {
+        customMetricsList.forEach((vertexId, metrics) -> {
+            Map<String, String> pushed = pushedMetrics.get(vertexId);
+            if (pushed != null) {
+                metrics.replaceAll((id, value) -> pushed.getOrDefault(id, value));
+            }
+        });
+        try {
+            writeFlinkMetrics(jobInfoDetail.getInstance().getJid(), customMetricsList);
+        } catch (Exception e) {
+            log.error("Save pushed Flink metrics error", e);
+        }
+    }
+
+    private static void writeFlinkMetrics(String jobId, Map<String, Map<String, String>> customMetricsList) {
+        MetricsVO metricsVO = new MetricsVO();
+        metricsVO.setContent(customMetricsList);
+        metricsVO.setHeartTime(LocalDateTime.now());
+        metricsVO.setModel(jobId);
+        metricsVO.setDate(TimeUtil.nowStr("yyyy-MM-dd"));
+        MetricsContextHolder.getInstance().saveToSqlite(metricsVO.getModel(), metricsVO);
+    }
+
     /**
      * The fetchFlinkMetrics method is used to obtain Flink indicator data.
      *
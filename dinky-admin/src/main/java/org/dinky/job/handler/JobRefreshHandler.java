@@ -22,6 +22,8 @@ package org.dinky.job.handler;
 import org.dinky.api.FlinkAPI;
 import org.dinky.assertion.Asserts;
 import org.dinky.cluster.FlinkClusterInfo;
+import org.dinky.context.HomeStatisticsContextHolder;
+import org.dinky.context.JobPushContextHolder;
 import org.dinky.context.SpringContextUtils;
 import org.dinky.data.constant.FlinkRestResultConstant;
 import org.dinky.data.dto.ClusterConfigurationDTO;
@@ -34,6 +36,7 @@ import org.dinky.data.flink.config.CheckpointConfigInfo;
 import org.dinky.data.flink.config.FlinkJobConfigInfo;
 import org.dinky.data.flink.exceptions.FlinkJobExceptionsDetail;
 import org.dinky.data.flink.job.FlinkJobDetailInfo;
+import org.dinky.data.flink.job.JobDoneHook;
 import org.dinky.data.flink.watermark.FlinkJobNodeWaterMark;
 import org.dinky.data.model.ClusterInstance;
 import org.dinky.data.model.ext.JobInfoDetail;
@@ -107,6 +110,7 @@ public class JobRefreshHandler {
         if (Asserts.isNull(jobInfoDetail.getClusterInstance())) {
             jobInstance.setStatus(JobStatus.UNKNOWN.getValue());
             jobInstanceService.updateById(jobInstance);
+            HomeStatisticsContextHolder.onJobStatusChanged(jobInstance.getTenantId(), oldStatus, jobInstance.getStatus());
             return true;
         }
 
@@ -123,8 +127,18 @@ public class JobRefreshHandler {
                 CopyOptions.create().ignoreNullValue());
 
         if (Asserts.isNull(jobDataDto.getJob()) || jobDataDto.isError()) {
+            JobDoneHook doneHook = JobPushContextHolder.getDoneHook(jobInstance.getJid());
             Optional<JobStatus> jobStatus = getJobStatus(jobInfoDetail);
-            if (jobStatus.isPresent() && JobStatus.isDone(jobStatus.get().getValue())) {
+            if (doneHook != null && JobStatus.isDone(doneHook.getStatus())) {
+                // reported by the job itself before its application cluster shut down
+                jobInstance.setStatus(doneHook.getStatus());
+                if (Asserts.isNotNullString(doneHook.getFailureCause())) {
+                    jobInstance.setError(doneHook.getFailureCause());
+                }
+                if (doneHook.getTimestamp() > 0) {
+                    jobInstance.setFinishTime(TimeUtil.toLocalDateTime(doneHook.getTimestamp()));
+                }
+            } else if (jobStatus.isPresent() && JobStatus.isDone(jobStatus.get().getValue())) {
                 jobInstance.setStatus(jobStatus.get().getValue());
             } else {
                 // If the job fails to get it, the default Finish Time is the current time
@@ -195,10 +209,14 @@ public class JobRefreshHandler {
                 } else {
                     jobInstanceService.updateById(jobInstance);
                     jobHistoryService.updateById(jobInfoDetail.getJobDataDto().toJobHistory());
+                    HomeStatisticsContextHolder.onJobStatusChanged(
+                            jobInstance.getTenantId(), oldStatus, jobInstance.getStatus());
                 }
             } else {
                 jobInstanceService.updateById(jobInstance);
                 jobHistoryService.updateById(jobInfoDetail.getJobDataDto().toJobHistory());
+                HomeStatisticsContextHolder.onJobStatusChanged(
+                        jobInstance.getTenantId(), oldStatus, jobInstance.getStatus());
             }
         }
 
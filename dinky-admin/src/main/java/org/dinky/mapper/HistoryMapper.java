@@ -23,6 +23,10 @@ import org.dinky.data.model.job.History;
 import org.dinky.mybatis.mapper.SuperMapper;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import com.baomidou.mybatisplus.annotation.InterceptorIgnore;
 
 /**
  * HistoryMapper
@@ -30,4 +34,12 @@ import org.apache.ibatis.annotations.Mapper;
  * @since 2021/6/26 23:00
  */
 @Mapper
-public interface HistoryMapper extends SuperMapper<History> {}
+public interface HistoryMapper extends SuperMapper<History> {
+
+    /**
+     * Stream id, task id and start time of every task holding more than maxRetainCount histories,
+     * ordered by task and newest first. The statement and result columns are never read.
+     */
+    @InterceptorIgnore(tenantLine = "true")
+    void scanRetention(@Param("maxRetainCount") Integer maxRetainCount, ResultHandler<History> handler);
+}
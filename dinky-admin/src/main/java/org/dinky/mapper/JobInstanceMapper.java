@@ -26,6 +26,7 @@ import org.dinky.mybatis.mapper.SuperMapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -53,4 +54,11 @@ public interface JobInstanceMapper extends SuperMapper<JobInstance> {
 
     @InterceptorIgnore(tenantLine = "true")
     Integer getTenantByJobInstanceId(@Param("id") Integer id);
+
+    /**
+     * Stream the retention columns of every task holding more than maxRetainCount instances,
+     * ordered by task and newest first, so that the rank of a row is its position within the task.
+     */
+    @InterceptorIgnore(tenantLine = "true")
+    void scanRetention(@Param("maxRetainCount") Integer maxRetainCount, ResultHandler<JobInstance> handler);
 }
@@ -19,6 +19,8 @@
 
 package org.dinky.service;
 
+import org.dinky.data.flink.job.JobDoneHook;
+import org.dinky.data.flink.job.JobStateEvent;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.home.JobInstanceStatus;
 import org.dinky.data.model.job.JobInstance;
@@ -94,6 +96,21 @@ public interface JobInstanceService extends ISuperService<JobInstance> {
      */
     boolean hookJobDone(String jobId, Integer taskId);
 
+    /**
+     * Hook the job done with the final state reported by the job itself.
+     *
+     * @param hook The hook sent by dinky-app, with the final status, the latest checkpoint and the failure cause.
+     * @return A boolean indicating whether the hooking was successful or not.
+     */
+    boolean hookJobDone(JobDoneHook hook);
+
+    /**
+     * Ingest the job state pushed by the Dinky metric reporter.
+     *
+     * @param events The pushed events.
+     */
+    void ingestJobEvents(List<JobStateEvent> events);
+
     /**
      * Refresh the job instances for the given task IDs.
      *
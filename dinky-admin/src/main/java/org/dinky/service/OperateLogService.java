@@ -29,5 +29,13 @@ public interface OperateLogService extends ISuperService<OperateLog> {
 
     void saveLog(OperateLog operateLog);
 
+    /**
+     * Queue the operate log for the background writer, the log is dropped if the queue is full.
+     *
+     * @param operateLog operate log
+     * @return false if the log was dropped
+     */
+    boolean saveLogAsync(OperateLog operateLog);
+
     ProTableResult<OperateLog> operateRecord(JsonNode para, Integer userId);
 }
@@ -47,6 +47,14 @@ public interface SchedulerService {
      */
     boolean pushUpdateTask(long projectCode, long processCode, long taskCode, DinkyTaskRequest dinkyTaskRequest);
 
+    /**
+     * Pushes a batch of DinkyTaskRequests to DolphinScheduler, one process definition update per workflow.
+     *
+     * @param  dinkyTaskRequests  the DinkyTaskRequests to be created or updated
+     * @return                    true if all workflows were successfully synchronized
+     */
+    boolean pushAddTasks(List<DinkyTaskRequest> dinkyTaskRequests);
+
     /**
      * Retrieves a list of TaskMainInfo objects based on the provided dinkyTaskId.
      *
@@ -20,6 +20,7 @@
 package org.dinky.service;
 
 import org.dinky.data.dto.AbstractStatementDTO;
+import org.dinky.data.dto.TaskBatchSubmitDto;
 import org.dinky.data.dto.TaskDTO;
 import org.dinky.data.dto.TaskRollbackVersionDTO;
 import org.dinky.data.dto.TaskSubmitDto;
@@ -32,6 +33,7 @@ import org.dinky.data.model.home.JobModelOverview;
 import org.dinky.data.model.home.JobTypeOverView;
 import org.dinky.data.result.Result;
 import org.dinky.data.result.SqlExplainResult;
+import org.dinky.data.vo.task.TaskBatchSubmitVo;
 import org.dinky.explainer.lineage.LineageResult;
 import org.dinky.gateway.enums.SavePointType;
 import org.dinky.gateway.result.SavePointResult;
@@ -72,6 +74,14 @@ public interface TaskService extends ISuperService<Task> {
      */
     JobResult submitTask(TaskSubmitDto submitDto) throws Exception;
 
+    /**
+     * Submit a batch of published tasks, ordered by their lineage and in parallel per cluster.
+     *
+     * @param submitDto The tasks to submit and the parallelism per cluster.
+     * @return The submission result of every task.
+     */
+    List<TaskBatchSubmitVo> submitTasks(TaskBatchSubmitDto submitDto);
+
     /**
      * Debug the given task and return the job result.
      *
@@ -28,12 +28,47 @@ import java.util.List;
 public interface TaskVersionService extends ISuperService<TaskVersion> {
 
     /**
-     * @description 通过作业Id查询版本数据
+     * @description 通过作业Id查询版本数据, 不包含作业语句 | Query the versions of a task, without their statements
      * @param taskId
      * @return java.util.List<org.dinky.data.model.TaskVersion>
      */
     List<TaskVersion> getTaskVersionByTaskId(Integer taskId);
 
+    /**
+     * Get a version of a task, its statement is rebuilt from the nearest full snapshot and the deltas after it.
+     *
+     * @param taskId task id
+     * @param versionId version id
+     * @return the version, or null if it does not exist
+     */
+    TaskVersion getTaskVersion(Integer taskId, Integer versionId);
+
+    /**
+     * Diff the statements of two versions of a task.
+     *
+     * @param taskId task id
+     * @param fromVersionId the old version
+     * @param toVersionId the new version
+     * @return unified diff of the statements
+     */
+    String diffTaskVersion(Integer taskId, Integer fromVersionId, Integer toVersionId);
+
+    /**
+     * Delete a version. The version stored as a delta against it is stored in full first.
+     *
+     * @param id task version id
+     * @return whether the version was deleted
+     */
+    boolean deleteTaskVersion(Integer id);
+
+    /**
+     * Store every version of every tenant that is stored as a delta in full again, needed before the delta columns
+     * are dropped.
+     *
+     * @return the number of versions stored in full
+     */
+    int restoreFullStatements();
+
     /**
      * Create a snapshot of a task version.
      *
@@ -43,6 +43,38 @@ public interface CatalogueService extends ISuperService<Catalogue> {
      */
     List<Catalogue> getCatalogueTree(CatalogueTreeQueryDTO catalogueTreeQueryDto);
 
+    /**
+     * Get a validator for the catalogue tree that {@link #getCatalogueTree} would return. It changes whenever a
+     * catalogue or a task of the tenant changes.
+     *
+     * @param catalogueTreeQueryDto The query conditions.
+     * @return A weak ETag, or null if the current tenant is unknown.
+     */
+    String getCatalogueTreeETag(CatalogueTreeQueryDTO catalogueTreeQueryDto);
+
+    /**
+     * List all catalogues of the current tenant, without children or tasks.
+     *
+     * @return A list of {@link Catalogue} objects ordered by id.
+     */
+    List<Catalogue> listCatalogueNodes();
+
+    /**
+     * Find the catalogue of a task.
+     *
+     * @param taskId The ID of the task.
+     * @return A {@link Catalogue} object, or null if the task has no catalogue.
+     */
+    Catalogue getCatalogueByTaskId(Integer taskId);
+
+    /**
+     * Get the path of a catalogue, the names from the top level down joined with '/'.
+     *
+     * @param catalogueId The ID of the catalogue.
+     * @return The path, or an empty string if the catalogue does not exist.
+     */
+    String getCataloguePath(Integer catalogueId);
+
     /**
      * Get the catalogue sort type.
      *
@@ -23,6 +23,7 @@ import static org.dinky.assertion.Asserts.isNull;
 
 import org.dinky.assertion.Asserts;
 import org.dinky.config.Dialect;
+import org.dinky.context.TenantContextHolder;
 import org.dinky.data.dto.CatalogueTaskDTO;
 import org.dinky.data.dto.CatalogueTreeQueryDTO;
 import org.dinky.data.enums.CatalogueSortValueEnum;
@@ -51,23 +52,29 @@ import org.dinky.service.TaskService;
 import org.dinky.service.catalogue.CatalogueService;
 import org.dinky.service.catalogue.factory.CatalogueFactory;
 import org.dinky.service.catalogue.factory.CatalogueTreeSortFactory;
+import org.dinky.service.catalogue.index.CatalogueTreeIndex;
 import org.dinky.service.catalogue.strategy.CatalogueTreeSortStrategy;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.nio.file.Files;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
@@ -75,9 +82,10 @@ import com.google.common.collect.Lists;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -105,99 +113,158 @@ public class CatalogueServiceImpl extends SuperServiceImpl<CatalogueMapper, Cata
 
     private final CatalogueFactory catalogueFactory;
 
+    private final CatalogueTreeIndex catalogueTreeIndex;
+
+    /** Distinguishes validators handed out before a restart, when versions start over. */
+    private static final String INDEX_INSTANCE = UUID.randomUUID().toString();
+
     /**
      * @return
      */
     @Override
     public List<Catalogue> getCatalogueTree(CatalogueTreeQueryDTO catalogueTreeQueryDto) {
         log.info("getCatalogueTree, catalogueTreeQueryDto: {}", catalogueTreeQueryDto);
-        List<Catalogue> catalogueTree = buildCatalogueTree(this.list());
+        Integer tenantId = currentTenantId();
+        List<Catalogue> catalogueTree = tenantId == null
+                ? new CatalogueTreeIndex.Tree(this.list()).snapshot(catalogueTreeQueryDto.getRootId())
+                : getTree(tenantId).snapshot(catalogueTreeQueryDto.getRootId());
+        attachTasks(catalogueTree);
         // sort
         CatalogueTreeSortStrategy strategy = catalogueTreeSortFactory.getStrategy(catalogueTreeQueryDto.getSortValue());
         return strategy.sort(catalogueTree, SortTypeEnum.getByName(catalogueTreeQueryDto.getSortType()));
     }
 
+    @Override
+    public String getCatalogueTreeETag(CatalogueTreeQueryDTO catalogueTreeQueryDto) {
+        Integer tenantId = currentTenantId();
+        if (tenantId == null) {
+            return null;
+        }
+        // Tasks are shown in the tree as well, their count and last change cover edits made outside catalogues
+        long taskCount = taskService.count();
+        Object lastTaskUpdate = taskService.getObj(new QueryWrapper<Task>().select("max(update_time)"), o -> o);
+        String validator = StrUtil.join(
+                "|",
+                INDEX_INSTANCE,
+                tenantId,
+                getTree(tenantId).getVersion(),
+                taskCount,
+                lastTaskUpdate,
+                catalogueTreeQueryDto.getRootId(),
+                catalogueTreeQueryDto.getSortValue(),
+                catalogueTreeQueryDto.getSortType());
+        return "W/\"" + DigestUtil.md5Hex(validator) + "\"";
+    }
+
+    @Override
+    public List<Catalogue> listCatalogueNodes() {
+        Integer tenantId = currentTenantId();
+        return tenantId == null ? this.list() : getTree(tenantId).listNodes();
+    }
+
+    @Override
+    public Catalogue getCatalogueByTaskId(Integer taskId) {
+        Integer tenantId = currentTenantId();
+        return tenantId == null
+                ? getOne(new LambdaQueryWrapper<Catalogue>().eq(Catalogue::getTaskId, taskId), false)
+                : getTree(tenantId).getNodeByTaskId(taskId);
+    }
+
+    @Override
+    public String getCataloguePath(Integer catalogueId) {
+        Integer tenantId = currentTenantId();
+        return tenantId == null
+                ? new CatalogueTreeIndex.Tree(this.list()).getPath(catalogueId)
+                : getTree(tenantId).getPath(catalogueId);
+    }
+
+    private CatalogueTreeIndex.Tree getTree(Integer tenantId) {
+        return catalogueTreeIndex.getTree(tenantId, this::getCatalogueState, this::list);
+    }
+
+    /** Row count and last update of the tenant catalogues, changed by writes of any Dinky instance. */
+    private Object getCatalogueState() {
+        return getMap(new QueryWrapper<Catalogue>().select("count(*) as total", "max(update_time) as last_update"));
+    }
+
+    private static Integer currentTenantId() {
+        Object tenantId = TenantContextHolder.get();
+        return tenantId instanceof Integer && !TenantContextHolder.isIgnoreTenant() ? (Integer) tenantId : null;
+    }
+
     /**
-     * build catalogue tree
+     * Attach the tasks of the tree nodes, loaded in one query without their statements.
      *
-     * @param catalogueList catalogue list
-     * @return catalogue tree
+     * @param catalogueTree catalogue tree
      */
-    public List<Catalogue> buildCatalogueTree(List<Catalogue> catalogueList) {
-        // sort
-        if (CollectionUtil.isNotEmpty(catalogueList)) {
-            catalogueList = catalogueList.stream()
-                    .sorted(Comparator.comparing(Catalogue::getId))
-                    .collect(Collectors.toList());
-        }
-        List<Task> taskList = taskService.list();
-        List<Catalogue> returnList = new ArrayList<>();
-        for (Catalogue catalogue : catalogueList) {
-            //  get all child catalogue of parent catalogue id , the 0 is root catalogue
-            if (catalogue.getParentId() == 0) {
-                recursionBuildCatalogueAndChildren(catalogueList, catalogue, taskList);
-                returnList.add(catalogue);
+    private void attachTasks(List<Catalogue> catalogueTree) {
+        Map<Integer, Task> tasks = taskService
+                .list(new LambdaQueryWrapper<Task>()
+                        .select(Task.class, field -> !"statement".equals(field.getColumn())))
+                .stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        Deque<Catalogue> pending = new ArrayDeque<>(catalogueTree);
+        while (!pending.isEmpty()) {
+            Catalogue catalogue = pending.pop();
+            if (catalogue.getTaskId() != null && tasks.containsKey(catalogue.getTaskId())) {
+                catalogue.setTaskAndNote(tasks.get(catalogue.getTaskId()));
             }
+            pending.addAll(catalogue.getChildren());
         }
-        if (returnList.isEmpty()) {
-            returnList = catalogueList;
-        }
-        return returnList;
+    }
+
+    private static Integer resolveTenantId(Catalogue catalogue) {
+        return catalogue.getTenantId() != null ? catalogue.getTenantId() : currentTenantId();
     }
 
     /**
-     * recursion build catalogue and children
+     * Run once the current transaction commits, or right away outside a transaction, so that rolled back
+     * writes never reach the tree index.
      *
-     * @param list
-     * @param catalogues
+     * @param action action
      */
-    private void recursionBuildCatalogueAndChildren(List<Catalogue> list, Catalogue catalogues, List<Task> taskList) {
-        // 得到子节点列表
-        List<Catalogue> childList = getChildList(list, catalogues);
-        catalogues.setChildren(childList);
-        for (Catalogue tChild : childList) {
-            if (hasChild(list, tChild)) {
-                // Determine whether there are child nodes
-                for (Catalogue children : childList) {
-                    recursionBuildCatalogueAndChildren(list, children, taskList);
-                }
-            } else {
-                if (tChild.getIsLeaf() || null != tChild.getTaskId()) {
-                    taskList.stream()
-                            .filter(t -> t.getId().equals(tChild.getTaskId()))
-                            .findFirst()
-                            .ifPresent(tChild::setTaskAndNote);
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
                 }
-            }
+            });
+        } else {
+            action.run();
         }
     }
 
-    /**
-     * Determine whether there are child nodes
-     *
-     * @param list
-     * @param catalogue
-     * @return
-     */
-    private boolean hasChild(List<Catalogue> list, Catalogue catalogue) {
-        return !getChildList(list, catalogue).isEmpty();
+    @Override
+    public boolean save(Catalogue entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            Catalogue row = CatalogueTreeIndex.copyOf(entity);
+            Integer tenantId = resolveTenantId(entity);
+            afterCommit(() -> catalogueTreeIndex.upsert(tenantId, row));
+        }
+        return saved;
     }
 
-    /**
-     * get child list
-     *
-     * @param list
-     * @param catalogue
-     * @return
-     */
-    private List<Catalogue> getChildList(List<Catalogue> list, Catalogue catalogue) {
-        List<Catalogue> childList = new ArrayList<>();
-        for (Catalogue n : list) {
-            if (n.getParentId().longValue() == catalogue.getId().longValue()) {
-                childList.add(n);
-            }
+    @Override
+    public boolean updateById(Catalogue entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            Catalogue row = CatalogueTreeIndex.copyOf(entity);
+            Integer tenantId = resolveTenantId(entity);
+            afterCommit(() -> catalogueTreeIndex.upsert(tenantId, row));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            afterCommit(() -> catalogueTreeIndex.remove((Integer) id));
         }
-        return childList;
+        return removed;
     }
 
     /**
@@ -0,0 +1,384 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.catalogue.index;
+
+import org.dinky.data.model.Catalogue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * CatalogueTreeIndex
+ *
+ * <p>Keeps the catalogue tree of every tenant in memory, so that node lookup, task lookup and paths do not go
+ * to the database. A tenant tree is loaded on first use and then kept up to date by {@link #upsert} and
+ * {@link #remove}, which the catalogue service calls once a write is committed. Every change gets a new
+ * version, which callers can use as a validator for the tree they serve.
+ *
+ * <p>Writes made by another Dinky instance never reach this index. So a tree is checked against a cheap state
+ * of the database, such as the row count and the last update time, when it was last checked more than
+ * {@link #DEFAULT_CHECK_INTERVAL} ago, and loaded again when the state changed. A tree older than
+ * {@link #DEFAULT_MAX_AGE} is always loaded again, for changes the state misses.
+ */
+@Component
+public class CatalogueTreeIndex {
+
+    public static final int ROOT_ID = 0;
+
+    public static final long DEFAULT_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+    public static final long DEFAULT_MAX_AGE = TimeUnit.MINUTES.toMillis(10);
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final Map<Integer, Tree> trees = new ConcurrentHashMap<>();
+
+    private final long checkInterval;
+    private final long maxAge;
+
+    /** Bumped before each change, so that a load racing with a write is not cached. */
+    private final AtomicLong modifications = new AtomicLong();
+
+    public CatalogueTreeIndex() {
+        this(DEFAULT_CHECK_INTERVAL, DEFAULT_MAX_AGE);
+    }
+
+    CatalogueTreeIndex(long checkInterval, long maxAge) {
+        this.checkInterval = checkInterval;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Get the tree of a tenant, loading it with the given loader if it is not indexed yet, or if the tenant
+     * catalogues changed in the database since it was loaded.
+     *
+     * @param tenantId    tenant id
+     * @param stateLoader loads a state of the tenant catalogues that changes with every write
+     * @param loader      loads all catalogues of the tenant
+     * @return the tenant tree
+     */
+    public Tree getTree(Integer tenantId, Supplier<Object> stateLoader, Supplier<List<Catalogue>> loader) {
+        Tree tree = trees.get(tenantId);
+        long now = System.currentTimeMillis();
+        if (tree != null && now - tree.loadTime < maxAge) {
+            if (now - tree.checkTime < checkInterval) {
+                return tree;
+            }
+            if (Objects.equals(stateLoader.get(), tree.state)) {
+                tree.checkTime = now;
+                return tree;
+            }
+        }
+        if (tree != null) {
+            trees.remove(tenantId, tree);
+        }
+        long stamp = modifications.get();
+        // Read before the catalogues, a write in between then shows up at the next check
+        Object state = stateLoader.get();
+        Tree loaded = new Tree(loader.get());
+        loaded.state = state;
+        loaded.loadTime = now;
+        loaded.checkTime = now;
+        Tree previous = trees.putIfAbsent(tenantId, loaded);
+        if (previous != null) {
+            return previous;
+        }
+        if (modifications.get() != stamp) {
+            // A write committed while loading, it may be missing in what was read
+            trees.remove(tenantId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Add a catalogue or apply an update to it. Fields that are null in the given row are kept, the same way
+     * an update by id leaves null columns untouched.
+     *
+     * @param tenantId tenant of the catalogue, used when the catalogue is not indexed yet. If it is null the
+     *                 whole index is dropped.
+     * @param row      the saved row
+     */
+    public void upsert(Integer tenantId, Catalogue row) {
+        modifications.incrementAndGet();
+        for (Tree tree : trees.values()) {
+            if (tree.update(row)) {
+                return;
+            }
+        }
+        if (tenantId == null) {
+            invalidate();
+            return;
+        }
+        Tree tree = trees.get(tenantId);
+        if (tree != null) {
+            tree.insert(row);
+        }
+    }
+
+    /**
+     * Remove a catalogue and everything below it.
+     *
+     * @param id catalogue id
+     */
+    public void remove(Integer id) {
+        modifications.incrementAndGet();
+        trees.values().forEach(tree -> tree.remove(id));
+    }
+
+    /** Drop all tenant trees, they are loaded again on next use. */
+    public void invalidate() {
+        modifications.incrementAndGet();
+        trees.clear();
+    }
+
+    /** The catalogue tree of one tenant. Nodes handed out are copies, callers are free to change them. */
+    public static final class Tree {
+
+        private final Map<Integer, Catalogue> nodes = new HashMap<>();
+        private final Map<Integer, Set<Integer>> children = new HashMap<>();
+        private final Map<Integer, Integer> taskNodes = new HashMap<>();
+        private final Map<Integer, String> paths = new HashMap<>();
+        private long version = VERSIONS.incrementAndGet();
+        private volatile Object state;
+        private volatile long loadTime;
+        private volatile long checkTime;
+
+        /** Build a tree from catalogues, trees built outside the index are not kept up to date. */
+        public Tree(List<Catalogue> catalogues) {
+            catalogues.forEach(this::link);
+        }
+
+        public synchronized long getVersion() {
+            return version;
+        }
+
+        public synchronized Catalogue getNode(Integer id) {
+            Catalogue node = nodes.get(id);
+            return node == null ? null : copyOf(node);
+        }
+
+        public synchronized Catalogue getNodeByTaskId(Integer taskId) {
+            Integer id = taskNodes.get(taskId);
+            return id == null ? null : copyOf(nodes.get(id));
+        }
+
+        /** All nodes, ordered by id. */
+        public synchronized List<Catalogue> listNodes() {
+            List<Catalogue> list = new ArrayList<>(nodes.size());
+            new TreeSet<>(nodes.keySet()).forEach(id -> list.add(copyOf(nodes.get(id))));
+            return list;
+        }
+
+        /**
+         * Names from the top level down to the given catalogue, joined with '/'. Ancestors that do not exist
+         * end the path, like a walk up the parent ids would.
+         *
+         * @param id catalogue id
+         * @return the path, or an empty string if the catalogue does not exist
+         */
+        public synchronized String getPath(Integer id) {
+            Catalogue node = nodes.get(id);
+            if (node == null) {
+                return "";
+            }
+            String path = paths.get(id);
+            if (path == null) {
+                Deque<String> names = new ArrayDeque<>();
+                for (Catalogue current = node;
+                        current != null && names.size() <= nodes.size();
+                        current = current.getParentId() == null ? null : nodes.get(current.getParentId())) {
+                    names.push(current.getName());
+                    if (Objects.equals(current.getParentId(), ROOT_ID)) {
+                        break;
+                    }
+                }
+                path = String.join("/", names);
+                paths.put(id, path);
+            }
+            return path;
+        }
+
+        /**
+         * Copy the tree below a node, children ordered by id.
+         *
+         * @param rootId the node to start from, null or {@link #ROOT_ID} for all top level nodes
+         * @return the subtree, an empty list if the node does not exist
+         */
+        public synchronized List<Catalogue> snapshot(Integer rootId) {
+            if (rootId != null && rootId != ROOT_ID) {
+                Catalogue root = nodes.get(rootId);
+                return root == null ? new ArrayList<>() : Collections.singletonList(copyTree(root));
+            }
+            Set<Integer> top = children.getOrDefault(ROOT_ID, Collections.emptySet());
+            if (top.isEmpty()) {
+                // Nothing hangs off the root, hand out the nodes flat
+                return listNodes();
+            }
+            List<Catalogue> list = new ArrayList<>(top.size());
+            top.forEach(id -> list.add(copyTree(nodes.get(id))));
+            return list;
+        }
+
+        private Catalogue copyTree(Catalogue node) {
+            Catalogue copy = copyOf(node);
+            Set<Integer> childIds = children.getOrDefault(node.getId(), Collections.emptySet());
+            List<Catalogue> list = new ArrayList<>(childIds.size());
+            childIds.forEach(id -> list.add(copyTree(nodes.get(id))));
+            copy.setChildren(list);
+            return copy;
+        }
+
+        synchronized void insert(Catalogue row) {
+            link(copyOf(row));
+            version = VERSIONS.incrementAndGet();
+        }
+
+        synchronized boolean update(Catalogue row) {
+            Catalogue node = nodes.get(row.getId());
+            if (node == null) {
+                return false;
+            }
+            Catalogue merged = copyOf(node);
+            merge(merged, row);
+            boolean pathChanged = !Objects.equals(node.getName(), merged.getName())
+                    || !Objects.equals(node.getParentId(), merged.getParentId());
+            if (pathChanged) {
+                evictPaths(node.getId());
+            }
+            unlink(node);
+            link(merged);
+            version = VERSIONS.incrementAndGet();
+            return true;
+        }
+
+        synchronized void remove(Integer id) {
+            Catalogue node = nodes.get(id);
+            if (node == null) {
+                return;
+            }
+            evictPaths(id);
+            unlink(node);
+            Set<Integer> childIds = children.remove(id);
+            if (childIds != null) {
+                childIds.forEach(this::remove);
+            }
+            version = VERSIONS.incrementAndGet();
+        }
+
+        private void link(Catalogue node) {
+            nodes.put(node.getId(), node);
+            if (node.getParentId() != null) {
+                children.computeIfAbsent(node.getParentId(), k -> new TreeSet<>())
+                        .add(node.getId());
+            }
+            if (node.getTaskId() != null) {
+                taskNodes.put(node.getTaskId(), node.getId());
+            }
+        }
+
+        private void unlink(Catalogue node) {
+            nodes.remove(node.getId());
+            Set<Integer> siblings = node.getParentId() == null ? null : children.get(node.getParentId());
+            if (siblings != null) {
+                siblings.remove(node.getId());
+            }
+            if (node.getTaskId() != null) {
+                taskNodes.remove(node.getTaskId(), node.getId());
+            }
+        }
+
+        private void evictPaths(Integer id) {
+            Set<Integer> visited = new HashSet<>();
+            Deque<Integer> pending = new ArrayDeque<>();
+            pending.push(id);
+            while (!pending.isEmpty()) {
+                Integer current = pending.pop();
+                if (!visited.add(current)) {
+                    continue;
+                }
+                paths.remove(current);
+                children.getOrDefault(current, Collections.emptySet()).forEach(pending::push);
+            }
+        }
+    }
+
+    /**
+     * Copy the columns of a catalogue, without children or task.
+     *
+     * @param catalogue catalogue
+     * @return the copy
+     */
+    public static Catalogue copyOf(Catalogue catalogue) {
+        Catalogue copy = new Catalogue();
+        copy.setId(catalogue.getId());
+        merge(copy, catalogue);
+        return copy;
+    }
+
+    private static void merge(Catalogue target, Catalogue source) {
+        if (source.getName() != null) {
+            target.setName(source.getName());
+        }
+        if (source.getEnabled() != null) {
+            target.setEnabled(source.getEnabled());
+        }
+        if (source.getCreateTime() != null) {
+            target.setCreateTime(source.getCreateTime());
+        }
+        if (source.getUpdateTime() != null) {
+            target.setUpdateTime(source.getUpdateTime());
+        }
+        if (source.getCreator() != null) {
+            target.setCreator(source.getCreator());
+        }
+        if (source.getUpdater() != null) {
+            target.setUpdater(source.getUpdater());
+        }
+        if (source.getTenantId() != null) {
+            target.setTenantId(source.getTenantId());
+        }
+        if (source.getTaskId() != null) {
+            target.setTaskId(source.getTaskId());
+        }
+        if (source.getType() != null) {
+            target.setType(source.getType());
+        }
+        if (source.getParentId() != null) {
+            target.setParentId(source.getParentId());
+        }
+        if (source.getIsLeaf() != null) {
+            target.setIsLeaf(source.getIsLeaf());
+        }
+    }
+}
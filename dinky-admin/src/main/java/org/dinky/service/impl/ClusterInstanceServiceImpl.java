@@ -21,7 +21,7 @@ package org.dinky.service.impl;
 
 import org.dinky.assertion.Asserts;
 import org.dinky.assertion.DinkyAssert;
-import org.dinky.cluster.FlinkCluster;
+import org.dinky.cluster.FlinkClusterHealthRegistry;
 import org.dinky.cluster.FlinkClusterInfo;
 import org.dinky.data.dto.ClusterInstanceDTO;
 import org.dinky.data.enums.GatewayType;
@@ -49,8 +49,6 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -60,7 +58,6 @@ import org.springframework.transaction.annotation.Transactional;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 
-import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
 
@@ -82,15 +79,14 @@ public class ClusterInstanceServiceImpl extends SuperServiceImpl<ClusterInstance
 
     @Override
     public FlinkClusterInfo checkHeartBeat(String hosts, String host) {
-        return FlinkCluster.testFlinkJobManagerIP(hosts, host);
+        return FlinkClusterHealthRegistry.getClusterInfo(hosts, host);
     }
 
     @Override
     public String getJobManagerAddress(ClusterInstance clusterInstance) {
         // TODO 这里判空逻辑有问题，clusterInstance有可能为null
         DinkyAssert.check(clusterInstance);
-        FlinkClusterInfo info =
-                FlinkCluster.testFlinkJobManagerIP(clusterInstance.getHosts(), clusterInstance.getJobManagerHost());
+        FlinkClusterInfo info = checkHeartBeat(clusterInstance.getHosts(), clusterInstance.getJobManagerHost());
         String host = null;
         if (info.isEffective()) {
             host = info.getJobManagerAddress();
@@ -181,6 +177,9 @@ public class ClusterInstanceServiceImpl extends SuperServiceImpl<ClusterInstance
         if (Asserts.isNotNull(clusterInstance) && checkHealth(clusterInstance) && clusterInstance.isAutoRegisters()) {
             throw new BusException(Status.CLUSTER_INSTANCE_HEALTH_NOT_DELETE);
         }
+        if (Asserts.isNotNull(clusterInstance)) {
+            FlinkClusterHealthRegistry.remove(clusterInstance.getHosts());
+        }
         return removeById(id);
     }
 
@@ -222,6 +221,7 @@ public class ClusterInstanceServiceImpl extends SuperServiceImpl<ClusterInstance
                     clusterConfigurationService.getFlinkClusterCfg(clusterConfigurationId);
             GatewayConfig gatewayConfig = GatewayConfig.build(flinkClusterConfig);
             JobManager.killCluster(gatewayConfig, clusterInstance.getName());
+            FlinkClusterHealthRegistry.remove(clusterInstance.getHosts());
         }
     }
 
@@ -282,12 +282,15 @@ public class ClusterInstanceServiceImpl extends SuperServiceImpl<ClusterInstance
     @Override
     public Long heartbeat() {
         List<ClusterInstance> clusterInstances = this.list();
-        ExecutorService executor = ThreadUtil.newExecutor(Math.min(clusterInstances.size(), 10));
-        List<CompletableFuture<Integer>> futures = clusterInstances.stream()
-                .map(c -> CompletableFuture.supplyAsync(
-                        () -> this.registersCluster(c).getStatus(), executor))
-                .collect(Collectors.toList());
-        return futures.stream().map(CompletableFuture::join).filter(x -> x == 1).count();
+        // probe all clusters at once on the shared pool, registering below reads the fresh results
+        CompletableFuture.allOf(clusterInstances.stream()
+                        .map(c -> FlinkClusterHealthRegistry.refreshAsync(c.getHosts(), c.getJobManagerHost()))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+        return clusterInstances.stream()
+                .map(c -> this.registersCluster(c).getStatus())
+                .filter(x -> x == 1)
+                .count();
     }
 
     private boolean checkHealth(ClusterInstance clusterInstance) {
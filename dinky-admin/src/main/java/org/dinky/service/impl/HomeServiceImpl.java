@@ -19,10 +19,18 @@
 
 package org.dinky.service.impl;
 
+import org.dinky.context.HomeStatisticsContextHolder;
+import org.dinky.context.HomeStatisticsContextHolder.Section;
+import org.dinky.context.TenantContextHolder;
+import org.dinky.data.enums.JobLifeCycle;
+import org.dinky.data.enums.JobStatus;
+import org.dinky.data.model.Task;
 import org.dinky.data.model.home.HomeResource;
+import org.dinky.data.model.home.JobInstanceCount;
 import org.dinky.data.model.home.JobModelOverview;
 import org.dinky.data.model.home.JobStatusOverView;
 import org.dinky.data.model.home.JobTypeOverView;
+import org.dinky.mapper.JobInstanceMapper;
 import org.dinky.service.AlertGroupService;
 import org.dinky.service.AlertInstanceService;
 import org.dinky.service.ClusterConfigurationService;
@@ -33,12 +41,21 @@ import org.dinky.service.GitProjectService;
 import org.dinky.service.HomeService;
 import org.dinky.service.TaskService;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.stereotype.Service;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+
 import lombok.RequiredArgsConstructor;
 
+/**
+ * HomeServiceImpl, the statistics are materialized in {@link HomeStatisticsContextHolder} and only
+ * counted in the database when they are missing, invalidated by a write or due for reconciliation.
+ */
 @Service
 @RequiredArgsConstructor
 public class HomeServiceImpl implements HomeService {
@@ -51,34 +68,89 @@ public class HomeServiceImpl implements HomeService {
     private final AlertGroupService alertGroupService;
     private final AlertInstanceService alertInstanceService;
     private final TaskService taskService;
+    private final JobInstanceMapper jobInstanceMapper;
 
     @Override
     public HomeResource getResourceOverview() {
-        HomeResource homeResource = new HomeResource();
-        homeResource.setFlinkClusterCount(clusterInstanceService.list().size());
-        homeResource.setFlinkConfigCount(clusterConfigurationService.list().size());
-        homeResource.setDbSourceCount(dataBaseService.list().size());
-        homeResource.setGlobalVarCount(fragmentVariableService.list().size());
-        homeResource.setGitProjectCount(gitProjectService.list().size());
-        homeResource.setAlertGroupCount(alertGroupService.list().size());
-        homeResource.setAlertInstanceCount(alertInstanceService.list().size());
-        return homeResource;
+        return HomeStatisticsContextHolder.get(getTenantId(), Section.RESOURCE, () -> {
+            HomeResource homeResource = new HomeResource();
+            homeResource.setFlinkClusterCount((int) clusterInstanceService.count());
+            homeResource.setFlinkConfigCount((int) clusterConfigurationService.count());
+            homeResource.setDbSourceCount((int) dataBaseService.count());
+            homeResource.setGlobalVarCount((int) fragmentVariableService.count());
+            homeResource.setGitProjectCount((int) gitProjectService.count());
+            homeResource.setAlertGroupCount((int) alertGroupService.count());
+            homeResource.setAlertInstanceCount((int) alertInstanceService.count());
+            return homeResource;
+        });
     }
 
     @Override
     public JobStatusOverView getJobStatusOverView() {
+        Map<String, AtomicLong> counts =
+                HomeStatisticsContextHolder.getJobStatusCounts(getTenantId(), this::countJobInstanceByStatus);
         JobStatusOverView jobStatusOverView = new JobStatusOverView();
-        // todo: query job status
+        jobStatusOverView.setJobRunningCount(getCount(counts, JobStatus.RUNNING));
+        jobStatusOverView.setJobFinishedCount(getCount(counts, JobStatus.FINISHED));
+        jobStatusOverView.setJobRecoveredCount(getCount(counts, JobStatus.RESTARTING));
+        jobStatusOverView.setJobErrorCount(getCount(counts, JobStatus.FAILED) + getCount(counts, JobStatus.FAILING));
+        TaskOverview taskOverview = getTaskOverview();
+        jobStatusOverView.setJobOnlineCount(taskOverview.onlineCount);
+        jobStatusOverView.setJobOfflineCount(taskOverview.offlineCount);
         return jobStatusOverView;
     }
 
     @Override
     public List<JobTypeOverView> getJobTypeOverView() {
-        return taskService.getTaskOnlineRate();
+        return getTaskOverview().jobTypeOverViews;
     }
 
     @Override
     public JobModelOverview getJobModelOverview() {
-        return taskService.getJobStreamingOrBatchModelOverview();
+        return getTaskOverview().jobModelOverview;
+    }
+
+    /** Task statistics are loaded together, they all change with the same writes to dinky_task. */
+    private static class TaskOverview {
+        private List<JobTypeOverView> jobTypeOverViews;
+        private JobModelOverview jobModelOverview;
+        private int onlineCount;
+        private int offlineCount;
+    }
+
+    private TaskOverview getTaskOverview() {
+        return HomeStatisticsContextHolder.get(getTenantId(), Section.TASK, () -> {
+            TaskOverview taskOverview = new TaskOverview();
+            taskOverview.jobTypeOverViews = taskService.getTaskOnlineRate();
+            taskOverview.jobModelOverview = taskService.getJobStreamingOrBatchModelOverview();
+            taskOverview.onlineCount = (int) taskService.count(new LambdaQueryWrapper<Task>()
+                    .eq(Task::getEnabled, 1)
+                    .eq(Task::getStep, JobLifeCycle.PUBLISH.getValue()));
+            taskOverview.offlineCount = (int) taskService.count(new LambdaQueryWrapper<Task>()
+                    .eq(Task::getEnabled, 1)
+                    .ne(Task::getStep, JobLifeCycle.PUBLISH.getValue()));
+            return taskOverview;
+        });
+    }
+
+    /** Count the latest job instance of every task by status. */
+    private Map<String, Long> countJobInstanceByStatus() {
+        Map<String, Long> counts = new HashMap<>();
+        for (JobInstanceCount item : jobInstanceMapper.countStatus()) {
+            if (item.getStatus() != null && item.getCounts() != null) {
+                counts.put(item.getStatus(), item.getCounts().longValue());
+            }
+        }
+        return counts;
+    }
+
+    private static int getCount(Map<String, AtomicLong> counts, JobStatus jobStatus) {
+        AtomicLong count = counts.get(jobStatus.getValue());
+        return count == null ? 0 : (int) Math.max(0, count.get());
+    }
+
+    private static Integer getTenantId() {
+        Object tenantId = TenantContextHolder.get();
+        return tenantId instanceof Integer ? (Integer) tenantId : null;
     }
 }
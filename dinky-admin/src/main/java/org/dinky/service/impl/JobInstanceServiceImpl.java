@@ -20,6 +20,8 @@
 package org.dinky.service.impl;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.context.JobPushContextHolder;
+import org.dinky.context.JobSnapshotContextHolder;
 import org.dinky.context.TenantContextHolder;
 import org.dinky.daemon.pool.FlinkJobThreadPool;
 import org.dinky.daemon.task.DaemonTask;
@@ -28,8 +30,11 @@ import org.dinky.data.dto.ClusterConfigurationDTO;
 import org.dinky.data.dto.JobDataDto;
 import org.dinky.data.enums.JobStatus;
 import org.dinky.data.enums.Status;
+import org.dinky.data.flink.job.JobDoneHook;
+import org.dinky.data.flink.job.JobStateEvent;
 import org.dinky.data.model.ClusterConfiguration;
 import org.dinky.data.model.ClusterInstance;
+import org.dinky.data.model.Savepoints;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.home.JobInstanceCount;
 import org.dinky.data.model.home.JobInstanceStatus;
@@ -52,6 +57,7 @@ import org.dinky.service.ClusterInstanceService;
 import org.dinky.service.HistoryService;
 import org.dinky.service.JobHistoryService;
 import org.dinky.service.JobInstanceService;
+import org.dinky.service.SavepointsService;
 
 import java.util.List;
 import java.util.Map;
@@ -83,6 +89,7 @@ public class JobInstanceServiceImpl extends SuperServiceImpl<JobInstanceMapper,
     private final ClusterInstanceService clusterInstanceService;
     private final ClusterConfigurationService clusterConfigurationService;
     private final JobHistoryService jobHistoryService;
+    private final SavepointsService savepointsService;
 
     @Override
     public JobInstance getByIdWithoutTenant(Integer id) {
@@ -149,6 +156,10 @@ public class JobInstanceServiceImpl extends SuperServiceImpl<JobInstanceMapper,
 
     @Override
     public JobInfoDetail getJobInfoDetail(Integer id) {
+        JobInfoDetail snapshot = JobSnapshotContextHolder.get(id);
+        if (snapshot != null) {
+            return snapshot;
+        }
         return getJobInfoDetailInfo(getById(id));
     }
 
@@ -198,34 +209,67 @@ public class JobInstanceServiceImpl extends SuperServiceImpl<JobInstanceMapper,
 
     @Override
     public JobInfoDetail refreshJobInfoDetail(Integer jobInstanceId, boolean isForce) {
-        DaemonTaskConfig daemonTaskConfig = DaemonTaskConfig.build(FlinkJobTask.TYPE, jobInstanceId);
-        DaemonTask daemonTask = FlinkJobThreadPool.getInstance().getByTaskConfig(daemonTaskConfig);
-
-        if (daemonTask != null && !isForce) {
-            return ((FlinkJobTask) daemonTask).getJobInfoDetail();
-        } else if (isForce) {
+        if (isForce) {
+            DaemonTaskConfig daemonTaskConfig = DaemonTaskConfig.build(FlinkJobTask.TYPE, jobInstanceId);
             FlinkJobThreadPool.getInstance().removeByTaskConfig(daemonTaskConfig);
-            daemonTask = DaemonTask.build(daemonTaskConfig);
+            DaemonTask daemonTask = DaemonTask.build(daemonTaskConfig);
             daemonTask.dealTask();
             JobInfoDetail jobInfoDetail = ((FlinkJobTask) daemonTask).getJobInfoDetail();
             if (!JobStatus.isDone(jobInfoDetail.getInstance().getStatus())) {
+                // The task keeps updating its own detail, hand out the published copy instead
+                JobInfoDetail snapshot = JobSnapshotContextHolder.get(jobInstanceId);
                 FlinkJobThreadPool.getInstance().execute(daemonTask);
+                return snapshot;
             }
             return jobInfoDetail;
-        } else {
-            return getJobInfoDetail(jobInstanceId);
         }
+        // A monitored job is served from its snapshot, the others from the database
+        return getJobInfoDetail(jobInstanceId);
     }
 
     @Override
     public boolean hookJobDone(String jobId, Integer taskId) {
+        return hookJobDone(getHookedInstance(jobId, taskId));
+    }
+
+    @Override
+    public boolean hookJobDone(JobDoneHook hook) {
+        JobInstance instance = getHookedInstance(hook.getJobId(), hook.getTaskId());
+        if (instance != null) {
+            // the application cluster is about to shut down, keep what only the job itself could tell
+            JobPushContextHolder.acceptDone(hook);
+            saveFinalCheckpoint(instance, hook);
+        }
+        return hookJobDone(instance);
+    }
+
+    private JobInstance getHookedInstance(String jobId, Integer taskId) {
         LambdaQueryWrapper<JobInstance> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper
                 .eq(JobInstance::getJid, jobId)
                 .eq(JobInstance::getTaskId, taskId)
                 .orderByDesc(JobInstance::getCreateTime)
                 .last("limit 1");
-        JobInstance instance = baseMapper.selectOne(queryWrapper);
+        return baseMapper.selectOne(queryWrapper);
+    }
+
+    /** Record the last checkpoint of the job, so that the savepoint strategies of the task can restore from it. */
+    private void saveFinalCheckpoint(JobInstance instance, JobDoneHook hook) {
+        if (Asserts.isNullString(hook.getCheckpointPath())
+                || savepointsService.listSavepointsByTaskId(hook.getTaskId()).stream()
+                        .anyMatch(x -> hook.getCheckpointPath().equals(x.getPath()))) {
+            return;
+        }
+        Savepoints savepoints = new Savepoints();
+        savepoints.setName("final checkpoint");
+        savepoints.setType("checkpoint");
+        savepoints.setPath(hook.getCheckpointPath());
+        savepoints.setTaskId(hook.getTaskId());
+        savepoints.setTenantId(instance.getTenantId());
+        savepointsService.save(savepoints);
+    }
+
+    private boolean hookJobDone(JobInstance instance) {
         if (instance == null) {
             // Not having a corresponding jobinstance means that this may not have succeeded in running,
             // returning true to prevent retry.
@@ -244,6 +288,13 @@ public class JobInstanceServiceImpl extends SuperServiceImpl<JobInstanceMapper,
         return isDone;
     }
 
+    @Override
+    public void ingestJobEvents(List<JobStateEvent> events) {
+        if (Asserts.isNotNullCollection(events)) {
+            JobPushContextHolder.accept(events);
+        }
+    }
+
     @Override
     public void refreshJobByTaskIds(Integer... taskIds) {
         for (Integer taskId : taskIds) {
@@ -25,21 +25,136 @@ import org.dinky.mapper.OperateLogMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.OperateLogService;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @Service
 public class OperateLogServiceImpl extends SuperServiceImpl<OperateLogMapper, OperateLog> implements OperateLogService {
+
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int BATCH_SIZE = 500;
+    private static final long POLL_TIMEOUT_MS = 1000;
+
+    private final BlockingQueue<PendingLog> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Timer writeTimer;
+    private final Timer delayTimer;
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public OperateLogServiceImpl(MeterRegistry meterRegistry) {
+        Gauge.builder("dinky.operate.log.queue.size", queue, BlockingQueue::size)
+                .description("Operate logs waiting to be written")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("dinky.operate.log.dropped")
+                .description("Operate logs dropped because the queue was full")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("dinky.operate.log.failed")
+                .description("Operate logs lost because the batch insert failed")
+                .register(meterRegistry);
+        writeTimer = Timer.builder("dinky.operate.log.write")
+                .description("Time of one batch insert of operate logs")
+                .register(meterRegistry);
+        delayTimer = Timer.builder("dinky.operate.log.delay")
+                .description("Time from capturing an operate log to having it written")
+                .register(meterRegistry);
+    }
+
+    /** An operate log with the time it was queued. */
+    private static class PendingLog {
+        private final OperateLog operateLog;
+        private final long queuedAt = System.nanoTime();
+
+        private PendingLog(OperateLog operateLog) {
+            this.operateLog = operateLog;
+        }
+    }
+
+    @PostConstruct
+    public void startWriter() {
+        writer = new Thread(this::writeLoop, "operate-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stopWriter() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
     /** @param operateLog */
     @Override
     public void saveLog(OperateLog operateLog) {
         getBaseMapper().insert(operateLog);
     }
 
+    @Override
+    public boolean saveLogAsync(OperateLog operateLog) {
+        if (queue.offer(new PendingLog(operateLog))) {
+            return true;
+        }
+        droppedCounter.increment();
+        log.warn("Operate log queue is full, drop log of {}", operateLog.getOperateUrl());
+        return false;
+    }
+
+    private void writeLoop() {
+        List<PendingLog> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingLog first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+            } catch (InterruptedException e) {
+                // stopping, write what is left in the queue
+                queue.drainTo(batch, BATCH_SIZE);
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<OperateLog> operateLogs = new ArrayList<>(batch.size());
+        batch.forEach(pending -> operateLogs.add(pending.operateLog));
+        try {
+            writeTimer.record(() -> saveBatch(operateLogs, BATCH_SIZE));
+            long now = System.nanoTime();
+            batch.forEach(pending -> delayTimer.record(now - pending.queuedAt, TimeUnit.NANOSECONDS));
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write {} operate logs", batch.size(), e);
+        }
+    }
+
     @Override
     public ProTableResult<OperateLog> operateRecord(JsonNode para, Integer userId) {
         Map<String, Object> paraMap = new HashMap<>();
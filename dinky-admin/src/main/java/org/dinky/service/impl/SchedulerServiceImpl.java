@@ -43,8 +43,16 @@ import org.dinky.service.SchedulerService;
 import org.dinky.service.catalogue.CatalogueService;
 import org.dinky.utils.JsonUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
@@ -54,6 +62,7 @@ import com.google.common.base.Strings;
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONArray;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
@@ -86,11 +95,7 @@ public class SchedulerServiceImpl implements SchedulerService {
             throw new BusException(Status.DS_GET_NODE_LIST_ERROR);
         }
 
-        DinkyTaskParams dinkyTaskParams = new DinkyTaskParams();
-        dinkyTaskParams.setTaskId(dinkyTaskRequest.getTaskId());
-        dinkyTaskParams.setAddress(
-                SystemConfiguration.getInstances().getDinkyAddr().getValue());
-        dinkyTaskRequest.setTaskParams(JSONUtil.parseObj(dinkyTaskParams).toString());
+        dinkyTaskRequest.setTaskParams(buildTaskParams(dinkyTaskRequest));
         dinkyTaskRequest.setTaskType(TASK_TYPE);
 
         String processName = getDinkyNames(catalogue, 0);
@@ -101,18 +106,12 @@ public class SchedulerServiceImpl implements SchedulerService {
         String taskName = catalogue.getName() + ":" + catalogue.getId();
         dinkyTaskRequest.setName(taskName);
 
-        TaskRequest taskRequest = new TaskRequest();
         Long taskCode = taskClient.genTaskCode(projectCode);
 
         // If the process does not exist, a process needs to be created.
         if (process == null) {
             dinkyTaskRequest.setCode(taskCode);
-            BeanUtil.copyProperties(dinkyTaskRequest, taskRequest);
-            taskRequest.setTimeoutFlag(dinkyTaskRequest.getTimeoutFlag());
-            taskRequest.setFlag(dinkyTaskRequest.getFlag());
-            taskRequest.setIsCache(dinkyTaskRequest.getIsCache());
-            taskRequest.setTaskGroupId(dinkyTaskRequest.getTaskGroupId());
-            taskRequest.setTaskGroupPriority(dinkyTaskRequest.getTaskGroupPriority());
+            TaskRequest taskRequest = toTaskRequest(dinkyTaskRequest);
             JSONObject jsonObject = JSONUtil.parseObj(taskRequest);
             JSONArray taskArray = new JSONArray();
             taskArray.set(jsonObject);
@@ -155,12 +154,7 @@ public class SchedulerServiceImpl implements SchedulerService {
         }
         // If the task does not exist, a dinky task needs to be created.
         dinkyTaskRequest.setCode(taskCode);
-        BeanUtil.copyProperties(dinkyTaskRequest, taskRequest);
-        taskRequest.setTimeoutFlag(dinkyTaskRequest.getTimeoutFlag());
-        taskRequest.setFlag(dinkyTaskRequest.getFlag());
-        taskRequest.setIsCache(dinkyTaskRequest.getIsCache());
-        taskRequest.setTaskGroupId(dinkyTaskRequest.getTaskGroupId());
-        taskRequest.setTaskGroupPriority(dinkyTaskRequest.getTaskGroupPriority());
+        TaskRequest taskRequest = toTaskRequest(dinkyTaskRequest);
 
         String taskDefinitionJsonObj = JSONUtil.toJsonStr(taskRequest);
         taskClient.createTaskDefinition(
@@ -296,6 +290,203 @@ public class SchedulerServiceImpl implements SchedulerService {
         return false;
     }
 
+    /**
+     * Pushes a batch of DinkyTaskRequests to DolphinScheduler.
+     * Requests are grouped by workflow, every workflow is read once and diffed against the batch,
+     * new task codes are generated with a single call and all creates and updates of a workflow
+     * are applied with a single process definition update.
+     *
+     * @param  dinkyTaskRequests  the DinkyTaskRequests to be synchronized
+     * @return                    true if all workflows were successfully synchronized
+     */
+    @Override
+    public boolean pushAddTasks(List<DinkyTaskRequest> dinkyTaskRequests) {
+        if (CollUtil.isEmpty(dinkyTaskRequests)) {
+            return true;
+        }
+        List<Integer> taskIds = dinkyTaskRequests.stream()
+                .map(request -> Integer.valueOf(request.getTaskId()))
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Integer, Catalogue> catalogueMap =
+                catalogueService.list(new LambdaQueryWrapper<Catalogue>().in(Catalogue::getTaskId, taskIds)).stream()
+                        .collect(Collectors.toMap(Catalogue::getTaskId, Function.identity(), (a, b) -> a));
+
+        // Use root catalog as process (workflow) name, the last request of a task wins.
+        Map<Integer, Catalogue> parentCache = new HashMap<>();
+        Map<String, Map<Integer, DinkyTaskRequest>> processRequests = new LinkedHashMap<>();
+        for (DinkyTaskRequest dinkyTaskRequest : dinkyTaskRequests) {
+            Catalogue catalogue = catalogueMap.get(Integer.valueOf(dinkyTaskRequest.getTaskId()));
+            if (catalogue == null) {
+                log.error(Status.DS_GET_NODE_LIST_ERROR.getMessage());
+                throw new BusException(Status.DS_GET_NODE_LIST_ERROR);
+            }
+            dinkyTaskRequest.setName(catalogue.getName() + ":" + catalogue.getId());
+            dinkyTaskRequest.setTaskType(TASK_TYPE);
+            processRequests
+                    .computeIfAbsent(getDinkyNames(catalogue, 0, parentCache), k -> new LinkedHashMap<>())
+                    .put(catalogue.getTaskId(), dinkyTaskRequest);
+        }
+
+        long projectCode = SystemInit.getProject().getCode();
+        processRequests.forEach((processName, requests) ->
+                syncProcessDefinition(projectCode, processName, new ArrayList<>(requests.values())));
+        return true;
+    }
+
+    private void syncProcessDefinition(long projectCode, String processName, List<DinkyTaskRequest> requests) {
+        ProcessDefinition process = processClient.getProcessDefinitionInfo(projectCode, processName);
+        List<TaskDefinition> taskDefinitionList = new ArrayList<>();
+        List<ProcessTaskRelation> processTaskRelationList = new ArrayList<>();
+        List<DagNodeLocation> locations = new ArrayList<>();
+        if (process != null) {
+            if (process.getReleaseState() == ReleaseState.ONLINE) {
+                log.error(Status.DS_WORK_FLOW_DEFINITION_ONLINE.getMessage(), processName);
+                throw new BusException(Status.DS_WORK_FLOW_DEFINITION_ONLINE, processName);
+            }
+            DagData dagData = processClient.getProcessDefinitionInfo(projectCode, process.getCode());
+            if (dagData == null) {
+                log.error(Status.DS_WORK_FLOW_DEFINITION_NOT_EXIST.getMessage());
+                throw new BusException(Status.DS_WORK_FLOW_DEFINITION_NOT_EXIST);
+            }
+            CollUtil.addAll(taskDefinitionList, dagData.getTaskDefinitionList());
+            CollUtil.addAll(processTaskRelationList, dagData.getProcessTaskRelationList());
+            if (StrUtil.isNotBlank(process.getLocations())) {
+                locations.addAll(JSONUtil.toList(process.getLocations(), DagNodeLocation.class));
+            }
+        }
+
+        // Diff the batch against the snapshot of the workflow, task names are case-insensitive.
+        Map<String, TaskDefinition> existTaskDefinitions = taskDefinitionList.stream()
+                .collect(Collectors.toMap(
+                        taskDefinition -> taskDefinition.getName().toLowerCase(), Function.identity(), (a, b) -> a));
+        int newTaskCount = (int) requests.stream()
+                .filter(request -> !existTaskDefinitions.containsKey(request.getName().toLowerCase()))
+                .count();
+        Iterator<Long> newTaskCodes = newTaskCount == 0
+                ? Collections.emptyIterator()
+                : taskClient.genTaskCodes(projectCode, newTaskCount).iterator();
+
+        JSONArray taskArray = new JSONArray();
+        for (DinkyTaskRequest dinkyTaskRequest : requests) {
+            TaskDefinition taskDefinition = existTaskDefinitions.get(dinkyTaskRequest.getName().toLowerCase());
+            if (taskDefinition != null) {
+                if (!TASK_TYPE.equals(taskDefinition.getTaskType())) {
+                    log.error(Status.DS_TASK_TYPE_NOT_SUPPORT.getMessage(), taskDefinition.getTaskType());
+                    throw new BusException(Status.DS_TASK_TYPE_NOT_SUPPORT, taskDefinition.getTaskType());
+                }
+                dinkyTaskRequest.setCode(taskDefinition.getCode());
+                dinkyTaskRequest.setName(taskDefinition.getName());
+                dinkyTaskRequest.setTaskParams(taskDefinition.getTaskParams());
+                taskDefinitionList.remove(taskDefinition);
+            } else {
+                if (!newTaskCodes.hasNext()) {
+                    throw new SchedulerException("Failed to generate task definition number");
+                }
+                dinkyTaskRequest.setCode(newTaskCodes.next());
+                dinkyTaskRequest.setTaskParams(buildTaskParams(dinkyTaskRequest));
+                locations.add(generateDagNodeLocation(dinkyTaskRequest.getCode(), locations));
+            }
+            taskArray.add(toTaskRequest(dinkyTaskRequest));
+
+            // The upstream of the task is replaced by the requested one.
+            long taskCode = dinkyTaskRequest.getCode();
+            processTaskRelationList.removeIf(relation -> relation.getPostTaskCode() == taskCode);
+            if (CollUtil.isEmpty(dinkyTaskRequest.getUpstreamCodes())) {
+                processTaskRelationList.add(ProcessTaskRelation.generateProcessTaskRelation(taskCode));
+            } else {
+                for (String upstreamCode : dinkyTaskRequest.getUpstreamCodes()) {
+                    processTaskRelationList.add(
+                            ProcessTaskRelation.generateProcessTaskRelation(Long.parseLong(upstreamCode), taskCode));
+                }
+            }
+        }
+        taskArray.addAll(
+                0, taskDefinitionList.stream().map(this::toTaskRequest).collect(Collectors.toList()));
+
+        processClient.createOrUpdateProcessDefinition(
+                projectCode,
+                process == null ? null : process.getCode(),
+                processName,
+                requests.get(0).getCode(),
+                JsonUtils.toJsonString(processTaskRelationList),
+                taskArray.toString(),
+                locations,
+                process != null);
+        log.info(
+                "Synchronized workflow [{}], created {} tasks, updated {} tasks",
+                processName,
+                newTaskCount,
+                requests.size() - newTaskCount);
+    }
+
+    private String buildTaskParams(DinkyTaskRequest dinkyTaskRequest) {
+        DinkyTaskParams dinkyTaskParams = new DinkyTaskParams();
+        dinkyTaskParams.setTaskId(dinkyTaskRequest.getTaskId());
+        dinkyTaskParams.setAddress(
+                SystemConfiguration.getInstances().getDinkyAddr().getValue());
+        return JSONUtil.parseObj(dinkyTaskParams).toString();
+    }
+
+    private TaskRequest toTaskRequest(DinkyTaskRequest dinkyTaskRequest) {
+        TaskRequest taskRequest = new TaskRequest();
+        BeanUtil.copyProperties(dinkyTaskRequest, taskRequest);
+        taskRequest.setTimeoutFlag(dinkyTaskRequest.getTimeoutFlag());
+        taskRequest.setFlag(dinkyTaskRequest.getFlag());
+        taskRequest.setIsCache(dinkyTaskRequest.getIsCache());
+        taskRequest.setTaskGroupId(dinkyTaskRequest.getTaskGroupId());
+        taskRequest.setTaskGroupPriority(dinkyTaskRequest.getTaskGroupPriority());
+        return taskRequest;
+    }
+
+    private TaskRequest toTaskRequest(TaskDefinition taskDefinition) {
+        TaskRequest taskRequest = new TaskRequest();
+        taskRequest.setCode(taskDefinition.getCode());
+        taskRequest.setName(taskDefinition.getName());
+        taskRequest.setDescription(taskDefinition.getDescription());
+        taskRequest.setEnvironmentCode(taskDefinition.getEnvironmentCode());
+        taskRequest.setDelayTime(taskDefinition.getDelayTime());
+        taskRequest.setFailRetryInterval(taskDefinition.getFailRetryInterval());
+        taskRequest.setFailRetryTimes(taskDefinition.getFailRetryTimes());
+        taskRequest.setFlag(enumName(taskDefinition.getFlag()));
+        taskRequest.setIsCache(enumName(taskDefinition.getIsCache()));
+        taskRequest.setTaskParams(taskDefinition.getTaskParams());
+        taskRequest.setTaskPriority(enumName(taskDefinition.getTaskPriority()));
+        taskRequest.setTaskType(taskDefinition.getTaskType());
+        taskRequest.setTaskGroupId(
+                taskDefinition.getTaskGroupId() == null ? null : taskDefinition.getTaskGroupId().longValue());
+        taskRequest.setTaskGroupPriority(taskDefinition.getTaskGroupPriority());
+        taskRequest.setTimeout(taskDefinition.getTimeout());
+        taskRequest.setTimeoutFlag(enumName(taskDefinition.getTimeoutFlag()));
+        taskRequest.setTimeoutNotifyStrategy(enumName(taskDefinition.getTimeoutNotifyStrategy()));
+        taskRequest.setWorkerGroup(taskDefinition.getWorkerGroup());
+        taskRequest.setCpuQuota(taskDefinition.getCpuQuota());
+        taskRequest.setMemoryMax(taskDefinition.getMemoryMax());
+        if (taskDefinition.getTaskExecuteType() != null) {
+            taskRequest.setTaskExecuteType(taskDefinition.getTaskExecuteType());
+        }
+        return taskRequest;
+    }
+
+    private static String enumName(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private DagNodeLocation generateDagNodeLocation(long taskCode, List<DagNodeLocation> locations) {
+        DagNodeLocation dagNodeLocation = new DagNodeLocation();
+        dagNodeLocation.setTaskCode(taskCode);
+        if (locations.isEmpty()) {
+            dagNodeLocation.setX(RandomUtil.randomLong(200, 800));
+            dagNodeLocation.setY(RandomUtil.randomLong(100, 600));
+            return dagNodeLocation;
+        }
+        long xMax = locations.stream().mapToLong(DagNodeLocation::getX).max().getAsLong();
+        long yMax = locations.stream().mapToLong(DagNodeLocation::getY).max().getAsLong();
+        dagNodeLocation.setX(RandomUtil.randomLong(xMax - 200, xMax));
+        dagNodeLocation.setY(RandomUtil.randomLong(yMax - 150, yMax));
+        return dagNodeLocation;
+    }
+
     /**
      * Retrieves the list of TaskMainInfo objects for a given dinkyTaskId.
      *
@@ -377,17 +568,29 @@ public class SchedulerServiceImpl implements SchedulerService {
      * @return              the dinky names retrieved from the catalogue
      */
     private String getDinkyNames(Catalogue catalogue, int i) {
+        return getDinkyNames(catalogue, i, new HashMap<>());
+    }
+
+    /**
+     * Retrieves the dinky names from the given catalogue and index, reusing parents already loaded.
+     *
+     * @param  catalogue    the catalogue object to retrieve the names from
+     * @param  i            the index to start retrieving the names from
+     * @param  parentCache  the parent catalogues already loaded, keyed by id
+     * @return              the dinky names retrieved from the catalogue
+     */
+    private String getDinkyNames(Catalogue catalogue, int i, Map<Integer, Catalogue> parentCache) {
         if (i == 3 || catalogue.getParentId().equals(0)) {
             return "";
         }
 
-        catalogue = catalogueService.getById(catalogue.getParentId());
+        catalogue = parentCache.computeIfAbsent(catalogue.getParentId(), catalogueService::getById);
         if (catalogue == null) {
             throw new SchedulerException("Get Node List Error");
         }
 
         String name = i == 0 ? catalogue.getName() + ":" + catalogue.getId() : catalogue.getName();
-        String next = getDinkyNames(catalogue, ++i);
+        String next = getDinkyNames(catalogue, ++i, parentCache);
 
         if (Strings.isNullOrEmpty(next)) {
             return name;
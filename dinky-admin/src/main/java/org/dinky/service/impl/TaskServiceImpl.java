@@ -19,6 +19,7 @@
 
 package org.dinky.service.impl;
 
+import org.dinky.aop.ProcessAspect;
 import org.dinky.assertion.Asserts;
 import org.dinky.assertion.DinkyAssert;
 import org.dinky.config.Dialect;
@@ -26,8 +27,10 @@ import org.dinky.constant.FlinkSQLConstant;
 import org.dinky.context.TenantContextHolder;
 import org.dinky.data.annotations.ProcessStep;
 import org.dinky.data.app.AppParamConfig;
+import org.dinky.data.constant.BaseConstant;
 import org.dinky.data.constant.CommonConstant;
 import org.dinky.data.dto.AbstractStatementDTO;
+import org.dinky.data.dto.TaskBatchSubmitDto;
 import org.dinky.data.dto.TaskDTO;
 import org.dinky.data.dto.TaskRollbackVersionDTO;
 import org.dinky.data.dto.TaskSubmitDto;
@@ -57,6 +60,7 @@ import org.dinky.data.model.job.JobInstance;
 import org.dinky.data.model.udf.UDFTemplate;
 import org.dinky.data.result.Result;
 import org.dinky.data.result.SqlExplainResult;
+import org.dinky.data.vo.task.TaskBatchSubmitVo;
 import org.dinky.explainer.lineage.LineageBuilder;
 import org.dinky.explainer.lineage.LineageResult;
 import org.dinky.explainer.sqllineage.SQLLineageBuilder;
@@ -74,6 +78,7 @@ import org.dinky.job.Job;
 import org.dinky.job.JobConfig;
 import org.dinky.job.JobManager;
 import org.dinky.job.JobResult;
+import org.dinky.job.TaskBatchSubmitter;
 import org.dinky.mapper.TaskMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.AlertGroupService;
@@ -117,6 +122,7 @@ import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 
+import org.slf4j.MDC;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Lazy;
@@ -300,21 +306,26 @@ public class TaskServiceImpl extends SuperServiceImpl<TaskMapper, Task> implemen
         log.info("Start initialize FlinkSQLEnv:");
         String sql = CommonConstant.LineSep;
         if (task.isFragment()) {
-            String flinkWithSql = dataBaseService.getEnabledFlinkWithSql();
+            String flinkWithSql =
+                    TaskBatchSubmitter.shared("flinkWithSql", () -> dataBaseService.getEnabledFlinkWithSql());
             if (Asserts.isNotNullString(flinkWithSql)) {
                 sql += flinkWithSql + CommonConstant.LineSep;
             }
             // The order cannot be wrong here,
             // and the variables from the parameter have the highest priority
-            Map<String, String> variables = fragmentVariableService.listEnabledVariables();
+            Map<String, String> variables = new HashMap<>(
+                    TaskBatchSubmitter.shared("variables", () -> fragmentVariableService.listEnabledVariables()));
             variables.putAll(Optional.ofNullable(task.getVariables()).orElse(new HashMap<>()));
             task.setVariables(variables);
         }
         int envId = Optional.ofNullable(task.getEnvId()).orElse(-1);
         if (envId > 0) {
-            TaskDTO envTask = this.getTaskInfoById(task.getEnvId());
-            if (Asserts.isNotNull(envTask) && Asserts.isNotNullString(envTask.getStatement())) {
-                sql += envTask.getStatement() + CommonConstant.LineSep;
+            String envStatement = TaskBatchSubmitter.shared("env-" + envId, () -> {
+                TaskDTO envTask = this.getTaskInfoById(envId);
+                return Asserts.isNotNull(envTask) ? envTask.getStatement() : null;
+            });
+            if (Asserts.isNotNullString(envStatement)) {
+                sql += envStatement + CommonConstant.LineSep;
             }
         }
         log.info("Initializing data permissions...");
@@ -342,6 +353,27 @@ public class TaskServiceImpl extends SuperServiceImpl<TaskMapper, Task> implemen
         return jobResult;
     }
 
+    @Override
+    public List<TaskBatchSubmitVo> submitTasks(TaskBatchSubmitDto submitDto) {
+        List<Integer> taskIds = Optional.ofNullable(submitDto.getTaskIds()).orElse(new ArrayList<>());
+        // The owner check of the single submission, done here while the login of the request is available
+        if (!TaskOwnerLockStrategyEnum.ALL.equals(
+                        SystemConfiguration.getInstances().getTaskOwnerLockStrategy())
+                && BaseConstant.ADMIN_ID != StpUtil.getLoginIdAsInt()) {
+            for (Integer id : taskIds) {
+                if (Boolean.FALSE.equals(checkTaskOperatePermission(id))) {
+                    throw new BusException(Status.TASK_NOT_OPERATE_PERMISSION);
+                }
+            }
+        }
+        return TaskBatchSubmitter.builder()
+                .taskService(applicationContext.getBean(TaskService.class))
+                .processName(MDC.get(ProcessAspect.PROCESS_NAME))
+                .parallelism(submitDto.getParallelism())
+                .build()
+                .submit(taskIds);
+    }
+
     @Override
     @ProcessStep(type = ProcessStepType.SUBMIT_TASK)
     public JobResult debugTask(TaskDTO task) throws Exception {
@@ -749,11 +781,10 @@ public class TaskServiceImpl extends SuperServiceImpl<TaskMapper, Task> implemen
             throw new BusException("the version is error");
         }
 
-        LambdaQueryWrapper<TaskVersion> queryWrapper = new LambdaQueryWrapper<TaskVersion>()
-                .eq(TaskVersion::getTaskId, dto.getTaskId())
-                .eq(TaskVersion::getVersionId, dto.getVersionId());
-
-        TaskVersion taskVersion = taskVersionService.getOne(queryWrapper);
+        TaskVersion taskVersion = taskVersionService.getTaskVersion(dto.getTaskId(), dto.getVersionId());
+        if (Asserts.isNull(taskVersion)) {
+            throw new BusException(Status.TASK_VERSION_NOT_EXIST);
+        }
 
         Task updateTask = new Task();
         BeanUtil.copyProperties(taskVersion, updateTask);
@@ -943,32 +974,22 @@ public class TaskServiceImpl extends SuperServiceImpl<TaskMapper, Task> implemen
     }
 
     public String getTaskPathByTaskId(Integer taskId) {
-        StringBuilder path = new StringBuilder();
-        path.append(getById(taskId).getName());
-        Catalogue catalogue = catalogueService.getOne(new QueryWrapper<Catalogue>().eq("task_id", taskId));
+        String name = getById(taskId).getName();
+        Catalogue catalogue = catalogueService.getCatalogueByTaskId(taskId);
         if (Asserts.isNull(catalogue)) {
-            return path.toString();
+            return name;
         }
-        int catalogueId = catalogue.getParentId();
-        do {
-            catalogue = catalogueService.getById(catalogueId);
-            if (Asserts.isNull(catalogue)) {
-                return path.toString();
-            }
-            path.insert(0, catalogue.getName() + "/");
-            catalogueId = catalogue.getParentId();
-        } while (catalogueId != 0);
-        return path.toString();
+        String parentPath = catalogueService.getCataloguePath(catalogue.getParentId());
+        return parentPath.isEmpty() ? name : parentPath + "/" + name;
     }
 
     @Override
     public Result<Tree<Integer>> queryAllCatalogue() {
-        final LambdaQueryWrapper<Catalogue> queryWrapper = new LambdaQueryWrapper<Catalogue>()
-                .select(Catalogue::getId, Catalogue::getName, Catalogue::getParentId)
-                .eq(Catalogue::getIsLeaf, 0)
-                .eq(Catalogue::getEnabled, 1)
-                .isNull(Catalogue::getTaskId);
-        final List<Catalogue> catalogueList = catalogueService.list(queryWrapper);
+        final List<Catalogue> catalogueList = catalogueService.listCatalogueNodes().stream()
+                .filter(catalogue -> !Boolean.TRUE.equals(catalogue.getIsLeaf())
+                        && !Boolean.FALSE.equals(catalogue.getEnabled())
+                        && catalogue.getTaskId() == null)
+                .collect(Collectors.toList());
         return Result.succeed(
                 TreeUtil.build(dealWithCatalogue(catalogueList), -1).get(0));
     }
@@ -20,44 +20,181 @@
 package org.dinky.service.impl;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.context.TenantContextHolder;
 import org.dinky.data.dto.TaskDTO;
 import org.dinky.data.dto.TaskVersionConfigureDTO;
+import org.dinky.data.enums.Status;
+import org.dinky.data.exception.BusException;
 import org.dinky.data.model.TaskVersion;
 import org.dinky.mapper.TaskVersionMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.TaskVersionService;
+import org.dinky.utils.LineDiff;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 
 import cn.hutool.core.bean.BeanUtil;
 
+/**
+ * Task versions are stored as a full snapshot every {@link #SNAPSHOT_INTERVAL} versions, the versions in between
+ * store a compressed line delta against the version before them. Rebuilding a statement therefore reads at most
+ * {@link #SNAPSHOT_INTERVAL} rows, and listing versions never reads statements.
+ */
 @Service
 public class TaskVersionServiceImpl extends SuperServiceImpl<TaskVersionMapper, TaskVersion>
         implements TaskVersionService {
 
+    private static final int SNAPSHOT_INTERVAL = 20;
+    private static final int DIFF_CONTEXT = 3;
+
     @Override
     public List<TaskVersion> getTaskVersionByTaskId(Integer taskId) {
 
         return baseMapper.selectList(new LambdaQueryWrapper<TaskVersion>()
+                .select(
+                        TaskVersion::getId,
+                        TaskVersion::getTenantId,
+                        TaskVersion::getTaskId,
+                        TaskVersion::getVersionId,
+                        TaskVersion::getBaseVersionId,
+                        TaskVersion::getName,
+                        TaskVersion::getDialect,
+                        TaskVersion::getType,
+                        TaskVersion::getCreateTime,
+                        TaskVersion::getCreator)
                 .eq(TaskVersion::getTaskId, taskId)
                 .orderByDesc(true, TaskVersion::getVersionId));
     }
 
+    @Override
+    public TaskVersion getTaskVersion(Integer taskId, Integer versionId) {
+        List<TaskVersion> chain = getChain(taskId, versionId);
+        if (chain.isEmpty()) {
+            return null;
+        }
+        TaskVersion version = chain.get(chain.size() - 1);
+        version.setStatement(rebuildStatement(chain));
+        version.setStatementDelta(null);
+        return version;
+    }
+
+    @Override
+    public String diffTaskVersion(Integer taskId, Integer fromVersionId, Integer toVersionId) {
+        List<TaskVersion> toChain = getChain(taskId, toVersionId);
+        if (toChain.isEmpty()) {
+            throw new BusException(Status.TASK_VERSION_NOT_EXIST);
+        }
+        TaskVersion to = toChain.get(toChain.size() - 1);
+        // the delta of a version against its base is already the diff
+        if (toChain.size() > 1 && Objects.equals(to.getBaseVersionId(), fromVersionId)) {
+            String from = rebuildStatement(toChain.subList(0, toChain.size() - 1));
+            return LineDiff.toUnifiedDiff(
+                    LineDiff.lines(from), LineDiff.decode(to.getStatementDelta()), DIFF_CONTEXT);
+        }
+        TaskVersion from = getTaskVersion(taskId, fromVersionId);
+        if (from == null) {
+            throw new BusException(Status.TASK_VERSION_NOT_EXIST);
+        }
+        List<String> fromLines = LineDiff.lines(Objects.toString(from.getStatement(), ""));
+        List<String> toLines = LineDiff.lines(Objects.toString(rebuildStatement(toChain), ""));
+        return LineDiff.toUnifiedDiff(fromLines, LineDiff.diff(fromLines, toLines), DIFF_CONTEXT);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean deleteTaskVersion(Integer id) {
+        TaskVersion version = getById(id);
+        if (version == null) {
+            return false;
+        }
+        TaskVersion next = getOne(new LambdaQueryWrapper<TaskVersion>()
+                .select(TaskVersion::getId, TaskVersion::getVersionId)
+                .eq(TaskVersion::getTaskId, version.getTaskId())
+                .eq(TaskVersion::getBaseVersionId, version.getVersionId()));
+        if (next != null) {
+            String statement = getTaskVersion(version.getTaskId(), next.getVersionId()).getStatement();
+            update(new LambdaUpdateWrapper<TaskVersion>()
+                    .set(TaskVersion::getStatement, statement)
+                    .set(TaskVersion::getStatementDelta, null)
+                    .set(TaskVersion::getBaseVersionId, null)
+                    .eq(TaskVersion::getId, next.getId()));
+        }
+        return removeById(id);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int restoreFullStatements() {
+        // the versions of every tenant must be full before a rollback drops the delta columns
+        boolean ignoringTenant = TenantContextHolder.isIgnoreTenant();
+        TenantContextHolder.ignoreTenant();
+        try {
+            return restoreAllFullStatements();
+        } finally {
+            if (!ignoringTenant) {
+                TenantContextHolder.clearIgnoreTenant();
+            }
+        }
+    }
+
+    private int restoreAllFullStatements() {
+        List<Integer> taskIds = list(new LambdaQueryWrapper<TaskVersion>()
+                        .select(TaskVersion::getTaskId)
+                        .isNotNull(TaskVersion::getBaseVersionId)
+                        .groupBy(TaskVersion::getTaskId))
+                .stream()
+                .map(TaskVersion::getTaskId)
+                .collect(Collectors.toList());
+        int restored = 0;
+        for (Integer taskId : taskIds) {
+            List<TaskVersion> versions = list(new LambdaQueryWrapper<TaskVersion>()
+                    .select(
+                            TaskVersion::getId,
+                            TaskVersion::getVersionId,
+                            TaskVersion::getBaseVersionId,
+                            TaskVersion::getStatement,
+                            TaskVersion::getStatementDelta)
+                    .eq(TaskVersion::getTaskId, taskId)
+                    .orderByAsc(TaskVersion::getVersionId));
+            // versions are rebuilt oldest first, each delta applies to the version before it
+            for (int i = 0; i < versions.size(); i++) {
+                TaskVersion version = versions.get(i);
+                if (version.getBaseVersionId() == null) {
+                    continue;
+                }
+                TaskVersion base = i == 0 ? null : versions.get(i - 1);
+                if (base == null || !Objects.equals(version.getBaseVersionId(), base.getVersionId())) {
+                    throw new BusException("The delta chain of task version " + version.getVersionId() + " is broken");
+                }
+                String statement = LineDiff.join(LineDiff.apply(
+                        LineDiff.lines(base.getStatement()), LineDiff.decode(version.getStatementDelta())));
+                version.setStatement(statement);
+                update(new LambdaUpdateWrapper<TaskVersion>()
+                        .set(TaskVersion::getStatement, statement)
+                        .set(TaskVersion::getStatementDelta, null)
+                        .set(TaskVersion::getBaseVersionId, null)
+                        .eq(TaskVersion::getId, version.getId()));
+                restored++;
+            }
+        }
+        return restored;
+    }
+
     @Override
     public Integer createTaskVersionSnapshot(TaskDTO task) {
         List<TaskVersion> taskVersions = getTaskVersionByTaskId(task.getId());
         List<Integer> versionIds =
                 taskVersions.stream().map(TaskVersion::getVersionId).collect(Collectors.toList());
-        Map<Integer, TaskVersion> versionMap =
-                taskVersions.stream().collect(Collectors.toMap(TaskVersion::getVersionId, t -> t));
 
         TaskVersion taskVersion = new TaskVersion();
         BeanUtil.copyProperties(task, taskVersion);
@@ -73,18 +210,77 @@ public class TaskVersionServiceImpl extends SuperServiceImpl<TaskVersionMapper,
             // FIRST RELEASE, ADD NEW VERSION
             taskVersion.setVersionId(1);
             taskVersion.setCreateTime(LocalDateTime.now());
-            save(taskVersion);
+            saveVersion(taskVersion, taskVersions);
         } else {
             // Explain that there is a version, you need to determine whether it is an old version after fallback
-            TaskVersion version = versionMap.getOrDefault(task.getVersionId(), new TaskVersion());
+            TaskVersion version = getTaskVersion(task.getId(), task.getVersionId());
             // IDs are not involved in the comparison
             if (!taskVersion.equals(version)) {
                 int newVersionId = versionIds.isEmpty() ? 1 : Collections.max(versionIds) + 1;
                 taskVersion.setVersionId(newVersionId);
                 taskVersion.setCreateTime(LocalDateTime.now());
-                save(taskVersion);
+                saveVersion(taskVersion, taskVersions);
             }
         }
         return taskVersion.getVersionId();
     }
+
+    /** Save the version as a delta against the latest version, or in full when a snapshot is due. */
+    private void saveVersion(TaskVersion taskVersion, List<TaskVersion> taskVersions) {
+        String statement = taskVersion.getStatement();
+        if (!taskVersions.isEmpty() && statement != null) {
+            // versions are listed newest first
+            List<TaskVersion> chain =
+                    getChain(taskVersion.getTaskId(), taskVersions.get(0).getVersionId());
+            String base = chain.isEmpty() ? null : rebuildStatement(chain);
+            if (base != null && chain.size() < SNAPSHOT_INTERVAL) {
+                String delta = LineDiff.encode(LineDiff.diff(LineDiff.lines(base), LineDiff.lines(statement)));
+                if (delta.length() < statement.length()) {
+                    taskVersion.setBaseVersionId(chain.get(chain.size() - 1).getVersionId());
+                    taskVersion.setStatementDelta(delta);
+                    taskVersion.setStatement(null);
+                }
+            }
+        }
+        save(taskVersion);
+        taskVersion.setStatement(statement);
+    }
+
+    /**
+     * Load the versions needed to rebuild a statement: the nearest full snapshot up to the version and every
+     * version after it, oldest first.
+     */
+    private List<TaskVersion> getChain(Integer taskId, Integer versionId) {
+        TaskVersion snapshot = getOne(new LambdaQueryWrapper<TaskVersion>()
+                .select(TaskVersion::getVersionId)
+                .eq(TaskVersion::getTaskId, taskId)
+                .le(TaskVersion::getVersionId, versionId)
+                .isNull(TaskVersion::getBaseVersionId)
+                .orderByDesc(TaskVersion::getVersionId)
+                .last("limit 1"));
+        if (snapshot == null) {
+            return Collections.emptyList();
+        }
+        List<TaskVersion> chain = list(new LambdaQueryWrapper<TaskVersion>()
+                .eq(TaskVersion::getTaskId, taskId)
+                .between(TaskVersion::getVersionId, snapshot.getVersionId(), versionId)
+                .orderByAsc(TaskVersion::getVersionId));
+        if (chain.isEmpty() || !Objects.equals(chain.get(chain.size() - 1).getVersionId(), versionId)) {
+            return Collections.emptyList();
+        }
+        return chain;
+    }
+
+    private static String rebuildStatement(List<TaskVersion> chain) {
+        String statement = chain.get(0).getStatement();
+        for (int i = 1; i < chain.size(); i++) {
+            TaskVersion version = chain.get(i);
+            if (!Objects.equals(version.getBaseVersionId(), chain.get(i - 1).getVersionId())) {
+                throw new BusException("The delta chain of task version " + version.getVersionId() + " is broken");
+            }
+            statement = LineDiff.join(LineDiff.apply(
+                    LineDiff.lines(statement), LineDiff.decode(version.getStatementDelta())));
+        }
+        return statement;
+    }
 }
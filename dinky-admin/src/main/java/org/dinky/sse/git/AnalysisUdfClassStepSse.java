@@ -24,6 +24,7 @@ import org.dinky.data.exception.DinkyException;
 import org.dinky.data.model.GitProject;
 import org.dinky.function.util.UDFUtil;
 import org.dinky.sse.StepSse;
+import org.dinky.utils.GitBuildCache;
 import org.dinky.utils.URLUtils;
 
 import java.nio.charset.StandardCharsets;
@@ -31,7 +32,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -60,17 +61,33 @@ public class AnalysisUdfClassStepSse extends StepSse {
 
     @Override
     public void exec() {
+        GitProject gitProject = (GitProject) params.get("gitProject");
+        GitBuildCache buildCache = (GitBuildCache) params.get("buildCache");
+        if (Boolean.TRUE.equals(params.get("upToDate"))) {
+            String data = buildCache.getUdfClassMapList();
+            sendMsg(getList(null).set("data", data));
+            FileUtil.appendString(data, getLogFile(), StandardCharsets.UTF_8);
+            gitProject.setUdfClassMapList(data);
+            gitProject.updateById();
+            return;
+        }
+
         List<String> pathList = (List<String>) params.get("jarPath");
+        Map<String, String> jarHashes = (Map<String, String>) params.get("jarHash");
 
         List<GitAnalysisJarDTO> dataList = new ArrayList<>();
-        Map<String, List<Class<?>>> udfMap = new TreeMap<>();
+        Map<String, List<String>> udfMap = new ConcurrentSkipListMap<>();
         try {
             Thread.currentThread().getContextClassLoader().loadClass("org.apache.flink.table.api.ValidationException");
         } catch (ClassNotFoundException e) {
             throw new DinkyException("flink dependency not found");
         }
         pathList.parallelStream().forEach(jar -> {
-            List<Class<?>> udfClassByJar = UDFUtil.getUdfClassByJar(URLUtils.toFile(jar));
+            // A jar with the same content has the same udf classes, only new jars are scanned.
+            List<String> udfClassByJar = buildCache.getUdfClasses().computeIfAbsent(jarHashes.get(jar), hash -> UDFUtil
+                    .getUdfClassByJar(URLUtils.toFile(jar)).stream()
+                            .map(Class::getName)
+                            .collect(Collectors.toList()));
             udfMap.put(jar, udfClassByJar);
             sendMsg(Dict.create().set(jar, udfClassByJar));
         });
@@ -79,7 +96,7 @@ public class AnalysisUdfClassStepSse extends StepSse {
         udfMap.forEach((k, v) -> {
             GitAnalysisJarDTO gitAnalysisJarDTO = new GitAnalysisJarDTO();
             gitAnalysisJarDTO.setJarPath(k);
-            gitAnalysisJarDTO.setClassList(v.stream().map(Class::getName).collect(Collectors.toList()));
+            gitAnalysisJarDTO.setClassList(v);
             gitAnalysisJarDTO.setOrderLine(index.get());
             index.getAndIncrement();
             dataList.add(gitAnalysisJarDTO);
@@ -93,8 +110,9 @@ public class AnalysisUdfClassStepSse extends StepSse {
         FileUtil.appendString(data, getLogFile(), StandardCharsets.UTF_8);
 
         // write result
-        GitProject gitProject = (GitProject) params.get("gitProject");
         gitProject.setUdfClassMapList(data);
         gitProject.updateById();
+        buildCache.getUdfClasses().keySet().retainAll(jarHashes.values());
+        buildCache.finish(gitProject, params.getStr("commitId"), data);
     }
 }
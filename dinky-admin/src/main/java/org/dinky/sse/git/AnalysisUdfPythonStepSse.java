@@ -25,9 +25,11 @@ import org.dinky.data.model.GitProject;
 import org.dinky.data.model.SystemConfiguration;
 import org.dinky.function.util.UDFUtil;
 import org.dinky.sse.StepSse;
+import org.dinky.utils.GitBuildCache;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -52,15 +54,27 @@ public class AnalysisUdfPythonStepSse extends StepSse {
 
     @Override
     public void exec() {
+        GitProject gitProject = (GitProject) params.get("gitProject");
+        GitBuildCache buildCache = (GitBuildCache) params.get("buildCache");
+        if (Boolean.TRUE.equals(params.get("upToDate"))) {
+            String data = buildCache.getUdfClassMapList();
+            sendMsg(getList(null).set("data", data));
+            FileUtil.appendString(data, getLogFile(), StandardCharsets.UTF_8);
+            gitProject.setUdfClassMapList(data);
+            gitProject.updateById();
+            return;
+        }
+
         File zipFile = (File) params.get("zipFile");
         String zipFilePath = params.getStr("zipFilePath");
+        String zipHash = params.getStr("zipHash");
         try {
             Thread.currentThread().getContextClassLoader().loadClass("org.apache.flink.table.api.ValidationException");
         } catch (ClassNotFoundException e) {
             throw new DinkyException("flink dependency not found");
         }
-        List<String> pythonUdfList =
-                UDFUtil.getPythonUdfList(SystemConfiguration.getInstances().getPythonHome(), zipFile.getAbsolutePath());
+        List<String> pythonUdfList = buildCache.getUdfClasses().computeIfAbsent(zipHash, hash -> UDFUtil.getPythonUdfList(
+                SystemConfiguration.getInstances().getPythonHome(), zipFile.getAbsolutePath()));
         GitAnalysisJarDTO gitAnalysisJarDTO = new GitAnalysisJarDTO();
         gitAnalysisJarDTO.setJarPath(zipFilePath);
         gitAnalysisJarDTO.setClassList(pythonUdfList);
@@ -73,8 +87,9 @@ public class AnalysisUdfPythonStepSse extends StepSse {
         FileUtil.appendString(data, getLogFile(), StandardCharsets.UTF_8);
 
         // write result
-        GitProject gitProject = (GitProject) params.get("gitProject");
         gitProject.setUdfClassMapList(data);
         gitProject.updateById();
+        buildCache.getUdfClasses().keySet().retainAll(Collections.singleton(zipHash));
+        buildCache.finish(gitProject, params.getStr("commitId"), data);
     }
 }
@@ -23,18 +23,22 @@ import org.dinky.data.dto.TreeNodeDTO;
 import org.dinky.data.model.GitProject;
 import org.dinky.service.resource.ResourcesService;
 import org.dinky.sse.StepSse;
+import org.dinky.utils.GitBuildCache;
 import org.dinky.utils.MavenUtil;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.Dict;
+import cn.hutool.crypto.digest.DigestUtil;
 import cn.hutool.extra.spring.SpringUtil;
 
 /**
@@ -55,6 +59,10 @@ public class GetJarsStepSse extends StepSse {
 
     @Override
     public void exec() {
+        if (Boolean.TRUE.equals(params.get("upToDate"))) {
+            addFileMsgLog("The commit has been built, skip uploading jars");
+            return;
+        }
         List<File> jars = MavenUtil.getJars((File) params.get("pom"));
         List<String> pathList = uploadResources(jars);
         addFileMsg(pathList);
@@ -64,14 +72,26 @@ public class GetJarsStepSse extends StepSse {
 
     private List<String> uploadResources(List<File> jars) {
         GitProject gitProject = (GitProject) params.get("gitProject");
+        GitBuildCache buildCache = (GitBuildCache) params.get("buildCache");
 
         ResourcesService resourcesService = SpringUtil.getBean(ResourcesService.class);
         TreeNodeDTO gitFolder = resourcesService.createFolderOrGet(1, "git", "");
         TreeNodeDTO treeNodeDTO =
                 resourcesService.createFolderOrGet(Convert.toInt(gitFolder.getId()), gitProject.getName(), "");
-        return jars.stream()
-                .peek(f -> resourcesService.uploadFile(Convert.toInt(treeNodeDTO.getId()), "", f))
-                .map(x -> "rs:/git/" + gitProject.getName() + "/" + x.getName())
-                .collect(Collectors.toList());
+        Map<String, String> jarHashes = new HashMap<>();
+        List<String> pathList = new ArrayList<>();
+        for (File jar : jars) {
+            String path = "rs:/git/" + gitProject.getName() + "/" + jar.getName();
+            String hash = DigestUtil.sha256Hex(jar);
+            // Jars of unchanged modules have the same content, there is no need to upload them again.
+            if (!hash.equals(buildCache.getResourceHashes().get(path))) {
+                resourcesService.uploadFile(Convert.toInt(treeNodeDTO.getId()), "", jar);
+                buildCache.getResourceHashes().put(path, hash);
+            }
+            jarHashes.put(path, hash);
+            pathList.add(path);
+        }
+        params.put("jarHash", jarHashes);
+        return pathList;
     }
 }
@@ -22,8 +22,10 @@ package org.dinky.sse.git;
 import org.dinky.data.dto.GitProjectDTO;
 import org.dinky.data.model.GitProject;
 import org.dinky.sse.StepSse;
+import org.dinky.utils.GitBuildCache;
 import org.dinky.utils.GitRepository;
 
+import java.io.File;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -53,6 +55,17 @@ public class GitCloneStepSse extends StepSse {
         GitProject gitProject = (GitProject) params.get("gitProject");
 
         GitRepository gitRepository = new GitRepository(BeanUtil.toBean(gitProject, GitProjectDTO.class));
-        gitRepository.cloneAndPull(gitProject.getName(), gitProject.getBranch(), getLogFile(), this::addMsg);
+        File repositoryDir =
+                gitRepository.cloneAndPull(gitProject.getName(), gitProject.getBranch(), getLogFile(), this::addMsg);
+
+        String commitId = GitRepository.getHeadCommitId(repositoryDir);
+        addFileMsgLog("HEAD commit is: " + commitId);
+        GitBuildCache buildCache = GitBuildCache.load(gitProject);
+        params.put("commitId", commitId);
+        params.put("buildCache", buildCache);
+        if (buildCache.isUpToDate(gitProject, commitId)) {
+            addFileMsgLog("The commit has been built, the build result will be reused");
+            params.put("upToDate", true);
+        }
     }
 }
@@ -21,13 +21,16 @@ package org.dinky.sse.git;
 
 import org.dinky.data.model.GitProject;
 import org.dinky.sse.StepSse;
+import org.dinky.utils.GitBuildCache;
 import org.dinky.utils.GitRepository;
 import org.dinky.utils.MavenUtil;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -58,30 +61,76 @@ public class MavenStepSse extends StepSse {
     @Override
     public void exec() {
         GitProject gitProject = (GitProject) params.get("gitProject");
-        File pom = FileUtil.file(GitRepository.getProjectDir(gitProject.getName()), gitProject.getBranch());
+        File repositoryDir = FileUtil.file(GitRepository.getProjectDir(gitProject.getName()), gitProject.getBranch());
 
         File buildDir = FileUtil.mkdir(
                 new File(GitRepository.getProjectBuildDir(gitProject.getName()), gitProject.getBranch()));
-
-        Arrays.stream(Objects.requireNonNull(pom.listFiles(pathname -> !".git".equals(pathname.getName()))))
-                .forEach(f -> FileUtil.copy(f, buildDir, true));
-        pom = buildDir;
+        File pom = buildDir;
         if (StrUtil.isNotBlank(gitProject.getPom())) {
             pom = new File(pom, gitProject.getPom());
         }
+        params.put("pom", pom);
+        if (Boolean.TRUE.equals(params.get("upToDate"))) {
+            addFileMsgLog("The commit has been built, skip maven build");
+            return;
+        }
+
+        Arrays.stream(Objects.requireNonNull(repositoryDir.listFiles(pathname -> !".git".equals(pathname.getName()))))
+                .forEach(f -> FileUtil.copy(f, buildDir, true));
 
         Assert.isTrue(pom.exists(), "pom not exists!");
 
+        List<String> args = new ArrayList<>(StrUtil.split(gitProject.getBuildArgs(), " "));
+        Set<String> changedModules = getChangedModules(gitProject, repositoryDir, buildDir, pom);
+        if (changedModules != null && changedModules.isEmpty()) {
+            addFileMsgLog("No module changed since the last build, skip maven build");
+            return;
+        }
+        if (changedModules != null) {
+            addFileMsgLog("Incremental build of changed modules: " + changedModules);
+            args.add("-pl " + StrUtil.join(",", changedModules));
+            // Nothing is installed, so the unchanged upstream modules have to be in the reactor to be resolved
+            args.add("-am");
+            args.add("-amd");
+        }
+
         boolean state = MavenUtil.build(
                 MavenUtil.getMavenSettingsPath(),
                 pom.getAbsolutePath(),
                 null,
-                null,
+                getLocalRepositoryDir(gitProject).getAbsolutePath(),
                 getLogFile().getAbsolutePath(),
                 CollUtil.newArrayList("clean", "package"),
-                StrUtil.split(gitProject.getBuildArgs(), " "),
+                args,
                 this::addFileMsgLog);
-        params.put("pom", pom);
         Assert.isTrue(state, "maven build failed");
     }
+
+    /**
+     * Each project keeps its own local repository, so downloaded artifacts survive between builds and
+     * concurrent builds of different projects do not corrupt each other.
+     */
+    private File getLocalRepositoryDir(GitProject gitProject) {
+        return FileUtil.mkdir(FileUtil.file(GitRepository.getProjectBuildDir(gitProject.getName()), "repository"));
+    }
+
+    /**
+     * Modules changed since the last successful build, null if the whole project needs to be built.
+     */
+    private Set<String> getChangedModules(GitProject gitProject, File repositoryDir, File buildDir, File pom) {
+        GitBuildCache buildCache = (GitBuildCache) params.get("buildCache");
+        String commitId = params.getStr("commitId");
+        if (buildCache == null
+                || StrUtil.isBlank(buildCache.getCommitId())
+                || !buildCache.isSameBuild(gitProject)
+                || MavenUtil.getJars(pom).isEmpty()) {
+            return null;
+        }
+        List<String> changedFiles = GitRepository.getChangedFiles(repositoryDir, buildCache.getCommitId(), commitId);
+        if (changedFiles == null) {
+            return null;
+        }
+        File projectDir = pom.isDirectory() ? pom : pom.getParentFile();
+        return MavenUtil.getChangedModules(projectDir, buildDir, changedFiles);
+    }
 }
@@ -23,6 +23,7 @@ import org.dinky.data.dto.TreeNodeDTO;
 import org.dinky.data.model.GitProject;
 import org.dinky.service.resource.ResourcesService;
 import org.dinky.sse.StepSse;
+import org.dinky.utils.GitBuildCache;
 import org.dinky.utils.GitRepository;
 
 import java.io.File;
@@ -52,22 +53,36 @@ public class PythonZipStepSse extends StepSse {
     @Override
     public void exec() {
         GitProject gitProject = (GitProject) params.get("gitProject");
+        if (Boolean.TRUE.equals(params.get("upToDate"))) {
+            addFileMsgLog("The commit has been built, skip building python zip");
+            return;
+        }
         File file = FileUtil.file(GitRepository.getProjectDir(gitProject.getName()), gitProject.getBranch());
 
+        // The zip itself is not reproducible (entry times), so the project content is hashed instead.
+        String zipHash = GitBuildCache.hashDir(file);
         File zipFile = ZipUtil.zip(file);
-        String zipFilePath = uploadResources(zipFile, gitProject);
+        String zipFilePath = uploadResources(zipFile, zipHash, gitProject);
         addFileMsgLog("ZipFile Path is: " + zipFile);
         params.put("zipFile", zipFile);
         params.put("zipFilePath", zipFilePath);
+        params.put("zipHash", zipHash);
         params.put("projectFile", file);
     }
 
-    private String uploadResources(File zipFile, GitProject gitProject) {
+    private String uploadResources(File zipFile, String zipHash, GitProject gitProject) {
+        String zipFilePath = "rs:/git/" + gitProject.getName() + "/" + zipFile.getName();
+        GitBuildCache buildCache = (GitBuildCache) params.get("buildCache");
+        if (zipHash.equals(buildCache.getResourceHashes().get(zipFilePath))) {
+            addFileMsgLog("The project content is not changed, skip uploading zip");
+            return zipFilePath;
+        }
         ResourcesService resourcesService = SpringUtil.getBean(ResourcesService.class);
         TreeNodeDTO gitFolder = resourcesService.createFolderOrGet(1, "git", "");
         TreeNodeDTO treeNodeDTO =
                 resourcesService.createFolderOrGet(Convert.toInt(gitFolder.getId()), gitProject.getName(), "");
         resourcesService.uploadFile(Convert.toInt(treeNodeDTO.getId()), "", zipFile);
-        return "rs:/git/" + gitProject.getName() + "/" + zipFile.getName();
+        buildCache.getResourceHashes().put(zipFilePath, zipHash);
+        return zipFilePath;
     }
 }
@@ -0,0 +1,191 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.exception.DinkyException;
+import org.dinky.data.model.FlinkUdfManifest;
+import org.dinky.function.constant.PathConstant;
+import org.dinky.function.util.ZipWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import com.google.common.util.concurrent.Striped;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.crypto.SecureUtil;
+import cn.hutool.json.JSONUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dependency bundles of tasks, the zip of the jars and python files listed in the task's dependency manifest,
+ * downloaded by Kubernetes application pods on start.
+ *
+ * <p>Bundles are addressed by a hash of the manifest and the size and modify time of every file it lists.
+ * A bundle is built once, moved into place atomically and never changed afterwards, so it can be served to
+ * any number of pods at the same time and cached by them with the hash as ETag.
+ */
+@Slf4j
+public class DependencyBundleUtil {
+
+    public static final String BUNDLE_PATH = PathConstant.TMP_PATH + "dep-bundle" + File.separator;
+
+    /**
+     * Bundles not served for this long are removed when another bundle is built.
+     */
+    private static final long EXPIRE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private static final Striped<Lock> BUILD_LOCKS = Striped.lock(32);
+
+    private DependencyBundleUtil() {}
+
+    @Getter
+    @AllArgsConstructor
+    public static class Bundle {
+        private final String hash;
+        private final File file;
+    }
+
+    /**
+     * Get the dependency bundle of a task, building it if no bundle of the same content exists yet.
+     *
+     * @param taskId task id
+     * @return the bundle, or null if the task has no dependency manifest
+     */
+    public static Bundle getBundle(Integer taskId) {
+        File manifestFile = FileUtil.file(PathConstant.getUdfPackagePath(taskId) + PathConstant.DEP_MANIFEST);
+        if (!manifestFile.exists()) {
+            return null;
+        }
+        String manifestJson = FileUtil.readUtf8String(manifestFile);
+        FlinkUdfManifest manifest = JSONUtil.toBean(manifestJson, FlinkUdfManifest.class);
+        List<String> jars = toPaths(manifest.getJars());
+        List<String> pythonFiles = toPaths(manifest.getPythonFiles());
+
+        String hash = hash(manifestJson, jars, pythonFiles);
+        File bundleFile = FileUtil.file(BUNDLE_PATH + hash + ".zip");
+        if (!bundleFile.exists()) {
+            Lock lock = BUILD_LOCKS.get(hash);
+            lock.lock();
+            try {
+                if (!bundleFile.exists()) {
+                    build(bundleFile, manifestFile, jars, pythonFiles);
+                    removeExpired();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        // The modify time of a bundle records its last use, the content never changes
+        bundleFile.setLastModified(System.currentTimeMillis());
+        return new Bundle(hash, bundleFile);
+    }
+
+    private static List<String> toPaths(List<URL> urls) {
+        return urls == null ? Collections.emptyList() : urls.stream().map(Convert::toStr).collect(Collectors.toList());
+    }
+
+    private static String hash(String manifestJson, List<String> jars, List<String> pythonFiles) {
+        MessageDigest digest = SecureUtil.sha256().getDigest();
+        digest.update(manifestJson.getBytes(StandardCharsets.UTF_8));
+        for (String path : jars) {
+            updateFile(digest, path);
+        }
+        for (String path : pythonFiles) {
+            updateFile(digest, path);
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    private static void updateFile(MessageDigest digest, String path) {
+        File file = FileUtil.file(path);
+        String entry = '\n' + path + ':' + file.length() + ':' + file.lastModified();
+        digest.update(entry.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void build(File bundleFile, File manifestFile, List<String> jars, List<String> pythonFiles) {
+        FileUtil.mkdir(BUNDLE_PATH);
+        File tmpFile = FileUtil.file(BUNDLE_PATH + bundleFile.getName() + "." + UUID.randomUUID() + ".tmp");
+        long start = System.currentTimeMillis();
+        try {
+            try (ZipWriter zip = new ZipWriter(tmpFile, Charset.defaultCharset())) {
+                // Jars are compressed already, compressing them again only costs cpu
+                zip.setLevel(Deflater.BEST_SPEED);
+                if (!jars.isEmpty()) {
+                    zip.add(
+                            jars.stream().map(FileUtil::getName).map(x -> "jar/" + x).toArray(String[]::new),
+                            jars.stream().map(FileUtil::getInputStream).toArray(InputStream[]::new));
+                }
+                if (!pythonFiles.isEmpty()) {
+                    zip.add(
+                            pythonFiles.stream().map(FileUtil::getName).map(x -> "py/" + x).toArray(String[]::new),
+                            pythonFiles.stream().map(FileUtil::getInputStream).toArray(InputStream[]::new));
+                }
+                zip.add(manifestFile.getName(), FileUtil.getInputStream(manifestFile));
+            }
+            try {
+                Files.move(tmpFile.toPath(), bundleFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), bundleFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.info(
+                    "Built dependency bundle {} in {} ms, size {} bytes",
+                    bundleFile.getName(),
+                    System.currentTimeMillis() - start,
+                    bundleFile.length());
+        } catch (IOException e) {
+            throw new DinkyException("Failed to build dependency bundle " + bundleFile.getName(), e);
+        } finally {
+            FileUtil.del(tmpFile);
+        }
+    }
+
+    private static void removeExpired() {
+        File[] files = FileUtil.file(BUNDLE_PATH).listFiles();
+        if (files == null) {
+            return;
+        }
+        long expireBefore = System.currentTimeMillis() - EXPIRE_MILLIS;
+        for (File file : files) {
+            if (file.lastModified() < expireBefore) {
+                FileUtil.del(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.exception.BusException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PushbackInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+
+import com.google.common.io.ByteStreams;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Forwards a JobManager or TaskManager log from the Flink rest api to the client as a stream, so a log file
+ * of hundreds of MB never has to fit in the admin heap. Supports a single http byte range, a tail of the last
+ * N KB and a line filter applied while the stream passes through.
+ */
+@Slf4j
+public class FlinkLogProxy {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Upper bound of a tail, a tail of a log whose length is not known has to be buffered.
+     */
+    private static final long MAX_TAIL_BYTES = 16L * 1024 * 1024;
+
+    private static final Pattern RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+    private static final String PLAIN_TEXT = "text/plain;charset=UTF-8";
+
+    private FlinkLogProxy() {}
+
+    /**
+     * Forward the body of an opened Flink rest response to the client.
+     *
+     * @param source   response opened by one of the {@code FlinkAPI.open*} methods, closed by this method
+     * @param request  client request, its Range header is honored if no tail is given
+     * @param response client response
+     * @param tailKb   only send the last N KB of the log, optional
+     * @param grep     only send the lines containing this text, optional
+     */
+    public static void forward(
+            HttpResponse source, HttpServletRequest request, HttpServletResponse response, Long tailKb, String grep) {
+        try (HttpResponse stream = source) {
+            long total = source.contentLength();
+            boolean isTail = tailKb != null && tailKb > 0;
+            String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+            long[] range = isTail
+                    ? new long[] {-1, Math.min(tailKb * 1024, MAX_TAIL_BYTES)}
+                    : parseRange(rangeHeader);
+            boolean filter = StrUtil.isNotEmpty(grep);
+
+            InputStream in = source.bodyStream();
+            long start = 0;
+            long length = total;
+            if (range != null) {
+                if (range[0] < 0) {
+                    // Suffix range, the last range[1] bytes
+                    if (range[1] == 0) {
+                        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        if (total >= 0) {
+                            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + total);
+                        }
+                        return;
+                    }
+                    if (total < 0) {
+                        in = new ByteArrayInputStream(readTail(in, (int) Math.min(range[1], MAX_TAIL_BYTES)));
+                        length = -1;
+                    } else {
+                        start = Math.max(0, total - range[1]);
+                        length = total - start;
+                    }
+                } else {
+                    start = range[0];
+                    if (total >= 0 && start >= total) {
+                        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + total);
+                        return;
+                    }
+                    long end = range[1] < 0 ? Long.MAX_VALUE : range[1];
+                    if (total >= 0) {
+                        end = Math.min(end, total - 1);
+                    }
+                    length = end == Long.MAX_VALUE ? -1 : end - start + 1;
+                    if (total < 0) {
+                        // Whether the start is past the end is only known once the stream got there
+                        PushbackInputStream pushback = new PushbackInputStream(in, 1);
+                        long skipped = skipUpTo(pushback, start);
+                        int next = skipped < start ? -1 : pushback.read();
+                        if (next < 0) {
+                            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + skipped);
+                            return;
+                        }
+                        pushback.unread(next);
+                        in = pushback;
+                    }
+                }
+            }
+
+            String contentType = source.header(HttpHeaders.CONTENT_TYPE);
+            response.setContentType(filter || StrUtil.isBlank(contentType) ? PLAIN_TEXT : contentType);
+            if (total >= 0) {
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            }
+            if (!filter && !isTail && range != null && total >= 0) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(
+                        HttpHeaders.CONTENT_RANGE,
+                        StrUtil.format("bytes {}-{}/{}", start, start + length - 1, total));
+            }
+            if (!filter && length >= 0) {
+                response.setContentLengthLong(length);
+            }
+
+            if (total >= 0) {
+                // A stream of unknown length is already positioned at the start
+                ByteStreams.skipFully(in, start);
+            }
+            if (length >= 0) {
+                in = ByteStreams.limit(in, length);
+            }
+            OutputStream out = response.getOutputStream();
+            if (filter) {
+                grep(in, out, grep);
+            } else {
+                ByteStreams.copy(in, out);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Most likely the client went away, the response is already committed
+            log.warn("Forwarding flink log stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Read the last {@code maxBytes} of a log as text, for the endpoints that return the log in a json result.
+     * A cut off first line is dropped.
+     *
+     * @param source   response opened by one of the {@code FlinkAPI.open*} methods, closed by this method
+     * @param maxBytes upper bound of the returned tail
+     * @return the tail of the log
+     */
+    public static String tail(HttpResponse source, long maxBytes) {
+        try (HttpResponse stream = source) {
+            int size = (int) Math.min(maxBytes, MAX_TAIL_BYTES);
+            long total = source.contentLength();
+            InputStream in = source.bodyStream();
+            byte[] tail;
+            boolean truncated;
+            if (total >= 0) {
+                ByteStreams.skipFully(in, Math.max(0, total - size));
+                tail = ByteStreams.toByteArray(ByteStreams.limit(in, size));
+                truncated = total > size;
+            } else {
+                // One more byte tells whether anything was cut off
+                tail = readTail(in, size + 1);
+                truncated = tail.length > size;
+            }
+            int from = 0;
+            if (truncated) {
+                while (from < tail.length && tail[from++] != '\n') {}
+            }
+            return new String(tail, from, tail.length - from, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new BusException("Read flink log failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parse a single byte range, multiple ranges are not supported and ignored.
+     *
+     * @return {start, end} with -1 for an open end, {-1, n} for the last n bytes, or null for no range
+     */
+    static long[] parseRange(String rangeHeader) {
+        if (StrUtil.isBlank(rangeHeader)) {
+            return null;
+        }
+        Matcher matcher = RANGE.matcher(rangeHeader.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        String start = matcher.group(1);
+        String end = matcher.group(2);
+        if (start.isEmpty()) {
+            return end.isEmpty() ? null : new long[] {-1, Long.parseLong(end)};
+        }
+        long from = Long.parseLong(start);
+        long to = end.isEmpty() ? -1 : Long.parseLong(end);
+        return to >= 0 && to < from ? null : new long[] {from, to};
+    }
+
+    /**
+     * Keep the last {@code size} bytes of a stream of unknown length in a ring buffer.
+     */
+    static byte[] readTail(InputStream in, int size) throws IOException {
+        byte[] ring = new byte[size];
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long count = 0;
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            for (int i = 0; i < read; ) {
+                int pos = (int) (count % size);
+                int len = Math.min(read - i, size - pos);
+                System.arraycopy(buffer, i, ring, pos, len);
+                i += len;
+                count += len;
+            }
+        }
+        if (count <= size) {
+            return Arrays.copyOf(ring, (int) count);
+        }
+        int pos = (int) (count % size);
+        byte[] tail = new byte[size];
+        System.arraycopy(ring, pos, tail, 0, size - pos);
+        System.arraycopy(ring, 0, tail, size - pos, pos);
+        return tail;
+    }
+
+    /**
+     * Skip up to {@code n} bytes, fewer only if the stream ends first.
+     */
+    private static long skipUpTo(InputStream in, long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            long count = in.skip(n - skipped);
+            if (count <= 0) {
+                // skip may return 0 before the end, a read tells
+                if (in.read() < 0) {
+                    break;
+                }
+                count = 1;
+            }
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    /**
+     * Write the lines containing {@code text}, one line at a time, so the filter works on logs of any size.
+     */
+    private static void grep(InputStream in, OutputStream out, String text) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.contains(text)) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.model.GitProject;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.json.JSONUtil;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Result of the last successful build of a git project branch, persisted next to the build dir.
+ * It lets an unchanged commit skip the whole build and lets jars and python projects reuse their
+ * udf analysis by content hash.
+ */
+@Data
+@Slf4j
+public class GitBuildCache {
+
+    /** commit id of the last successful build */
+    private String commitId;
+
+    private String pom;
+    private String buildArgs;
+    private String udfClassMapList;
+
+    /** uploaded resource path -> content hash */
+    private Map<String, String> resourceHashes = new ConcurrentHashMap<>();
+
+    /** content hash -> udf class names */
+    private Map<String, List<String>> udfClasses = new ConcurrentHashMap<>();
+
+    public void setResourceHashes(Map<String, String> resourceHashes) {
+        this.resourceHashes = new ConcurrentHashMap<>(resourceHashes);
+    }
+
+    public void setUdfClasses(Map<String, List<String>> udfClasses) {
+        this.udfClasses = new ConcurrentHashMap<>(udfClasses);
+    }
+
+    public static GitBuildCache load(GitProject gitProject) {
+        File cacheFile = getCacheFile(gitProject);
+        if (FileUtil.exist(cacheFile)) {
+            try {
+                return JSONUtil.toBean(FileUtil.readUtf8String(cacheFile), GitBuildCache.class);
+            } catch (Exception e) {
+                log.warn("Git build cache {} is broken, ignore it", cacheFile, e);
+            }
+        }
+        return new GitBuildCache();
+    }
+
+    public void save(GitProject gitProject) {
+        FileUtil.writeUtf8String(JSONUtil.toJsonStr(this), getCacheFile(gitProject));
+    }
+
+    /**
+     * Whether the last build was done with the same commit and build configuration.
+     */
+    public boolean isSameBuild(GitProject gitProject) {
+        return Objects.equals(StrUtil.emptyToNull(pom), StrUtil.emptyToNull(gitProject.getPom()))
+                && Objects.equals(StrUtil.emptyToNull(buildArgs), StrUtil.emptyToNull(gitProject.getBuildArgs()));
+    }
+
+    public boolean isUpToDate(GitProject gitProject, String headCommitId) {
+        return StrUtil.isNotBlank(udfClassMapList)
+                && StrUtil.equals(commitId, headCommitId)
+                && isSameBuild(gitProject);
+    }
+
+    public void finish(GitProject gitProject, String headCommitId, String udfClassMapList) {
+        this.commitId = headCommitId;
+        this.pom = gitProject.getPom();
+        this.buildArgs = gitProject.getBuildArgs();
+        this.udfClassMapList = udfClassMapList;
+        save(gitProject);
+    }
+
+    /**
+     * Content hash of a directory, computed from the relative path and content of every file except
+     * the git metadata, so it does not depend on file times.
+     */
+    public static String hashDir(File dir) {
+        Map<String, String> fileHashes = new TreeMap<>();
+        for (File file : FileUtil.loopFiles(dir)) {
+            String path = FileUtil.subPath(dir.getAbsolutePath(), file);
+            if (!path.startsWith(".git/")) {
+                fileHashes.put(path, DigestUtil.sha256Hex(file));
+            }
+        }
+        StringBuilder content = new StringBuilder();
+        fileHashes.forEach((path, hash) -> content.append(path).append(':').append(hash).append('\n'));
+        return DigestUtil.sha256Hex(content.toString());
+    }
+
+    private static File getCacheFile(GitProject gitProject) {
+        return FileUtil.file(
+                GitRepository.getProjectBuildDir(gitProject.getName()), gitProject.getBranch() + "_cache.json");
+    }
+}
@@ -24,10 +24,14 @@ import org.dinky.data.exception.DinkyException;
 import org.dinky.function.constant.PathConstant;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
@@ -36,6 +40,10 @@ import org.eclipse.jgit.api.PullCommand;
 import org.eclipse.jgit.api.TransportCommand;
 import org.eclipse.jgit.api.TransportConfigCallback;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.TextProgressMonitor;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
@@ -43,6 +51,7 @@ import org.eclipse.jgit.transport.JschConfigSessionFactory;
 import org.eclipse.jgit.transport.OpenSshConfig;
 import org.eclipse.jgit.transport.SshTransport;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.util.FS;
 
 import com.jcraft.jsch.JSch;
@@ -98,8 +107,11 @@ public class GitRepository {
 
         try {
 
-            CloneCommand cloneCommand =
-                    Git.cloneRepository().setURI(url).setBranch(branch).setDirectory(writeFile);
+            CloneCommand cloneCommand = Git.cloneRepository()
+                    .setURI(url)
+                    .setBranch(branch)
+                    .setBranchesToClone(Collections.singletonList(BRANCH_PREFIX + branch))
+                    .setDirectory(writeFile);
             initCommand(cloneCommand);
 
             if (writeFile.exists()) {
@@ -140,6 +152,53 @@ public class GitRepository {
         }
     }
 
+    /**
+     * 获取仓库 HEAD 的提交编号
+     *
+     * @param repositoryDir 仓库目录
+     * @return commit id, null if the repository has no commit
+     */
+    public static String getHeadCommitId(File repositoryDir) {
+        try (Git git = Git.open(repositoryDir)) {
+            ObjectId head = git.getRepository().resolve(Constants.HEAD);
+            return head == null ? null : head.getName();
+        } catch (IOException e) {
+            throw new DinkyException(e);
+        }
+    }
+
+    /**
+     * 获取两次提交之间变更的文件
+     *
+     * @param repositoryDir 仓库目录
+     * @param oldCommitId 旧提交编号
+     * @param newCommitId 新提交编号
+     * @return changed paths relative to the repository root, null if one of the commits is unknown
+     */
+    public static List<String> getChangedFiles(File repositoryDir, String oldCommitId, String newCommitId) {
+        try (Git git = Git.open(repositoryDir);
+                ObjectReader reader = git.getRepository().newObjectReader()) {
+            Repository repository = git.getRepository();
+            ObjectId oldTree = repository.resolve(oldCommitId + "^{tree}");
+            ObjectId newTree = repository.resolve(newCommitId + "^{tree}");
+            if (oldTree == null || newTree == null) {
+                return null;
+            }
+            CanonicalTreeParser oldTreeParser = new CanonicalTreeParser();
+            oldTreeParser.reset(reader, oldTree);
+            CanonicalTreeParser newTreeParser = new CanonicalTreeParser();
+            newTreeParser.reset(reader, newTree);
+            return git.diff().setOldTree(oldTreeParser).setNewTree(newTreeParser).call().stream()
+                    .flatMap(diff -> Stream.of(diff.getOldPath(), diff.getNewPath()))
+                    .filter(path -> !DiffEntry.DEV_NULL.equals(path))
+                    .distinct()
+                    .collect(Collectors.toList());
+        } catch (IOException | GitAPIException e) {
+            log.warn("Failed to diff commit {} and {}", oldCommitId, newCommitId, e);
+            return null;
+        }
+    }
+
     public static File getProjectDir(String projectName) {
         return FileUtil.file(PathConstant.TMP_PATH, "git", projectName);
     }
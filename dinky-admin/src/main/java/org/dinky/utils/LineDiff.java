@@ -0,0 +1,280 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.exception.BusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import cn.hutool.core.io.IoUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Line level diff of two texts.
+ *
+ * <p>The diff is computed with the Myers algorithm after common leading and trailing lines are stripped. When the
+ * texts differ in more than {@link #MAX_EDITS} lines the diff degrades to a single hunk replacing the changed range,
+ * which bounds time and memory for rewritten texts. Hunks can be encoded to a compact, compressed string and applied
+ * back to the old text.
+ */
+public final class LineDiff {
+
+    private static final int MAX_EDITS = 2000;
+
+    private LineDiff() {}
+
+    /** Replace {@link #deleted} lines of the old text starting at {@link #start} with the inserted lines. */
+    @Data
+    @AllArgsConstructor
+    public static class Hunk {
+        private int start;
+        private int deleted;
+        private List<String> inserted;
+    }
+
+    public static List<String> lines(String text) {
+        return Arrays.asList(text.split("\n", -1));
+    }
+
+    public static String join(List<String> lines) {
+        return String.join("\n", lines);
+    }
+
+    public static List<Hunk> diff(List<String> from, List<String> to) {
+        int prefix = 0;
+        int maxPrefix = Math.min(from.size(), to.size());
+        while (prefix < maxPrefix && from.get(prefix).equals(to.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix
+                && from.get(from.size() - 1 - suffix).equals(to.get(to.size() - 1 - suffix))) {
+            suffix++;
+        }
+        List<String> a = from.subList(prefix, from.size() - suffix);
+        List<String> b = to.subList(prefix, to.size() - suffix);
+        if (a.isEmpty() && b.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Hunk> hunks = myers(a, b);
+        if (hunks == null) {
+            hunks = Collections.singletonList(new Hunk(0, a.size(), new ArrayList<>(b)));
+        }
+        for (Hunk hunk : hunks) {
+            hunk.setStart(hunk.getStart() + prefix);
+        }
+        return hunks;
+    }
+
+    public static List<String> apply(List<String> from, List<Hunk> hunks) {
+        List<String> to = new ArrayList<>(from.size());
+        int position = 0;
+        for (Hunk hunk : hunks) {
+            if (hunk.getStart() < position || hunk.getStart() + hunk.getDeleted() > from.size()) {
+                throw new BusException("The delta does not match the text it is applied to");
+            }
+            to.addAll(from.subList(position, hunk.getStart()));
+            to.addAll(hunk.getInserted());
+            position = hunk.getStart() + hunk.getDeleted();
+        }
+        to.addAll(from.subList(position, from.size()));
+        return to;
+    }
+
+    /**
+     * Encode hunks as gzip compressed, base64 text. Every hunk is a "start deleted inserted" header line followed by
+     * the inserted lines.
+     */
+    public static String encode(List<Hunk> hunks) {
+        StringBuilder sb = new StringBuilder();
+        for (Hunk hunk : hunks) {
+            sb.append(hunk.getStart())
+                    .append(' ')
+                    .append(hunk.getDeleted())
+                    .append(' ')
+                    .append(hunk.getInserted().size())
+                    .append('\n');
+            hunk.getInserted().forEach(line -> sb.append(line).append('\n'));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new BusException(e.getMessage());
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    public static List<Hunk> decode(String delta) {
+        String text;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(delta)))) {
+            text = IoUtil.read(gzip, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new BusException(e.getMessage());
+        }
+        List<String> lines = lines(text);
+        List<Hunk> hunks = new ArrayList<>();
+        // the text ends with a line break, so the last line is always empty
+        int i = 0;
+        while (i < lines.size() - 1) {
+            String[] header = lines.get(i++).split(" ");
+            int inserted = Integer.parseInt(header[2]);
+            hunks.add(new Hunk(
+                    Integer.parseInt(header[0]),
+                    Integer.parseInt(header[1]),
+                    new ArrayList<>(lines.subList(i, i + inserted))));
+            i += inserted;
+        }
+        return hunks;
+    }
+
+    /**
+     * Render hunks as a unified diff.
+     *
+     * @param from the old text
+     * @param hunks hunks from the old to the new text
+     * @param context number of unchanged lines around each change
+     * @return unified diff, empty if the texts are equal
+     */
+    public static String toUnifiedDiff(List<String> from, List<Hunk> hunks, int context) {
+        StringBuilder sb = new StringBuilder();
+        // offset of the new text relative to the old text before the current hunk
+        int offset = 0;
+        int i = 0;
+        while (i < hunks.size()) {
+            int j = i;
+            while (j + 1 < hunks.size()
+                    && hunks.get(j + 1).getStart() - end(hunks.get(j)) <= 2 * context) {
+                j++;
+            }
+            int begin = Math.max(0, hunks.get(i).getStart() - context);
+            int finish = Math.min(from.size(), end(hunks.get(j)) + context);
+            int oldLength = finish - begin;
+            int newLength = oldLength;
+            for (int k = i; k <= j; k++) {
+                newLength += hunks.get(k).getInserted().size() - hunks.get(k).getDeleted();
+            }
+            sb.append("@@ -")
+                    .append(begin + 1)
+                    .append(',')
+                    .append(oldLength)
+                    .append(" +")
+                    .append(begin + offset + 1)
+                    .append(',')
+                    .append(newLength)
+                    .append(" @@\n");
+            int position = begin;
+            for (int k = i; k <= j; k++) {
+                Hunk hunk = hunks.get(k);
+                from.subList(position, hunk.getStart()).forEach(line -> sb.append(' ').append(line).append('\n'));
+                from.subList(hunk.getStart(), end(hunk)).forEach(line -> sb.append('-').append(line).append('\n'));
+                hunk.getInserted().forEach(line -> sb.append('+').append(line).append('\n'));
+                position = end(hunk);
+                offset += hunk.getInserted().size() - hunk.getDeleted();
+            }
+            from.subList(position, finish).forEach(line -> sb.append(' ').append(line).append('\n'));
+            i = j + 1;
+        }
+        return sb.toString();
+    }
+
+    private static int end(Hunk hunk) {
+        return hunk.getStart() + hunk.getDeleted();
+    }
+
+    /** Myers diff, returns null if the texts differ in more than {@link #MAX_EDITS} lines. */
+    private static List<Hunk> myers(List<String> a, List<String> b) {
+        int n = a.size();
+        int m = b.size();
+        int max = Math.min(n + m, MAX_EDITS);
+        // v[k + max + 1] is the furthest x reached on diagonal k
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= max; d++) {
+            int[] row = new int[2 * d + 1];
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[k - 1 + max + 1] < v[k + 1 + max + 1])) {
+                    x = v[k + 1 + max + 1];
+                } else {
+                    x = v[k - 1 + max + 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[k + max + 1] = x;
+                row[k + d] = x;
+                if (x >= n && y >= m) {
+                    trace.add(row);
+                    return backtrack(trace, b, n, m);
+                }
+            }
+            trace.add(row);
+        }
+        return null;
+    }
+
+    private static List<Hunk> backtrack(List<int[]> trace, List<String> b, int n, int m) {
+        // edits in reverse order, as {position in a, position in b or -1 for a deletion}
+        List<int[]> edits = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] prev = trace.get(d - 1);
+            int k = x - y;
+            boolean insertion = k == -d || (k != d && prev[k - 1 + d - 1] < prev[k + 1 + d - 1]);
+            int prevK = insertion ? k + 1 : k - 1;
+            int prevX = prev[prevK + d - 1];
+            int prevY = prevX - prevK;
+            edits.add(insertion ? new int[] {prevX, prevY} : new int[] {prevX, -1});
+            x = prevX;
+            y = prevY;
+        }
+        Collections.reverse(edits);
+        List<Hunk> hunks = new ArrayList<>();
+        Hunk current = null;
+        for (int[] edit : edits) {
+            if (current == null || edit[0] != end(current)) {
+                current = new Hunk(edit[0], 0, new ArrayList<>());
+                hunks.add(current);
+            }
+            if (edit[1] < 0) {
+                current.setDeleted(current.getDeleted() + 1);
+            } else {
+                current.getInserted().add(b.get(edit[1]));
+            }
+        }
+        return hunks;
+    }
+}
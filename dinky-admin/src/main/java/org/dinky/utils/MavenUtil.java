@@ -30,6 +30,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -231,6 +233,33 @@ public class MavenUtil {
         }
     }
 
+    /**
+     * 获取变更文件所属的模块
+     *
+     * @param projectDir 项目目录（根 pom 所在目录）
+     * @param repositoryDir 仓库根目录
+     * @param changedFiles 相对仓库根目录的变更文件
+     * @return module paths relative to the project dir, null if the root project itself changed
+     */
+    public static Set<String> getChangedModules(File projectDir, File repositoryDir, List<String> changedFiles) {
+        Set<String> modules = new TreeSet<>();
+        for (String changedFile : changedFiles) {
+            File file = FileUtil.file(repositoryDir, changedFile);
+            if (!FileUtil.isSub(projectDir, file)) {
+                continue;
+            }
+            File moduleDir = file.getParentFile();
+            while (!FileUtil.equals(moduleDir, projectDir) && !FileUtil.exist(new File(moduleDir, "pom.xml"))) {
+                moduleDir = moduleDir.getParentFile();
+            }
+            if (FileUtil.equals(moduleDir, projectDir)) {
+                return null;
+            }
+            modules.add(FileUtil.subPath(projectDir.getAbsolutePath(), moduleDir));
+        }
+        return modules;
+    }
+
     public static String getMavenSettingsPath() {
         SystemConfiguration systemConfiguration = SystemConfiguration.getInstances();
         String mavenSettings = systemConfiguration.getMavenSettings();
@@ -81,6 +81,36 @@ public enum SqliteUtil {
         }
     }
 
+    /**
+     * Delete rows whose time column is before the cutoff, at most chunkSize rows per statement.
+     *
+     * @param tableName table name
+     * @param timeColumn column holding {@link java.time.LocalDateTime#toString()} values
+     * @param cutoff exclusive upper bound, in the same format as the column
+     * @param chunkSize max rows deleted per statement
+     * @return the number of deleted rows
+     */
+    public synchronized long deleteBefore(String tableName, String timeColumn, String cutoff, int chunkSize)
+            throws SQLException {
+        String sql = String.format(
+                "DELETE FROM %1$s WHERE rowid IN (SELECT rowid FROM %1$s WHERE %2$s < ? ORDER BY rowid LIMIT ?);",
+                tableName, timeColumn);
+        long deleted = 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int count;
+            do {
+                pstmt.setString(1, cutoff);
+                pstmt.setInt(2, chunkSize);
+                count = pstmt.executeUpdate();
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                deleted += count;
+            } while (count >= chunkSize);
+        }
+        return deleted;
+    }
+
     public void write(String tableName, List<String> columns, List<List<String>> values) throws SQLException {
         String sql = createInsertSql(tableName, columns);
 
@@ -0,0 +1,6 @@
+-- Task versions are stored as periodic full snapshots plus compressed line deltas against the previous version
+ALTER TABLE dinky_task_version
+    add  COLUMN `base_version_id` int DEFAULT NULL comment 'version the statement delta applies to, null if the statement is stored in full';
+
+ALTER TABLE dinky_task_version
+    add  COLUMN `statement_delta` LONGVARCHAR DEFAULT NULL comment 'compressed line delta of the statement';
@@ -0,0 +1,24 @@
+# note: Rolling back SQL statements is only necessary to perform a rollback operation in the event of an automatic upgrade failure. The following SQL statements need to be manually executed
+# note: versions stored as a delta have no statement of their own, call PUT /api/task/version/restoreFullStatements first to store every version in full, the script refuses to drop the delta columns while a delta is left
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+DELIMITER $$
+DROP PROCEDURE IF EXISTS check_task_version_deltas_restored$$
+CREATE PROCEDURE check_task_version_deltas_restored()
+BEGIN
+    IF EXISTS (SELECT 1 FROM dinky_task_version WHERE base_version_id IS NOT NULL) THEN
+        SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Task versions are still stored as deltas, call PUT /api/task/version/restoreFullStatements first';
+    END IF;
+END$$
+DELIMITER ;
+
+CALL check_task_version_deltas_restored();
+DROP PROCEDURE IF EXISTS check_task_version_deltas_restored;
+
+ALTER TABLE dinky_task_version DROP COLUMN `base_version_id`;
+ALTER TABLE dinky_task_version DROP COLUMN `statement_delta`;
+
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,8 @@
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- Task versions are stored as periodic full snapshots plus compressed line deltas against the previous version
+CALL add_column_if_not_exists('dinky_task_version', 'base_version_id', 'int', 'NULL', 'version the statement delta applies to, null if the statement is stored in full', 'version_id');
+CALL add_column_if_not_exists('dinky_task_version', 'statement_delta', 'mediumtext', 'NULL', 'compressed line delta of the statement', 'statement');
+
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,12 @@
+-- note: Rolling back SQL statements is only necessary to perform a rollback operation in the event of an automatic upgrade failure. The following SQL statements need to be manually executed
+-- note: versions stored as a delta have no statement of their own, call PUT /api/task/version/restoreFullStatements first to store every version in full, the script refuses to drop the delta columns while a delta is left
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM public.dinky_task_version WHERE "base_version_id" IS NOT NULL) THEN
+        RAISE EXCEPTION 'Task versions are still stored as deltas, call PUT /api/task/version/restoreFullStatements first';
+    END IF;
+END $$;
+
+ALTER TABLE public.dinky_task_version DROP COLUMN "base_version_id";
+ALTER TABLE public.dinky_task_version DROP COLUMN "statement_delta";
@@ -0,0 +1,3 @@
+-- Task versions are stored as periodic full snapshots plus compressed line deltas against the previous version
+SELECT add_column_if_not_exists('public','dinky_task_version', 'base_version_id', 'int', 'null', 'version the statement delta applies to, null if the statement is stored in full');
+SELECT add_column_if_not_exists('public','dinky_task_version', 'statement_delta', 'text', 'null', 'compressed line delta of the statement');
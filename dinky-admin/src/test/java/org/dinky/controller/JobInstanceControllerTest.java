@@ -0,0 +1,134 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.dinky.data.flink.job.JobDoneHook;
+import org.dinky.data.flink.job.JobStateEvent;
+import org.dinky.data.model.SystemConfiguration;
+import org.dinky.data.result.Result;
+import org.dinky.service.JobInstanceService;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/** JobInstanceControllerTest */
+class JobInstanceControllerTest {
+
+    private static final String BODY = "[{\"jobId\":\"a1\",\"type\":\"STATUS\",\"status\":\"RUNNING\"}]";
+
+    private static final String SECRET = "test-hook-secret";
+
+    private JobInstanceService jobInstanceService;
+    private JobInstanceController controller;
+
+    @BeforeEach
+    void setUp() {
+        jobInstanceService = mock(JobInstanceService.class);
+        controller = new JobInstanceController(jobInstanceService);
+        SystemConfiguration.getInstances().getHookSecret().setValue(SECRET);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIngestSignedBody() throws Exception {
+        MockHttpServletRequest request = request(gzip(BODY));
+        request.addHeader("Content-Encoding", "gzip");
+        request.addHeader(JobDoneHook.SIGNATURE_HEADER, JobDoneHook.sign(SECRET, BODY));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Result<Void> result = controller.ingestJobEvents(request, response);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        ArgumentCaptor<List<JobStateEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(jobInstanceService).ingestJobEvents(events.capture());
+        assertThat(events.getValue()).hasSize(1);
+        assertThat(events.getValue().get(0).getJobId()).isEqualTo("a1");
+        assertThat(events.getValue().get(0).getType()).isEqualTo(JobStateEvent.Type.STATUS);
+    }
+
+    @Test
+    void testRejectUnsignedBody() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Result<Void> result = controller.ingestJobEvents(request(BODY.getBytes(StandardCharsets.UTF_8)), response);
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(jobInstanceService, never()).ingestJobEvents(any());
+    }
+
+    @Test
+    void testRejectWrongSignature() throws Exception {
+        MockHttpServletRequest request = request(BODY.getBytes(StandardCharsets.UTF_8));
+        request.addHeader(JobDoneHook.SIGNATURE_HEADER, JobDoneHook.sign(SECRET + "x", BODY));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Result<Void> result = controller.ingestJobEvents(request, response);
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(jobInstanceService, never()).ingestJobEvents(any());
+    }
+
+    @Test
+    void testRejectTamperedBody() throws Exception {
+        String tampered = BODY.replace("RUNNING", "FAILED");
+        MockHttpServletRequest request = request(tampered.getBytes(StandardCharsets.UTF_8));
+        request.addHeader(JobDoneHook.SIGNATURE_HEADER, JobDoneHook.sign(SECRET, BODY));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.ingestJobEvents(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(jobInstanceService, never()).ingestJobEvents(any());
+    }
+
+    private static MockHttpServletRequest request(byte[] content) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/jobInstance/ingest");
+        request.setContentType("application/json");
+        request.setContent(content);
+        return request;
+    }
+
+    private static byte[] gzip(String content) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
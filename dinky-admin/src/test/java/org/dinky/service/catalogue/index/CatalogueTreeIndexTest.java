@@ -0,0 +1,173 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.catalogue.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.dinky.data.model.Catalogue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+/** CatalogueTreeIndexTest */
+class CatalogueTreeIndexTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /** Stands in for the database state, changed by writes of other instances. */
+    private final AtomicInteger state = new AtomicInteger();
+
+    private CatalogueTreeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Check the state on every lookup
+        index = new CatalogueTreeIndex(0, CatalogueTreeIndex.DEFAULT_MAX_AGE);
+        loads.set(0);
+        state.set(0);
+    }
+
+    private CatalogueTreeIndex.Tree tree() {
+        return index.getTree(1, state::get, () -> {
+            loads.incrementAndGet();
+            return Lists.newArrayList(
+                    folder(1, "root", 0), folder(2, "etl", 1), task(3, "job", 2, 100), folder(4, "other", 0));
+        });
+    }
+
+    private static Catalogue folder(int id, String name, int parentId) {
+        Catalogue catalogue = new Catalogue(name, null, null, parentId, false);
+        catalogue.setId(id);
+        catalogue.setTenantId(1);
+        return catalogue;
+    }
+
+    private static Catalogue task(int id, String name, int parentId, int taskId) {
+        Catalogue catalogue = new Catalogue(name, taskId, "FlinkSql", parentId, true);
+        catalogue.setId(id);
+        catalogue.setTenantId(1);
+        return catalogue;
+    }
+
+    @Test
+    void testLoadOnceAndLookup() {
+        assertThat(tree().getPath(3)).isEqualTo("root/etl/job");
+        assertThat(tree().getNodeByTaskId(100).getId()).isEqualTo(3);
+        assertThat(tree().getNode(42)).isNull();
+        assertThat(tree().getPath(42)).isEmpty();
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testSnapshot() {
+        List<Catalogue> top = tree().snapshot(null);
+        assertThat(top).extracting(Catalogue::getId).containsExactly(1, 4);
+        assertThat(top.get(0).getChildren().get(0).getChildren())
+                .extracting(Catalogue::getName)
+                .containsExactly("job");
+
+        List<Catalogue> subtree = tree().snapshot(2);
+        assertThat(subtree).extracting(Catalogue::getId).containsExactly(2);
+        assertThat(tree().snapshot(42)).isEmpty();
+
+        // Snapshots are copies
+        subtree.get(0).setName("changed");
+        assertThat(tree().getNode(2).getName()).isEqualTo("etl");
+    }
+
+    @Test
+    void testRenameAndMoveRefreshPaths() {
+        assertThat(tree().getPath(3)).isEqualTo("root/etl/job");
+        long version = tree().getVersion();
+
+        Catalogue rename = new Catalogue();
+        rename.setId(2);
+        rename.setName("ods");
+        index.upsert(null, rename);
+        assertThat(tree().getPath(3)).isEqualTo("root/ods/job");
+        assertThat(tree().getNode(2).getParentId()).isEqualTo(1);
+
+        Catalogue move = new Catalogue();
+        move.setId(2);
+        move.setParentId(4);
+        index.upsert(null, move);
+        assertThat(tree().getPath(3)).isEqualTo("other/ods/job");
+        assertThat(tree().snapshot(null).get(0).getChildren()).isEmpty();
+        assertThat(tree().getVersion()).isGreaterThan(version);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testInsertAndRemove() {
+        tree();
+        index.upsert(1, task(5, "job2", 4, 101));
+        assertThat(tree().getPath(5)).isEqualTo("other/job2");
+        assertThat(tree().getNodeByTaskId(101).getId()).isEqualTo(5);
+
+        index.remove(2);
+        assertThat(tree().getNode(2)).isNull();
+        assertThat(tree().getNode(3)).isNull();
+        assertThat(tree().getNodeByTaskId(100)).isNull();
+        assertThat(tree().listNodes()).extracting(Catalogue::getId).containsExactly(1, 4, 5);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testUnknownTenantInvalidates() {
+        tree();
+        index.upsert(null, folder(6, "new", 0));
+        tree();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testReloadWhenStateChanges() {
+        long version = tree().getVersion();
+        tree();
+        assertThat(loads.get()).isEqualTo(1);
+
+        state.incrementAndGet();
+        assertThat(tree().getVersion()).isGreaterThan(version);
+        tree();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testStateCheckedAfterInterval() {
+        index = new CatalogueTreeIndex(CatalogueTreeIndex.DEFAULT_CHECK_INTERVAL, CatalogueTreeIndex.DEFAULT_MAX_AGE);
+        tree();
+        state.incrementAndGet();
+        tree();
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testReloadAfterMaxAge() {
+        index = new CatalogueTreeIndex(CatalogueTreeIndex.DEFAULT_CHECK_INTERVAL, 0);
+        tree();
+        tree();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.dinky.context.JobPushContextHolder;
+import org.dinky.data.flink.job.JobStateEvent;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+/** JobInstanceServiceImplTest */
+class JobInstanceServiceImplTest {
+
+    private final JobInstanceServiceImpl service = new JobInstanceServiceImpl(null, null, null, null, null);
+
+    @Test
+    void testIngestMetrics() {
+        JobStateEvent event = new JobStateEvent("ingest-metrics", JobStateEvent.Type.METRICS);
+        event.setMetrics(Collections.singletonMap("v1", Collections.singletonMap("0.numRecordsIn", "42")));
+
+        service.ingestJobEvents(Collections.singletonList(event));
+
+        assertThat(JobPushContextHolder.getMetrics("ingest-metrics"))
+                .containsEntry("v1", Collections.singletonMap("0.numRecordsIn", "42"));
+        // A live stream without a pushed change does not need a poll
+        assertThat(JobPushContextHolder.needPoll("ingest-metrics")).isFalse();
+        JobPushContextHolder.remove("ingest-metrics");
+    }
+
+    @Test
+    void testIngestStatusChange() {
+        JobStateEvent event = new JobStateEvent("ingest-status", JobStateEvent.Type.STATUS);
+        event.setStatus("FAILED");
+
+        service.ingestJobEvents(Collections.singletonList(event));
+
+        assertThat(JobPushContextHolder.needPoll("ingest-status")).isTrue();
+        assertThat(JobPushContextHolder.needPoll("ingest-status")).isFalse();
+        JobPushContextHolder.remove("ingest-status");
+    }
+
+    @Test
+    void testIngestNothing() {
+        service.ingestJobEvents(Collections.emptyList());
+        service.ingestJobEvents(null);
+
+        assertThat(JobPushContextHolder.needPoll("ingest-nothing")).isTrue();
+        assertThat(JobPushContextHolder.getMetrics("ingest-nothing")).isNull();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.dinky.configure.MybatisPlusConfig;
+import org.dinky.context.TenantContextHolder;
+import org.dinky.mapper.TaskVersionMapper;
+import org.dinky.utils.LineDiff;
+
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+
+/** TaskVersionServiceImplTest */
+class TaskVersionServiceImplTest {
+
+    private static final String V1 = "select 1;\nselect 2;";
+    private static final String V2 = "select 1;\nselect 3;";
+
+    private JdbcDataSource dataSource;
+    private SqlSession session;
+    private TaskVersionServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:task_version_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE dinky_task_version (id int AUTO_INCREMENT PRIMARY KEY, task_id int,"
+                    + " tenant_id int, version_id int, statement text, base_version_id int, statement_delta text,"
+                    + " name varchar(255), dialect varchar(50), type varchar(50), task_configure text,"
+                    + " create_time timestamp, creator int)");
+        }
+        MybatisConfiguration configuration =
+                new MybatisConfiguration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addInterceptor(new MybatisPlusConfig(null).mybatisPlusInterceptor());
+        configuration.addMapper(TaskVersionMapper.class);
+        session = new MybatisSqlSessionFactoryBuilder().build(configuration).openSession(true);
+        service = new TaskVersionServiceImpl();
+        ReflectionTestUtils.setField(service, "baseMapper", session.getMapper(TaskVersionMapper.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clear();
+        TenantContextHolder.clearIgnoreTenant();
+        session.close();
+    }
+
+    @Test
+    void testRestoreEveryTenant() throws Exception {
+        String delta = LineDiff.encode(LineDiff.diff(LineDiff.lines(V1), LineDiff.lines(V2)));
+        insert(1, 10, 1, V1, null, null);
+        insert(1, 10, 2, null, 1, delta);
+        insert(2, 20, 1, V1, null, null);
+        insert(2, 20, 2, null, 1, delta);
+        TenantContextHolder.set(1);
+
+        assertThat(service.restoreFullStatements()).isEqualTo(2);
+
+        Map<Integer, String> statements = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT task_id, statement FROM dinky_task_version"
+                        + " WHERE version_id = 2 AND base_version_id IS NULL AND statement_delta IS NULL")) {
+            while (rs.next()) {
+                statements.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        assertThat(statements).containsEntry(10, V2).containsEntry(20, V2);
+        // the caller's requests are filtered by its tenant again
+        assertThat(TenantContextHolder.isIgnoreTenant()).isFalse();
+    }
+
+    private void insert(int tenantId, int taskId, int versionId, String statement, Integer baseVersionId, String delta)
+            throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement("INSERT INTO dinky_task_version (tenant_id,"
+                        + " task_id, version_id, statement, base_version_id, statement_delta, name, task_configure)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, 'v', '{}')")) {
+            ps.setInt(1, tenantId);
+            ps.setInt(2, taskId);
+            ps.setInt(3, versionId);
+            ps.setString(4, statement);
+            ps.setObject(5, baseVersionId);
+            ps.setString(6, delta);
+            ps.executeUpdate();
+        }
+    }
+}
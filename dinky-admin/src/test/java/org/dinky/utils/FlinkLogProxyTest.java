@@ -0,0 +1,151 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import cn.hutool.http.HttpResponse;
+
+/** FlinkLogProxyTest */
+class FlinkLogProxyTest {
+
+    private static final String LOG = "line 1\nline 2\nline 3\n";
+
+    @Test
+    void parseRange() {
+        assertThat(FlinkLogProxy.parseRange("bytes=0-99")).containsExactly(0, 99);
+        assertThat(FlinkLogProxy.parseRange(" bytes=100- ")).containsExactly(100, -1);
+        assertThat(FlinkLogProxy.parseRange("bytes=-500")).containsExactly(-1, 500);
+        assertThat(FlinkLogProxy.parseRange("bytes=5-5")).containsExactly(5, 5);
+    }
+
+    @Test
+    void parseRangeIgnoresUnsupportedRanges() {
+        assertThat(FlinkLogProxy.parseRange(null)).isNull();
+        assertThat(FlinkLogProxy.parseRange("")).isNull();
+        assertThat(FlinkLogProxy.parseRange("bytes=-")).isNull();
+        assertThat(FlinkLogProxy.parseRange("bytes=10-5")).isNull();
+        assertThat(FlinkLogProxy.parseRange("bytes=0-1,5-9")).isNull();
+        assertThat(FlinkLogProxy.parseRange("lines=0-9")).isNull();
+    }
+
+    @Test
+    void readTail() throws Exception {
+        byte[] content = bytes(10_000);
+
+        // Shorter than the ring buffer
+        assertThat(FlinkLogProxy.readTail(new ByteArrayInputStream(content, 0, 100), 256))
+                .isEqualTo(Arrays.copyOfRange(content, 0, 100));
+        // Exactly the size of the ring buffer
+        assertThat(FlinkLogProxy.readTail(new ByteArrayInputStream(content, 0, 256), 256))
+                .isEqualTo(Arrays.copyOfRange(content, 0, 256));
+        // Wrapped around the ring buffer several times, not on a read boundary
+        assertThat(FlinkLogProxy.readTail(new ByteArrayInputStream(content), 1000))
+                .isEqualTo(Arrays.copyOfRange(content, 9000, 10_000));
+        assertThat(FlinkLogProxy.readTail(new ByteArrayInputStream(new byte[0]), 16))
+                .isEmpty();
+    }
+
+    @Test
+    void forwardRangeOfKnownLength() throws Exception {
+        MockHttpServletResponse response = forward(source(LOG, true), "bytes=7-12");
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_PARTIAL_CONTENT);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-12/21");
+        assertThat(response.getContentAsString()).isEqualTo("line 2");
+    }
+
+    @Test
+    void forwardRangeOfUnknownLength() throws Exception {
+        MockHttpServletResponse response = forward(source(LOG, false), "bytes=14-");
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(response.getContentAsString()).isEqualTo("line 3\n");
+    }
+
+    @Test
+    void forwardStartPastTheEndOfUnknownLength() throws Exception {
+        MockHttpServletResponse past = forward(source(LOG, false), "bytes=100-");
+        assertThat(past.getStatus()).isEqualTo(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(past.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */21");
+        assertThat(past.getContentAsString()).isEmpty();
+
+        MockHttpServletResponse atEnd = forward(source(LOG, false), "bytes=21-");
+        assertThat(atEnd.getStatus()).isEqualTo(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    @Test
+    void forwardStartPastTheEndOfKnownLength() throws Exception {
+        MockHttpServletResponse response = forward(source(LOG, true), "bytes=21-");
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */21");
+    }
+
+    private static MockHttpServletResponse forward(HttpResponse source, String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, range);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FlinkLogProxy.forward(source, request, response, null, null);
+        return response;
+    }
+
+    private static HttpResponse source(String content, boolean knownLength) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        // A stream that returns fewer bytes than asked for, like a network stream
+        InputStream in = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+
+            @Override
+            public synchronized long skip(long n) {
+                return super.skip(Math.min(n, 3));
+            }
+        };
+        HttpResponse source = mock(HttpResponse.class);
+        when(source.contentLength()).thenReturn(knownLength ? (long) bytes.length : -1L);
+        when(source.bodyStream()).thenReturn(in);
+        return source;
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/** LineDiffTest */
+class LineDiffTest {
+
+    @Test
+    void applyRestoresTheNewText() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> from = randomLines(random, random.nextInt(60));
+            List<String> to = new ArrayList<>(from);
+            int changes = random.nextInt(10);
+            for (int i = 0; i < changes; i++) {
+                int position = to.isEmpty() ? 0 : random.nextInt(to.size());
+                switch (random.nextInt(3)) {
+                    case 0:
+                        to.add(position, "inserted " + random.nextInt(5));
+                        break;
+                    case 1:
+                        if (!to.isEmpty()) {
+                            to.remove(position);
+                        }
+                        break;
+                    default:
+                        if (!to.isEmpty()) {
+                            to.set(position, "changed " + random.nextInt(5));
+                        }
+                }
+            }
+            List<LineDiff.Hunk> hunks = LineDiff.diff(from, to);
+            assertThat(LineDiff.apply(from, hunks)).isEqualTo(to);
+            assertThat(LineDiff.apply(from, LineDiff.decode(LineDiff.encode(hunks)))).isEqualTo(to);
+        }
+    }
+
+    @Test
+    void unifiedDiff() {
+        List<String> from = LineDiff.lines("a\nb\nc\nd");
+        List<String> to = LineDiff.lines("a\nB\nc\nd\ne");
+        String diff = LineDiff.toUnifiedDiff(from, LineDiff.diff(from, to), 1);
+        assertThat(diff).isEqualTo("@@ -1,4 +1,5 @@\n a\n-b\n+B\n c\n d\n+e\n");
+        assertThat(LineDiff.diff(from, from)).isEmpty();
+    }
+
+    private static List<String> randomLines(Random random, int size) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            lines.add("line " + random.nextInt(8));
+        }
+        return lines;
+    }
+}
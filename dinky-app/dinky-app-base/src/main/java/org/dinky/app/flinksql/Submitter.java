@@ -22,7 +22,9 @@ package org.dinky.app.flinksql;
 import org.dinky.app.db.DBUtil;
 import org.dinky.app.model.StatementParam;
 import org.dinky.app.model.SysConfig;
+import org.dinky.app.util.DependencyCache;
 import org.dinky.app.util.FlinkAppUtil;
+import org.dinky.app.util.JobDoneListener;
 import org.dinky.assertion.Asserts;
 import org.dinky.classloader.DinkyClassLoader;
 import org.dinky.config.Dialect;
@@ -45,7 +47,6 @@ import org.dinky.trans.parse.ExecuteJarParseStrategy;
 import org.dinky.url.RsURLStreamHandlerFactory;
 import org.dinky.utils.FlinkStreamEnvironmentUtil;
 import org.dinky.utils.SqlUtil;
-import org.dinky.utils.ZipUtils;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -82,7 +83,6 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.URLUtil;
-import cn.hutool.http.HttpUtil;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
@@ -128,6 +128,8 @@ public class Submitter {
         executor = ExecutorFactory.buildAppStreamExecutor(
                 executorConfig, new WeakReference<>(DinkyClassLoader.build()).get());
 
+        JobDoneListener jobDoneListener = FlinkAppUtil.registerJobDoneListener(executor, config.getTaskId());
+
         // 加载第三方jar //TODO 这里有问题，需要修一修
         loadDep(appTask.getType(), config.getTaskId(), executorConfig);
         log.info("The job configuration is as follows: {}", executorConfig);
@@ -143,11 +145,11 @@ public class Submitter {
             }
         } finally {
             log.info("Start Monitor Job");
-            if (jobClient.isPresent()) {
-                FlinkAppUtil.monitorFlinkTask(jobClient.get(), config.getTaskId());
+            jobClient.ifPresent(jobDoneListener::watch);
+            if (jobDoneListener.isWatching()) {
+                jobDoneListener.awaitDelivered();
             } else {
                 log.error("jobClient is empty, can not  monitor job");
-                // FlinkAppUtil.monitorFlinkTask(Submitter.executor, config.getTaskId());
             }
         }
     }
@@ -177,43 +179,38 @@ public class Submitter {
 
         if (GatewayType.get(type).isKubernetesApplicationMode()) {
             try {
-                String httpJar = dinkyAddr + "/download/downloadDepJar/" + taskId;
-                log.info("下载依赖 http-url为：{}", httpJar);
+                File depDir = DependencyCache.fetch(dinkyAddr, taskId);
+                if (depDir == null) {
+                    return;
+                }
+                String depPath = depDir.getAbsolutePath();
+                log.info("load dep success, include :{}", String.join(",", FileUtil.listFileNames(depPath)));
                 String flinkHome = System.getenv("FLINK_HOME");
                 String usrlib = flinkHome + "/usrlib";
                 FileUtils.forceMkdir(new File(usrlib));
-                String depZip = flinkHome + "/dep.zip";
-                String depPath = flinkHome + "/dep";
-                downloadFile(httpJar, depZip);
-                if (FileUtil.exist(depPath)) {
-                    ZipUtils.unzip(depZip, depPath);
-                    log.info("download dep success, include :{}", String.join(",", FileUtil.listFileNames(depPath)));
-                    // move all jar
-                    if (FileUtil.isDirectory(depPath + "/jar/")) {
-                        FileUtil.listFileNames(depPath + "/jar").forEach(f -> {
-                            FileUtil.move(FileUtil.file(depPath + "/jar/" + f), FileUtil.file(usrlib + "/" + f), true);
-                        });
-                        if (FileUtil.isDirectory(usrlib)) {
-                            URL[] jarUrls = FileUtil.listFileNames(usrlib).stream()
-                                    .map(f -> URLUtil.getURL(FileUtil.file(usrlib, f)))
-                                    .toArray(URL[]::new);
-                            addURLs(jarUrls);
-                            executor.getCustomTableEnvironment()
-                                    .addJar(FileUtil.file(usrlib).listFiles());
-                        }
-                    }
-                    if (FileUtil.isDirectory(depPath + "/py/")) {
-                        URL[] pyUrls = FileUtil.listFileNames(depPath + "/py/").stream()
-                                .map(f -> URLUtil.getURL(FileUtil.file(depPath + "/py/", f)))
+                // copy all jar, the extracted bundle stays in the cache for the next start
+                if (FileUtil.isDirectory(depPath + "/jar/")) {
+                    FileUtil.listFileNames(depPath + "/jar").forEach(f -> {
+                        FileUtil.copy(FileUtil.file(depPath + "/jar/" + f), FileUtil.file(usrlib + "/" + f), true);
+                    });
+                    if (FileUtil.isDirectory(usrlib)) {
+                        URL[] jarUrls = FileUtil.listFileNames(usrlib).stream()
+                                .map(f -> URLUtil.getURL(FileUtil.file(usrlib, f)))
                                 .toArray(URL[]::new);
-                        if (ArrayUtil.isNotEmpty(pyUrls)) {
-                            executor.getCustomTableEnvironment()
-                                    .addConfiguration(
-                                            PythonOptions.PYTHON_FILES,
-                                            Arrays.stream(pyUrls)
-                                                    .map(URL::toString)
-                                                    .collect(Collectors.joining(",")));
-                        }
+                        addURLs(jarUrls);
+                        executor.getCustomTableEnvironment()
+                                .addJar(FileUtil.file(usrlib).listFiles());
+                    }
+                }
+                if (FileUtil.isDirectory(depPath + "/py/")) {
+                    URL[] pyUrls = FileUtil.listFileNames(depPath + "/py/").stream()
+                            .map(f -> URLUtil.getURL(FileUtil.file(depPath + "/py/", f)))
+                            .toArray(URL[]::new);
+                    if (ArrayUtil.isNotEmpty(pyUrls)) {
+                        executor.getCustomTableEnvironment()
+                                .addConfiguration(
+                                        PythonOptions.PYTHON_FILES,
+                                        Arrays.stream(pyUrls).map(URL::toString).collect(Collectors.joining(",")));
                     }
                 }
             } catch (IOException e) {
@@ -236,16 +233,6 @@ public class Submitter {
         }
     }
 
-    public static boolean downloadFile(String url, String path) throws IOException {
-        try {
-            HttpUtil.downloadFile(url, path);
-            return true;
-        } catch (Exception e) {
-            log.error("download failed, Reason:", e);
-            return false;
-        }
-    }
-
     @SneakyThrows
     public static Optional<JobClient> executeJarJob(String type, Executor executor, String[] statements) {
         Optional<JobClient> jobClient = Optional.empty();
@@ -0,0 +1,357 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.app.reporter;
+
+import org.dinky.data.flink.job.JobDoneHook;
+import org.dinky.data.flink.job.JobStateEvent;
+import org.dinky.data.model.SystemConfiguration;
+import org.dinky.utils.JsonUtils;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.Meter;
+import org.apache.flink.metrics.Metric;
+import org.apache.flink.metrics.MetricConfig;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.metrics.reporter.MetricReporter;
+import org.apache.flink.metrics.reporter.Scheduled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes job state to Dinky instead of letting Dinky poll the JobManager REST API.
+ *
+ * <p>On every report the reporter posts one gzip compressed batch to {@code /api/jobInstance/ingest}:
+ * a {@link JobStateEvent.Type#STATUS} event when the status derived from the job gauges changes, a
+ * {@link JobStateEvent.Type#CHECKPOINT} event when a checkpoint completes, a {@link JobStateEvent.Type#REMOVED}
+ * event when a job leaves the JobManager and a {@link JobStateEvent.Type#METRICS} event per job with the
+ * selected metrics, which also tells Dinky that the push stream is alive. The json batch is signed with the hook
+ * secret, which defaults to the one of the system configuration. Enable it in the flink configuration:
+ *
+ * <pre>
+ * metrics.reporter.dinky.factory.class: org.dinky.app.reporter.DinkyMetricReporterFactory
+ * metrics.reporter.dinky.interval: 10 SECONDS
+ * metrics.reporter.dinky.address: http://127.0.0.1:8888
+ * metrics.reporter.dinky.metrics: numRecordsInPerSecond,numRecordsOutPerSecond
+ * metrics.reporter.dinky.secret: the hook secret of the Dinky system settings
+ * </pre>
+ */
+@Slf4j
+public class DinkyMetricReporter implements MetricReporter, Scheduled {
+
+    public static final String ARG_ADDRESS = "address";
+    public static final String ARG_METRICS = "metrics";
+    public static final String ARG_TIMEOUT = "timeout";
+    public static final String ARG_SECRET = "secret";
+
+    private static final String DEFAULT_METRICS = "numRecordsInPerSecond,numRecordsOutPerSecond,"
+            + "numBytesInPerSecond,numBytesOutPerSecond,currentInputWatermark,currentOutputWatermark";
+    private static final String INGEST_PATH = "/api/jobInstance/ingest";
+
+    private static final String VARIABLE_JOB_ID = "<job_id>";
+    private static final String VARIABLE_TASK_ID = "<task_id>";
+    private static final String VARIABLE_SUBTASK_INDEX = "<subtask_index>";
+    private static final String VARIABLE_OPERATOR_NAME = "<operator_name>";
+
+    private static final String UPTIME = "uptime";
+    private static final String DOWNTIME = "downtime";
+    private static final String NUM_RESTARTS = "numRestarts";
+    private static final String COMPLETED_CHECKPOINTS = "numberOfCompletedCheckpoints";
+    private static final Set<String> JOB_GAUGES =
+            new HashSet<>(Arrays.asList(UPTIME, DOWNTIME, NUM_RESTARTS, COMPLETED_CHECKPOINTS));
+
+    /** Unsent transition events are kept for the next report, up to this many. */
+    private static final int MAX_PENDING_EVENTS = 1000;
+
+    private final Map<String, JobGauges> jobGauges = new ConcurrentHashMap<>();
+    private final Map<String, Map<MetricKey, Metric>> jobMetrics = new ConcurrentHashMap<>();
+    private final Deque<JobStateEvent> pendingEvents = new ArrayDeque<>();
+
+    private String url;
+    private Set<String> selectedMetrics;
+    private int timeout;
+    private String secret;
+
+    /** Gauges of a job registered on the JobManager and the state last pushed for them. */
+    private static class JobGauges {
+        private final Map<String, Gauge<?>> gauges = new ConcurrentHashMap<>();
+        private String status;
+        private Long completedCheckpoints;
+        private Long restarts;
+    }
+
+    /** Identifies a metric like the Flink REST API does: vertex id and {@code subtask.[operator.]name}. */
+    private static class MetricKey {
+        private final String vertexId;
+        private final String id;
+
+        private MetricKey(String vertexId, String id) {
+            this.vertexId = vertexId;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            MetricKey that = (MetricKey) o;
+            return vertexId.equals(that.vertexId) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(vertexId, id);
+        }
+    }
+
+    @Override
+    public void open(MetricConfig config) {
+        String address = config.getString(ARG_ADDRESS, null);
+        if (StrUtil.isBlank(address)) {
+            address = SystemConfiguration.getInstances().getDinkyAddr().getValue();
+        }
+        if (StrUtil.isBlank(address)) {
+            throw new IllegalArgumentException(
+                    StrFormatter.format("The dinky metric reporter requires the '{}' option", ARG_ADDRESS));
+        }
+        url = StrUtil.removeSuffix(address, "/") + INGEST_PATH;
+        selectedMetrics = Arrays.stream(config.getString(ARG_METRICS, DEFAULT_METRICS).split(","))
+                .map(String::trim)
+                .filter(StrUtil::isNotEmpty)
+                .collect(Collectors.toSet());
+        timeout = config.getInteger(ARG_TIMEOUT, 5000);
+        secret = config.getString(ARG_SECRET, null);
+        if (StrUtil.isBlank(secret)) {
+            secret = SystemConfiguration.getInstances().getHookSecret().getValue();
+        }
+        if (StrUtil.isBlank(secret)) {
+            throw new IllegalArgumentException(
+                    StrFormatter.format("The dinky metric reporter requires the '{}' option", ARG_SECRET));
+        }
+        log.info("Dinky metric reporter pushes to {}, metrics: {}", url, selectedMetrics);
+    }
+
+    @Override
+    public void close() {
+        jobGauges.clear();
+        jobMetrics.clear();
+    }
+
+    @Override
+    public void notifyOfAddedMetric(Metric metric, String metricName, MetricGroup group) {
+        Map<String, String> variables = group.getAllVariables();
+        String jobId = variables.get(VARIABLE_JOB_ID);
+        if (jobId == null) {
+            return;
+        }
+        String vertexId = variables.get(VARIABLE_TASK_ID);
+        if (vertexId == null) {
+            if (JOB_GAUGES.contains(metricName) && metric instanceof Gauge) {
+                jobGauges.computeIfAbsent(jobId, id -> new JobGauges()).gauges.put(metricName, (Gauge<?>) metric);
+            }
+        } else if (selectedMetrics.contains(metricName)) {
+            jobMetrics
+                    .computeIfAbsent(jobId, id -> new ConcurrentHashMap<>())
+                    .put(new MetricKey(vertexId, metricId(variables, metricName)), metric);
+        }
+    }
+
+    @Override
+    public void notifyOfRemovedMetric(Metric metric, String metricName, MetricGroup group) {
+        Map<String, String> variables = group.getAllVariables();
+        String jobId = variables.get(VARIABLE_JOB_ID);
+        if (jobId == null) {
+            return;
+        }
+        String vertexId = variables.get(VARIABLE_TASK_ID);
+        if (vertexId == null) {
+            if (UPTIME.equals(metricName) && jobGauges.remove(jobId) != null) {
+                // The job group is closed when the job reaches a terminal state or loses its leadership
+                enqueue(new JobStateEvent(jobId, JobStateEvent.Type.REMOVED));
+            }
+        } else {
+            Map<MetricKey, Metric> metrics = jobMetrics.get(jobId);
+            if (metrics != null) {
+                metrics.remove(new MetricKey(vertexId, metricId(variables, metricName)));
+                if (metrics.isEmpty()) {
+                    jobMetrics.remove(jobId);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void report() {
+        for (Map.Entry<String, JobGauges> entry : jobGauges.entrySet()) {
+            collectTransitions(entry.getKey(), entry.getValue());
+        }
+        List<JobStateEvent> batch;
+        synchronized (pendingEvents) {
+            batch = new ArrayList<>(pendingEvents);
+        }
+        int transitions = batch.size();
+        Set<String> jobIds = new HashSet<>(jobGauges.keySet());
+        jobIds.addAll(jobMetrics.keySet());
+        for (String jobId : jobIds) {
+            JobStateEvent event = new JobStateEvent(jobId, JobStateEvent.Type.METRICS);
+            event.setMetrics(collectMetrics(jobMetrics.get(jobId)));
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (send(batch)) {
+            synchronized (pendingEvents) {
+                for (int i = 0; i < transitions; i++) {
+                    pendingEvents.pollFirst();
+                }
+            }
+        }
+    }
+
+    private void collectTransitions(String jobId, JobGauges gauges) {
+        Long uptime = longValue(gauges.gauges.get(UPTIME));
+        Long downtime = longValue(gauges.gauges.get(DOWNTIME));
+        Long restarts = longValue(gauges.gauges.get(NUM_RESTARTS));
+        Long completedCheckpoints = longValue(gauges.gauges.get(COMPLETED_CHECKPOINTS));
+
+        boolean restarted = restarts != null && gauges.restarts != null && restarts > gauges.restarts;
+        gauges.restarts = restarts;
+        String status = null;
+        if (restarted || (downtime != null && downtime > 0)) {
+            status = "RESTARTING";
+        } else if (uptime != null && uptime > 0) {
+            status = "RUNNING";
+        }
+        if (status != null && !status.equals(gauges.status)) {
+            gauges.status = status;
+            JobStateEvent event = new JobStateEvent(jobId, JobStateEvent.Type.STATUS);
+            event.setStatus(status);
+            enqueue(event);
+        }
+        if (completedCheckpoints != null && !completedCheckpoints.equals(gauges.completedCheckpoints)) {
+            gauges.completedCheckpoints = completedCheckpoints;
+            JobStateEvent event = new JobStateEvent(jobId, JobStateEvent.Type.CHECKPOINT);
+            event.setCompletedCheckpoints(completedCheckpoints);
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(JobStateEvent event) {
+        synchronized (pendingEvents) {
+            if (pendingEvents.size() >= MAX_PENDING_EVENTS) {
+                pendingEvents.pollFirst();
+            }
+            pendingEvents.addLast(event);
+        }
+    }
+
+    private boolean send(List<JobStateEvent> batch) {
+        String body = JsonUtils.toJsonString(batch);
+        try (HttpResponse response = HttpRequest.post(url)
+                .header("Content-Encoding", "gzip")
+                .header(JobDoneHook.SIGNATURE_HEADER, JobDoneHook.sign(secret, body))
+                .contentType("application/json")
+                .body(gzip(body))
+                .timeout(timeout)
+                .execute()) {
+            if (!response.isOk()) {
+                log.warn("Push {} job events to {} failed, http status {}", batch.size(), url, response.getStatus());
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Push {} job events to {} failed: {}", batch.size(), url, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Map<String, Map<String, String>> collectMetrics(Map<MetricKey, Metric> metrics) {
+        Map<String, Map<String, String>> values = new HashMap<>();
+        if (metrics == null) {
+            return values;
+        }
+        metrics.forEach((key, metric) -> {
+            String value = metricValue(metric);
+            if (value != null) {
+                values.computeIfAbsent(key.vertexId, id -> new HashMap<>()).put(key.id, value);
+            }
+        });
+        return values;
+    }
+
+    private static String metricId(Map<String, String> variables, String metricName) {
+        String operatorName = variables.get(VARIABLE_OPERATOR_NAME);
+        String subtaskIndex = variables.get(VARIABLE_SUBTASK_INDEX);
+        return operatorName == null
+                ? StrFormatter.format("{}.{}", subtaskIndex, metricName)
+                : StrFormatter.format("{}.{}.{}", subtaskIndex, operatorName, metricName);
+    }
+
+    private static String metricValue(Metric metric) {
+        if (metric instanceof Counter) {
+            return String.valueOf(((Counter) metric).getCount());
+        } else if (metric instanceof Gauge) {
+            Object value = ((Gauge<?>) metric).getValue();
+            return value == null ? null : value.toString();
+        } else if (metric instanceof Meter) {
+            return String.valueOf(((Meter) metric).getRate());
+        }
+        return null;
+    }
+
+    private static Long longValue(Gauge<?> gauge) {
+        Object value = gauge == null ? null : gauge.getValue();
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.app.util;
+
+import org.dinky.utils.ZipUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.Header;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.HttpStatus;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Node local cache of task dependency bundles, keyed by the bundle hash Dinky sends as ETag. A restarted pod
+ * revalidates its bundle with If-None-Match and reuses the extracted copy on 304 instead of downloading it
+ * again. Mount a hostPath at {@link #CACHE_DIR_ENV} to share the cache between the pods of a node.
+ */
+@Slf4j
+public class DependencyCache {
+
+    public static final String CACHE_DIR_ENV = "DINKY_DEP_CACHE_DIR";
+
+    private static final String DEFAULT_CACHE_DIR = System.getProperty("java.io.tmpdir") + "/dinky-dep-cache";
+
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
+    private static final int TIMEOUT = 60 * 1000;
+
+    private DependencyCache() {}
+
+    /**
+     * Get the extracted dependency bundle of a task, downloading it only if the cached copy is outdated.
+     *
+     * @param dinkyAddr dinky address
+     * @param taskId    task id
+     * @return the directory the bundle is extracted to, or null if the task has no dependencies
+     */
+    public static File fetch(String dinkyAddr, Integer taskId) throws IOException {
+        File cacheDir = FileUtil.mkdir(StrUtil.blankToDefault(System.getenv(CACHE_DIR_ENV), DEFAULT_CACHE_DIR));
+        File pointer = new File(cacheDir, "task-" + taskId + ".etag");
+        String cachedHash = pointer.exists() ? FileUtil.readUtf8String(pointer).trim() : null;
+        File cachedDir = StrUtil.isBlank(cachedHash) ? null : new File(cacheDir, cachedHash);
+
+        String url = dinkyAddr + "/download/downloadDepJar/" + taskId;
+        HttpRequest request = HttpRequest.get(url).timeout(TIMEOUT);
+        if (cachedDir != null && cachedDir.isDirectory()) {
+            request.header(IF_NONE_MATCH, "\"" + cachedHash + "\"");
+        }
+        log.info("Fetch dependencies of task {} from {}, cached bundle: {}", taskId, url, cachedHash);
+        try (HttpResponse response = request.executeAsync()) {
+            if (response.getStatus() == HttpStatus.HTTP_NOT_MODIFIED && cachedDir != null) {
+                log.info("Dependency bundle {} is up to date, skip download", cachedHash);
+                return cachedDir;
+            }
+            if (!response.isOk()) {
+                throw new IOException(StrUtil.format("Download {} failed, http status {}", url, response.getStatus()));
+            }
+            String hash = StrUtil.unWrap(StrUtil.removePrefix(response.header(Header.ETAG), "W/"), '"');
+            String key = StrUtil.isBlank(hash) ? "task-" + taskId + "-" + UUID.randomUUID() : hash;
+            File bundleDir = new File(cacheDir, key);
+            if (!bundleDir.isDirectory()) {
+                File tmpZip = new File(cacheDir, key + "." + UUID.randomUUID() + ".zip.tmp");
+                File tmpDir = new File(cacheDir, key + "." + UUID.randomUUID() + ".tmp");
+                try {
+                    if (response.writeBody(tmpZip) <= 0) {
+                        // The task has no dependency manifest
+                        return null;
+                    }
+                    ZipUtils.unzip(tmpZip.getAbsolutePath(), tmpDir.getAbsolutePath());
+                    moveAtomically(tmpDir, bundleDir);
+                } finally {
+                    FileUtil.del(tmpZip);
+                    FileUtil.del(tmpDir);
+                }
+            }
+            if (StrUtil.isNotBlank(hash)) {
+                File tmpPointer = new File(cacheDir, pointer.getName() + "." + UUID.randomUUID() + ".tmp");
+                FileUtil.writeString(hash, tmpPointer, StandardCharsets.UTF_8);
+                moveAtomically(tmpPointer, pointer);
+            }
+            return bundleDir;
+        }
+    }
+
+    /**
+     * Move a file or directory into place, another pod of the node may have put the same bundle there already.
+     */
+    private static void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (FileAlreadyExistsException e) {
+            log.info("{} is already in the cache", target.getName());
+        }
+    }
+}
@@ -20,118 +20,101 @@
 package org.dinky.app.util;
 
 import org.dinky.data.enums.JobStatus;
-import org.dinky.data.model.SystemConfiguration;
+import org.dinky.data.flink.job.JobDoneHook;
 import org.dinky.executor.Executor;
-import org.dinky.utils.JsonUtils;
 
+import org.apache.flink.api.common.JobID;
 import org.apache.flink.client.deployment.StandaloneClusterId;
 import org.apache.flink.client.program.rest.RestClusterClient;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.configuration.ReadableConfig;
 import org.apache.flink.core.execution.JobClient;
-import org.apache.flink.runtime.client.JobStatusMessage;
+import org.apache.flink.runtime.client.JobCancellationException;
+import org.apache.flink.runtime.rest.messages.EmptyRequestBody;
+import org.apache.flink.runtime.rest.messages.JobMessageParameters;
+import org.apache.flink.runtime.rest.messages.checkpoints.CheckpointStatistics;
+import org.apache.flink.runtime.rest.messages.checkpoints.CheckpointingStatistics;
+import org.apache.flink.runtime.rest.messages.checkpoints.CheckpointingStatisticsHeaders;
+import org.apache.flink.util.ExceptionUtils;
 
-import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
-import cn.hutool.core.text.StrFormatter;
-import cn.hutool.http.HttpUtil;
+import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FlinkAppUtil {
 
+    /** Failure causes are cut to fit the error column of the job instance. */
+    private static final int MAX_FAILURE_CAUSE_LENGTH = 4000;
+
+    private static final long QUERY_TIMEOUT = 5000;
+
     /**
-     * Utility class for monitoring Flink tasks.
-     * This method creates a Flink REST client and continuously checks the status of the task until it is completed.
-     * If the task is completed, it sends a hook notification and stops monitoring.
+     * Register a {@link JobDoneListener} on the environment of the executor, so that every job it submits hooks
+     * Dinky as soon as the job reaches a terminal state. Hooks left over by previous runs are sent again.
      */
-    public static void monitorFlinkTask(Executor executor, int taskId) {
-        boolean isRun = true;
-        int reTryCount = 0;
-        try (RestClusterClient<StandaloneClusterId> client = createClient(executor)) {
-            while (isRun) {
-                Collection<JobStatusMessage> jobs = client.listJobs().get();
-                if (jobs.isEmpty()) {
-                    log.error("No Flink task found, try again in 5 seconds.....");
-                    reTryCount++;
-                    if (reTryCount > 10) {
-                        isRun = false;
-                        log.error("No Flink task found, please check the Flink cluster status.");
-                    }
-                }
-                for (JobStatusMessage job : jobs) {
-                    if (JobStatus.isDone(job.getJobState().toString())) {
-                        sendHook(taskId, job.getJobId().toHexString(), 0);
-                        log.info("hook {} finished.", job.getJobName());
-                        // There should be only one in application mode, so stop monitoring here
-                        isRun = false;
-                    }
-                }
-                Thread.sleep(5000);
-            }
-        } catch (Exception e) {
-            // If an exception is thrown, it will cause the k8s pod to trigger a restart,
-            // resulting in an inability to exit normally
-            log.error("hook failed:", e);
-        }
+    public static JobDoneListener registerJobDoneListener(Executor executor, int taskId) {
+        JobDoneHookQueue.replay();
+        JobDoneListener listener = new JobDoneListener(executor, taskId);
+        executor.getStreamExecutionEnvironment().registerJobListener(listener);
+        return listener;
     }
 
-    public static void monitorFlinkTask(JobClient jobClient, int taskId) {
-        boolean isRun = true;
-        String jobId = jobClient.getJobID().toHexString();
+    /**
+     * Build the hook of a job whose result future just completed. The final status is asked from the JobManager and
+     * derived from the failure only if that fails. The JobManager is still up while the application waits for the hook.
+     */
+    static JobDoneHook buildHook(Executor executor, JobClient jobClient, int taskId, Throwable failure) {
+        JobID jobId = jobClient.getJobID();
+        String status;
         try {
-            while (isRun) {
-                String jobStatus = jobClient.getJobStatus().get().toString();
-                JobStatus status = JobStatus.get(jobStatus);
-                if (status.isDone()) {
-                    sendHook(taskId, jobId, 0);
-                    log.info("refesh job status finished, status is {}", status);
-                    isRun = false;
-                }
-                Thread.sleep(5000);
-            }
+            status = jobClient.getJobStatus().get(QUERY_TIMEOUT, TimeUnit.MILLISECONDS).toString();
         } catch (Exception e) {
-            // If an exception is thrown, it will cause the k8s pod to trigger a restart,
-            // resulting in an inability to exit normally
-            log.error("refesh status failed:", e);
+            log.warn("Failed to get the final status of job {}, derive it from the result: {}", jobId, e.getMessage());
+            status = failure == null ? JobStatus.FINISHED.getValue() : null;
+        }
+        if (status == null || !JobStatus.isDone(status)) {
+            status = ExceptionUtils.findThrowable(failure, JobCancellationException.class).isPresent()
+                    ? JobStatus.CANCELED.getValue()
+                    : JobStatus.FAILED.getValue();
         }
+        String failureCause = null;
+        if (failure != null) {
+            String stackTrace = ExceptionUtils.stringifyException(ExceptionUtils.stripCompletionException(failure));
+            failureCause = StrUtil.maxLength(stackTrace, MAX_FAILURE_CAUSE_LENGTH);
+        }
+        return JobDoneHook.builder()
+                .taskId(taskId)
+                .jobId(jobId.toHexString())
+                .status(status)
+                .checkpointPath(getLatestCheckpointPath(executor, jobId))
+                .failureCause(failureCause)
+                .timestamp(System.currentTimeMillis())
+                .build();
     }
 
-    /**
-     * The sendHook method is used to send a Hook request.
-     * This method sends an HTTP request to notify a specific address about the completion status of a task.
-     * If the request is successful, the returned code in the result is 0; otherwise, an exception is thrown.
-     * If sending the request fails, it will be retried up to 30 times with a 1-second interval between each retry.
-     * If the retry limit is exceeded, an exception is thrown.
-     */
-    private static void sendHook(int taskId, String jobId, int reTryCount) {
-        String dinkyAddr = SystemConfiguration.getInstances().getDinkyAddr().getValue();
-        String url = StrFormatter.format("{}/api/jobInstance/hookJobDone?taskId={}&jobId={}", dinkyAddr, taskId, jobId);
-        try {
-            String resultStr = HttpUtil.get(url, 5000);
-            // TODO 这里应该使用Result实体类，但是Result.class不在comm里，迁移改动太大，暂时不搞
-            String code = JsonUtils.parseObject(resultStr).get("code").toString();
-            if (!"0".equals(code)) {
-                throw new RuntimeException(
-                        StrFormatter.format("Send Hook Job Done result failed,url:{},err:{} ", url, resultStr));
+    /** The external path of the latest completed checkpoint or savepoint of a job, whichever is more recent. */
+    private static String getLatestCheckpointPath(Executor executor, JobID jobId) {
+        try (RestClusterClient<StandaloneClusterId> client = createClient(executor)) {
+            JobMessageParameters parameters =
+                    CheckpointingStatisticsHeaders.getInstance().getUnresolvedMessageParameters();
+            parameters.jobPathParameter.resolve(jobId);
+            CheckpointingStatistics statistics = client.sendRequest(
+                            CheckpointingStatisticsHeaders.getInstance(), parameters, EmptyRequestBody.getInstance())
+                    .get(QUERY_TIMEOUT, TimeUnit.MILLISECONDS);
+            CheckpointStatistics.CompletedCheckpointStatistics checkpoint =
+                    statistics.getLatestCheckpoints().getCompletedCheckpointStatistics();
+            CheckpointStatistics.CompletedCheckpointStatistics savepoint =
+                    statistics.getLatestCheckpoints().getSavepointStatistics();
+            if (savepoint != null
+                    && (checkpoint == null || savepoint.getLatestAckTimestamp() > checkpoint.getLatestAckTimestamp())) {
+                checkpoint = savepoint;
             }
+            return checkpoint == null || checkpoint.isDiscarded() ? null : checkpoint.getExternalPath();
         } catch (Exception e) {
-            if (reTryCount < 10) {
-                log.error(
-                        "send hook failed,retry later，url：{}， taskId:{},jobId:{},{}",
-                        url,
-                        taskId,
-                        jobId,
-                        e.getMessage());
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException ex) {
-                    throw new RuntimeException(ex);
-                }
-                sendHook(taskId, jobId, reTryCount + 1);
-            } else {
-                log.error("Hook Job Done failed to {}, The retry limit is exceeded: {}", dinkyAddr, e.getMessage());
-            }
+            log.warn("Failed to get the latest checkpoint of job {}: {}", jobId, e.getMessage());
+            return null;
         }
     }
 
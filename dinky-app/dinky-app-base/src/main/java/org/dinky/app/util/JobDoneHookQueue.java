@@ -0,0 +1,186 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.app.util;
+
+import org.dinky.data.flink.job.JobDoneHook;
+import org.dinky.data.model.SystemConfiguration;
+import org.dinky.utils.JsonUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.ContentType;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.HttpStatus;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durable retry queue of job done hooks.
+ *
+ * <p>A hook is spooled to {@link #SPOOL_DIR_ENV} before it is sent and deleted once Dinky acknowledged it. Failed
+ * sends are retried with exponential backoff for {@link #DELIVERY_TIMEOUT}. Hooks still spooled then, e.g. because
+ * the pod stopped, are sent again by the next dinky-app started on the same spool directory, so mount a volume there
+ * to keep them across pod restarts.
+ */
+@Slf4j
+public class JobDoneHookQueue {
+
+    public static final String SPOOL_DIR_ENV = "DINKY_HOOK_SPOOL_DIR";
+
+    private static final String DEFAULT_SPOOL_DIR = System.getProperty("java.io.tmpdir") + "/dinky-hook";
+
+    private static final long DELIVERY_TIMEOUT = TimeUnit.MINUTES.toMillis(2);
+
+    private static final long INITIAL_BACKOFF = 500;
+
+    private static final long MAX_BACKOFF = TimeUnit.SECONDS.toMillis(30);
+
+    /** Spooled hooks older than this are for jobs Dinky has long given up on and are dropped. */
+    private static final long SPOOL_RETENTION = TimeUnit.DAYS.toMillis(7);
+
+    private static final int TIMEOUT = 5000;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("dinky-hook-%d")
+                    .setDaemon(true)
+                    .build());
+
+    private JobDoneHookQueue() {}
+
+    /**
+     * Spool a hook and start delivering it.
+     *
+     * @param hook the hook to send
+     * @return completes with true once Dinky acknowledged the hook, or with false once delivery gave up
+     */
+    public static CompletableFuture<Boolean> offer(JobDoneHook hook) {
+        CompletableFuture<Boolean> delivered = new CompletableFuture<>();
+        File file = null;
+        try {
+            file = spool(hook);
+        } catch (Exception e) {
+            log.error("Failed to spool hook of job {}, it is sent without a retry after restart", hook.getJobId(), e);
+        }
+        File spooled = file;
+        SCHEDULER.execute(() ->
+                attempt(hook, spooled, System.currentTimeMillis() + DELIVERY_TIMEOUT, INITIAL_BACKOFF, delivered));
+        return delivered;
+    }
+
+    /** Send again the hooks that previous runs left in the spool directory, without waiting for them. */
+    public static void replay() {
+        File[] files = spoolDir().listFiles((dir, name) -> name.startsWith("hook-") && name.endsWith(".json"));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (System.currentTimeMillis() - file.lastModified() > SPOOL_RETENTION) {
+                FileUtil.del(file);
+                continue;
+            }
+            try {
+                JobDoneHook hook = JsonUtils.parseObject(FileUtil.readUtf8String(file), JobDoneHook.class);
+                log.info("Replay hook of job {} from {}", hook.getJobId(), file.getName());
+                long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT;
+                SCHEDULER.execute(() -> attempt(hook, file, deadline, INITIAL_BACKOFF, new CompletableFuture<>()));
+            } catch (Exception e) {
+                log.warn("Drop unreadable spooled hook {}", file.getName(), e);
+                FileUtil.del(file);
+            }
+        }
+    }
+
+    private static File spoolDir() {
+        return FileUtil.mkdir(StrUtil.blankToDefault(System.getenv(SPOOL_DIR_ENV), DEFAULT_SPOOL_DIR));
+    }
+
+    private static File spool(JobDoneHook hook) throws Exception {
+        File dir = spoolDir();
+        String name = StrFormatter.format("hook-{}-{}", hook.getTaskId(), hook.getJobId());
+        File tmp = new File(dir, name + ".tmp");
+        FileUtil.writeUtf8String(JsonUtils.toJsonString(hook), tmp);
+        File file = new File(dir, name + ".json");
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    private static void attempt(
+            JobDoneHook hook, File file, long deadline, long backoff, CompletableFuture<Boolean> delivered) {
+        if (send(hook)) {
+            if (file != null) {
+                FileUtil.del(file);
+            }
+            log.info("Hook of job {} delivered, status {}", hook.getJobId(), hook.getStatus());
+            delivered.complete(true);
+        } else if (System.currentTimeMillis() + backoff > deadline) {
+            log.error("Hook of job {} not delivered in time, it stays spooled for the next run", hook.getJobId());
+            delivered.complete(false);
+        } else {
+            SCHEDULER.schedule(
+                    () -> attempt(hook, file, deadline, Math.min(backoff * 2, MAX_BACKOFF), delivered),
+                    backoff,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean send(JobDoneHook hook) {
+        SystemConfiguration systemConfiguration = SystemConfiguration.getInstances();
+        String url = systemConfiguration.getDinkyAddr().getValue() + "/api/jobInstance/hookJobDone";
+        String body = JsonUtils.toJsonString(hook);
+        String signature = JobDoneHook.sign(systemConfiguration.getHookSecret().getValue(), body);
+        try (HttpResponse response = HttpRequest.post(url)
+                .timeout(TIMEOUT)
+                .header(JobDoneHook.SIGNATURE_HEADER, signature)
+                .body(body, ContentType.JSON.getValue())
+                .execute()) {
+            String resultStr = response.body();
+            int status = response.getStatus();
+            if (status == HttpStatus.HTTP_BAD_METHOD || status == HttpStatus.HTTP_NOT_FOUND) {
+                // a Dinky that only knows the GET hook, it reads the final state from the cluster itself
+                try (HttpResponse fallback = HttpRequest.get(StrFormatter.format(
+                                "{}?taskId={}&jobId={}", url, hook.getTaskId(), hook.getJobId()))
+                        .timeout(TIMEOUT)
+                        .execute()) {
+                    resultStr = fallback.body();
+                }
+            }
+            String code = JsonUtils.parseObject(resultStr).get("code").toString();
+            if ("0".equals(code)) {
+                return true;
+            }
+            log.warn("Send hook of job {} to {} failed, retry later: {}", hook.getJobId(), url, resultStr);
+        } catch (Exception e) {
+            log.warn("Send hook of job {} to {} failed, retry later: {}", hook.getJobId(), url, e.getMessage());
+        }
+        return false;
+    }
+}
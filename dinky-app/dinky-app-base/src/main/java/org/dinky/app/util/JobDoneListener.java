@@ -0,0 +1,107 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.app.util;
+
+import org.dinky.executor.Executor;
+
+import org.apache.flink.api.common.JobExecutionResult;
+import org.apache.flink.core.execution.JobClient;
+import org.apache.flink.core.execution.JobListener;
+
+import java.util.concurrent.CompletableFuture;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hooks Dinky as soon as the job of the application reaches a terminal state.
+ *
+ * <p>The listener picks up the {@link JobClient} when the job is submitted and reacts to the completion of its result
+ * future, so no thread polls the job status. The hook is delivered through the {@link JobDoneHookQueue}.
+ */
+@Slf4j
+public class JobDoneListener implements JobListener {
+
+    private final Executor executor;
+    private final int taskId;
+    private final CompletableFuture<JobClient> submitted = new CompletableFuture<>();
+    private final CompletableFuture<Boolean> delivered = new CompletableFuture<>();
+
+    public JobDoneListener(Executor executor, int taskId) {
+        this.executor = executor;
+        this.taskId = taskId;
+    }
+
+    @Override
+    public void onJobSubmitted(JobClient jobClient, Throwable throwable) {
+        if (jobClient != null) {
+            watch(jobClient);
+        } else {
+            log.error("Job of task {} failed to submit", taskId, throwable);
+        }
+    }
+
+    @Override
+    public void onJobExecuted(JobExecutionResult jobExecutionResult, Throwable throwable) {
+        // only called for blocking executions, the result future of the submitted job covers them as well
+    }
+
+    /**
+     * Watch a submitted job. Jobs submitted without going through the environment, such as jar jobs, are passed
+     * here by the submitter. There is one job per application, later calls are ignored.
+     */
+    public void watch(JobClient jobClient) {
+        if (!submitted.complete(jobClient)) {
+            return;
+        }
+        log.info("Watch job {} of task {}", jobClient.getJobID(), taskId);
+        // completes on a Flink rpc thread, building the hook asks the JobManager and must not block that thread
+        jobClient.getJobExecutionResult().whenCompleteAsync((result, failure) -> {
+            try {
+                JobDoneHookQueue.offer(FlinkAppUtil.buildHook(executor, jobClient, taskId, failure))
+                        .whenComplete((ok, e) -> delivered.complete(Boolean.TRUE.equals(ok)));
+            } catch (Exception e) {
+                log.error("Failed to hook job {} of task {}", jobClient.getJobID(), taskId, e);
+                delivered.complete(false);
+            }
+        });
+    }
+
+    public boolean isWatching() {
+        return submitted.isDone();
+    }
+
+    /**
+     * Block until the hook of the watched job was delivered or gave up. The application must not return before, as
+     * the JobManager of an application cluster shuts down with it.
+     *
+     * @return true if Dinky acknowledged the hook
+     */
+    public boolean awaitDelivered() {
+        try {
+            return delivered.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.error("Hook of task {} failed", taskId, e);
+            return false;
+        }
+    }
+}
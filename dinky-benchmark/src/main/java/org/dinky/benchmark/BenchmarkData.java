@@ -0,0 +1,231 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.benchmark;
+
+import org.dinky.data.model.ext.JobAlertData;
+
+import org.apache.flink.types.Row;
+import org.apache.flink.types.RowKind;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generators of the inputs used by the benchmarks. All generators are seeded, so every run measures the same
+ * data.
+ */
+public final class BenchmarkData {
+
+    private static final long SEED = 20240601L;
+
+    private static final String[] CDC_OPS = {"r", "c", "c", "u", "u", "u", "d"};
+
+    /**
+     * Column names of the generated CDC tables, the types are varchar, bigint, int, decimal(18,2), double,
+     * timestamp(3), boolean and varchar.
+     */
+    public static final String[] CDC_COLUMNS = {
+        "id", "user_id", "quantity", "amount", "discount", "update_time", "deleted", "remark"
+    };
+
+    private BenchmarkData() {}
+
+    /**
+     * A Flink SQL script shaped like a real task, sets, source and sink ddl with options, views, and inserts.
+     * Comments and string literals contain separators to exercise the lexer.
+     */
+    public static String flinkSqlScript(int tables) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("-- generated benchmark script; do not split here\n");
+        sb.append("SET 'execution.checkpointing.interval' = '60s';\n");
+        sb.append("SET 'pipeline.name' = 'benchmark;job';\n");
+        sb.append("ADD JAR 'rs:/jars/udf-1.0.jar';\n");
+        for (int i = 0; i < tables; i++) {
+            sb.append("/* source ").append(i).append("; ods layer */\n");
+            sb.append("CREATE TABLE IF NOT EXISTS ods_order_").append(i).append(" (\n");
+            sb.append("  id BIGINT,\n  user_id BIGINT,\n  amount DECIMAL(18, 2),\n  remark STRING,\n");
+            sb.append("  ts TIMESTAMP(3),\n  WATERMARK FOR ts AS ts - INTERVAL '5' SECOND,\n");
+            sb.append("  PRIMARY KEY (id) NOT ENFORCED\n) WITH (\n");
+            sb.append("  'connector' = 'mysql-cdc',\n  'hostname' = '${mysql_host}',\n");
+            sb.append("  'database-name' = 'shop',\n  'table-name' = 'order_").append(i).append("',\n");
+            sb.append("  'server-id' = '").append(5400 + i).append("'\n);\n");
+            sb.append("CREATE TABLE dwd_order_").append(i).append(" (\n");
+            sb.append("  id BIGINT,\n  user_id BIGINT,\n  amount DECIMAL(18, 2),\n  day STRING,\n");
+            sb.append("  PRIMARY KEY (id) NOT ENFORCED\n) WITH (\n");
+            sb.append("  'connector' = 'jdbc',\n  'url' = 'jdbc:mysql://${mysql_host}:3306/dw',\n");
+            sb.append("  'table-name' = 'dwd_order_").append(i).append("'\n);\n");
+            sb.append("CREATE VIEW v_order_").append(i).append(" AS SELECT id, user_id, amount, ");
+            sb.append("DATE_FORMAT(ts, 'yyyy-MM-dd') AS day FROM ods_order_").append(i);
+            sb.append(" WHERE remark <> ';' -- keep rows with separators\n;\n");
+            sb.append("INSERT INTO dwd_order_").append(i).append(" SELECT id, user_id, amount, day FROM v_order_");
+            sb.append(i).append(";\n");
+        }
+        sb.append("SELECT COUNT(*) FROM dwd_order_0;\n");
+        return sb.toString();
+    }
+
+    /**
+     * A statement referencing {@code references} variables out of {@code variables} registered ones.
+     */
+    public static String variableStatement(int references, int variables) {
+        StringBuilder sb = new StringBuilder("INSERT INTO ${sink_db}.sink SELECT ");
+        for (int i = 0; i < references; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("'${var_").append(i % variables).append("}' AS c").append(i);
+        }
+        sb.append(" FROM ${source_db}.source WHERE dt = '${var_0}'");
+        return sb.toString();
+    }
+
+    public static Map<String, String> variables(int variables) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < variables; i++) {
+            map.put("var_" + i, "value_" + i);
+        }
+        map.put("sink_db", "dw");
+        map.put("source_db", "ods");
+        return map;
+    }
+
+    /**
+     * Debezium style change events of one table, as they look after being deserialized into maps by the CDC
+     * source. The columns match {@link #CDC_COLUMNS}.
+     */
+    public static List<Map<String, Object>> cdcEvents(String database, String table, int events, long seed) {
+        Random random = new Random(SEED ^ seed);
+        List<Map<String, Object>> list = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            String op = CDC_OPS[random.nextInt(CDC_OPS.length)];
+            Map<String, Object> source = new HashMap<>();
+            source.put("db", database);
+            source.put("table", table);
+            Map<String, Object> event = new HashMap<>();
+            event.put("op", op);
+            event.put("source", source);
+            event.put("before", "c".equals(op) || "r".equals(op) ? null : cdcRow(random, i));
+            event.put("after", "d".equals(op) ? null : cdcRow(random, i));
+            event.put("ts_ms", 1717200000000L + i);
+            list.add(event);
+        }
+        return list;
+    }
+
+    private static Map<String, Object> cdcRow(Random random, int id) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", "order-" + id);
+        row.put("user_id", (long) random.nextInt(1_000_000));
+        row.put("quantity", random.nextInt(100));
+        row.put(
+                "amount",
+                BigDecimal.valueOf(random.nextInt(10_000_000), 2)
+                        .setScale(2, RoundingMode.HALF_UP)
+                        .toPlainString());
+        row.put("discount", random.nextDouble());
+        row.put("update_time", 1717200000000L + random.nextInt(86_400_000));
+        row.put("deleted", random.nextBoolean());
+        row.put("remark", random.nextInt(10) == 0 ? null : "remark of order " + id);
+        return row;
+    }
+
+    /**
+     * Rows of a changelog select result, mixing inserts, retractions, nulls, instants and booleans like a
+     * group by query does.
+     */
+    public static List<Row> changelogRows(int rows) {
+        Random random = new Random(SEED);
+        List<Row> list = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            RowKind kind = i % 4 == 1 ? RowKind.UPDATE_BEFORE : i % 4 == 2 ? RowKind.UPDATE_AFTER : RowKind.INSERT;
+            list.add(Row.ofKind(
+                    kind,
+                    "user-" + random.nextInt(1000),
+                    (long) random.nextInt(1_000_000),
+                    random.nextDouble() * 1000,
+                    random.nextBoolean(),
+                    Instant.ofEpochMilli(1717200000000L + i * 1000L),
+                    random.nextInt(5) == 0 ? null : "tag-" + random.nextInt(20)));
+        }
+        return list;
+    }
+
+    public static List<String> changelogColumns() {
+        List<String> columns = new ArrayList<>();
+        columns.add("user_name");
+        columns.add("order_count");
+        columns.add("amount");
+        columns.add("vip");
+        columns.add("window_end");
+        columns.add("tag");
+        return columns;
+    }
+
+    /**
+     * Rows of a select result as they are kept in the result pool.
+     */
+    public static List<Map<String, Object>> resultRows(int rows) {
+        List<Map<String, Object>> list = new ArrayList<>(rows);
+        List<String> columns = changelogColumns();
+        for (Row row : changelogRows(rows)) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                Object field = row.getField(i);
+                map.put(columns.get(i), field == null ? "" : field.toString());
+            }
+            list.add(map);
+        }
+        return list;
+    }
+
+    /**
+     * Alert facts of a failed streaming job with a failing checkpoint and an exception.
+     */
+    public static JobAlertData failedJobAlertData(int jobInstanceId) {
+        return JobAlertData.builder()
+                .alertTime("2024-06-01 12:00:00")
+                .jobStartTime("2024-06-01 08:00:00")
+                .jobEndTime("2024-06-01 12:00:00")
+                .duration(4 * 3600 * 1000L)
+                .jobName("dwd_order_" + jobInstanceId)
+                .jobId(String.format("%032x", jobInstanceId))
+                .jobStatus("FAILED")
+                .taskId(jobInstanceId)
+                .jobInstanceId(jobInstanceId)
+                .taskUrl("127.0.0.1:8888/#/devops/job-detail?id=" + jobInstanceId)
+                .clusterName("yarn-session-" + (jobInstanceId % 4))
+                .clusterType("yarn-session")
+                .clusterHosts("10.0.0." + (jobInstanceId % 250) + ":8081")
+                .errorMsg("java.lang.RuntimeException: Connection to sink database lost after 3 retries")
+                .checkpointCostTime(120_000L)
+                .checkpointFailedCount(3L)
+                .checkpointCompleteCount(240L)
+                .isCheckpointFailed(true)
+                .isException(true)
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.benchmark;
+
+import org.dinky.cdc.AbstractSinkBuilder;
+import org.dinky.cdc.SinkBuilder;
+import org.dinky.data.model.FlinkCDCConfig;
+
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.BooleanType;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.DoubleType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.TimestampType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.util.Collector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Conversion of change events into {@link RowData} by {@link AbstractSinkBuilder}, the per record cost of a
+ * whole database CDCSOURCE job. Events of all tables are converted once per invocation, the score is the time
+ * per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CdcRowConvertBenchmark {
+
+    private static final int EVENTS_PER_TABLE = 20;
+    private static final int TABLES = 500;
+
+    private static final List<LogicalType> COLUMN_TYPES = Arrays.asList(
+            new VarCharType(),
+            new BigIntType(),
+            new IntType(),
+            new DecimalType(18, 2),
+            new DoubleType(),
+            new TimestampType(3),
+            new BooleanType(),
+            new VarCharType());
+
+    private final List<FlatMapFunction<Map, RowData>> functions = new ArrayList<>();
+    private final List<List<Map<String, Object>>> events = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        BenchmarkSinkBuilder sinkBuilder = new BenchmarkSinkBuilder();
+        List<String> columns = Arrays.asList(BenchmarkData.CDC_COLUMNS);
+        for (int i = 0; i < TABLES; i++) {
+            String table = "order_" + i;
+            functions.add(sinkBuilder.rowDataFunction(columns, COLUMN_TYPES, "shop." + table));
+            events.add(BenchmarkData.cdcEvents("shop", table, EVENTS_PER_TABLE, i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TABLES * EVENTS_PER_TABLE)
+    public void sinkRowData(Blackhole blackhole) throws Exception {
+        Collector<RowData> collector = new BlackholeCollector(blackhole);
+        for (int i = 0; i < functions.size(); i++) {
+            FlatMapFunction<Map, RowData> function = functions.get(i);
+            for (Map<String, Object> event : events.get(i)) {
+                function.flatMap(event, collector);
+            }
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static class BenchmarkSinkBuilder extends AbstractSinkBuilder {
+
+        BenchmarkSinkBuilder() {
+            super();
+        }
+
+        FlatMapFunction<Map, RowData> rowDataFunction(
+                List<String> columnNameList, List<LogicalType> columnTypeList, String schemaTableName) {
+            return sinkRowDataFunction(columnNameList, columnTypeList, schemaTableName);
+        }
+
+        @Override
+        public String getHandle() {
+            return "benchmark";
+        }
+
+        @Override
+        public SinkBuilder create(FlinkCDCConfig config) {
+            return new BenchmarkSinkBuilder();
+        }
+    }
+
+    private static class BlackholeCollector implements Collector<RowData> {
+
+        private final Blackhole blackhole;
+
+        BlackholeCollector(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void collect(RowData record) {
+            blackhole.consume(record);
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.benchmark;
+
+import org.dinky.context.FreeMarkerHolder;
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.model.ext.JobAlertData;
+import org.dinky.data.model.ext.JobAlertTemplateModel;
+import org.dinky.data.options.JobAlertRuleOptions;
+import org.dinky.utils.JsonUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.core.RuleBuilder;
+import org.jeasy.rules.spel.SpELCondition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The work of {@code JobAlertHandler.check} for a failed job: building the rule facts, evaluating the default
+ * alert rules and rendering the default template for every rule that fires. The handler itself needs the
+ * Spring context, so the rules and template are set up here the same way the handler builds them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JobAlertBenchmark {
+
+    private static final String TEMPLATE_NAME = "Default";
+
+    /**
+     * The default alert template.
+     */
+    private static final String TEMPLATE = "\n- **Job Name :** <font color='gray'>${jobName}</font>\n"
+            + "- **Job Status :** <font color='red'>${jobStatus}</font>\n"
+            + "- **Alert Time :** ${alertTime}\n"
+            + "- **Start Time :** ${jobStartTime}\n"
+            + "- **End Time :** ${jobEndTime}\n"
+            + "- **<font color='red'>${errorMsg}</font>**\n"
+            + "[Go toTask Web](http://${taskUrl})\n";
+
+    /**
+     * Conditions of the default alert rules, in the form the handler builds them.
+     */
+    private static final String[][] RULES = {
+        {"alert.rule.jobFail", "#{ #jobStatus EQ 'FAILED' }"},
+        {"alert.rule.getJobInfoFail", "#{ #jobStatus EQ 'UNKNOWN' }"},
+        {"alert.rule.jobRestart", "#{ #jobStatus EQ 'RESTARTING' }"},
+        {"alert.rule.checkpointFail", "#{ #isCheckpointFailed EQ true }"},
+        {"alert.rule.jobRunException", "#{ #isException EQ true }"},
+    };
+
+    private final FreeMarkerHolder freeMarkerHolder = new FreeMarkerHolder();
+    private final RulesEngine rulesEngine = new DefaultRulesEngine();
+    private Rules rules;
+    private JobAlertData jobAlertData;
+
+    /**
+     * Last content rendered by a rule action, written so that the rendering can not be eliminated.
+     */
+    private volatile String alertContent;
+
+    @Setup
+    public void setup() {
+        freeMarkerHolder.putTemplate(TEMPLATE_NAME, TEMPLATE);
+        jobAlertData = BenchmarkData.failedJobAlertData(42);
+        rules = new Rules();
+        for (int i = 0; i < RULES.length; i++) {
+            AlertRuleDTO alertRule = new AlertRuleDTO();
+            alertRule.setId(i + 3);
+            alertRule.setName(RULES[i][0]);
+            alertRule.setTemplateName(TEMPLATE_NAME);
+            rules.register(new RuleBuilder()
+                    .name(RULES[i][0])
+                    .priority(1)
+                    .when(new SpELCondition(RULES[i][1]))
+                    .then(facts -> render(facts, alertRule))
+                    .build());
+        }
+    }
+
+    private void render(Facts facts, AlertRuleDTO alertRule) throws Exception {
+        JobAlertData data = facts.get(JobAlertRuleOptions.OPTIONS_JOB_ALERT_DATA);
+        alertContent = freeMarkerHolder.buildWithData(TEMPLATE_NAME, new JobAlertTemplateModel(data, alertRule));
+    }
+
+    private Facts buildFacts() {
+        Facts facts = new Facts();
+        JsonUtils.toMap(jobAlertData).forEach(facts::put);
+        facts.put(JobAlertRuleOptions.OPTIONS_JOB_ALERT_DATA, jobAlertData);
+        return facts;
+    }
+
+    @Benchmark
+    public Facts buildRuleFacts() {
+        return buildFacts();
+    }
+
+    /**
+     * Facts, rule evaluation and rendering of the firing rules, without the alert cache and sending.
+     */
+    @Benchmark
+    public String check() {
+        rulesEngine.fire(rules, buildFacts());
+        return alertContent;
+    }
+
+    @Benchmark
+    public String renderTemplate() throws Exception {
+        return freeMarkerHolder.buildWithData(
+                TEMPLATE_NAME, new JobAlertTemplateModel(jobAlertData, new AlertRuleDTO()));
+    }
+}
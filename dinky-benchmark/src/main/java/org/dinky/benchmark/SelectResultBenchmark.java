@@ -0,0 +1,102 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.benchmark;
+
+import org.dinky.data.result.ResultRunnable;
+import org.dinky.data.result.SelectResult;
+
+import org.apache.flink.types.Row;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Collecting a changelog select result and serializing it for the data studio, the two steps every preview
+ * poll goes through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SelectResultBenchmark {
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    /**
+     * Truncate length of the serialized result, the default limit of the data studio preview.
+     */
+    @Param({"102400"})
+    private long truncateLength;
+
+    private List<Row> changelog;
+    private List<String> columns;
+    private List<Map<String, Object>> resultRows;
+    private LinkedHashSet<String> resultColumns;
+    private ResultRunnable resultRunnable;
+    private MethodHandle getFieldMap;
+
+    @Setup
+    public void setup() throws Exception {
+        changelog = BenchmarkData.changelogRows(rows);
+        columns = BenchmarkData.changelogColumns();
+        resultRows = BenchmarkData.resultRows(rows);
+        resultColumns = new LinkedHashSet<>(columns);
+        resultRunnable = new ResultRunnable(null, "benchmark", rows, true, false, "Asia/Shanghai");
+        // The conversion is private to the runnable, it is reached directly so no job is needed
+        Method method = ResultRunnable.class.getDeclaredMethod("getFieldMap", List.class, Row.class);
+        method.setAccessible(true);
+        getFieldMap = MethodHandles.lookup().unreflect(method);
+    }
+
+    @Benchmark
+    public void getFieldMap(Blackhole blackhole) throws Throwable {
+        for (Row row : changelog) {
+            blackhole.consume(getFieldMap.invoke(resultRunnable, columns, row));
+        }
+    }
+
+    @Benchmark
+    public String toTruncateJson() {
+        // Truncation replaces the rows of the result, every invocation starts from the full result
+        SelectResult result = new SelectResult("benchmark", resultRows, resultColumns);
+        return result.toTruncateJson(truncateLength);
+    }
+}
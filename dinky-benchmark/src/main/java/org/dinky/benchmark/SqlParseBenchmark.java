@@ -0,0 +1,98 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.benchmark;
+
+import org.dinky.parser.SqlType;
+import org.dinky.trans.Operations;
+import org.dinky.utils.SqlLexer;
+import org.dinky.utils.SqlUtil;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Splitting a task script into statements and classifying them, done by explain, submit and the lineage
+ * analysis of every task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SqlParseBenchmark {
+
+    @Param({"10", "200"})
+    private int tables;
+
+    private String script;
+    private String[] statements;
+
+    @Setup
+    public void setup() {
+        script = BenchmarkData.flinkSqlScript(tables);
+        statements = SqlUtil.getStatements(script);
+    }
+
+    /**
+     * Lexing without the statement cache, what the first explain of a changed script costs.
+     */
+    @Benchmark
+    public List<SqlLexer.Statement> splitStatements() {
+        return SqlLexer.split(script);
+    }
+
+    /**
+     * Splitting through {@link SqlUtil#getStatements(String)}, repeated calls with the same script are served
+     * by the statement cache.
+     */
+    @Benchmark
+    public String[] getStatements() {
+        return SqlUtil.getStatements(script);
+    }
+
+    @Benchmark
+    public void getOperationType(Blackhole blackhole) {
+        for (String statement : statements) {
+            SqlType sqlType = Operations.getOperationType(statement);
+            blackhole.consume(sqlType);
+        }
+    }
+
+    @Benchmark
+    public void buildOperation(Blackhole blackhole) {
+        for (String statement : statements) {
+            blackhole.consume(Operations.buildOperation(statement));
+        }
+    }
+}
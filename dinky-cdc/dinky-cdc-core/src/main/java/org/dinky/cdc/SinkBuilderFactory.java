@@ -20,6 +20,7 @@
 package org.dinky.cdc;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.cdc.jdbc.JdbcSinkBuilder;
 import org.dinky.cdc.kafka.KafkaSinkBuilder;
 import org.dinky.cdc.sql.SQLSinkBuilder;
 import org.dinky.cdc.sql.catalog.SQLCatalogSinkBuilder;
@@ -61,6 +62,7 @@ public class SinkBuilderFactory {
         map.put(SQLSinkBuilder.KEY_WORD, SQLSinkBuilder::new);
         map.put(SQLCatalogSinkBuilder.KEY_WORD, SQLCatalogSinkBuilder::new);
         map.put(KafkaSinkBuilder.KEY_WORD, KafkaSinkBuilder::new);
+        map.put(JdbcSinkBuilder.KEY_WORD, JdbcSinkBuilder::new);
 
         final ServiceLoader<SinkBuilder> loader = ServiceLoader.load(SinkBuilder.class);
 
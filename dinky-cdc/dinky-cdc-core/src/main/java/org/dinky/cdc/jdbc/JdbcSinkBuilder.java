@@ -0,0 +1,204 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.jdbc;
+
+import org.dinky.assertion.Asserts;
+import org.dinky.cdc.CDCBuilder;
+import org.dinky.cdc.SinkBuilder;
+import org.dinky.cdc.sql.SQLSinkBuilder;
+import org.dinky.data.model.FlinkCDCConfig;
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+import org.dinky.executor.CustomTableEnvironment;
+
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.streaming.api.datastream.DataStreamSource;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.table.types.logical.DateType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.types.Row;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.TimeUtils;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Writes all tables of a CDCSOURCE job to a JDBC target such as MySQL, PostgreSQL or StarRocks through one sink
+ * operator, instead of one Flink SQL sink per table.
+ */
+public class JdbcSinkBuilder extends SQLSinkBuilder implements Serializable {
+
+    public static final String KEY_WORD = "datastream-jdbc";
+    private static final long serialVersionUID = 1L;
+
+    public JdbcSinkBuilder() {}
+
+    private JdbcSinkBuilder(FlinkCDCConfig config) {
+        super(config);
+    }
+
+    @Override
+    protected void initTypeConverterList() {
+        // Rows are bound to JDBC statements directly, so values are kept as plain Java types
+        typeConverterList = Arrays.asList(
+                this::convertJdbcDateType,
+                this::convertTimestampType,
+                this::convertFloatType,
+                this::convertDecimalType,
+                this::convertBigIntType,
+                this::convertVarBinaryType);
+    }
+
+    protected Optional<Object> convertJdbcDateType(Object target, LogicalType logicalType) {
+        if (logicalType instanceof DateType) {
+            return Optional.of(Instant.ofEpochMilli(((Number) target).longValue())
+                    .atZone(ZoneId.systemDefault())
+                    .toLocalDate());
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public String getHandle() {
+        return KEY_WORD;
+    }
+
+    @Override
+    public SinkBuilder create(FlinkCDCConfig config) {
+        return new JdbcSinkBuilder(config);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public DataStreamSource<String> build(
+            CDCBuilder cdcBuilder,
+            StreamExecutionEnvironment env,
+            CustomTableEnvironment customTableEnvironment,
+            DataStreamSource<String> dataStreamSource) {
+        Map<String, String> sink = config.getSink();
+        final String timeZone = sink.get("timezone");
+        if (Asserts.isNotNullString(timeZone)) {
+            sinkTimeZone = ZoneId.of(timeZone);
+            logger.info("Sink timezone is {}", sinkTimeZone);
+        }
+
+        final List<Schema> schemaList = config.getSchemaList();
+        if (Asserts.isNullCollection(schemaList)) {
+            return dataStreamSource;
+        }
+
+        JdbcSinkDialect dialect = JdbcSinkDialect.of(sink.get("dialect"), sink.get("url"));
+        Map<String, FlatMapFunction<Map, Row>> rowFunctions = new LinkedHashMap<>();
+        Map<String, List<String>> keyMap = new LinkedHashMap<>();
+        Map<String, JdbcTableStatement> statements = new LinkedHashMap<>();
+        for (Schema schema : schemaList) {
+            if (Asserts.isNullCollection(schema.getTables())) {
+                // if schema tables is empty, throw exception
+                throw new IllegalArgumentException(
+                        "Schema tables is empty, please check your configuration or check your database permission and try again.");
+            }
+            for (Table table : schema.getTables()) {
+                String schemaTableName = table.getSchemaTableName();
+                List<String> columnNameList = new ArrayList<>();
+                List<LogicalType> columnTypeList = new ArrayList<>();
+                buildColumn(columnNameList, columnTypeList, table.getColumns());
+                rowFunctions.put(schemaTableName, sqlSinkRowFunction(columnNameList, columnTypeList, schemaTableName));
+
+                List<String> keys = getPKList(table);
+                keyMap.put(schemaTableName, keys);
+                String identifier = dialect.getTableIdentifier(getSinkSchemaName(table), getSinkTableName(table));
+                statements.put(
+                        schemaTableName,
+                        keys.isEmpty()
+                                ? new JdbcTableStatement(
+                                        dialect.getInsertSql(identifier, columnNameList), null, new int[0])
+                                : new JdbcTableStatement(
+                                        dialect.getUpsertSql(identifier, columnNameList, keys),
+                                        dialect.getDeleteSql(identifier, keys),
+                                        keys.stream().mapToInt(columnNameList::indexOf).toArray()));
+            }
+        }
+        logger.info("Build {} table statements of {} dialect successful...", statements.size(), dialect);
+
+        final String schemaFieldName = config.getSchemaFieldName();
+        final Map<String, String> split = config.getSplit();
+        KeySelector<Map, String> tableKeySelector = map -> {
+            String schemaTableName = createTableName((LinkedHashMap) map.get("source"), schemaFieldName, split);
+            List<String> keys = keyMap.get(schemaTableName);
+            if (Asserts.isNullCollection(keys)) {
+                return schemaTableName;
+            }
+            // Changes of one primary key are written in order by the same subtask
+            Map data = (Map) (map.get("after") != null ? map.get("after") : map.get("before"));
+            StringBuilder key = new StringBuilder(schemaTableName);
+            for (String column : keys) {
+                key.append('|').append(data == null ? null : data.get(column));
+            }
+            return key.toString();
+        };
+
+        MultiTableJdbcSinkFunction sinkFunction = new MultiTableJdbcSinkFunction(
+                sink.get("url"),
+                sink.get("driver"),
+                sink.get("username"),
+                sink.get("password"),
+                statements,
+                Integer.parseInt(sink.getOrDefault("sink.buffer-flush.max-rows", "500")),
+                TimeUtils.parseDuration(sink.getOrDefault("sink.buffer-flush.interval", "1s"))
+                        .toMillis(),
+                Integer.parseInt(sink.getOrDefault("sink.max-retries", "3")));
+
+        deserialize(dataStreamSource)
+                .keyBy(tableKeySelector, Types.STRING)
+                .flatMap((FlatMapFunction<Map, Tuple2<String, Row>>) (map, out) -> {
+                    String schemaTableName =
+                            createTableName((LinkedHashMap) map.get("source"), schemaFieldName, split);
+                    FlatMapFunction<Map, Row> rowFunction = rowFunctions.get(schemaTableName);
+                    if (rowFunction != null) {
+                        rowFunction.flatMap(map, new Collector<Row>() {
+                            @Override
+                            public void collect(Row row) {
+                                out.collect(Tuple2.of(schemaTableName, row));
+                            }
+
+                            @Override
+                            public void close() {}
+                        });
+                    }
+                })
+                .returns(Types.TUPLE(Types.STRING, TypeInformation.of(Row.class)))
+                .name("Build Rows")
+                .addSink(sinkFunction)
+                .name(String.format("JDBC Multi Table Sink(tables=%d)", statements.size()));
+        return dataStreamSource;
+    }
+}
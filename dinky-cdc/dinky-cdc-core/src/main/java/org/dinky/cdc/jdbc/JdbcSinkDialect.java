@@ -0,0 +1,108 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.jdbc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** Statements a JDBC target is written with. */
+public enum JdbcSinkDialect {
+    MYSQL("`") {
+        @Override
+        public String getUpsertSql(String table, List<String> columns, List<String> keys) {
+            List<String> values = columns.stream()
+                    .filter(column -> !keys.contains(column))
+                    .map(column -> quote(column) + " = VALUES(" + quote(column) + ")")
+                    .collect(Collectors.toList());
+            if (values.isEmpty()) {
+                values.add(quote(keys.get(0)) + " = " + quote(keys.get(0)));
+            }
+            return getInsertSql(table, columns) + " ON DUPLICATE KEY UPDATE " + String.join(", ", values);
+        }
+    },
+
+    POSTGRESQL("\"") {
+        @Override
+        public String getUpsertSql(String table, List<String> columns, List<String> keys) {
+            List<String> values = columns.stream()
+                    .filter(column -> !keys.contains(column))
+                    .map(column -> quote(column) + " = EXCLUDED." + quote(column))
+                    .collect(Collectors.toList());
+            return getInsertSql(table, columns)
+                    + " ON CONFLICT (" + quote(keys) + ")"
+                    + (values.isEmpty() ? " DO NOTHING" : " DO UPDATE SET " + String.join(", ", values));
+        }
+    },
+
+    /** Primary key tables of StarRocks replace the row of an existing key on insert. */
+    STARROCKS("`") {
+        @Override
+        public String getUpsertSql(String table, List<String> columns, List<String> keys) {
+            return getInsertSql(table, columns);
+        }
+    };
+
+    private final String quote;
+
+    JdbcSinkDialect(String quote) {
+        this.quote = quote;
+    }
+
+    /**
+     * Resolve the dialect of a target.
+     *
+     * @param name dialect name, may be null
+     * @param url  JDBC url, used when no name is given
+     */
+    public static JdbcSinkDialect of(String name, String url) {
+        if (name != null && !name.isEmpty()) {
+            return valueOf(name.toUpperCase());
+        }
+        return url != null && url.startsWith("jdbc:postgresql:") ? POSTGRESQL : MYSQL;
+    }
+
+    public abstract String getUpsertSql(String table, List<String> columns, List<String> keys);
+
+    public String getInsertSql(String table, List<String> columns) {
+        return String.format(
+                "INSERT INTO %s (%s) VALUES (%s)",
+                table,
+                quote(columns),
+                columns.stream().map(column -> "?").collect(Collectors.joining(", ")));
+    }
+
+    public String getDeleteSql(String table, List<String> keys) {
+        return String.format(
+                "DELETE FROM %s WHERE %s",
+                table, keys.stream().map(key -> quote(key) + " = ?").collect(Collectors.joining(" AND ")));
+    }
+
+    public String getTableIdentifier(String schema, String table) {
+        return quote(schema) + "." + quote(table);
+    }
+
+    protected String quote(String name) {
+        return quote + name + quote;
+    }
+
+    protected String quote(List<String> names) {
+        return names.stream().map(this::quote).collect(Collectors.joining(", "));
+    }
+}
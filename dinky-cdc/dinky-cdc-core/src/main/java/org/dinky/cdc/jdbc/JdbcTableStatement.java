@@ -0,0 +1,59 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.jdbc;
+
+import java.io.Serializable;
+
+/** Statements of one target table, with the positions of its primary key in a row. */
+public class JdbcTableStatement implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String writeSql;
+    private final String deleteSql;
+    private final int[] keyIndexes;
+
+    /**
+     * @param writeSql   upsert statement, or insert statement if the table has no primary key
+     * @param deleteSql  delete statement by primary key, or null if the table has no primary key
+     * @param keyIndexes positions of the primary key columns
+     */
+    public JdbcTableStatement(String writeSql, String deleteSql, int[] keyIndexes) {
+        this.writeSql = writeSql;
+        this.deleteSql = deleteSql;
+        this.keyIndexes = keyIndexes;
+    }
+
+    public String getWriteSql() {
+        return writeSql;
+    }
+
+    public String getDeleteSql() {
+        return deleteSql;
+    }
+
+    public int[] getKeyIndexes() {
+        return keyIndexes;
+    }
+
+    public boolean hasPrimaryKey() {
+        return keyIndexes.length > 0;
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.jdbc;
+
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
+import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.types.Row;
+import org.apache.flink.types.RowKind;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the rows of many tables through one connection per subtask.
+ *
+ * <p>Rows are buffered per table and reduced to the last change of each primary key. A table is flushed as JDBC
+ * batches when its buffer is full, and all tables are flushed on an interval and on checkpoints. Prepared statements
+ * are cached for the lifetime of the connection. Upserts are idempotent, which makes the sink at-least-once.
+ */
+public class MultiTableJdbcSinkFunction extends RichSinkFunction<Tuple2<String, Row>> implements CheckpointedFunction {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = LoggerFactory.getLogger(MultiTableJdbcSinkFunction.class);
+    private static final int CONNECTION_CHECK_TIMEOUT_SECONDS = 60;
+
+    private final String url;
+    private final String driver;
+    private final String username;
+    private final String password;
+    private final Map<String, JdbcTableStatement> statements;
+    private final int maxRows;
+    private final long intervalMs;
+    private final int maxRetries;
+
+    private transient Connection connection;
+    private transient Map<String, PreparedStatement> preparedStatements;
+    private transient Map<String, TableBuffer> buffers;
+    private transient ScheduledExecutorService scheduler;
+    private transient ScheduledFuture<?> scheduledFlush;
+    private transient volatile Exception flushException;
+    private transient volatile boolean closed;
+
+    /**
+     * @param url        JDBC url of the target
+     * @param driver     JDBC driver class, or null to look it up by url
+     * @param username   user of the target
+     * @param password   password of the target
+     * @param statements statements by source schema and table name
+     * @param maxRows    rows a table buffers before it is flushed
+     * @param intervalMs interval all tables are flushed at, 0 to flush on full buffers and checkpoints only
+     * @param maxRetries times a failed flush is retried
+     */
+    public MultiTableJdbcSinkFunction(
+            String url,
+            String driver,
+            String username,
+            String password,
+            Map<String, JdbcTableStatement> statements,
+            int maxRows,
+            long intervalMs,
+            int maxRetries) {
+        this.url = url;
+        this.driver = driver;
+        this.username = username;
+        this.password = password;
+        this.statements = statements;
+        this.maxRows = maxRows;
+        this.intervalMs = intervalMs;
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+        preparedStatements = new HashMap<>();
+        buffers = new LinkedHashMap<>();
+        connection = connect();
+        if (intervalMs > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+            scheduledFlush = scheduler.scheduleWithFixedDelay(
+                    () -> {
+                        synchronized (MultiTableJdbcSinkFunction.this) {
+                            if (closed || flushException != null) {
+                                return;
+                            }
+                            try {
+                                flush(new ArrayList<>(buffers.keySet()));
+                            } catch (Exception e) {
+                                flushException = e;
+                            }
+                        }
+                    },
+                    intervalMs,
+                    intervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void invoke(Tuple2<String, Row> value, Context context) throws Exception {
+        checkFlushException();
+        JdbcTableStatement statement = statements.get(value.f0);
+        if (statement == null) {
+            return;
+        }
+        TableBuffer buffer = buffers.computeIfAbsent(value.f0, key -> new TableBuffer(statement));
+        buffer.add(value.f1);
+        if (buffer.size() >= maxRows) {
+            flush(Collections.singletonList(value.f0));
+        }
+    }
+
+    @Override
+    public synchronized void snapshotState(FunctionSnapshotContext context) throws Exception {
+        checkFlushException();
+        flush(new ArrayList<>(buffers.keySet()));
+    }
+
+    @Override
+    public void initializeState(FunctionInitializationContext context) {}
+
+    @Override
+    public void close() throws Exception {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduler.shutdown();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (buffers != null && flushException == null) {
+                    flush(new ArrayList<>(buffers.keySet()));
+                }
+            } finally {
+                closeConnection();
+            }
+        }
+    }
+
+    private void checkFlushException() {
+        if (flushException != null) {
+            throw new RuntimeException("Writing records to JDBC failed.", flushException);
+        }
+    }
+
+    private void flush(Collection<String> tables) throws IOException {
+        for (int i = 0; ; i++) {
+            try {
+                for (String table : tables) {
+                    TableBuffer buffer = buffers.get(table);
+                    if (buffer != null && buffer.size() > 0) {
+                        buffer.flush();
+                    }
+                }
+                return;
+            } catch (SQLException e) {
+                logger.error("JDBC executeBatch error, retry times = {}", i, e);
+                if (i >= maxRetries) {
+                    throw new IOException(e);
+                }
+                try {
+                    if (!connection.isValid(CONNECTION_CHECK_TIMEOUT_SECONDS)) {
+                        closeConnection();
+                        connection = connect();
+                    }
+                    Thread.sleep(1000L * (i + 1));
+                } catch (SQLException | InterruptedException ex) {
+                    throw new IOException("Unable to flush, reconnecting to JDBC failed.", ex);
+                }
+            }
+        }
+    }
+
+    private PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = preparedStatements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            preparedStatements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        if (username != null) {
+            properties.setProperty("user", username);
+        }
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        if (driver == null) {
+            return DriverManager.getConnection(url, properties);
+        }
+        try {
+            Driver jdbcDriver = (Driver) Class.forName(
+                            driver, true, Thread.currentThread().getContextClassLoader())
+                    .getDeclaredConstructor()
+                    .newInstance();
+            return jdbcDriver.connect(url, properties);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("Unable to load JDBC driver " + driver, e);
+        }
+    }
+
+    private void closeConnection() {
+        if (preparedStatements != null) {
+            for (PreparedStatement statement : preparedStatements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    logger.warn("Closing JDBC statement failed.", e);
+                }
+            }
+            preparedStatements.clear();
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Closing JDBC connection failed.", e);
+            }
+            connection = null;
+        }
+    }
+
+    /** Rows of one table waiting to be written. */
+    private class TableBuffer {
+
+        private final JdbcTableStatement statement;
+        private final Map<List<Object>, Row> changes = new LinkedHashMap<>();
+        private final List<Row> appends = new ArrayList<>();
+
+        private TableBuffer(JdbcTableStatement statement) {
+            this.statement = statement;
+        }
+
+        private void add(Row row) {
+            if (statement.hasPrimaryKey()) {
+                // Only the last change of a key is written, the update before of a changed key deletes it
+                changes.put(getKey(row), row);
+            } else if (isWrite(row)) {
+                appends.add(row);
+            }
+        }
+
+        private int size() {
+            return changes.size() + appends.size();
+        }
+
+        private void flush() throws SQLException {
+            if (statement.hasPrimaryKey()) {
+                PreparedStatement write = null;
+                PreparedStatement delete = null;
+                for (Row row : changes.values()) {
+                    if (isWrite(row)) {
+                        write = prepare(statement.getWriteSql());
+                        setRow(write, row);
+                        write.addBatch();
+                    } else {
+                        delete = prepare(statement.getDeleteSql());
+                        int[] keyIndexes = statement.getKeyIndexes();
+                        for (int i = 0; i < keyIndexes.length; i++) {
+                            delete.setObject(i + 1, toJdbcValue(row.getField(keyIndexes[i])));
+                        }
+                        delete.addBatch();
+                    }
+                }
+                if (write != null) {
+                    write.executeBatch();
+                }
+                if (delete != null) {
+                    delete.executeBatch();
+                }
+                changes.clear();
+            } else {
+                PreparedStatement write = prepare(statement.getWriteSql());
+                for (Row row : appends) {
+                    setRow(write, row);
+                    write.addBatch();
+                }
+                write.executeBatch();
+                appends.clear();
+            }
+        }
+
+        private List<Object> getKey(Row row) {
+            int[] keyIndexes = statement.getKeyIndexes();
+            List<Object> key = new ArrayList<>(keyIndexes.length);
+            for (int keyIndex : keyIndexes) {
+                key.add(row.getField(keyIndex));
+            }
+            return key;
+        }
+
+        private boolean isWrite(Row row) {
+            return row.getKind() == RowKind.INSERT || row.getKind() == RowKind.UPDATE_AFTER;
+        }
+    }
+
+    static void setRow(PreparedStatement preparedStatement, Row row) throws SQLException {
+        for (int i = 0; i < row.getArity(); i++) {
+            preparedStatement.setObject(i + 1, toJdbcValue(row.getField(i)));
+        }
+    }
+
+    /** Rows built for Flink SQL sinks may hold Flink internal data types, which JDBC drivers do not know. */
+    static Object toJdbcValue(Object value) {
+        if (value instanceof DecimalData) {
+            return ((DecimalData) value).toBigDecimal();
+        }
+        if (value instanceof StringData) {
+            return value.toString();
+        }
+        if (value instanceof TimestampData) {
+            return ((TimestampData) value).toLocalDateTime();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.kafka;
+
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonFactory;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonParser;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads the routing key of a Debezium JSON change event, the schema and table of its source block, with a
+ * streaming token scan. No tree or map is built and the values of the other fields are skipped.
+ */
+public final class DebeziumRoutingKey {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private DebeziumRoutingKey() {}
+
+    /**
+     * Extract the routing key of a change event.
+     *
+     * @param json            Debezium JSON, UTF-8 encoded
+     * @param schemaFieldName field of the source block that holds the schema, such as db or schema
+     * @return schema and table joined with '.', or null if the event has no source schema and table
+     */
+    public static String extract(byte[] json, String schemaFieldName) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("source".equals(field) && value == JsonToken.START_OBJECT) {
+                    return readSource(parser, schemaFieldName);
+                }
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    private static String readSource(JsonParser parser, String schemaFieldName) throws IOException {
+        String schema = null;
+        String table = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.VALUE_STRING) {
+                parser.skipChildren();
+            } else if (field.equals(schemaFieldName)) {
+                schema = parser.getText();
+            } else if ("table".equals(field)) {
+                table = parser.getText();
+            }
+            if (schema != null && table != null) {
+                return schema + "." + table;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.kafka;
+
+import org.dinky.assertion.Asserts;
+import org.dinky.cdc.AbstractSinkBuilder;
+import org.dinky.data.model.FlinkCDCConfig;
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.connector.base.DeliveryGuarantee;
+import org.apache.flink.connector.kafka.sink.KafkaSink;
+import org.apache.flink.connector.kafka.sink.KafkaSinkBuilder;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Forwards change events unchanged to the topic of their table through one kafka sink, shared by the kafka sink
+ * builders of dinky-cdc-core and dinky-cdc-plus. Only the schema and table of an event are read to pick the topic,
+ * so no event is parsed into a map or serialized again.
+ */
+public final class KafkaRawForward {
+
+    private static final String TRANSACTIONAL_ID = "transactional.id";
+
+    private KafkaRawForward() {}
+
+    /**
+     * Add the raw forward sink to a stream of Debezium JSON change events.
+     *
+     * @param sinkBuilder         names the topic of each table
+     * @param config              the cdc config with the tables and the brokers of the sink
+     * @param env                 the environment whose checkpointing mode sets the delivery guarantee
+     * @param dataStream          Debezium JSON change events
+     * @param kafkaProducerConfig extra kafka producer properties
+     */
+    public static void sinkTo(
+            AbstractSinkBuilder sinkBuilder,
+            FlinkCDCConfig config,
+            StreamExecutionEnvironment env,
+            DataStream<String> dataStream,
+            Properties kafkaProducerConfig) {
+        Map<String, String> topics = new LinkedHashMap<>();
+        if (Asserts.isNotNullCollection(config.getSchemaList())) {
+            for (Schema schema : config.getSchemaList()) {
+                for (Table table : schema.getTables()) {
+                    topics.put(table.getSchemaTableName(), sinkBuilder.getSinkTableName(table));
+                }
+            }
+        }
+        KafkaSinkBuilder<Tuple2<String, byte[]>> kafkaSinkBuilder = KafkaSink.<Tuple2<String, byte[]>>builder()
+                .setBootstrapServers(config.getSink().get("brokers"))
+                .setRecordSerializer(new TopicRoutingSerializationSchema())
+                .setDeliverGuarantee(DeliveryGuarantee.valueOf(env.getCheckpointingMode().name()));
+        if (!kafkaProducerConfig.isEmpty()) {
+            kafkaSinkBuilder.setKafkaProducerConfig(kafkaProducerConfig);
+        }
+        if (Asserts.isNotNullString(kafkaProducerConfig.getProperty(TRANSACTIONAL_ID))) {
+            kafkaSinkBuilder.setTransactionalIdPrefix(kafkaProducerConfig.getProperty(TRANSACTIONAL_ID));
+        }
+        dataStream
+                .flatMap(new TopicRouter(topics, config.getSchemaFieldName()))
+                .name("Route")
+                .sinkTo(kafkaSinkBuilder.build())
+                .name("Raw Forward");
+    }
+}
@@ -76,6 +76,7 @@ import java.util.stream.Collectors;
 public class KafkaSinkBuilder extends AbstractSinkBuilder implements Serializable {
 
     public static final String KEY_WORD = "datastream-kafka";
+    public static final String RAW_FORWARD = "raw-forward";
 
     public KafkaSinkBuilder() {}
 
@@ -128,6 +129,8 @@ public class KafkaSinkBuilder extends AbstractSinkBuilder implements Serializabl
             }
             KafkaSink<String> kafkaSink = kafkaSinkBuilder.build();
             dataStreamSource.sinkTo(kafkaSink);
+        } else if (Boolean.parseBoolean(config.getSink().get(RAW_FORWARD))) {
+            KafkaRawForward.sinkTo(this, config, env, dataStreamSource, kafkaProducerConfig);
         } else {
             Map<Table, OutputTag<String>> tagMap = new LinkedHashMap<>();
             Map<String, Table> tableMap = new LinkedHashMap<>();
@@ -0,0 +1,59 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.kafka;
+
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.util.Collector;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pairs each Debezium change event with the topic of its table, as the UTF-8 bytes of the event. Events of tables
+ * without a topic are dropped here, so the kafka sink only sees records it can write.
+ */
+public class TopicRouter implements FlatMapFunction<String, Tuple2<String, byte[]>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HashMap<String, String> topics;
+    private final String schemaFieldName;
+
+    /**
+     * @param topics          topic by schema and table name, joined with '.'
+     * @param schemaFieldName field of the Debezium source block that holds the schema
+     */
+    public TopicRouter(Map<String, String> topics, String schemaFieldName) {
+        this.topics = new HashMap<>(topics);
+        this.schemaFieldName = schemaFieldName;
+    }
+
+    @Override
+    public void flatMap(String value, Collector<Tuple2<String, byte[]>> out) throws Exception {
+        byte[] event = value.getBytes(StandardCharsets.UTF_8);
+        String key = DebeziumRoutingKey.extract(event, schemaFieldName);
+        String topic = key == null ? null : topics.get(key);
+        if (topic != null) {
+            out.collect(Tuple2.of(topic, event));
+        }
+    }
+}
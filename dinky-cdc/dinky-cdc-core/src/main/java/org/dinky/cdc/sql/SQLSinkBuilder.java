@@ -51,7 +51,7 @@ public class SQLSinkBuilder extends AbstractSqlSinkBuilder implements Serializab
 
     public SQLSinkBuilder() {}
 
-    private SQLSinkBuilder(FlinkCDCConfig config) {
+    protected SQLSinkBuilder(FlinkCDCConfig config) {
         super(config);
     }
 
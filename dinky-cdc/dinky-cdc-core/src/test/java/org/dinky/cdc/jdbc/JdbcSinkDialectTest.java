@@ -0,0 +1,82 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.jdbc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JdbcSinkDialectTest
+ *
+ */
+public class JdbcSinkDialectTest {
+
+    private static final List<String> COLUMNS = Arrays.asList("id", "name", "price");
+    private static final List<String> KEYS = Collections.singletonList("id");
+
+    @Test
+    public void resolveDialectTest() {
+        Assert.assertEquals(JdbcSinkDialect.MYSQL, JdbcSinkDialect.of(null, "jdbc:mysql://127.0.0.1:3306/test"));
+        Assert.assertEquals(
+                JdbcSinkDialect.POSTGRESQL, JdbcSinkDialect.of("", "jdbc:postgresql://127.0.0.1:5432/test"));
+        Assert.assertEquals(
+                JdbcSinkDialect.STARROCKS, JdbcSinkDialect.of("starrocks", "jdbc:mysql://127.0.0.1:9030/test"));
+    }
+
+    @Test
+    public void mysqlStatementTest() {
+        JdbcSinkDialect dialect = JdbcSinkDialect.MYSQL;
+        String table = dialect.getTableIdentifier("ods", "products");
+        Assert.assertEquals(
+                "INSERT INTO `ods`.`products` (`id`, `name`, `price`) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE "
+                        + "`name` = VALUES(`name`), `price` = VALUES(`price`)",
+                dialect.getUpsertSql(table, COLUMNS, KEYS));
+        Assert.assertEquals(
+                "INSERT INTO `ods`.`products` (`id`) VALUES (?) ON DUPLICATE KEY UPDATE `id` = `id`",
+                dialect.getUpsertSql(table, KEYS, KEYS));
+        Assert.assertEquals("DELETE FROM `ods`.`products` WHERE `id` = ?", dialect.getDeleteSql(table, KEYS));
+    }
+
+    @Test
+    public void postgresqlStatementTest() {
+        JdbcSinkDialect dialect = JdbcSinkDialect.POSTGRESQL;
+        String table = dialect.getTableIdentifier("ods", "products");
+        Assert.assertEquals(
+                "INSERT INTO \"ods\".\"products\" (\"id\", \"name\", \"price\") VALUES (?, ?, ?) ON CONFLICT (\"id\") "
+                        + "DO UPDATE SET \"name\" = EXCLUDED.\"name\", \"price\" = EXCLUDED.\"price\"",
+                dialect.getUpsertSql(table, COLUMNS, KEYS));
+        Assert.assertEquals(
+                "INSERT INTO \"ods\".\"products\" (\"id\") VALUES (?) ON CONFLICT (\"id\") DO NOTHING",
+                dialect.getUpsertSql(table, KEYS, KEYS));
+    }
+
+    @Test
+    public void starrocksStatementTest() {
+        JdbcSinkDialect dialect = JdbcSinkDialect.STARROCKS;
+        String table = dialect.getTableIdentifier("ods", "products");
+        Assert.assertEquals(
+                "INSERT INTO `ods`.`products` (`id`, `name`, `price`) VALUES (?, ?, ?)",
+                dialect.getUpsertSql(table, COLUMNS, KEYS));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.jdbc;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.DateType;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.types.Row;
+import org.apache.flink.types.RowKind;
+import org.apache.flink.util.Collector;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * MultiTableJdbcSinkFunctionTest
+ *
+ */
+public class MultiTableJdbcSinkFunctionTest {
+
+    /** Builds rows the way the sink builder does for the tables of a job. */
+    private static class TestJdbcSinkBuilder extends JdbcSinkBuilder {
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private List<Row> buildRows(List<String> columnNames, List<LogicalType> columnTypes, Map value)
+                throws Exception {
+            List<Row> rows = new ArrayList<>();
+            sqlSinkRowFunction(columnNames, columnTypes, "ods.products").flatMap(value, new Collector<Row>() {
+                @Override
+                public void collect(Row row) {
+                    rows.add(row);
+                }
+
+                @Override
+                public void close() {}
+            });
+            return rows;
+        }
+    }
+
+    @Test
+    public void bindBuiltRowTest() throws Exception {
+        long day = LocalDate.of(2024, 6, 1)
+                .atStartOfDay(ZoneId.systemDefault())
+                .toInstant()
+                .toEpochMilli();
+        Map<String, Object> after = new HashMap<>();
+        after.put("id", 1L);
+        after.put("name", "apple");
+        after.put("price", "12.30");
+        after.put("day", day);
+        Map<String, Object> value = new HashMap<>();
+        value.put("op", "c");
+        value.put("after", after);
+
+        List<Row> rows = new TestJdbcSinkBuilder()
+                .buildRows(
+                        Arrays.asList("id", "name", "price", "day"),
+                        Arrays.asList(new BigIntType(), new VarCharType(), new DecimalType(10, 2), new DateType()),
+                        value);
+        Assert.assertEquals(1, rows.size());
+        Assert.assertEquals(RowKind.INSERT, rows.get(0).getKind());
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        MultiTableJdbcSinkFunction.setRow(statement, rows.get(0));
+        verify(statement).setObject(1, 1L);
+        verify(statement).setObject(2, "apple");
+        verify(statement).setObject(3, new BigDecimal("12.30"));
+        verify(statement).setObject(4, LocalDate.of(2024, 6, 1));
+    }
+
+    @Test
+    public void bindFlinkInternalDataTest() throws Exception {
+        LocalDateTime time = LocalDateTime.of(2024, 6, 1, 12, 30);
+        Row row = Row.ofKind(
+                RowKind.UPDATE_AFTER,
+                DecimalData.fromBigDecimal(new BigDecimal("12.30"), 10, 2),
+                StringData.fromString("apple"),
+                TimestampData.fromLocalDateTime(time),
+                null);
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        MultiTableJdbcSinkFunction.setRow(statement, row);
+        verify(statement).setObject(1, new BigDecimal("12.30"));
+        verify(statement).setObject(2, "apple");
+        verify(statement).setObject(3, time);
+        verify(statement).setObject(4, null);
+    }
+}
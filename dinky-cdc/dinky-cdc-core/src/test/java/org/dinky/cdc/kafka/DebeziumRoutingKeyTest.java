@@ -0,0 +1,82 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.kafka;
+
+import org.apache.flink.api.common.functions.util.ListCollector;
+import org.apache.flink.api.java.tuple.Tuple2;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * DebeziumRoutingKeyTest
+ *
+ */
+public class DebeziumRoutingKeyTest {
+
+    private static String extract(String json, String schemaFieldName) throws Exception {
+        return DebeziumRoutingKey.extract(json.getBytes(StandardCharsets.UTF_8), schemaFieldName);
+    }
+
+    @Test
+    public void extractSkipsRowImagesTest() throws Exception {
+        String json = "{\"before\":null,\"after\":{\"id\":1,\"source\":{\"db\":\"x\",\"table\":\"y\"},"
+                + "\"tags\":[\"a\",{\"table\":\"z\"}]},\"source\":{\"version\":\"1.9.7\",\"ts_ms\":0,"
+                + "\"snapshot\":\"false\",\"db\":\"app\",\"sequence\":null,\"table\":\"orders\"},\"op\":\"c\"}";
+        Assert.assertEquals("app.orders", extract(json, "db"));
+    }
+
+    @Test
+    public void extractSchemaFieldTest() throws Exception {
+        String json = "{\"source\":{\"db\":\"postgres\",\"schema\":\"public\",\"table\":\"users\"},\"op\":\"u\"}";
+        Assert.assertEquals("public.users", extract(json, "schema"));
+    }
+
+    @Test
+    public void extractMissingSourceTest() throws Exception {
+        Assert.assertNull(extract("{\"before\":null,\"op\":\"d\"}", "db"));
+        Assert.assertNull(extract("{\"source\":{\"db\":\"app\",\"table\":null}}", "db"));
+        Assert.assertNull(extract("[]", "db"));
+    }
+
+    @Test
+    public void routeDropsUnroutedTablesTest() throws Exception {
+        TopicRouter router = new TopicRouter(Collections.singletonMap("app.orders", "ods_orders"), "db");
+        String known = "{\"source\":{\"db\":\"app\",\"table\":\"orders\"}}";
+        List<Tuple2<String, byte[]>> routed = new ArrayList<>();
+        ListCollector<Tuple2<String, byte[]>> out = new ListCollector<>(routed);
+        router.flatMap(known, out);
+        router.flatMap("{\"source\":{\"db\":\"app\",\"table\":\"users\"}}", out);
+        router.flatMap("{\"op\":\"d\"}", out);
+        Assert.assertEquals(1, routed.size());
+
+        ProducerRecord<byte[], byte[]> record =
+                new TopicRoutingSerializationSchema().serialize(routed.get(0), null, null);
+        Assert.assertEquals("ods_orders", record.topic());
+        Assert.assertArrayEquals(known.getBytes(StandardCharsets.UTF_8), record.value());
+    }
+}
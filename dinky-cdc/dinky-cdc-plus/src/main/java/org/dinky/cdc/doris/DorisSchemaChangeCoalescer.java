@@ -0,0 +1,349 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.doris;
+
+import org.apache.doris.flink.cfg.DorisOptions;
+import org.apache.doris.flink.sink.schema.SchemaChangeManager;
+import org.apache.doris.flink.tools.cdc.mysql.MysqlType;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.JsonNode;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.streaming.api.functions.KeyedProcessFunction;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Routes change events keyed by source table, and applies the schema changes of a table out of band.
+ *
+ * <p>The first schema change event of a table opens a window. Schema change events arriving within the window only
+ * update the latest column list, and when it closes the difference to the columns known to Doris is applied as one
+ * light schema change statement on a background thread. Rows of that table are held in keyed state until the
+ * statement succeeds, while rows of other tables keep flowing. Only added and dropped columns are synchronized.
+ *
+ * <p>A failed statement is retried with a growing delay. Once {@link #MAX_APPLY_ATTEMPTS} attempts failed, every schema
+ * change event of the window is handed to the Doris sink of the table in order, whose serializer applies or logs each
+ * of them as it did before schema changes were coalesced, and the held rows are released after them. The columns known
+ * to Doris are left as they were, so the next window diffs against them again.
+ */
+@SuppressWarnings("rawtypes")
+public class DorisSchemaChangeCoalescer extends KeyedProcessFunction<String, Map, String> {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = LoggerFactory.getLogger(DorisSchemaChangeCoalescer.class);
+    private static final long POLL_INTERVAL_MS = 100L;
+    private static final long RETRY_INTERVAL_MS = 1000L;
+    private static final int MAX_APPLY_ATTEMPTS = 3;
+    private static final int APPLY_THREADS = 4;
+    private static final String ADD = "ADD";
+    private static final String DROP = "DROP";
+
+    private final Map<String, OutputTag<String>> tagMap;
+    private final Map<String, String> dorisTableMap;
+    private final Map<String, List<String>> columnMap;
+    private final DorisOptions dorisOptions;
+    private final long windowMs;
+
+    private transient ValueState<LinkedHashMap<String, String>> appliedColumns;
+    private transient ValueState<LinkedHashMap<String, String>> latestColumns;
+    private transient ValueState<Long> pendingSince;
+    private transient ListState<String> pendingEvents;
+    private transient ValueState<Integer> failedAttempts;
+    private transient ListState<String> heldRows;
+
+    private transient ObjectMapper objectMapper;
+    private transient SchemaChangeManager schemaChangeManager;
+    private transient ExecutorService applyExecutor;
+    private transient Map<String, CompletableFuture<Void>> inFlight;
+    private transient Map<String, LinkedHashMap<String, String>> applying;
+    private transient Map<String, Long> lastLatencies;
+    private transient Map<String, Long> heldCounts;
+    private transient MetricGroup metricGroup;
+
+    /**
+     * @param tagMap        output tag by source schema and table name
+     * @param dorisTableMap Doris database and table by source schema and table name, joined with '.'
+     * @param columnMap     columns of the Doris table at job start by source schema and table name
+     * @param dorisOptions  connection to Doris
+     * @param windowMs      time schema change events of a table are coalesced for before they are applied
+     */
+    public DorisSchemaChangeCoalescer(
+            Map<String, OutputTag<String>> tagMap,
+            Map<String, String> dorisTableMap,
+            Map<String, List<String>> columnMap,
+            DorisOptions dorisOptions,
+            long windowMs) {
+        this.tagMap = tagMap;
+        this.dorisTableMap = dorisTableMap;
+        this.columnMap = columnMap;
+        this.dorisOptions = dorisOptions;
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+        TypeInformation<LinkedHashMap<String, String>> columnsType =
+                TypeInformation.of(new TypeHint<LinkedHashMap<String, String>>() {});
+        appliedColumns = getRuntimeContext().getState(new ValueStateDescriptor<>("applied-columns", columnsType));
+        latestColumns = getRuntimeContext().getState(new ValueStateDescriptor<>("latest-columns", columnsType));
+        pendingSince = getRuntimeContext().getState(new ValueStateDescriptor<>("pending-since", Types.LONG));
+        pendingEvents = getRuntimeContext().getListState(new ListStateDescriptor<>("pending-events", Types.STRING));
+        failedAttempts = getRuntimeContext().getState(new ValueStateDescriptor<>("failed-attempts", Types.INT));
+        heldRows = getRuntimeContext().getListState(new ListStateDescriptor<>("held-rows", Types.STRING));
+        objectMapper = new ObjectMapper();
+        schemaChangeManager = new SchemaChangeManager(dorisOptions);
+        applyExecutor = Executors.newFixedThreadPool(APPLY_THREADS);
+        inFlight = new ConcurrentHashMap<>();
+        applying = new ConcurrentHashMap<>();
+        lastLatencies = new ConcurrentHashMap<>();
+        heldCounts = new ConcurrentHashMap<>();
+        metricGroup = getRuntimeContext().getMetricGroup().addGroup("dorisSchemaChange");
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (applyExecutor != null) {
+            applyExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void processElement(Map map, Context ctx, Collector<String> out) throws Exception {
+        String key = ctx.getCurrentKey();
+        OutputTag<String> outputTag = tagMap.get(key);
+        if (outputTag == null) {
+            out.collect(objectMapper.writeValueAsString(map));
+            return;
+        }
+        Object historyRecord = map.get("historyRecord");
+        if (historyRecord == null) {
+            String row = objectMapper.writeValueAsString(map);
+            if (pendingSince.value() == null) {
+                ctx.output(outputTag, row);
+            } else {
+                heldRows.add(row);
+                heldCounts.merge(key, 1L, Long::sum);
+            }
+            return;
+        }
+        LinkedHashMap<String, String> columns = readColumns(objectMapper.readTree(historyRecord.toString()));
+        if (columns == null) {
+            return;
+        }
+        latestColumns.update(columns);
+        pendingEvents.add(objectMapper.writeValueAsString(map));
+        if (pendingSince.value() == null) {
+            long now = ctx.timerService().currentProcessingTime();
+            pendingSince.update(now);
+            ctx.timerService().registerProcessingTimeTimer(now + windowMs);
+        }
+    }
+
+    @Override
+    public void onTimer(long timestamp, OnTimerContext ctx, Collector<String> out) throws Exception {
+        String key = ctx.getCurrentKey();
+        if (pendingSince.value() == null) {
+            return;
+        }
+        CompletableFuture<Void> future = inFlight.get(key);
+        if (future != null && !future.isDone()) {
+            ctx.timerService().registerProcessingTimeTimer(timestamp + POLL_INTERVAL_MS);
+            return;
+        }
+        if (future != null) {
+            inFlight.remove(key);
+            LinkedHashMap<String, String> target = applying.remove(key);
+            try {
+                future.join();
+                failedAttempts.clear();
+            } catch (CompletionException e) {
+                int attempts = failedAttempts.value() == null ? 1 : failedAttempts.value() + 1;
+                if (attempts < MAX_APPLY_ATTEMPTS) {
+                    logger.warn(
+                            "Schema change to Doris table {} failed, attempt {} of {}",
+                            dorisTableMap.get(key),
+                            attempts,
+                            MAX_APPLY_ATTEMPTS,
+                            e.getCause());
+                    failedAttempts.update(attempts);
+                    ctx.timerService().registerProcessingTimeTimer(timestamp + RETRY_INTERVAL_MS * attempts);
+                    return;
+                }
+                logger.error(
+                        "Schema change to Doris table {} failed {} times, handing its events to the Doris sink",
+                        dorisTableMap.get(key),
+                        attempts,
+                        e.getCause());
+                failedAttempts.clear();
+                // The sink serializer applies each event before the held rows, or logs that it could not
+                OutputTag<String> outputTag = tagMap.get(key);
+                for (String event : pendingEvents.get()) {
+                    ctx.output(outputTag, event);
+                }
+                release(key, ctx);
+                return;
+            }
+            appliedColumns.update(target);
+        }
+        List<String[]> clauses = diffColumns(getAppliedColumns(key), latestColumns.value());
+        if (!clauses.isEmpty()) {
+            applying.put(key, new LinkedHashMap<>(latestColumns.value()));
+            inFlight.put(key, CompletableFuture.runAsync(() -> apply(key, clauses), applyExecutor));
+            ctx.timerService().registerProcessingTimeTimer(timestamp + POLL_INTERVAL_MS);
+            return;
+        }
+        release(key, ctx);
+    }
+
+    private void release(String key, OnTimerContext ctx) throws Exception {
+        OutputTag<String> outputTag = tagMap.get(key);
+        for (String row : heldRows.get()) {
+            ctx.output(outputTag, row);
+        }
+        long latency = ctx.timerService().currentProcessingTime() - pendingSince.value();
+        if (lastLatencies.put(key, latency) == null) {
+            MetricGroup tableGroup = metricGroup.addGroup("table", dorisTableMap.get(key));
+            tableGroup.gauge("latencyMs", () -> lastLatencies.get(key));
+            tableGroup.gauge("heldRows", () -> heldCounts.getOrDefault(key, 0L));
+        }
+        heldCounts.remove(key);
+        heldRows.clear();
+        latestColumns.clear();
+        pendingEvents.clear();
+        pendingSince.clear();
+        logger.info("Schema change of Doris table {} finished in {} ms", dorisTableMap.get(key), latency);
+    }
+
+    private LinkedHashMap<String, String> getAppliedColumns(String key) throws Exception {
+        LinkedHashMap<String, String> columns = appliedColumns.value();
+        if (columns == null) {
+            columns = new LinkedHashMap<>();
+            // Without the columns at job start every column is added, the column by column fallback skips those
+            // Doris already has
+            for (String column : columnMap.getOrDefault(key, Collections.emptyList())) {
+                columns.put(column, "");
+            }
+        }
+        return columns;
+    }
+
+    private void apply(String key, List<String[]> clauses) {
+        String[] identifier = dorisTableMap.get(key).split("\\.", 2);
+        String sql = buildAlterSql(identifier[0], identifier[1], clauses);
+        try {
+            logger.info("Apply schema change to Doris: {}", sql);
+            if (schemaChangeManager.execute(sql, identifier[0])) {
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("Schema change to Doris table {} failed, applying it column by column", key, e);
+        }
+        // Skip the columns Doris already has, such as when the job restarted while a change was in flight
+        try {
+            for (String[] clause : clauses) {
+                boolean exists = schemaChangeManager.checkColumnExists(identifier[0], identifier[1], clause[1]);
+                if (ADD.equals(clause[0]) != exists) {
+                    String columnSql = buildAlterSql(identifier[0], identifier[1], Collections.singletonList(clause));
+                    if (!schemaChangeManager.execute(columnSql, identifier[0])) {
+                        throw new IllegalStateException("Schema change to Doris failed: " + columnSql);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Schema change to Doris table " + dorisTableMap.get(key) + " failed", e);
+        }
+    }
+
+    /**
+     * Read the columns of a Debezium history record that alters a table.
+     *
+     * @return Doris type by column name, or null if the record does not alter the columns of a table
+     */
+    static LinkedHashMap<String, String> readColumns(JsonNode historyRecord) {
+        JsonNode tableChanges = historyRecord.get("tableChanges");
+        if (tableChanges == null || tableChanges.size() != 1) {
+            return null;
+        }
+        JsonNode tableChange = tableChanges.get(0);
+        if (!"ALTER".equalsIgnoreCase(tableChange.path("type").asText())) {
+            return null;
+        }
+        LinkedHashMap<String, String> columns = new LinkedHashMap<>();
+        for (JsonNode column : tableChange.path("table").path("columns")) {
+            Integer length = column.hasNonNull("length") ? column.get("length").asInt() : null;
+            Integer scale = column.hasNonNull("scale") ? column.get("scale").asInt() : null;
+            columns.put(
+                    column.get("name").asText(),
+                    MysqlType.toDorisType(column.get("typeName").asText(), length, scale));
+        }
+        return columns.isEmpty() ? null : columns;
+    }
+
+    /**
+     * Compare the columns known to Doris with the latest columns of the source. Changes of a column type are not
+     * synchronized.
+     *
+     * @return action, column name and clause of each column to add or drop
+     */
+    static List<String[]> diffColumns(Map<String, String> applied, Map<String, String> latest) {
+        List<String[]> clauses = new ArrayList<>();
+        for (Map.Entry<String, String> column : latest.entrySet()) {
+            if (!applied.containsKey(column.getKey())) {
+                clauses.add(new String[] {
+                    ADD, column.getKey(), String.format("ADD COLUMN `%s` %s", column.getKey(), column.getValue())
+                });
+            }
+        }
+        for (String column : applied.keySet()) {
+            if (!latest.containsKey(column)) {
+                clauses.add(new String[] {DROP, column, String.format("DROP COLUMN `%s`", column)});
+            }
+        }
+        return clauses;
+    }
+
+    static String buildAlterSql(String database, String table, List<String[]> clauses) {
+        return String.format(
+                "ALTER TABLE `%s`.`%s` %s",
+                database, table, clauses.stream().map(clause -> clause[2]).collect(Collectors.joining(", ")));
+    }
+}
@@ -23,6 +23,7 @@ import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.SinkBuilder;
+import org.dinky.data.model.Column;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
@@ -33,11 +34,11 @@ import org.apache.doris.flink.cfg.DorisOptions;
 import org.apache.doris.flink.cfg.DorisReadOptions;
 import org.apache.doris.flink.sink.DorisSink;
 import org.apache.doris.flink.sink.writer.serializer.JsonDebeziumSchemaSerializer;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.java.functions.KeySelector;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
-import org.apache.flink.streaming.api.functions.ProcessFunction;
-import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 
 import java.io.Serializable;
@@ -93,7 +94,9 @@ public class DorisSchemaEvolutionSinkBuilder extends AbstractSinkBuilder impleme
         final String schemaFieldName = config.getSchemaFieldName();
 
         Map<Table, OutputTag<String>> tagMap = new LinkedHashMap<>();
-        Map<String, Table> tableMap = new LinkedHashMap<>();
+        Map<String, OutputTag<String>> schemaTableTagMap = new LinkedHashMap<>();
+        Map<String, String> dorisTableMap = new LinkedHashMap<>();
+        Map<String, List<String>> columnMap = new LinkedHashMap<>();
         for (Schema schema : schemaList) {
             if (Asserts.isNullCollection(schema.getTables())) {
                 // if schema tables is empty, throw exception
@@ -108,26 +111,33 @@ public class DorisSchemaEvolutionSinkBuilder extends AbstractSinkBuilder impleme
             for (Table table : schema.getTables()) {
                 OutputTag<String> outputTag = new OutputTag<String>(getSinkTableName(table)) {};
                 tagMap.put(table, outputTag);
-                tableMap.put(table.getSchemaTableName(), table);
+                schemaTableTagMap.put(table.getSchemaTableName(), outputTag);
+                dorisTableMap.put(table.getSchemaTableName(), getSinkSchemaName(table) + "." + getSinkTableName(table));
+                columnMap.put(
+                        table.getSchemaTableName(),
+                        table.getColumns().stream().map(Column::getName).collect(Collectors.toList()));
             }
         }
 
-        SingleOutputStreamOperator<String> process = mapOperator.process(new ProcessFunction<Map, String>() {
-
-            @Override
-            public void processElement(Map map, Context ctx, Collector<String> out) throws Exception {
-                LinkedHashMap source = (LinkedHashMap) map.get("source");
-                String result = objectMapper.writeValueAsString(map);
-                try {
-                    Table table = tableMap.get(source.get(schemaFieldName).toString()
-                            + "."
-                            + source.get("table").toString());
-                    ctx.output(tagMap.get(table), result);
-                } catch (Exception e) {
-                    out.collect(result);
-                }
-            }
-        });
+        // Schema changes are applied out of band per table, so only the rows of the altered table wait for Doris
+        DorisOptions schemaChangeOptions = DorisOptions.builder()
+                .setFenodes(config.getSink().get(DorisSinkOptions.FENODES.key()))
+                .setUsername(config.getSink().get(DorisSinkOptions.USERNAME.key()))
+                .setPassword(config.getSink().get(DorisSinkOptions.PASSWORD.key()))
+                .build();
+        long schemaChangeWindow = Long.parseLong(sink.getOrDefault(
+                DorisSinkOptions.SINK_SCHEMA_CHANGE_WINDOW.key(),
+                String.valueOf(DorisSinkOptions.SINK_SCHEMA_CHANGE_WINDOW.defaultValue())));
+        SingleOutputStreamOperator<String> process = mapOperator
+                .keyBy(
+                        (KeySelector<Map, String>) map -> {
+                            Map source = (Map) map.get("source");
+                            return source == null ? "" : source.get(schemaFieldName) + "." + source.get("table");
+                        },
+                        Types.STRING)
+                .process(new DorisSchemaChangeCoalescer(
+                        schemaTableTagMap, dorisTableMap, columnMap, schemaChangeOptions, schemaChangeWindow))
+                .name("Doris Schema Change");
 
         tagMap.forEach((table, v) -> {
             DorisOptions dorisOptions = DorisOptions.builder()
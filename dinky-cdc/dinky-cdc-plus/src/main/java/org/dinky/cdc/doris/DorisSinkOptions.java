@@ -126,4 +126,11 @@ public class DorisSinkOptions {
             .withDescription(
                     "supports table column name, column type, default, comment synchronization, supports multi-column changes, "
                             + "and supports column name rename. Need to be enabled by configuring use-new-schema-change.");
+
+    public static final ConfigOption<Long> SINK_SCHEMA_CHANGE_WINDOW = ConfigOptions.key("sink.schema-change.window")
+            .longType()
+            .defaultValue(1000L)
+            .withDescription(
+                    "Time in milliseconds the schema changes of a table are coalesced for before they are applied to Doris "
+                            + "as one statement. Rows of the table are held until the statement succeeds.");
 }
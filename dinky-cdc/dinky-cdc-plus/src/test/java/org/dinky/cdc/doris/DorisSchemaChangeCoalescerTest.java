@@ -0,0 +1,264 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.doris;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.doris.flink.cfg.DorisOptions;
+import org.apache.doris.flink.sink.schema.SchemaChangeManager;
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.JsonNode;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.streaming.api.TimerService;
+import org.apache.flink.streaming.api.functions.KeyedProcessFunction;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/** DorisSchemaChangeCoalescerTest */
+class DorisSchemaChangeCoalescerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static JsonNode historyRecord(String type, String columns) throws Exception {
+        return MAPPER.readTree(
+                String.format("{\"tableChanges\":[{\"type\":\"%s\",\"table\":{\"columns\":[%s]}}]}", type, columns));
+    }
+
+    private static Map<String, String> columns(String... names) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (String name : names) {
+            columns.put(name, "INT");
+        }
+        return columns;
+    }
+
+    @Test
+    void testReadColumns() throws Exception {
+        LinkedHashMap<String, String> columns = DorisSchemaChangeCoalescer.readColumns(historyRecord(
+                "ALTER",
+                "{\"name\":\"id\",\"typeName\":\"INT\"},"
+                        + "{\"name\":\"price\",\"typeName\":\"DECIMAL\",\"length\":10,\"scale\":2}"));
+        assertEquals(Arrays.asList("id", "price"), Arrays.asList(columns.keySet().toArray()));
+        assertEquals("INT", columns.get("id"));
+        assertEquals("DECIMALV3(10,2)", columns.get("price"));
+    }
+
+    @Test
+    void testReadColumnsIgnoresOtherChanges() throws Exception {
+        assertNull(DorisSchemaChangeCoalescer.readColumns(
+                historyRecord("CREATE", "{\"name\":\"id\",\"typeName\":\"INT\"}")));
+        assertNull(DorisSchemaChangeCoalescer.readColumns(historyRecord("ALTER", "")));
+        assertNull(DorisSchemaChangeCoalescer.readColumns(MAPPER.readTree("{\"ddl\":\"TRUNCATE TABLE t\"}")));
+    }
+
+    @Test
+    void testDiffColumns() {
+        Map<String, String> latest = columns("id", "name", "added");
+        latest.put("added", "VARCHAR(30)");
+        List<String[]> clauses = DorisSchemaChangeCoalescer.diffColumns(columns("id", "name", "dropped"), latest);
+        assertEquals(2, clauses.size());
+        assertArrayEquals(new String[] {"ADD", "added", "ADD COLUMN `added` VARCHAR(30)"}, clauses.get(0));
+        assertArrayEquals(new String[] {"DROP", "dropped", "DROP COLUMN `dropped`"}, clauses.get(1));
+        assertEquals(
+                "ALTER TABLE `db`.`t` ADD COLUMN `added` VARCHAR(30), DROP COLUMN `dropped`",
+                DorisSchemaChangeCoalescer.buildAlterSql("db", "t", clauses));
+    }
+
+    @Test
+    void testDiffColumnsIgnoresTypeChanges() {
+        Map<String, String> latest = columns("id");
+        latest.put("id", "BIGINT");
+        assertTrue(DorisSchemaChangeCoalescer.diffColumns(columns("id"), latest).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void testFailedWindowHandsEveryEventToTheSink() throws Exception {
+        String key = "src.t";
+        OutputTag<String> tag = new OutputTag<String>(key) {};
+        DorisSchemaChangeCoalescer coalescer = new DorisSchemaChangeCoalescer(
+                Collections.singletonMap(key, tag),
+                Collections.singletonMap(key, "db.t"),
+                Collections.singletonMap(key, Collections.singletonList("id")),
+                DorisOptions.builder()
+                        .setFenodes("127.0.0.1:8030")
+                        .setTableIdentifier("db.t")
+                        .setUsername("root")
+                        .setPassword("")
+                        .build(),
+                0L);
+        coalescer.setRuntimeContext(runtimeContext());
+        coalescer.open(null);
+        try {
+            SchemaChangeManager schemaChangeManager = mock(SchemaChangeManager.class);
+            when(schemaChangeManager.execute(anyString(), anyString())).thenThrow(new IOException("Doris is down"));
+            when(schemaChangeManager.checkColumnExists(anyString(), anyString(), anyString()))
+                    .thenThrow(new IOException("Doris is down"));
+            Field field = DorisSchemaChangeCoalescer.class.getDeclaredField("schemaChangeManager");
+            field.setAccessible(true);
+            field.set(coalescer, schemaChangeManager);
+
+            List<String> sunk = new ArrayList<>();
+            TimerService timerService = mock(TimerService.class);
+            KeyedProcessFunction.OnTimerContext ctx = mock(KeyedProcessFunction.OnTimerContext.class);
+            when(ctx.getCurrentKey()).thenReturn(key);
+            when(ctx.timerService()).thenReturn(timerService);
+            doAnswer(invocation -> sunk.add(invocation.getArgument(1)))
+                    .when(ctx)
+                    .output(any(OutputTag.class), any());
+            Collector<String> out = mock(Collector.class);
+
+            Map addA = alterEvent("a");
+            Map addB = alterEvent("a", "b");
+            coalescer.processElement(addA, ctx, out);
+            coalescer.processElement(Collections.singletonMap("after", "row"), ctx, out);
+            coalescer.processElement(addB, ctx, out);
+            for (int i = 0; i < 1000 && sunk.isEmpty(); i++) {
+                coalescer.onTimer(0L, ctx, out);
+                Thread.sleep(10);
+            }
+
+            // Both events of the window reach the sink serializer before the held row
+            assertEquals(
+                    Arrays.asList(
+                            MAPPER.writeValueAsString(addA),
+                            MAPPER.writeValueAsString(addB),
+                            MAPPER.writeValueAsString(Collections.singletonMap("after", "row"))),
+                    sunk);
+
+            // The columns known to Doris are unchanged, so the next window adds every column again
+            List<String> statements = Collections.synchronizedList(new ArrayList<>());
+            doAnswer(invocation -> statements.add(invocation.getArgument(0)))
+                    .when(schemaChangeManager)
+                    .execute(anyString(), anyString());
+            coalescer.processElement(alterEvent("a", "b", "c"), ctx, out);
+            for (int i = 0; i < 1000 && statements.isEmpty(); i++) {
+                coalescer.onTimer(0L, ctx, out);
+                Thread.sleep(10);
+            }
+            assertEquals(
+                    Collections.singletonList("ALTER TABLE `db`.`t` ADD COLUMN `a` INT, ADD COLUMN `b` INT, "
+                            + "ADD COLUMN `c` INT"),
+                    statements);
+        } finally {
+            coalescer.close();
+        }
+    }
+
+    private static Map<String, Object> alterEvent(String... added) throws Exception {
+        StringBuilder columns = new StringBuilder("{\"name\":\"id\",\"typeName\":\"INT\"}");
+        for (String column : added) {
+            columns.append(",{\"name\":\"").append(column).append("\",\"typeName\":\"INT\"}");
+        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("historyRecord", MAPPER.writeValueAsString(historyRecord("ALTER", columns.toString())));
+        return event;
+    }
+
+    /** Keyed state of a single key held in memory. */
+    @SuppressWarnings("unchecked")
+    private static RuntimeContext runtimeContext() {
+        Map<String, ValueState<?>> valueStates = new HashMap<>();
+        Map<String, ListState<?>> listStates = new HashMap<>();
+        RuntimeContext runtimeContext = mock(RuntimeContext.class);
+        when(runtimeContext.getState(any(ValueStateDescriptor.class))).thenAnswer(invocation -> valueStates
+                .computeIfAbsent(((ValueStateDescriptor<?>) invocation.getArgument(0)).getName(), name ->
+                        new MemoryValueState<>()));
+        when(runtimeContext.getListState(any(ListStateDescriptor.class))).thenAnswer(invocation -> listStates
+                .computeIfAbsent(((ListStateDescriptor<?>) invocation.getArgument(0)).getName(), name ->
+                        new MemoryListState<>()));
+        when(runtimeContext.getMetricGroup()).thenReturn(UnregisteredMetricsGroup.createOperatorMetricGroup());
+        return runtimeContext;
+    }
+
+    private static class MemoryValueState<T> implements ValueState<T> {
+        private T value;
+
+        @Override
+        public T value() {
+            return value;
+        }
+
+        @Override
+        public void update(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public void clear() {
+            value = null;
+        }
+    }
+
+    private static class MemoryListState<T> implements ListState<T> {
+        private final List<T> values = new ArrayList<>();
+
+        @Override
+        public Iterable<T> get() {
+            return new ArrayList<>(values);
+        }
+
+        @Override
+        public void add(T value) {
+            values.add(value);
+        }
+
+        @Override
+        public void update(List<T> values) {
+            this.values.clear();
+            this.values.addAll(values);
+        }
+
+        @Override
+        public void addAll(List<T> values) {
+            this.values.addAll(values);
+        }
+
+        @Override
+        public void clear() {
+            values.clear();
+        }
+    }
+}
@@ -19,133 +19,386 @@
 
 package org.dinky.flink.checkpoint;
 
+import org.dinky.data.exception.DinkyException;
 import org.dinky.data.model.CheckPointReadTable;
 
 import org.apache.flink.api.common.typeutils.TypeSerializer;
-import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
-import org.apache.flink.api.java.ExecutionEnvironment;
 import org.apache.flink.core.fs.FSDataInputStream;
 import org.apache.flink.core.memory.DataInputView;
 import org.apache.flink.core.memory.DataInputViewStreamWrapper;
 import org.apache.flink.runtime.checkpoint.OperatorState;
-import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
-import org.apache.flink.runtime.checkpoint.StateObjectCollection;
-import org.apache.flink.runtime.jobgraph.JobVertexID;
-import org.apache.flink.runtime.jobgraph.OperatorID;
 import org.apache.flink.runtime.state.OperatorBackendSerializationProxy;
-import org.apache.flink.runtime.state.OperatorStateHandle;
 import org.apache.flink.runtime.state.PartitionableListState;
 import org.apache.flink.runtime.state.RegisteredOperatorStateBackendMetaInfo;
-import org.apache.flink.runtime.state.hashmap.HashMapStateBackend;
 import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
-import org.apache.flink.state.api.ExistingSavepoint;
-import org.apache.flink.state.api.Savepoint;
-import org.apache.flink.state.api.runtime.metadata.SavepointMetadata;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.json.JSONObject;
 
+/**
+ * Reads operator and keyed state of a checkpoint or savepoint page by page.
+ *
+ * <p>Handles are deserialized on a small shared pool, one task per subtask handle, and every task
+ * only keeps the rows of the requested page, so memory stays bounded by the page size whatever the
+ * size of the state.
+ */
 public class CheckpointRead implements CheckpointReadInterface {
+    public static final String MANAGED_OPERATOR_STATE = "managedOperatorState";
+    public static final String MANAGED_KEYED_STATE = "managedKeyedState";
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int READ_PARALLELISM =
+            Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    private static final ExecutorService READ_EXECUTOR = createExecutor();
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                READ_PARALLELISM,
+                READ_PARALLELISM,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("checkpoint-read-%d")
+                        .setDaemon(true)
+                        .build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Lists every managed operator and keyed state of the operator with its first page. Keyed states
+     * are not counted here, their total is filled in by the first {@link #readCheckpointPage} call.
+     */
     @Override
     public Map<String, Map<String, CheckPointReadTable>> readCheckpoint(String path, String operatorId) {
-        ClassLoader restoreClassLoader = Thread.currentThread().getContextClassLoader();
+        CheckpointStateIndex index =
+                CheckpointStateIndex.load(path, Thread.currentThread().getContextClassLoader());
+        OperatorState operatorState = index.getOperatorState(operatorId);
         Map<String, Map<String, CheckPointReadTable>> result = new LinkedHashMap<>();
-        try {
-            ExistingSavepoint savepoint =
-                    Savepoint.load(ExecutionEnvironment.getExecutionEnvironment(), path, new HashMapStateBackend());
-            List<OperatorState> operatorStateList =
-                    ((SavepointMetadata) ReflectUtil.getFieldValue(savepoint, "metadata")).getExistingOperators();
-            OperatorState existingOperator = operatorStateList.stream()
-                    .filter(operatorState -> operatorState
-                            .getOperatorID()
-                            .equals(OperatorID.fromJobVertexID(JobVertexID.fromHexString(operatorId))))
+
+        Map<String, CheckPointReadTable> operatorStates = new LinkedHashMap<>();
+        for (String stateName : index.getOperatorStateNames(operatorState)) {
+            operatorStates.put(stateName, readOperatorState(index, operatorState, stateName, 1, DEFAULT_PAGE_SIZE));
+        }
+        if (!operatorStates.isEmpty()) {
+            result.put(MANAGED_OPERATOR_STATE, operatorStates);
+        }
+
+        Map<String, CheckPointReadTable> keyedStates = new LinkedHashMap<>();
+        for (String stateName : getKeyedStateNames(index, operatorState)) {
+            keyedStates.put(stateName, readKeyedStateHead(index, operatorState, stateName, DEFAULT_PAGE_SIZE));
+        }
+        if (!keyedStates.isEmpty()) {
+            result.put(MANAGED_KEYED_STATE, keyedStates);
+        }
+        return result;
+    }
+
+    @Override
+    public CheckPointReadTable readCheckpointPage(
+            String path, String operatorId, String stateType, String stateName, int pageNum, int pageSize) {
+        if (pageNum < 1 || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("pageNum must be positive and pageSize between 1 and " + MAX_PAGE_SIZE);
+        }
+        CheckpointStateIndex index =
+                CheckpointStateIndex.load(path, Thread.currentThread().getContextClassLoader());
+        OperatorState operatorState = index.getOperatorState(operatorId);
+        switch (stateType) {
+            case MANAGED_OPERATOR_STATE:
+                return readOperatorState(index, operatorState, stateName, pageNum, pageSize);
+            case MANAGED_KEYED_STATE:
+                return readKeyedState(index, operatorState, stateName, pageNum, pageSize);
+            default:
+                throw new IllegalArgumentException("Unsupported state type: " + stateType);
+        }
+    }
+
+    private static CheckPointReadTable readOperatorState(
+            CheckpointStateIndex index, OperatorState operatorState, String stateName, int pageNum, int pageSize) {
+        List<CheckpointStateIndex.OperatorStateSegment> segments =
+                index.getOperatorStateSegments(operatorState, stateName);
+        long total = segments.stream().mapToLong(x -> x.getOffsets().length).sum();
+        long from = (long) (pageNum - 1) * pageSize;
+        long to = Math.min(total, from + pageSize);
+
+        List<Callable<OperatorStatePart>> tasks = new ArrayList<>();
+        long position = 0;
+        for (CheckpointStateIndex.OperatorStateSegment segment : segments) {
+            long end = position + segment.getOffsets().length;
+            if (end > from && position < to) {
+                int start = (int) Math.max(0, from - position);
+                int stop = (int) (Math.min(to, end) - position);
+                tasks.add(() -> readOperatorStatePart(index, segment, stateName, start, stop));
+            }
+            position = end;
+        }
+
+        List<OperatorStatePart> parts = invokeAll(index, tasks);
+        if (parts.isEmpty()) {
+            return emptyTable(total);
+        }
+        PartitionableListState<Object> listState = ReflectUtil.newInstance(
+                PartitionableListState.class,
+                new RegisteredOperatorStateBackendMetaInfo<>(parts.get(0).metaInfoSnapshot));
+        parts.forEach(part -> part.elements.forEach(listState::add));
+        CheckPointReadTable table =
+                CheckpointReadFactory.getTable(listState).orElseGet(() -> toStringTable(listState.get()));
+        table.setTotal(total);
+        return table;
+    }
+
+    private static OperatorStatePart readOperatorStatePart(
+            CheckpointStateIndex index,
+            CheckpointStateIndex.OperatorStateSegment segment,
+            String stateName,
+            int start,
+            int stop)
+            throws IOException {
+        try (FSDataInputStream in = segment.getHandle().openInputStream()) {
+            DataInputView view = new DataInputViewStreamWrapper(in);
+            OperatorBackendSerializationProxy proxy = new OperatorBackendSerializationProxy(index.getClassLoader());
+            proxy.read(view);
+            StateMetaInfoSnapshot metaInfoSnapshot = proxy.getOperatorStateMetaInfoSnapshots().stream()
+                    .filter(x -> x.getName().equals(stateName))
                     .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("The corresponding operator ID was not found"));
-            Map<Integer, OperatorSubtaskState> subtaskStates = existingOperator.getSubtaskStates();
-            if (CollUtil.isNotEmpty(subtaskStates)) {
-                subtaskStates.forEach((k, v) -> {
-                    StateObjectCollection<OperatorStateHandle> managedOperatorState = v.getManagedOperatorState();
-                    Map<String, CheckPointReadTable> read = readState(restoreClassLoader, managedOperatorState);
-                    result.put("managedOperatorState", read);
-                });
+                    .orElseThrow(() -> new IllegalStateException("Meta info of state " + stateName + " not found"));
+            TypeSerializer<?> serializer =
+                    new RegisteredOperatorStateBackendMetaInfo<>(metaInfoSnapshot).getPartitionStateSerializer();
+            List<Object> elements = new ArrayList<>(stop - start);
+            for (long offset : Arrays.copyOfRange(segment.getOffsets(), start, stop)) {
+                in.seek(offset);
+                elements.add(serializer.deserialize(view));
             }
-            return result;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            return new OperatorStatePart(metaInfoSnapshot, elements);
         }
     }
 
-    private static Map<String, CheckPointReadTable> readState(
-            ClassLoader restoreClassLoader, StateObjectCollection<OperatorStateHandle> managedOperatorState) {
-        Map<String, CheckPointReadTable> map = new LinkedHashMap<>();
-        OperatorBackendSerializationProxy backendSerializationProxy =
-                new OperatorBackendSerializationProxy(restoreClassLoader);
-        boolean isRead = false;
-        for (OperatorStateHandle operatorStateHandle : managedOperatorState) {
-            try (FSDataInputStream in =
-                    operatorStateHandle.getDelegateStateHandle().openInputStream()) {
-                if (!isRead) {
-                    backendSerializationProxy.read(new DataInputViewStreamWrapper(in));
-                    isRead = true;
+    private static List<String> getKeyedStateNames(CheckpointStateIndex index, OperatorState operatorState) {
+        List<Callable<KeyedStateReader.HandleMeta>> tasks = new ArrayList<>();
+        for (CheckpointStateIndex.KeyedHandle keyedHandle : index.getKeyedHandles(operatorState)) {
+            tasks.add(() -> keyedHandle.getMeta(index.getClassLoader()));
+        }
+        List<String> names = new ArrayList<>();
+        for (KeyedStateReader.HandleMeta meta : invokeAll(index, tasks)) {
+            meta.getStateNames().stream().filter(x -> !names.contains(x)).forEach(names::add);
+        }
+        return names;
+    }
+
+    /**
+     * First rows of a keyed state without counting it: handles are scanned in batches of the pool
+     * size and every task stops after a page, until the page is filled.
+     */
+    private static CheckPointReadTable readKeyedStateHead(
+            CheckpointStateIndex index, OperatorState operatorState, String stateName, int pageSize) {
+        List<CheckpointStateIndex.KeyedHandle> keyedHandles = index.getKeyedHandles(operatorState);
+        if (keyedHandles.stream().allMatch(CheckpointStateIndex.KeyedHandle::isCounted)) {
+            return readKeyedState(index, operatorState, stateName, 1, pageSize);
+        }
+        List<JSONObject> rows = new ArrayList<>();
+        for (int i = 0; i < keyedHandles.size() && rows.size() < pageSize; i += READ_PARALLELISM) {
+            List<Callable<List<JSONObject>>> tasks = new ArrayList<>();
+            for (CheckpointStateIndex.KeyedHandle keyedHandle :
+                    keyedHandles.subList(i, Math.min(keyedHandles.size(), i + READ_PARALLELISM))) {
+                int[] ranges = new int[keyedHandle.getKeyGroups().size() * 2];
+                for (int k = 0; k < keyedHandle.getKeyGroups().size(); k++) {
+                    ranges[2 * k] = 0;
+                    ranges[2 * k + 1] = pageSize;
                 }
+                tasks.add(() -> readKeyedStatePart(index, keyedHandle, stateName, ranges, pageSize));
+            }
+            for (List<JSONObject> part : invokeAll(index, tasks)) {
+                part.stream().limit(pageSize - rows.size()).forEach(rows::add);
+            }
+        }
+        return keyedTable(index, keyedHandles, stateName, rows, null);
+    }
+
+    private static CheckPointReadTable readKeyedState(
+            CheckpointStateIndex index, OperatorState operatorState, String stateName, int pageNum, int pageSize) {
+        List<CheckpointStateIndex.KeyedHandle> keyedHandles = index.getKeyedHandles(operatorState);
+        List<Callable<Map<String, long[]>>> countTasks = new ArrayList<>();
+        for (CheckpointStateIndex.KeyedHandle keyedHandle : keyedHandles) {
+            countTasks.add(() -> keyedHandle.getRowCounts(index.getClassLoader()));
+        }
+        List<Map<String, long[]>> counts = invokeAll(index, countTasks);
+
+        long total = 0;
+        for (Map<String, long[]> count : counts) {
+            total += Arrays.stream(count.getOrDefault(stateName, new long[0])).sum();
+        }
+        long from = (long) (pageNum - 1) * pageSize;
+        long to = Math.min(total, from + pageSize);
+
+        List<Callable<List<JSONObject>>> tasks = new ArrayList<>();
+        long position = 0;
+        for (int i = 0; i < keyedHandles.size() && position < to; i++) {
+            long[] rowCounts = counts.get(i).get(stateName);
+            if (rowCounts == null) {
+                continue;
+            }
+            // [start, stop) row window of every key group of the handle, both 0 when it is not needed
+            int[] ranges = new int[rowCounts.length * 2];
+            boolean needed = false;
+            for (int k = 0; k < rowCounts.length; k++) {
+                long end = position + rowCounts[k];
+                if (end > from && position < to) {
+                    ranges[2 * k] = (int) Math.max(0, from - position);
+                    ranges[2 * k + 1] = (int) (Math.min(to, end) - position);
+                    needed = true;
+                }
+                position = end;
+            }
+            if (needed) {
+                CheckpointStateIndex.KeyedHandle keyedHandle = keyedHandles.get(i);
+                tasks.add(() -> readKeyedStatePart(index, keyedHandle, stateName, ranges, pageSize));
+            }
+        }
 
-                operatorStateHandle.getStateNameToPartitionOffsets().forEach((key, value) -> {
-                    try {
-                        List<StateMetaInfoSnapshot> restoredOperatorMetaInfoSnapshots =
-                                backendSerializationProxy.getOperatorStateMetaInfoSnapshots();
-                        for (StateMetaInfoSnapshot stateMetaInfoSnapshot : restoredOperatorMetaInfoSnapshots) {
-                            String name = stateMetaInfoSnapshot.getName();
-                            if (!name.equals(key)) {
-                                continue;
-                            }
-                            TypeSerializerSnapshot<?> valueSerializer = stateMetaInfoSnapshot
-                                    .getSerializerSnapshotsImmutable()
-                                    .get("VALUE_SERIALIZER");
-
-                            PartitionableListState<?> partitionableListState = ReflectUtil.newInstance(
-                                    PartitionableListState.class,
-                                    new RegisteredOperatorStateBackendMetaInfo<>(stateMetaInfoSnapshot));
-                            ;
-                            deserializeOperatorStateValues(partitionableListState, in, value);
-                            // get checkpoint data
-                            CheckpointReadFactory.getTable(partitionableListState)
-                                    .ifPresent(tableVO -> map.put(key, tableVO));
-                            break;
-                        }
-
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
+        List<JSONObject> rows = new ArrayList<>();
+        invokeAll(index, tasks).forEach(rows::addAll);
+        return keyedTable(index, keyedHandles, stateName, rows, total);
+    }
+
+    private static List<JSONObject> readKeyedStatePart(
+            CheckpointStateIndex index,
+            CheckpointStateIndex.KeyedHandle keyedHandle,
+            String stateName,
+            int[] ranges,
+            int limit)
+            throws IOException {
+        KeyedStateReader.HandleMeta meta = keyedHandle.getMeta(index.getClassLoader());
+        List<JSONObject> rows = new ArrayList<>();
+        if (!meta.hasState(stateName)) {
+            return rows;
+        }
+        try (FSDataInputStream in = keyedHandle.getHandle().openInputStream()) {
+            for (int k = 0; k < ranges.length / 2 && rows.size() < limit; k++) {
+                int start = ranges[2 * k];
+                int stop = ranges[2 * k + 1];
+                if (stop <= start) {
+                    continue;
+                }
+                int[] position = {0};
+                KeyedStateReader.readKeyGroup(keyedHandle, meta, in, k, stateName, (name, row) -> {
+                    if (!name.equals(stateName)) {
+                        return true;
                     }
+                    if (position[0] >= start) {
+                        rows.add(row.get());
+                    }
+                    return ++position[0] < stop && rows.size() < limit;
                 });
+            }
+        }
+        return rows;
+    }
+
+    private static CheckPointReadTable keyedTable(
+            CheckpointStateIndex index,
+            List<CheckpointStateIndex.KeyedHandle> keyedHandles,
+            String stateName,
+            List<JSONObject> rows,
+            Long total) {
+        List<String> headers = CollUtil.newArrayList(KeyedStateReader.HEADER_VALUE);
+        for (CheckpointStateIndex.KeyedHandle keyedHandle : keyedHandles) {
+            try {
+                KeyedStateReader.HandleMeta meta = keyedHandle.getMeta(index.getClassLoader());
+                if (meta.hasState(stateName)) {
+                    headers = meta.headers(stateName);
+                    break;
+                }
             } catch (IOException e) {
-                throw new RuntimeException(e);
+                throw new DinkyException(e);
             }
         }
-        return map;
+        return CheckPointReadTable.builder()
+                .headers(headers)
+                .datas(rows)
+                .total(total)
+                .build();
     }
 
-    protected static <S> void deserializeOperatorStateValues(
-            PartitionableListState<S> stateListForName,
-            FSDataInputStream in,
-            OperatorStateHandle.StateMetaInfo metaInfo)
-            throws IOException {
+    /** Fallback for list state element types none of the {@link CheckpointReadFactory} readers know. */
+    private static CheckPointReadTable toStringTable(Iterable<?> elements) {
+        List<JSONObject> data = new ArrayList<>();
+        for (Object element : elements) {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.set("data", String.valueOf(element));
+            data.add(jsonObject);
+        }
+        return CheckPointReadTable.builder()
+                .headers(CollUtil.newArrayList("data"))
+                .datas(data)
+                .build();
+    }
 
-        if (null != metaInfo) {
-            long[] offsets = metaInfo.getOffsets();
-            if (null != offsets) {
-                DataInputView div = new DataInputViewStreamWrapper(in);
-                TypeSerializer<S> serializer =
-                        stateListForName.getStateMetaInfo().getPartitionStateSerializer();
-                for (long offset : offsets) {
-                    in.seek(offset);
-                    stateListForName.add(serializer.deserialize(div));
+    private static CheckPointReadTable emptyTable(long total) {
+        return CheckPointReadTable.builder()
+                .headers(CollUtil.newArrayList("data"))
+                .datas(new ArrayList<>())
+                .total(total)
+                .build();
+    }
+
+    /**
+     * Runs the tasks on the read pool with the class loader the index was loaded with, which user
+     * serializers such as Kryo resolve classes from, and returns the results in task order.
+     */
+    private static <T> List<T> invokeAll(CheckpointStateIndex index, List<Callable<T>> tasks) {
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(() -> {
+                Thread thread = Thread.currentThread();
+                ClassLoader previous = thread.getContextClassLoader();
+                thread.setContextClassLoader(index.getClassLoader());
+                try {
+                    return task.call();
+                } finally {
+                    thread.setContextClassLoader(previous);
                 }
+            });
+        }
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : READ_EXECUTOR.invokeAll(wrapped)) {
+                results.add(future.get());
             }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DinkyException(e);
+        } catch (ExecutionException e) {
+            throw new DinkyException("Failed to read checkpoint state", e.getCause());
+        }
+    }
+
+    private static class OperatorStatePart {
+        private final StateMetaInfoSnapshot metaInfoSnapshot;
+        private final List<Object> elements;
+
+        private OperatorStatePart(StateMetaInfoSnapshot metaInfoSnapshot, List<Object> elements) {
+            this.metaInfoSnapshot = metaInfoSnapshot;
+            this.elements = elements;
         }
     }
 }
@@ -33,4 +33,19 @@ public interface CheckpointReadInterface {
     default Map<String, Map<String, CheckPointReadTable>> readCheckpoint(String path, String operatorId) {
         throw new UnsupportedOperationException("readCheckpoint not implemented");
     }
+
+    /**
+     * 分页读取某个状态
+     * @param path Checkpoint路径
+     * @param operatorId 执行id
+     * @param stateType managedOperatorState 或 managedKeyedState
+     * @param stateName 状态名
+     * @param pageNum 页码，从1开始
+     * @param pageSize 每页行数
+     * @return 当前页的数据及总行数
+     */
+    default CheckPointReadTable readCheckpointPage(
+            String path, String operatorId, String stateType, String stateName, int pageNum, int pageSize) {
+        throw new UnsupportedOperationException("readCheckpointPage not implemented");
+    }
 }
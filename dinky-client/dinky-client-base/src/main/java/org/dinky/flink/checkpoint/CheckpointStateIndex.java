@@ -0,0 +1,230 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.checkpoint;
+
+import org.dinky.data.exception.DinkyException;
+
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.runtime.checkpoint.Checkpoints;
+import org.apache.flink.runtime.checkpoint.OperatorState;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.runtime.checkpoint.metadata.CheckpointMetadata;
+import org.apache.flink.runtime.jobgraph.JobVertexID;
+import org.apache.flink.runtime.jobgraph.OperatorID;
+import org.apache.flink.runtime.state.CompletedCheckpointStorageLocation;
+import org.apache.flink.runtime.state.CompositeKeySerializationUtils;
+import org.apache.flink.runtime.state.KeyGroupsStateHandle;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.OperatorStateHandle;
+import org.apache.flink.runtime.state.filesystem.AbstractFsCheckpointStorageAccess;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index of a checkpoint or savepoint.
+ *
+ * <p>The metadata file is read once and every managed operator and keyed state handle is grouped by
+ * operator and subtask, so a page of rows can be located without opening the other handles. Handle
+ * headers and keyed row counts are filled in the first time they are needed and kept with the index.
+ */
+@Slf4j
+public class CheckpointStateIndex {
+
+    private static final Cache<String, CheckpointStateIndex> INDEX_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(16)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+
+    @Getter
+    private final ClassLoader classLoader;
+
+    private final Map<OperatorID, OperatorState> operatorStates;
+    private final Map<OperatorID, List<KeyedHandle>> keyedHandles = new ConcurrentHashMap<>();
+
+    private CheckpointStateIndex(CheckpointMetadata metadata, ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        this.operatorStates = metadata.getOperatorStates().stream()
+                .collect(Collectors.toMap(OperatorState::getOperatorID, x -> x));
+    }
+
+    public static CheckpointStateIndex load(String path, ClassLoader classLoader) {
+        try {
+            return INDEX_CACHE.get(path, () -> new CheckpointStateIndex(readMetadata(path, classLoader), classLoader));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new DinkyException("Failed to read checkpoint metadata of " + path, e.getCause());
+        }
+    }
+
+    private static CheckpointMetadata readMetadata(String path, ClassLoader classLoader) throws IOException {
+        CompletedCheckpointStorageLocation location = AbstractFsCheckpointStorageAccess.resolveCheckpointPointer(path);
+        try (DataInputStream in =
+                new DataInputStream(location.getMetadataHandle().openInputStream())) {
+            return Checkpoints.loadCheckpointMetadata(in, classLoader, location.getExternalPointer());
+        }
+    }
+
+    public OperatorState getOperatorState(String operatorId) {
+        OperatorState operatorState =
+                operatorStates.get(OperatorID.fromJobVertexID(JobVertexID.fromHexString(operatorId)));
+        if (operatorState == null) {
+            throw new IllegalArgumentException("The corresponding operator ID was not found");
+        }
+        return operatorState;
+    }
+
+    /** Names of the managed operator states, taken from the partition offsets without any I/O. */
+    public Set<String> getOperatorStateNames(OperatorState operatorState) {
+        Set<String> names = new TreeSet<>();
+        for (OperatorSubtaskState subtaskState : operatorState.getStates()) {
+            for (OperatorStateHandle handle : subtaskState.getManagedOperatorState()) {
+                names.addAll(handle.getStateNameToPartitionOffsets().keySet());
+            }
+        }
+        return names;
+    }
+
+    /** The handles holding elements of one operator state, ordered by subtask. */
+    public List<OperatorStateSegment> getOperatorStateSegments(OperatorState operatorState, String stateName) {
+        List<OperatorStateSegment> segments = new ArrayList<>();
+        new TreeMap<>(operatorState.getSubtaskStates()).forEach((subtask, subtaskState) -> {
+            for (OperatorStateHandle handle : subtaskState.getManagedOperatorState()) {
+                OperatorStateHandle.StateMetaInfo metaInfo =
+                        handle.getStateNameToPartitionOffsets().get(stateName);
+                if (metaInfo != null && metaInfo.getOffsets().length > 0) {
+                    segments.add(new OperatorStateSegment(subtask, handle, metaInfo.getOffsets()));
+                }
+            }
+        });
+        return segments;
+    }
+
+    /**
+     * The full snapshot keyed state handles of an operator, ordered by subtask. Incremental RocksDB
+     * and changelog handles hold backend files rather than key groups and are left out.
+     */
+    public List<KeyedHandle> getKeyedHandles(OperatorState operatorState) {
+        return keyedHandles.computeIfAbsent(operatorState.getOperatorID(), id -> {
+            int keyGroupPrefixBytes =
+                    CompositeKeySerializationUtils.computeRequiredBytesInKeyGroupPrefix(
+                            operatorState.getMaxParallelism());
+            List<KeyedHandle> handles = new ArrayList<>();
+            new TreeMap<>(operatorState.getSubtaskStates()).forEach((subtask, subtaskState) -> {
+                for (KeyedStateHandle handle : subtaskState.getManagedKeyedState()) {
+                    if (handle instanceof KeyGroupsStateHandle) {
+                        handles.add(new KeyedHandle(subtask, (KeyGroupsStateHandle) handle, keyGroupPrefixBytes));
+                    } else {
+                        log.warn(
+                                "Skip keyed state handle {} of operator {}, only full snapshots can be read",
+                                handle.getClass().getSimpleName(),
+                                id);
+                    }
+                }
+            });
+            handles.sort(Comparator.comparingInt(KeyedHandle::getSubtask));
+            return handles;
+        });
+    }
+
+    @Getter
+    public static class OperatorStateSegment {
+        private final int subtask;
+        private final OperatorStateHandle handle;
+        private final long[] offsets;
+
+        public OperatorStateSegment(int subtask, OperatorStateHandle handle, long[] offsets) {
+            this.subtask = subtask;
+            this.handle = handle;
+            this.offsets = offsets;
+        }
+    }
+
+    /**
+     * A keyed state handle with its non-empty key groups. The handle header and the number of rows
+     * each state has in every key group are loaded once and shared by later reads.
+     */
+    @Getter
+    public static class KeyedHandle {
+        private final int subtask;
+        private final KeyGroupsStateHandle handle;
+        private final int keyGroupPrefixBytes;
+        private final List<Tuple2<Integer, Long>> keyGroups = new ArrayList<>();
+
+        private volatile KeyedStateReader.HandleMeta meta;
+        private volatile Map<String, long[]> rowCounts;
+
+        public KeyedHandle(int subtask, KeyGroupsStateHandle handle, int keyGroupPrefixBytes) {
+            this.subtask = subtask;
+            this.handle = handle;
+            this.keyGroupPrefixBytes = keyGroupPrefixBytes;
+            for (Tuple2<Integer, Long> keyGroupOffset : handle.getGroupRangeOffsets()) {
+                // an offset of 0 marks a key group without any entry
+                if (keyGroupOffset.f1 != 0L) {
+                    keyGroups.add(keyGroupOffset);
+                }
+            }
+        }
+
+        public KeyedStateReader.HandleMeta getMeta(ClassLoader classLoader) throws IOException {
+            if (meta == null) {
+                synchronized (this) {
+                    if (meta == null) {
+                        meta = KeyedStateReader.readMeta(this, classLoader);
+                    }
+                }
+            }
+            return meta;
+        }
+
+        /** Rows per key group of every state in this handle, in the order of {@link #getKeyGroups()}. */
+        public Map<String, long[]> getRowCounts(ClassLoader classLoader) throws IOException {
+            if (rowCounts == null) {
+                synchronized (this) {
+                    if (rowCounts == null) {
+                        rowCounts = KeyedStateReader.countRows(this, getMeta(classLoader));
+                    }
+                }
+            }
+            return rowCounts;
+        }
+
+        public boolean isCounted() {
+            return rowCounts != null;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.checkpoint;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.ListSerializer;
+import org.apache.flink.api.common.typeutils.base.MapSerializer;
+import org.apache.flink.api.common.typeutils.base.array.BytePrimitiveArraySerializer;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.core.fs.FSDataInputStream;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.runtime.state.CompositeKeySerializationUtils;
+import org.apache.flink.runtime.state.FullSnapshotUtil;
+import org.apache.flink.runtime.state.KeyGroupsSavepointStateHandle;
+import org.apache.flink.runtime.state.KeyedBackendSerializationProxy;
+import org.apache.flink.runtime.state.ListDelimitedSerializer;
+import org.apache.flink.runtime.state.SnappyStreamCompressionDecorator;
+import org.apache.flink.runtime.state.StreamCompressionDecorator;
+import org.apache.flink.runtime.state.UncompressedStreamCompressionDecorator;
+import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.json.JSONObject;
+
+/**
+ * Reads the key groups of full keyed snapshots.
+ *
+ * <p>Heap checkpoints write every state of a key group as a counted list of (namespace, key, state)
+ * tuples. Savepoints and full RocksDB checkpoints use the canonical format shared by all state
+ * backends instead, a sequence of serialized key/value pairs per state. Both are turned into the
+ * same rows: map states give one row per user key, all other states one row per key.
+ */
+public class KeyedStateReader {
+    public static final String HEADER_KEY_GROUP = "key-group";
+    public static final String HEADER_KEY = "key";
+    public static final String HEADER_NAMESPACE = "namespace";
+    public static final String HEADER_USER_KEY = "user-key";
+    public static final String HEADER_VALUE = "value";
+
+    private KeyedStateReader() {}
+
+    /** Receives the rows of a key group; returning false stops reading it. */
+    @FunctionalInterface
+    public interface RowConsumer {
+        boolean accept(String stateName, RowSupplier row) throws IOException;
+    }
+
+    /** Decodes a row lazily, so that counting does not pay for deserialization where it can. */
+    @FunctionalInterface
+    public interface RowSupplier {
+        JSONObject get() throws IOException;
+    }
+
+    static HandleMeta readMeta(CheckpointStateIndex.KeyedHandle keyedHandle, ClassLoader classLoader)
+            throws IOException {
+        try (FSDataInputStream in = keyedHandle.getHandle().openInputStream()) {
+            KeyedBackendSerializationProxy<?> proxy = new KeyedBackendSerializationProxy<>(classLoader);
+            proxy.read(new DataInputViewStreamWrapper(in));
+            boolean heapFormat = !(keyedHandle.getHandle() instanceof KeyGroupsSavepointStateHandle)
+                    && isHeapFormat(keyedHandle, proxy, in);
+            return new HandleMeta(proxy, heapFormat, keyedHandle.getKeyGroupPrefixBytes());
+        }
+    }
+
+    /**
+     * Heap checkpoints start every key group with its id as a plain int, while the canonical format starts
+     * with a short state id followed by the length of the first key, so the first int only matches the key
+     * group id in the heap format. A compressed canonical key group starts with the snappy stream header
+     * instead. For an uncompressed key group 0 the next short tells them apart: the heap format writes the
+     * state id 0 there, the canonical format the low half of a key length, which is never 0 as every key
+     * starts with its key group prefix.
+     */
+    private static boolean isHeapFormat(
+            CheckpointStateIndex.KeyedHandle keyedHandle,
+            KeyedBackendSerializationProxy<?> proxy,
+            FSDataInputStream in)
+            throws IOException {
+        if (keyedHandle.getKeyGroups().isEmpty() || proxy.getStateMetaInfoSnapshots().isEmpty()) {
+            return true;
+        }
+        Tuple2<Integer, Long> keyGroup = keyedHandle.getKeyGroups().get(0);
+        in.seek(keyGroup.f1);
+        DataInputViewStreamWrapper view = new DataInputViewStreamWrapper(in);
+        if (view.readInt() != keyGroup.f0) {
+            return false;
+        }
+        return keyGroup.f0 != 0 || proxy.isUsingKeyGroupCompression() || view.readShort() == 0;
+    }
+
+    static Map<String, long[]> countRows(CheckpointStateIndex.KeyedHandle keyedHandle, HandleMeta meta)
+            throws IOException {
+        int size = keyedHandle.getKeyGroups().size();
+        Map<String, long[]> counts = new HashMap<>();
+        for (StateMetaInfoSnapshot state : meta.states) {
+            counts.put(state.getName(), new long[size]);
+        }
+        try (FSDataInputStream in = keyedHandle.getHandle().openInputStream()) {
+            for (int i = 0; i < size; i++) {
+                int index = i;
+                readKeyGroup(keyedHandle, meta, in, i, null, (stateName, row) -> {
+                    counts.get(stateName)[index]++;
+                    return true;
+                });
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Reads the key group at {@code index} of the handle. When {@code stateName} is given, reading
+     * stops once that state has been passed, as states are stored one after another.
+     */
+    static void readKeyGroup(
+            CheckpointStateIndex.KeyedHandle keyedHandle,
+            HandleMeta meta,
+            FSDataInputStream in,
+            int index,
+            String stateName,
+            RowConsumer consumer)
+            throws IOException {
+        Tuple2<Integer, Long> keyGroup =
+                keyedHandle.getKeyGroups().get(index);
+        in.seek(keyGroup.f1);
+        StateDecoder[] decoders = meta.newDecoders();
+        if (meta.heapFormat) {
+            readHeapKeyGroup(keyGroup.f0, meta, decoders, in, stateName, consumer);
+        } else {
+            readCanonicalKeyGroup(meta, decoders, in, stateName, consumer);
+        }
+    }
+
+    private static void readHeapKeyGroup(
+            int keyGroup,
+            HandleMeta meta,
+            StateDecoder[] decoders,
+            FSDataInputStream in,
+            String stateName,
+            RowConsumer consumer)
+            throws IOException {
+        // the key group id is written before the compressed part
+        new DataInputViewStreamWrapper(in).readInt();
+        DataInputViewStreamWrapper view = new DataInputViewStreamWrapper(meta.decorator.decorateWithCompression(in));
+        boolean passed = false;
+        for (int i = 0; i < decoders.length && !passed; i++) {
+            StateDecoder decoder = decoders[view.readShort()];
+            passed = decoder.name.equals(stateName);
+            int numElements = view.readInt();
+            for (int j = 0; j < numElements; j++) {
+                if (!decoder.readHeapElement(keyGroup, view, consumer)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void readCanonicalKeyGroup(
+            HandleMeta meta, StateDecoder[] decoders, FSDataInputStream in, String stateName, RowConsumer consumer)
+            throws IOException {
+        DataInputViewStreamWrapper view = new DataInputViewStreamWrapper(meta.decorator.decorateWithCompression(in));
+        int stateId = FullSnapshotUtil.END_OF_KEY_GROUP_MARK & view.readShort();
+        boolean last = false;
+        while (!last) {
+            byte[] key = BytePrimitiveArraySerializer.INSTANCE.deserialize(view);
+            byte[] value = BytePrimitiveArraySerializer.INSTANCE.deserialize(view);
+            StateDecoder decoder = decoders[stateId];
+            if (FullSnapshotUtil.hasMetaDataFollowsFlag(key)) {
+                // the last entry of a state carries a flag in its key group prefix
+                FullSnapshotUtil.clearMetaDataFollowsFlag(key);
+                stateId = FullSnapshotUtil.END_OF_KEY_GROUP_MARK & view.readShort();
+                last = stateId == FullSnapshotUtil.END_OF_KEY_GROUP_MARK || decoder.name.equals(stateName);
+            }
+            if (!consumer.accept(decoder.name, () -> decoder.decodeCanonical(key, value))) {
+                return;
+            }
+        }
+    }
+
+    /** Header of a keyed state handle. */
+    public static class HandleMeta {
+        private final List<StateMetaInfoSnapshot> states;
+        private final StreamCompressionDecorator decorator;
+        private final boolean heapFormat;
+        private final int keyGroupPrefixBytes;
+        private final TypeSerializer<?> keySerializer;
+
+        private HandleMeta(KeyedBackendSerializationProxy<?> proxy, boolean heapFormat, int keyGroupPrefixBytes) {
+            this.states = proxy.getStateMetaInfoSnapshots();
+            this.decorator = proxy.isUsingKeyGroupCompression()
+                    ? SnappyStreamCompressionDecorator.INSTANCE
+                    : UncompressedStreamCompressionDecorator.INSTANCE;
+            this.heapFormat = heapFormat;
+            this.keyGroupPrefixBytes = keyGroupPrefixBytes;
+            this.keySerializer = proxy.getKeySerializerSnapshot().restoreSerializer();
+        }
+
+        boolean isHeapFormat() {
+            return heapFormat;
+        }
+
+        public List<String> getStateNames() {
+            return states.stream().map(StateMetaInfoSnapshot::getName).collect(Collectors.toList());
+        }
+
+        public boolean hasState(String stateName) {
+            return states.stream().anyMatch(x -> x.getName().equals(stateName));
+        }
+
+        public List<String> headers(String stateName) {
+            for (StateDecoder decoder : newDecoders()) {
+                if (decoder.name.equals(stateName)) {
+                    return decoder.headers();
+                }
+            }
+            return CollUtil.newArrayList(HEADER_VALUE);
+        }
+
+        /** Serializers are not thread safe, so every read works on its own duplicates. */
+        private StateDecoder[] newDecoders() {
+            StateDecoder[] decoders = new StateDecoder[states.size()];
+            for (int i = 0; i < decoders.length; i++) {
+                decoders[i] = new StateDecoder(states.get(i), keySerializer.duplicate(), keyGroupPrefixBytes);
+            }
+            return decoders;
+        }
+    }
+
+    private static class StateDecoder {
+        private final String name;
+        private final boolean priorityQueue;
+        private final int keyGroupPrefixBytes;
+        private final StateMetaInfoSnapshot snapshot;
+        private final TypeSerializer<Object> keySerializer;
+        private TypeSerializer<Object> namespaceSerializer;
+        private TypeSerializer<Object> valueSerializer;
+
+        @SuppressWarnings("unchecked")
+        private StateDecoder(StateMetaInfoSnapshot snapshot, TypeSerializer<?> keySerializer, int keyGroupPrefixBytes) {
+            this.name = snapshot.getName();
+            this.priorityQueue =
+                    snapshot.getBackendStateType() == StateMetaInfoSnapshot.BackendStateType.PRIORITY_QUEUE;
+            this.keyGroupPrefixBytes = keyGroupPrefixBytes;
+            this.snapshot = snapshot;
+            this.keySerializer = (TypeSerializer<Object>) keySerializer;
+        }
+
+        /** Restores the state serializers on first use, counting canonical entries needs none. */
+        @SuppressWarnings("unchecked")
+        private void restoreSerializers() {
+            if (valueSerializer != null) {
+                return;
+            }
+            if (!priorityQueue) {
+                namespaceSerializer = (TypeSerializer<Object>) snapshot.getTypeSerializerSnapshot(
+                                StateMetaInfoSnapshot.CommonSerializerKeys.NAMESPACE_SERIALIZER)
+                        .restoreSerializer();
+            }
+            valueSerializer = (TypeSerializer<Object>) snapshot.getTypeSerializerSnapshot(
+                            StateMetaInfoSnapshot.CommonSerializerKeys.VALUE_SERIALIZER)
+                    .restoreSerializer();
+        }
+
+        private List<String> headers() {
+            if (priorityQueue) {
+                return CollUtil.newArrayList(HEADER_KEY_GROUP, HEADER_VALUE);
+            }
+            restoreSerializers();
+            if (valueSerializer instanceof MapSerializer) {
+                return CollUtil.newArrayList(
+                        HEADER_KEY_GROUP, HEADER_KEY, HEADER_NAMESPACE, HEADER_USER_KEY, HEADER_VALUE);
+            }
+            return CollUtil.newArrayList(HEADER_KEY_GROUP, HEADER_KEY, HEADER_NAMESPACE, HEADER_VALUE);
+        }
+
+        private boolean readHeapElement(int keyGroup, DataInputView in, RowConsumer consumer) throws IOException {
+            restoreSerializers();
+            if (priorityQueue) {
+                Object element = valueSerializer.deserialize(in);
+                return consumer.accept(name, () -> row(keyGroup, element));
+            }
+            Object namespace = namespaceSerializer.deserialize(in);
+            Object key = keySerializer.deserialize(in);
+            Object value = valueSerializer.deserialize(in);
+            if (valueSerializer instanceof MapSerializer) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (!consumer.accept(name, () -> row(keyGroup, key, namespace, entry.getKey(), entry.getValue()))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return consumer.accept(name, () -> row(keyGroup, key, namespace, value));
+        }
+
+        @SuppressWarnings("unchecked")
+        private JSONObject decodeCanonical(byte[] key, byte[] value) throws IOException {
+            restoreSerializers();
+            DataInputDeserializer keyIn = new DataInputDeserializer(key);
+            int keyGroup = CompositeKeySerializationUtils.readKeyGroup(keyGroupPrefixBytes, keyIn);
+            if (priorityQueue) {
+                return row(keyGroup, valueSerializer.deserialize(keyIn));
+            }
+            boolean ambiguousKeyPossible =
+                    CompositeKeySerializationUtils.isAmbiguousKeyPossible(keySerializer, namespaceSerializer);
+            Object userKey = CompositeKeySerializationUtils.readKey(keySerializer, keyIn, ambiguousKeyPossible);
+            Object namespace =
+                    CompositeKeySerializationUtils.readNamespace(namespaceSerializer, keyIn, ambiguousKeyPossible);
+            DataInputDeserializer valueIn = new DataInputDeserializer(value);
+            if (valueSerializer instanceof MapSerializer) {
+                MapSerializer<Object, Object> mapSerializer = (MapSerializer<Object, Object>) (Object) valueSerializer;
+                Object mapKey = mapSerializer.getKeySerializer().deserialize(keyIn);
+                Object mapValue =
+                        valueIn.readBoolean() ? null : mapSerializer.getValueSerializer().deserialize(valueIn);
+                return row(keyGroup, userKey, namespace, mapKey, mapValue);
+            }
+            if (valueSerializer instanceof ListSerializer) {
+                ListSerializer<Object> listSerializer = (ListSerializer<Object>) (Object) valueSerializer;
+                return row(
+                        keyGroup,
+                        userKey,
+                        namespace,
+                        new ListDelimitedSerializer().deserializeList(value, listSerializer.getElementSerializer()));
+            }
+            return row(keyGroup, userKey, namespace, valueSerializer.deserialize(valueIn));
+        }
+
+        private static JSONObject row(int keyGroup, Object value) {
+            JSONObject row = new JSONObject();
+            row.set(HEADER_KEY_GROUP, keyGroup);
+            row.set(HEADER_VALUE, display(value));
+            return row;
+        }
+
+        private static JSONObject row(int keyGroup, Object key, Object namespace, Object value) {
+            JSONObject row = row(keyGroup, value);
+            row.set(HEADER_KEY, display(key));
+            row.set(HEADER_NAMESPACE, display(namespace));
+            return row;
+        }
+
+        private static JSONObject row(int keyGroup, Object key, Object namespace, Object userKey, Object value) {
+            JSONObject row = row(keyGroup, key, namespace, value);
+            row.set(HEADER_USER_KEY, display(userKey));
+            return row;
+        }
+
+        private static String display(Object value) {
+            return ArrayUtil.isArray(value) ? ArrayUtil.toString(value) : String.valueOf(value);
+        }
+    }
+}
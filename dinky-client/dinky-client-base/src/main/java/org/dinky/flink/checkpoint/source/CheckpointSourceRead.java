@@ -76,7 +76,10 @@ public class CheckpointSourceRead extends BaseCheckpointRead {
                                 Singleton.get(entry.getKey().get()))
                         .get());
                 BaseCheckpointSource apply = entry.getValue().apply(list);
-                return Optional.of(new CheckPointReadTable(apply.headers(), apply.datas()));
+                return Optional.of(CheckPointReadTable.builder()
+                        .headers(apply.headers())
+                        .datas(apply.datas())
+                        .build());
             } catch (Exception e) {
                 e.printStackTrace();
             } catch (NoClassDefFoundError ignored) {
@@ -69,12 +69,24 @@ public enum SqlType {
 
     UNKNOWN("UNKNOWN", "^UNKNOWN.*");
 
+    private static final SqlType[] TYPES = values();
+
     private String type;
     private Pattern pattern;
+    /** The leading keyword every statement of this type starts with. */
+    private final String keyword;
+    /** Whether the leading keyword alone decides the type, so the pattern can be skipped. */
+    private final boolean keywordOnly;
 
     SqlType(String type, String regrex) {
         this.type = type;
         this.pattern = Pattern.compile(regrex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        int end = 1;
+        while (end < regrex.length() && Character.isLetter(regrex.charAt(end))) {
+            end++;
+        }
+        this.keyword = regrex.substring(1, end);
+        this.keywordOnly = regrex.equals("^" + keyword + ".*");
     }
 
     public void setType(String type) {
@@ -88,4 +100,34 @@ public enum SqlType {
     public boolean match(String statement) {
         return pattern.matcher(statement).matches();
     }
+
+    /**
+     * Classify the statement by its leading keyword, types are checked in declaration order and the
+     * pattern is only evaluated for types that need more than the keyword, like CTAS and ADD JAR.
+     *
+     * @param statement sql statement
+     * @return the first matching type, or {@link #UNKNOWN}
+     */
+    public static SqlType of(String statement) {
+        int start = 0;
+        while (start < statement.length() && statement.charAt(start) <= ' ') {
+            start++;
+        }
+        String normalized = null;
+        for (SqlType sqlType : TYPES) {
+            if (!statement.regionMatches(true, start, sqlType.keyword, 0, sqlType.keyword.length())) {
+                continue;
+            }
+            if (sqlType.keywordOnly) {
+                return sqlType;
+            }
+            if (normalized == null) {
+                normalized = statement.replaceAll("[\\s\\t\\n\\r]", " ").trim();
+            }
+            if (sqlType.match(normalized)) {
+                return sqlType;
+            }
+        }
+        return UNKNOWN;
+    }
 }
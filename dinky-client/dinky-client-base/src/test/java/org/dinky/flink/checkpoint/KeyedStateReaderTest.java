@@ -0,0 +1,203 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.checkpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.dinky.flink.checkpoint.KeyedStateReader.HEADER_KEY;
+import static org.dinky.flink.checkpoint.KeyedStateReader.HEADER_USER_KEY;
+import static org.dinky.flink.checkpoint.KeyedStateReader.HEADER_VALUE;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.core.execution.SavepointFormatType;
+import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.core.fs.FSDataInputStream;
+import org.apache.flink.runtime.checkpoint.CheckpointOptions;
+import org.apache.flink.runtime.checkpoint.CheckpointType;
+import org.apache.flink.runtime.checkpoint.SavepointType;
+import org.apache.flink.runtime.checkpoint.SnapshotType;
+import org.apache.flink.runtime.state.CheckpointStorageLocationReference;
+import org.apache.flink.runtime.state.CompositeKeySerializationUtils;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyGroupsSavepointStateHandle;
+import org.apache.flink.runtime.state.KeyGroupsStateHandle;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.LocalRecoveryConfig;
+import org.apache.flink.runtime.state.SavepointSnapshotStrategy;
+import org.apache.flink.runtime.state.SnapshotExecutionType;
+import org.apache.flink.runtime.state.SnapshotResult;
+import org.apache.flink.runtime.state.SnapshotStrategyRunner;
+import org.apache.flink.runtime.state.SnappyStreamCompressionDecorator;
+import org.apache.flink.runtime.state.UncompressedStreamCompressionDecorator;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.runtime.state.heap.HeapKeyedStateBackend;
+import org.apache.flink.runtime.state.heap.HeapKeyedStateBackendBuilder;
+import org.apache.flink.runtime.state.heap.HeapPriorityQueueSetFactory;
+import org.apache.flink.runtime.state.memory.MemCheckpointStreamFactory;
+import org.apache.flink.runtime.state.metrics.LatencyTrackingStateConfig;
+import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RunnableFuture;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import cn.hutool.json.JSONObject;
+
+/** Reads keyed state snapshots written by the heap state backend. */
+class KeyedStateReaderTest {
+
+    private static final int KEYS = 20;
+    private static final ClassLoader CLASS_LOADER = KeyedStateReaderTest.class.getClassLoader();
+
+    @Test
+    void readHeapCheckpoint() throws Exception {
+        KeyGroupsStateHandle handle = snapshot(128, false, CheckpointType.CHECKPOINT);
+        assertRows(handle, 128, true);
+    }
+
+    @Test
+    void readHeapCheckpointWithOnlyKeyGroupZero() throws Exception {
+        assertRows(snapshot(1, false, CheckpointType.CHECKPOINT), 1, true);
+        assertRows(snapshot(1, true, CheckpointType.CHECKPOINT), 1, true);
+    }
+
+    @Test
+    void readCanonicalSavepoint() throws Exception {
+        KeyGroupsStateHandle handle = snapshot(128, true, SavepointType.savepoint(SavepointFormatType.CANONICAL));
+        assertThat(handle).isInstanceOf(KeyGroupsSavepointStateHandle.class);
+        assertRows(handle, 128, false);
+    }
+
+    /** A full RocksDB checkpoint uses the canonical format in a plain key groups handle. */
+    @Test
+    void readCanonicalCheckpointWithOnlyKeyGroupZero() throws Exception {
+        for (boolean compressed : new boolean[] {false, true}) {
+            KeyGroupsStateHandle savepoint =
+                    snapshot(1, compressed, SavepointType.savepoint(SavepointFormatType.CANONICAL));
+            KeyGroupsStateHandle handle =
+                    new KeyGroupsStateHandle(savepoint.getGroupRangeOffsets(), savepoint.getDelegateStateHandle());
+            assertRows(handle, 1, false);
+        }
+    }
+
+    private static void assertRows(KeyGroupsStateHandle handle, int maxParallelism, boolean heapFormat)
+            throws Exception {
+        CheckpointStateIndex.KeyedHandle keyedHandle = new CheckpointStateIndex.KeyedHandle(
+                0, handle, CompositeKeySerializationUtils.computeRequiredBytesInKeyGroupPrefix(maxParallelism));
+        KeyedStateReader.HandleMeta meta = keyedHandle.getMeta(CLASS_LOADER);
+        assertThat(meta.isHeapFormat()).isEqualTo(heapFormat);
+        assertThat(meta.getStateNames()).containsExactlyInAnyOrder("value", "map");
+
+        List<JSONObject> values = new ArrayList<>();
+        List<JSONObject> entries = new ArrayList<>();
+        try (FSDataInputStream in = handle.openInputStream()) {
+            for (int i = 0; i < keyedHandle.getKeyGroups().size(); i++) {
+                KeyedStateReader.readKeyGroup(keyedHandle, meta, in, i, null, (stateName, row) -> {
+                    ("value".equals(stateName) ? values : entries).add(row.get());
+                    return true;
+                });
+            }
+        }
+        assertThat(values)
+                .extracting(row -> row.getStr(HEADER_KEY) + "=" + row.getStr(HEADER_VALUE))
+                .containsExactlyInAnyOrderElementsOf(expected(key -> key + "=v" + key));
+        List<String> expectedEntries = expected(key -> key + ".a=" + key);
+        expectedEntries.addAll(expected(key -> key + ".b=" + key * 2));
+        assertThat(entries)
+                .extracting(row -> row.getStr(HEADER_KEY) + "." + row.getStr(HEADER_USER_KEY) + "="
+                        + row.getStr(HEADER_VALUE))
+                .containsExactlyInAnyOrderElementsOf(expectedEntries);
+
+        long[] counts = keyedHandle.getRowCounts(CLASS_LOADER).get("map");
+        assertThat(Arrays.stream(counts).sum()).isEqualTo(2L * KEYS);
+    }
+
+    private static List<String> expected(IntFunction<String> row) {
+        return IntStream.range(0, KEYS).mapToObj(row).collect(Collectors.toList());
+    }
+
+    /** Write a value state and a map state of {@link #KEYS} keys with a real heap backend and snapshot it. */
+    private static KeyGroupsStateHandle snapshot(int maxParallelism, boolean compressed, SnapshotType type)
+            throws Exception {
+        KeyGroupRange keyGroupRange = KeyGroupRange.of(0, maxParallelism - 1);
+        CloseableRegistry registry = new CloseableRegistry();
+        HeapKeyedStateBackend<Integer> backend = new HeapKeyedStateBackendBuilder<>(
+                        null,
+                        IntSerializer.INSTANCE,
+                        CLASS_LOADER,
+                        maxParallelism,
+                        keyGroupRange,
+                        new ExecutionConfig(),
+                        TtlTimeProvider.DEFAULT,
+                        LatencyTrackingStateConfig.disabled(),
+                        Collections.emptyList(),
+                        compressed
+                                ? SnappyStreamCompressionDecorator.INSTANCE
+                                : UncompressedStreamCompressionDecorator.INSTANCE,
+                        new LocalRecoveryConfig(null),
+                        new HeapPriorityQueueSetFactory(keyGroupRange, maxParallelism, 128),
+                        false,
+                        registry)
+                .build();
+        try {
+            ValueState<String> valueState = backend.getPartitionedState(
+                    VoidNamespace.INSTANCE,
+                    VoidNamespaceSerializer.INSTANCE,
+                    new ValueStateDescriptor<>("value", String.class));
+            MapState<String, Integer> mapState = backend.getPartitionedState(
+                    VoidNamespace.INSTANCE,
+                    VoidNamespaceSerializer.INSTANCE,
+                    new MapStateDescriptor<>("map", String.class, Integer.class));
+            for (int key = 0; key < KEYS; key++) {
+                backend.setCurrentKey(key);
+                valueState.update("v" + key);
+                mapState.put("a", key);
+                mapState.put("b", key * 2);
+            }
+            CheckpointOptions options = new CheckpointOptions(type, CheckpointStorageLocationReference.getDefault());
+            MemCheckpointStreamFactory streamFactory = new MemCheckpointStreamFactory(1024 * 1024);
+            RunnableFuture<SnapshotResult<KeyedStateHandle>> future = type.isSavepoint()
+                    ? new SnapshotStrategyRunner<>(
+                                    "savepoint",
+                                    new SavepointSnapshotStrategy<>(backend.savepoint().getSnapshotResources()),
+                                    registry,
+                                    SnapshotExecutionType.SYNCHRONOUS)
+                            .snapshot(1L, 0L, streamFactory, options)
+                    : backend.snapshot(1L, 0L, streamFactory, options);
+            future.run();
+            return (KeyGroupsStateHandle) future.get().getJobManagerOwnedSnapshot();
+        } finally {
+            backend.dispose();
+            registry.close();
+        }
+    }
+}
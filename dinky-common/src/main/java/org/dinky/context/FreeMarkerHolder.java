@@ -20,14 +20,21 @@
 package org.dinky.context;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import freemarker.cache.StringTemplateLoader;
 import freemarker.template.Configuration;
+import freemarker.template.ObjectWrapper;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import freemarker.template.TemplateExceptionHandler;
+import freemarker.template.TemplateNotFoundException;
 
 /**
  * The FreeMarkerHolder class manages FreeMarker templates and provides methods to interact with them.
@@ -35,27 +42,48 @@ import freemarker.template.TemplateExceptionHandler;
 public class FreeMarkerHolder {
 
     /**
-     * The FreeMarker configuration.
+     * Resolves {@code <#include>} and {@code <#import>} of a template, it holds the latest content registered under
+     * each name by any holder.
      */
-    private final Configuration configuration = new Configuration(Configuration.VERSION_2_3_32);
+    private static final StringTemplateLoader INCLUDE_LOADER = new StringTemplateLoader();
 
     /**
-     * The StringTemplateLoader to load FreeMarker templates from strings.
+     * The FreeMarker configuration, shared by all holders so that compiled templates can be shared too.
      */
-    private final StringTemplateLoader stringLoader = new StringTemplateLoader();
+    private static final Configuration CONFIGURATION = buildConfiguration();
 
     /**
-     * Initializes the FreeMarkerHolder, setting up the configuration.
+     * Compiled templates keyed by the hash of their content. Holders are rebuilt whenever alert rules are
+     * refreshed and alert instances are created per send, the content rarely changes in between.
      */
-    public FreeMarkerHolder() {
-        configuration.setTemplateLoader(stringLoader);
+    private static final Cache<String, Template> COMPILED_TEMPLATES = CacheUtil.newLRUCache(256);
+
+    /**
+     * The templates registered in this holder, keyed by name.
+     */
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    private static Configuration buildConfiguration() {
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_32);
+        configuration.setTemplateLoader(INCLUDE_LOADER);
+        // Included templates are re-read when their content is registered again
+        configuration.setTemplateUpdateDelayMilliseconds(0);
         configuration.setNumberFormat("computer");
         configuration.setDefaultEncoding("UTF-8");
         configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        return configuration;
+    }
+
+    /**
+     * Returns the object wrapper used to expose data models to templates.
+     */
+    public static ObjectWrapper getObjectWrapper() {
+        return CONFIGURATION.getObjectWrapper();
     }
 
     /**
-     * Adds a FreeMarker template to the holder.
+     * Adds a FreeMarker template to the holder, the template is only compiled if no template with the same
+     * content has been compiled before.
      *
      * @param name            The name of the template.
      * @param templateContent The content of the template as a string.
@@ -64,20 +92,34 @@ public class FreeMarkerHolder {
         if (name == null || name.isEmpty()) {
             throw new IllegalArgumentException("Template name is null or empty.");
         }
-        stringLoader.putTemplate(name, templateContent);
+        String content = templateContent == null ? "" : templateContent;
+        INCLUDE_LOADER.putTemplate(name, content);
+        templates.put(name, COMPILED_TEMPLATES.get(DigestUtil.sha256Hex(content), () -> compile(name, content)));
+    }
+
+    private static Template compile(String name, String content) {
+        try {
+            return new Template(name, new StringReader(content), CONFIGURATION);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Template " + name + " can not be parsed: " + e.getMessage(), e);
+        }
     }
 
     /**
      * Builds a FreeMarker template with the provided data model.
      *
      * @param name      The name of the template to build.
-     * @param dataModel The data model containing variables to populate the template.
+     * @param dataModel The data model containing variables to populate the template, either a map, a bean or a
+     *                  {@link freemarker.template.TemplateHashModel}.
      * @return A string representation of the template after processing.
      * @throws IOException       If an I/O error occurs while processing the template.
      * @throws TemplateException If an error occurs during template processing.
      */
-    public String buildWithData(String name, Map<String, Object> dataModel) throws IOException, TemplateException {
-        Template template = configuration.getTemplate(name);
+    public String buildWithData(String name, Object dataModel) throws IOException, TemplateException {
+        Template template = templates.get(name);
+        if (template == null) {
+            throw new TemplateNotFoundException(name, null, "Template " + name + " is not registered.");
+        }
         StringWriter stringWriter = new StringWriter();
         template.process(dataModel, stringWriter);
         return stringWriter.toString();
@@ -0,0 +1,93 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.flink.job;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sent by dinky-app to the {@code hookJobDone} endpoint once its job reached a terminal state.
+ *
+ * <p>It carries what Dinky can no longer ask the JobManager of an application cluster that has shut down. The json
+ * body is signed with the hook secret of the system configuration, see {@link #sign(String, String)}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobDoneHook implements Serializable {
+
+    private static final long serialVersionUID = -6217403956263051877L;
+
+    /** Header carrying the hex HMAC-SHA256 of the request body. */
+    public static final String SIGNATURE_HEADER = "X-Dinky-Signature";
+
+    private Integer taskId;
+
+    private String jobId;
+
+    /** Final status of the job, one of the done {@code JobStatus} values. */
+    private String status;
+
+    /** External path of the latest completed checkpoint or savepoint, null if there is none. */
+    private String checkpointPath;
+
+    /** Stringified failure cause if the job failed. */
+    private String failureCause;
+
+    private long timestamp;
+
+    /**
+     * Sign a hook body.
+     *
+     * @param secret hook secret shared by Dinky and dinky-app
+     * @param body   json body of the hook
+     * @return hex HMAC-SHA256 of the body
+     */
+    public static String sign(String secret, String body) {
+        return SecureUtil.hmacSha256(secret).digestHex(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check the signature of a hook body in constant time.
+     *
+     * @param secret    hook secret shared by Dinky and dinky-app
+     * @param body      json body of the hook
+     * @param signature signature sent with the body, may be null
+     * @return true if the body was signed with the secret
+     */
+    public static boolean verify(String secret, String body, String signature) {
+        if (StrUtil.isBlank(secret) || StrUtil.isBlank(signature)) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                sign(secret, body).getBytes(StandardCharsets.UTF_8),
+                signature.trim().toLowerCase().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.flink.job;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A state change of a Flink job pushed by the Dinky metric reporter, see {@code DinkyMetricReporter}.
+ *
+ * <p>The reporter posts a gzip compressed JSON array of events once per report interval, signed with the hook
+ * secret like {@link JobDoneHook}.
+ */
+@Data
+@NoArgsConstructor
+public class JobStateEvent implements Serializable {
+
+    private static final long serialVersionUID = 2874193654105826011L;
+
+    public enum Type {
+        /** The job status derived from the job gauges changed. */
+        STATUS,
+        /** The number of completed checkpoints changed. */
+        CHECKPOINT,
+        /** Periodic values of the selected metrics, also a heartbeat of the push stream. */
+        METRICS,
+        /** The job left the reporter, it has reached a terminal state or moved away. */
+        REMOVED
+    }
+
+    private String jobId;
+
+    private Type type;
+
+    private String status;
+
+    private Long completedCheckpoints;
+
+    private long timestamp;
+
+    /** Metric values by vertex id, keyed like the ids of the Flink REST vertex metrics. */
+    private Map<String, Map<String, String>> metrics;
+
+    public JobStateEvent(String jobId, Type type) {
+        this.jobId = jobId;
+        this.type = type;
+        this.timestamp = System.currentTimeMillis();
+    }
+}
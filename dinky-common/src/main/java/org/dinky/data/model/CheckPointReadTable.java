@@ -33,4 +33,6 @@ import lombok.Setter;
 public class CheckPointReadTable {
     private List<String> headers;
     private List<?> datas;
+    /** Rows of the whole state, null while it has not been counted yet. */
+    private Long total;
 }
@@ -37,6 +37,7 @@ import java.util.stream.Collectors;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.DesensitizedUtil;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ReflectUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.Getter;
@@ -146,6 +147,13 @@ public class SystemConfiguration {
                     .defaultValue(TaskOwnerAlertStrategyEnum.NONE)
                     .note(Status.SYS_ENV_SETTINGS_TASK_OWNER_ALERT_STRATEGY_NOTE);
 
+    /** Generated once, the first Dinky to start stores it with the other settings. */
+    private final Configuration<String> hookSecret = key(Status.SYS_ENV_SETTINGS_HOOK_SECRET)
+            .stringType()
+            .defaultValue(IdUtil.fastSimpleUUID())
+            .desensitizedHandler(DesensitizedUtil::password)
+            .note(Status.SYS_ENV_SETTINGS_HOOK_SECRET_NOTE);
+
     private final Configuration<Boolean> dolphinschedulerEnable = key(Status.SYS_DOLPHINSCHEDULER_SETTINGS_ENABLE)
             .booleanType()
             .defaultValue(false)
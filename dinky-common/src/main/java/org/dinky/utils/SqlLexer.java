@@ -0,0 +1,228 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A single pass, quote and comment aware lexer for sql scripts.
+ *
+ * <p>Quoted text ('...', "..." and `...`), line comments (--) and block comments are tracked while
+ * scanning, so separators and comment markers inside them are never taken into account. A statement
+ * ends at a semicolon that is followed by a line break, a line comment or the end of the script.
+ */
+public class SqlLexer {
+
+    private SqlLexer() {}
+
+    @Getter
+    @AllArgsConstructor
+    public static class Statement {
+
+        /** The statement text, without the separator. */
+        private final String sql;
+
+        /** Offset of the first char of the statement in the normalized script. */
+        private final int start;
+
+        /** Offset after the last char of the statement in the normalized script. */
+        private final int end;
+    }
+
+    /**
+     * Split the script into statements. Line breaks are normalized from \r\n to \n before scanning,
+     * so offsets refer to the normalized script.
+     *
+     * @param script sql script
+     * @return statements in script order
+     */
+    public static List<Statement> split(String script) {
+        if (script == null || script.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = script.replace("\r\n", "\n");
+        int length = sql.length();
+        List<Statement> statements = new ArrayList<>();
+        int start = 0;
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (isQuote(c)) {
+                i = skipQuoted(sql, i);
+            } else if (isLineComment(sql, i)) {
+                i = skipLineComment(sql, i);
+            } else if (isBlockComment(sql, i)) {
+                i = skipBlockComment(sql, i);
+            } else if (c == ';') {
+                int next = separatorEnd(sql, i);
+                if (next < 0) {
+                    i++;
+                } else {
+                    statements.add(new Statement(sql.substring(start, i), start, i));
+                    start = next;
+                    i = next;
+                }
+            } else {
+                i++;
+            }
+        }
+        if (start < length) {
+            statements.add(new Statement(sql.substring(start), start, length));
+        }
+        if (statements.isEmpty()) {
+            statements.add(new Statement("", 0, 0));
+        }
+        // The last statement may still carry its own terminating semicolon.
+        Statement last = statements.get(statements.size() - 1);
+        String lastSql = last.getSql().trim();
+        if (lastSql.endsWith(";")) {
+            int end = last.getStart() + last.getSql().lastIndexOf(';');
+            statements.set(
+                    statements.size() - 1,
+                    new Statement(lastSql.substring(0, lastSql.length() - 1), last.getStart(), end));
+        }
+        return statements;
+    }
+
+    /**
+     * Remove line comments and block comments, replace no-break spaces and collapse consecutive line
+     * breaks. Block comments starting with "/*+" are optimizer hints and are kept.
+     *
+     * @param script sql script
+     * @return sql without comments, trimmed
+     */
+    public static String removeComments(String script) {
+        if (script == null || script.isEmpty()) {
+            return script;
+        }
+        int length = script.length();
+        StringBuilder sb = new StringBuilder(length);
+        int i = 0;
+        while (i < length) {
+            char c = script.charAt(i);
+            if (isQuote(c)) {
+                int end = skipQuoted(script, i);
+                appendNormalized(sb, script, i, end);
+                i = end;
+            } else if (isLineComment(script, i)) {
+                i = skipLineComment(script, i);
+            } else if (isBlockComment(script, i)) {
+                int end = skipBlockComment(script, i);
+                if (i + 2 < length && script.charAt(i + 2) == '+') {
+                    appendNormalized(sb, script, i, end);
+                }
+                i = end;
+            } else {
+                appendNormalized(sb, script, i, i + 1);
+                i++;
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    private static void appendNormalized(StringBuilder sb, String sql, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = sql.charAt(i);
+            if (c == '\r' || c == '\n') {
+                int last = sb.length() - 1;
+                if (last < 0 || sb.charAt(last) != '\n' || !endsWithLineBreak(sql, i)) {
+                    sb.append('\n');
+                }
+            } else if (c == '\u00A0') {
+                sb.append(' ');
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    /** Whether the char before the given offset is a line break, i.e. the line break run goes on. */
+    private static boolean endsWithLineBreak(String sql, int index) {
+        if (index == 0) {
+            return false;
+        }
+        char prev = sql.charAt(index - 1);
+        return prev == '\r' || prev == '\n';
+    }
+
+    /**
+     * Find where the next statement begins if the semicolon at the given offset is a separator.
+     * Blank lines and a trailing line comment belong to the separator.
+     *
+     * @return offset of the next statement, or -1 if the semicolon does not end a statement
+     */
+    private static int separatorEnd(String sql, int semicolon) {
+        int length = sql.length();
+        int i = semicolon + 1;
+        int lastLineBreak = -1;
+        while (i < length && Character.isWhitespace(sql.charAt(i))) {
+            if (sql.charAt(i) == '\n') {
+                lastLineBreak = i;
+            }
+            i++;
+        }
+        if (isLineComment(sql, i)) {
+            return skipLineComment(sql, i);
+        }
+        if (lastLineBreak >= 0) {
+            return lastLineBreak + 1;
+        }
+        return -1;
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '\'' || c == '"' || c == '`';
+    }
+
+    private static boolean isLineComment(String sql, int i) {
+        return i + 1 < sql.length() && sql.charAt(i) == '-' && sql.charAt(i + 1) == '-';
+    }
+
+    private static boolean isBlockComment(String sql, int i) {
+        return i + 1 < sql.length() && sql.charAt(i) == '/' && sql.charAt(i + 1) == '*';
+    }
+
+    /** @return offset after the closing quote; doubled quotes are part of the quoted text */
+    private static int skipQuoted(String sql, int i) {
+        char quote = sql.charAt(i);
+        int end = sql.indexOf(quote, i + 1);
+        return end < 0 ? sql.length() : end + 1;
+    }
+
+    /** @return offset of the line break ending the comment, or the script length */
+    private static int skipLineComment(String sql, int i) {
+        int end = sql.indexOf('\n', i + 2);
+        if (end < 0) {
+            return sql.length();
+        }
+        return end > 0 && sql.charAt(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    /** @return offset after the closing comment marker, or the script length */
+    private static int skipBlockComment(String sql, int i) {
+        int end = sql.indexOf("*/", i + 2);
+        return end < 0 ? sql.length() : end + 2;
+    }
+}
@@ -21,8 +21,12 @@ package org.dinky.utils;
 
 import org.dinky.assertion.Asserts;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
 
 /**
  * SqlUtil
@@ -31,61 +35,84 @@ import java.util.regex.Pattern;
  */
 public class SqlUtil {
 
-    private static final String SEMICOLON = ";";
-    private static final String SQL_SEPARATOR = ";\\s*(?:\\n|--.*)";
+    /**
+     * Split results keyed by script, the same script is usually split several times by explain,
+     * submit and print table in a row.
+     */
+    private static final Cache<String, List<SqlLexer.Statement>> STATEMENT_CACHE = CacheUtil.newLRUCache(128);
 
     private SqlUtil() {}
 
+    /**
+     * Split the script into statements, see {@link SqlLexer} for where a statement ends.
+     *
+     * @param sql sql script
+     * @return statements in script order
+     */
     public static String[] getStatements(String sql) {
-        return getStatements(sql, SQL_SEPARATOR);
-    }
-
-    public static String[] getStatements(String sql, String sqlSeparator) {
         if (Asserts.isNullString(sql)) {
             return new String[0];
         }
+        return splitStatements(sql).stream().map(SqlLexer.Statement::getSql).toArray(String[]::new);
+    }
 
-        final String localSqlSeparator = ";\\s*(?:\\n|--.*)";
-        String[] splits = sql.replace("\r\n", "\n").split(localSqlSeparator);
-        String lastStatement = splits[splits.length - 1].trim();
-        if (lastStatement.endsWith(SEMICOLON)) {
-            splits[splits.length - 1] = lastStatement.substring(0, lastStatement.length() - 1);
+    /**
+     * Split the script into statements with their offsets, the result is cached and shared by all
+     * callers, so it must not be modified.
+     *
+     * @param sql sql script
+     * @return statements in script order
+     */
+    public static List<SqlLexer.Statement> splitStatements(String sql) {
+        if (Asserts.isNullString(sql)) {
+            return Collections.emptyList();
         }
-
-        return splits;
+        return STATEMENT_CACHE.get(sql, () -> Collections.unmodifiableList(SqlLexer.split(sql)));
     }
 
     public static String removeNote(String sql) {
-
         if (Asserts.isNotNullString(sql)) {
-            // Remove the special-space characters
-            sql = sql.replaceAll("\u00A0", " ").replaceAll("[\r\n]+", "\n");
-            // Remove annotations Support '--aa' , '/**aaa*/' , '//aa' , '#aaa'
-            Pattern p = Pattern.compile("(?ms)('(?:[^'])*')|--.*?$|/\\*[^+].*?\\*/|");
-            String presult = p.matcher(sql).replaceAll("$1");
-            return presult.trim();
+            // Remove the special-space characters and annotations, support '--aa' and '/**aaa*/'
+            return SqlLexer.removeComments(sql);
         }
         return sql;
     }
 
     public static String replaceAllParam(String sql, String name, String value) {
-        return sql.replaceAll("#\\{" + name + "\\}", value);
+        return sql.replace("#{" + name + "}", value);
     }
 
     /**
-     * replace sql context with values params, map's key is origin variable express by `${key}`,
-     * value is replacement. for example, if key="name", value="replacement", and sql is "${name}",
-     * the result will be "replacement".
+     * replace sql context with values params, map's key is origin variable express by `#{key}`,
+     * value is replacement. for example, if key="name", value="replacement", and sql is "#{name}",
+     * the result will be "replacement". The sql is scanned once, params not in values are kept.
      *
      * @param sql sql context
      * @param values replacement
      * @return replace variable result
      */
     public static String replaceAllParam(String sql, Map<String, String> values) {
-        for (Map.Entry<String, String> entry : values.entrySet()) {
-            sql = replaceAllParam(sql, entry.getKey(), entry.getValue());
+        int start = sql.indexOf("#{");
+        if (start < 0 || values.isEmpty()) {
+            return sql;
         }
-        return sql;
+        StringBuilder sb = new StringBuilder(sql.length());
+        int from = 0;
+        while (start >= 0) {
+            int end = sql.indexOf('}', start + 2);
+            if (end < 0) {
+                break;
+            }
+            String value = values.get(sql.substring(start + 2, end));
+            if (value == null) {
+                start = sql.indexOf("#{", start + 2);
+                continue;
+            }
+            sb.append(sql, from, start).append(value);
+            from = end + 1;
+            start = sql.indexOf("#{", from);
+        }
+        return sb.append(sql, from, sql.length()).toString();
     }
 
     public static String addLineNumber(String input) {
@@ -0,0 +1,61 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** SqlLexerTest */
+class SqlLexerTest {
+
+    @Test
+    void splitKeepsSeparatorsInQuotesAndComments() {
+        String sql = "set 'a' = 'x;\n';\n"
+                + "-- comment;\n"
+                + "select `c;\n` from t /* b;\n */ where d = \"e;\n\"; -- tail\n"
+                + "insert into t select 1;";
+        List<SqlLexer.Statement> statements = SqlLexer.split(sql);
+        assertThat(statements).hasSize(3);
+        assertThat(statements.get(0).getSql()).isEqualTo("set 'a' = 'x;\n'");
+        assertThat(statements.get(1).getSql()).startsWith("\nselect").endsWith("\"e;\n\"");
+        assertThat(statements.get(2).getSql()).isEqualTo("insert into t select 1");
+        SqlLexer.Statement second = statements.get(1);
+        assertThat(sql.substring(second.getStart(), second.getEnd())).isEqualTo(second.getSql());
+    }
+
+    @Test
+    void splitOnlyAtEndOfLine() {
+        assertThat(SqlLexer.split("select 1; select 2")).hasSize(1);
+        assertThat(SqlLexer.split("select 1;\r\nselect 2;\n\n"))
+                .extracting(SqlLexer.Statement::getSql)
+                .containsExactly("select 1", "select 2");
+    }
+
+    @Test
+    void removeComments() {
+        String sql = "/**\ntest1\n*/\n-- test3\nselect /*+ OPTIONS('a'='b') */ 1 --test5\n"
+                + " from test where '1' <> '-- ::.' and c = '/* x */'; /**test8*/";
+        assertThat(SqlLexer.removeComments(sql))
+                .isEqualTo("select /*+ OPTIONS('a'='b') */ 1 \n from test where '1' <> '-- ::.' and c = '/* x */';");
+    }
+}
@@ -43,6 +43,8 @@ import com.google.common.collect.Lists;
 
 import cn.hutool.core.net.URLEncodeUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
 import cn.hutool.http.HttpUtil;
 import cn.hutool.http.Method;
 
@@ -172,6 +174,25 @@ public class FlinkAPI {
         }
     }
 
+    /**
+     * Open a get request without reading the body, used to forward large log files as a stream.
+     * The caller owns the response and must close it.
+     *
+     * @param route route
+     * @return the response with its body stream unread
+     */
+    private HttpResponse openStream(String route) {
+        HttpResponse response = HttpRequest.get(NetConstant.HTTP + address + NetConstant.SLASH + route)
+                .timeout(NetConstant.SERVER_TIME_OUT_ACTIVE)
+                .executeAsync();
+        if (!response.isOk()) {
+            int status = response.getStatus();
+            response.close();
+            throw new BusException(StrUtil.format("Flink rest api {} returned http status {}", route, status));
+        }
+        return response;
+    }
+
     private JsonNode post(String route, String body) {
         try {
             String url = NetConstant.HTTP + address + NetConstant.SLASH + route;
@@ -383,6 +404,39 @@ public class FlinkAPI {
         return getResult(FlinkRestAPIConstant.JOB_MANAGER + FlinkRestAPIConstant.LOGS + logName);
     }
 
+    /**
+     * Open the JobManager log file as a stream.
+     *
+     * @param logName log file name, the main log if empty
+     * @return the response with its body stream unread, must be closed by the caller
+     */
+    public HttpResponse openJobManagerLog(String logName) {
+        return openStream(
+                StrUtil.isBlank(logName)
+                        ? FlinkRestAPIConstant.JOB_MANAGER + FlinkRestAPIConstant.LOG
+                        : FlinkRestAPIConstant.JOB_MANAGER
+                                + FlinkRestAPIConstant.LOGS
+                                + URLEncodeUtil.encodePathSegment(logName));
+    }
+
+    /**
+     * Open the JobManager stdout as a stream.
+     *
+     * @return the response with its body stream unread, must be closed by the caller
+     */
+    public HttpResponse openJobManagerStdOut() {
+        return openStream(FlinkRestAPIConstant.JOB_MANAGER + FlinkRestAPIConstant.STDOUT);
+    }
+
+    /**
+     * Open the JobManager thread dump as a stream.
+     *
+     * @return the response with its body stream unread, must be closed by the caller
+     */
+    public HttpResponse openJobManagerThreadDump() {
+        return openStream(FlinkRestAPIConstant.JOB_MANAGER + FlinkRestAPIConstant.THREAD_DUMP);
+    }
+
     /** @return JsonNode */
     public JsonNode getTaskManagers() {
         return get(FlinkRestAPIConstant.TASK_MANAGER);
@@ -461,6 +515,33 @@ public class FlinkAPI {
         return get(FlinkRestAPIConstant.TASK_MANAGER + containerId + FlinkRestAPIConstant.THREAD_DUMP);
     }
 
+    /**
+     * Open a TaskManager log file as a stream.
+     *
+     * @param containerId 容器id
+     * @param logName     log file name, the main log if empty
+     * @return the response with its body stream unread, must be closed by the caller
+     */
+    public HttpResponse openTaskManagerLog(String containerId, String logName) {
+        return openStream(
+                StrUtil.isBlank(logName)
+                        ? FlinkRestAPIConstant.TASK_MANAGER + containerId + FlinkRestAPIConstant.LOG
+                        : FlinkRestAPIConstant.TASK_MANAGER
+                                + containerId
+                                + FlinkRestAPIConstant.LOGS
+                                + URLEncodeUtil.encodePathSegment(logName));
+    }
+
+    /**
+     * Open a TaskManager thread dump as a stream.
+     *
+     * @param containerId 容器id
+     * @return the response with its body stream unread, must be closed by the caller
+     */
+    public HttpResponse openTaskManagerThreadDump(String containerId) {
+        return openStream(FlinkRestAPIConstant.TASK_MANAGER + containerId + FlinkRestAPIConstant.THREAD_DUMP);
+    }
+
     public JsonNode getJobMetricsItems(String jobId, String verticeId) {
         return get(FlinkRestAPIConstant.JOBS
                 + jobId
@@ -36,24 +36,15 @@ public class FlinkCluster {
 
     private static Logger logger = LoggerFactory.getLogger(FlinkCluster.class);
 
+    /**
+     * Probe the given JobManager and all hosts concurrently, see {@link FlinkClusterHealthRegistry}
+     * for the cached variant.
+     */
     public static FlinkClusterInfo testFlinkJobManagerIP(String hosts, String host) {
-        if (Asserts.isNotNullString(host)) {
-            FlinkClusterInfo info = executeSocketTest(host);
-            if (info.isEffective()) {
-                return info;
-            }
-        }
-        String[] servers = hosts.split(",");
-        for (String server : servers) {
-            FlinkClusterInfo info = executeSocketTest(server);
-            if (info.isEffective()) {
-                return info;
-            }
-        }
-        return FlinkClusterInfo.INEFFECTIVE;
+        return FlinkClusterHealthRegistry.refresh(hosts, host);
     }
 
-    private static FlinkClusterInfo executeSocketTest(String host) {
+    static FlinkClusterInfo executeSocketTest(String host) {
         try {
             String res = FlinkAPI.build(host).getVersion();
             if (Asserts.isNotNullString(res)) {
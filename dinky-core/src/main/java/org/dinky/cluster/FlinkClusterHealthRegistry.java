@@ -0,0 +1,233 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cluster;
+
+import org.dinky.assertion.Asserts;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the last probe result of every flink cluster that is in use, keyed by its hosts list.
+ *
+ * <p>All candidate hosts of a cluster are probed concurrently on a shared pool. The recorded JobManager wins
+ * if it is healthy, otherwise the first healthy host, so a host that is down in the HA list does not delay
+ * the others. Clusters read within {@link #IDLE_TIMEOUT} are refreshed in the background, readers get the
+ * cached result as long as it is younger than {@link #TTL} and only probe inline otherwise.
+ */
+@Slf4j
+public class FlinkClusterHealthRegistry {
+
+    private static final long TTL = TimeUnit.SECONDS.toMillis(30);
+    private static final long REFRESH_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+    private static final int PROBE_THREADS = 16;
+
+    private static final Map<String, ClusterHealth> CLUSTERS = new ConcurrentHashMap<>();
+
+    private static final ExecutorService PROBE_EXECUTOR;
+
+    static {
+        ThreadPoolExecutor probeExecutor = new ThreadPoolExecutor(
+                PROBE_THREADS,
+                PROBE_THREADS,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("flink-cluster-probe-%d")
+                        .setDaemon(true)
+                        .build());
+        probeExecutor.allowCoreThreadTimeOut(true);
+        PROBE_EXECUTOR = probeExecutor;
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("flink-cluster-health-%d")
+                .setDaemon(true)
+                .build());
+        scheduler.scheduleWithFixedDelay(
+                FlinkClusterHealthRegistry::refreshAll, REFRESH_INTERVAL, REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private FlinkClusterHealthRegistry() {}
+
+    private static class ClusterHealth {
+        private final String hosts;
+        private volatile String jobManagerHost;
+        private volatile FlinkClusterInfo info = FlinkClusterInfo.INEFFECTIVE;
+        private volatile long checkedAt;
+        private volatile long accessedAt;
+        private CompletableFuture<FlinkClusterInfo> probing;
+
+        private ClusterHealth(String hosts) {
+            this.hosts = hosts;
+        }
+
+        private boolean isFresh(long now) {
+            return checkedAt > 0 && now - checkedAt < TTL;
+        }
+    }
+
+    /**
+     * Get the cluster info, probing inline only if there is no fresh result.
+     *
+     * @param hosts the hosts list of the cluster, separated by comma
+     * @param host the last known JobManager address, probed along with the hosts
+     * @return the cluster info, {@link FlinkClusterInfo#INEFFECTIVE} if no host is healthy
+     */
+    public static FlinkClusterInfo getClusterInfo(String hosts, String host) {
+        ClusterHealth health = access(hosts, host);
+        if (health.isFresh(System.currentTimeMillis())) {
+            return health.info;
+        }
+        return probe(health).join();
+    }
+
+    /** Probe the cluster now, ignoring the cached result. */
+    public static FlinkClusterInfo refresh(String hosts, String host) {
+        return refreshAsync(hosts, host).join();
+    }
+
+    /** Probe the cluster on the shared pool, ignoring the cached result. */
+    public static CompletableFuture<FlinkClusterInfo> refreshAsync(String hosts, String host) {
+        return probe(access(hosts, host));
+    }
+
+    /** Forget the cluster, e.g. after it has been deleted or killed. */
+    public static void remove(String hosts) {
+        if (hosts != null) {
+            CLUSTERS.remove(hosts);
+        }
+    }
+
+    private static ClusterHealth access(String hosts, String host) {
+        ClusterHealth health = CLUSTERS.computeIfAbsent(hosts == null ? "" : hosts, ClusterHealth::new);
+        if (Asserts.isNotNullString(host)) {
+            health.jobManagerHost = host;
+        }
+        health.accessedAt = System.currentTimeMillis();
+        return health;
+    }
+
+    private static void refreshAll() {
+        long now = System.currentTimeMillis();
+        CLUSTERS.values().removeIf(health -> now - health.accessedAt > IDLE_TIMEOUT);
+        CLUSTERS.values().forEach(FlinkClusterHealthRegistry::probe);
+    }
+
+    /** Start a probe of the cluster, or join the one in flight. */
+    private static CompletableFuture<FlinkClusterInfo> probe(ClusterHealth health) {
+        synchronized (health) {
+            if (health.probing != null) {
+                return health.probing;
+            }
+            CompletableFuture<FlinkClusterInfo> probing =
+                    probeHosts(getCandidates(health), Asserts.isNotNullString(health.jobManagerHost));
+            health.probing = probing;
+            probing.whenComplete((info, e) -> {
+                synchronized (health) {
+                    health.info = info == null ? FlinkClusterInfo.INEFFECTIVE : info;
+                    if (health.info.isEffective()) {
+                        health.jobManagerHost = health.info.getJobManagerAddress();
+                    }
+                    health.checkedAt = System.currentTimeMillis();
+                    health.probing = null;
+                }
+            });
+            return probing;
+        }
+    }
+
+    private static List<String> getCandidates(ClusterHealth health) {
+        Set<String> candidates = new LinkedHashSet<>();
+        if (Asserts.isNotNullString(health.jobManagerHost)) {
+            candidates.add(health.jobManagerHost);
+        }
+        for (String server : health.hosts.split(",")) {
+            if (Asserts.isNotNullString(server)) {
+                candidates.add(server);
+            }
+        }
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * Probe all hosts at once. Completes with the first host, the recorded JobManager, if it is healthy, so an HA
+     * cluster is not routed to a standby that answers faster, otherwise with the first healthy one of the others.
+     */
+    private static CompletableFuture<FlinkClusterInfo> probeHosts(List<String> hosts, boolean preferFirst) {
+        CompletableFuture<FlinkClusterInfo> result = new CompletableFuture<>();
+        ProbeState state = new ProbeState(preferFirst);
+        CompletableFuture<?>[] probes = new CompletableFuture<?>[hosts.size()];
+        for (int i = 0; i < hosts.size(); i++) {
+            String host = hosts.get(i);
+            boolean preferred = preferFirst && i == 0;
+            probes[i] = CompletableFuture.supplyAsync(() -> FlinkCluster.executeSocketTest(host), PROBE_EXECUTOR)
+                    .thenAccept(info -> {
+                        FlinkClusterInfo chosen = state.accept(info, preferred);
+                        if (chosen != null) {
+                            result.complete(chosen);
+                        }
+                    });
+        }
+        CompletableFuture.allOf(probes).whenComplete((v, e) -> result.complete(state.fallback()));
+        return result;
+    }
+
+    private static class ProbeState {
+        private boolean preferredPending;
+        private FlinkClusterInfo firstHealthy;
+
+        private ProbeState(boolean preferFirst) {
+            this.preferredPending = preferFirst;
+        }
+
+        /** Record a probe result, returns the info to complete with once it is decided. */
+        private synchronized FlinkClusterInfo accept(FlinkClusterInfo info, boolean preferred) {
+            if (preferred) {
+                preferredPending = false;
+                return info.isEffective() ? info : firstHealthy;
+            }
+            if (info.isEffective() && firstHealthy == null) {
+                firstHealthy = info;
+            }
+            return preferredPending ? null : firstHealthy;
+        }
+
+        private synchronized FlinkClusterInfo fallback() {
+            return firstHealthy == null ? FlinkClusterInfo.INEFFECTIVE : firstHealthy;
+        }
+    }
+}
@@ -26,9 +26,13 @@ import static org.apache.flink.util.Preconditions.checkNotNull;
 import org.dinky.assertion.Asserts;
 import org.dinky.constant.FlinkSQLConstant;
 import org.dinky.context.EngineContextHolder;
-import org.dinky.data.constant.CommonConstant;
 import org.dinky.data.exception.BusException;
 
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlException;
+import org.apache.commons.jexl3.JexlExpression;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.MapContext;
 import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.api.Table;
 import org.apache.flink.table.api.TableResult;
@@ -41,8 +45,10 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.function.Function;
 
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.expression.engine.jexl.JexlEngine;
@@ -61,6 +67,9 @@ public final class VariableManager {
 
     public static final JexlEngine ENGINE = new JexlEngine();
 
+    /** Compiled jexl expressions, keyed by expression text. */
+    private static final Cache<String, Function<JexlContext, Object>> EXPRESSION_CACHE = CacheUtil.newLRUCache(256);
+
     public VariableManager() {
         variables = new HashMap<>();
     }
@@ -140,7 +149,7 @@ public final class VariableManager {
             }
             // load expression variable class
             if (parseAndMatchExpressionVariable(variableName)) {
-                return ENGINE.eval(variableName, EngineContextHolder.getEngineContext(), null);
+                return evalExpression(variableName);
             }
             return null;
         } catch (Exception e) {
@@ -155,6 +164,25 @@ public final class VariableManager {
         }
     }
 
+    /**
+     * Evaluate the jexl expression against the engine context, the expression is compiled once and
+     * reused. Like {@link JexlEngine#eval}, text that is not a single expression is run as a script.
+     */
+    private static Object evalExpression(String expression) {
+        Function<JexlContext, Object> compiled = EXPRESSION_CACHE.get(expression, () -> compileExpression(expression));
+        return compiled.apply(new MapContext(EngineContextHolder.getEngineContext()));
+    }
+
+    private static Function<JexlContext, Object> compileExpression(String expression) {
+        try {
+            JexlExpression jexlExpression = ENGINE.getEngine().createExpression(expression);
+            return jexlExpression::evaluate;
+        } catch (JexlException e) {
+            JexlScript jexlScript = ENGINE.getEngine().createScript(expression);
+            return jexlScript::execute;
+        }
+    }
+
     public boolean parseAndMatchExpressionVariable(String variableName) {
         checkArgument(
                 !StringUtils.isNullOrWhitespaceOnly(variableName),
@@ -244,15 +272,6 @@ public final class VariableManager {
      * @param statement A sql will be replaced.
      */
     public String replaceVariable(String statement) {
-        Matcher m = CommonConstant.GLOBAL_VARIABLE_PATTERN.matcher(statement);
-        StringBuffer sb = new StringBuffer();
-        while (m.find()) {
-            String key = m.group(1);
-            Object value = getVariable(key);
-            m.appendReplacement(sb, "");
-            sb.append(value == null ? "" : value);
-        }
-        m.appendTail(sb);
-        return sb.toString();
+        return VariableTemplate.compile(statement).render(this::getVariable);
     }
 }
@@ -0,0 +1,120 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+
+/**
+ * A statement parsed into literal and ${...} placeholder segments.
+ *
+ * <p>Placeholders follow {@link org.dinky.data.constant.CommonConstant#GLOBAL_VARIABLE_PATTERN}: the
+ * key is everything up to the first closing brace on the same line. Templates are immutable and
+ * cached by statement, so rendering the same statement again only resolves the placeholders.
+ */
+public final class VariableTemplate {
+
+    private static final Cache<String, VariableTemplate> TEMPLATE_CACHE = CacheUtil.newLRUCache(512);
+
+    private final String statement;
+    /** literals.length == keys.length + 1, a placeholder sits between two literals. */
+    private final String[] literals;
+
+    private final String[] keys;
+
+    private VariableTemplate(String statement, String[] literals, String[] keys) {
+        this.statement = statement;
+        this.literals = literals;
+        this.keys = keys;
+    }
+
+    public static VariableTemplate compile(String statement) {
+        return TEMPLATE_CACHE.get(statement, () -> parse(statement));
+    }
+
+    static VariableTemplate parse(String statement) {
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int literalStart = 0;
+        int from = 0;
+        int start;
+        while ((start = statement.indexOf("${", from)) >= 0) {
+            int end = findKeyEnd(statement, start + 2);
+            if (end < 0) {
+                from = start + 1;
+                continue;
+            }
+            literals.add(statement.substring(literalStart, start));
+            keys.add(statement.substring(start + 2, end));
+            literalStart = end + 1;
+            from = literalStart;
+        }
+        literals.add(statement.substring(literalStart));
+        return new VariableTemplate(statement, literals.toArray(new String[0]), keys.toArray(new String[0]));
+    }
+
+    /** @return offset of the closing brace, the key has at least one char and does not span lines */
+    private static int findKeyEnd(String statement, int keyStart) {
+        for (int i = keyStart; i < statement.length(); i++) {
+            char c = statement.charAt(i);
+            if (isLineTerminator(c)) {
+                return -1;
+            }
+            if (c == '}' && i > keyStart) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    public boolean hasPlaceholder() {
+        return keys.length > 0;
+    }
+
+    /**
+     * Render the template, a null value renders as an empty string.
+     *
+     * @param resolver resolves a placeholder key to its value
+     * @return the rendered statement
+     */
+    public String render(Function<String, Object> resolver) {
+        if (keys.length == 0) {
+            return statement;
+        }
+        StringBuilder sb = new StringBuilder(statement.length() + keys.length * 16);
+        for (int i = 0; i < keys.length; i++) {
+            sb.append(literals[i]);
+            Object value = resolver.apply(keys[i]);
+            if (value != null) {
+                sb.append(value);
+            }
+        }
+        sb.append(literals[keys.length]);
+        return sb.toString();
+    }
+}
@@ -233,7 +233,7 @@ public class Explainer {
                     continue;
                 }
                 resultBuilder = SqlExplainResult.newBuilder(recordResult);
-                executor.executeSql(item.getValue());
+                PlanCache.executeDdl(executor, item.getValue());
             } catch (Exception e) {
                 String error = StrFormatter.format(
                         "Exception in executing FlinkSQL:\n{}\n{}",
@@ -327,7 +327,7 @@ public class Explainer {
                             .explain(executor.getCustomTableEnvironment(), allFileByAdd);
                     sqlExplainResult.setExplain(FlinkStreamEnvironmentUtil.getStreamingPlanAsJSON(pipeline));
                 } else {
-                    executor.executeSql(item.getValue());
+                    PlanCache.executeDdl(executor, item.getValue());
                 }
                 resultBuilder = SqlExplainResult.newBuilder(sqlExplainResult);
                 resultBuilder.type("DATASTREAM").parseTrue(true);
@@ -360,7 +360,7 @@ public class Explainer {
 
     public ObjectNode getStreamGraph(String statement) {
         JobParam jobParam = pretreatStatements(SqlUtil.getStatements(statement));
-        jobParam.getDdl().forEach(statementParam -> executor.executeSql(statementParam.getValue()));
+        jobParam.getDdl().forEach(statementParam -> PlanCache.executeDdl(executor, statementParam.getValue()));
 
         if (!jobParam.getTrans().isEmpty()) {
             return executor.getStreamGraph(jobParam.getTransStatement());
@@ -376,7 +376,7 @@ public class Explainer {
 
     public JobPlanInfo getJobPlanInfo(String statement) {
         JobParam jobParam = pretreatStatements(SqlUtil.getStatements(statement));
-        jobParam.getDdl().forEach(statementParam -> executor.executeSql(statementParam.getValue()));
+        jobParam.getDdl().forEach(statementParam -> PlanCache.executeDdl(executor, statementParam.getValue()));
 
         if (!jobParam.getTrans().isEmpty()) {
             return executor.getJobPlanInfo(jobParam.getTransStatement());
@@ -414,7 +414,7 @@ public class Explainer {
                 if (operationType.equals(SqlType.INSERT)) {
                     lineageRelList.addAll(executor.getLineage(sql));
                 } else if (!operationType.equals(SqlType.SELECT) && !operationType.equals(SqlType.PRINT)) {
-                    executor.executeSql(sql);
+                    PlanCache.executeDdl(executor, sql);
                 }
             } catch (Exception e) {
                 log.error(e.getMessage());
@@ -0,0 +1,337 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.explainer;
+
+import org.dinky.context.RowLevelPermissionsContext;
+import org.dinky.executor.CustomTableEnvironment;
+import org.dinky.executor.Executor;
+import org.dinky.executor.ExecutorConfig;
+import org.dinky.function.data.model.UDF;
+import org.dinky.function.pool.UdfCodePool;
+import org.dinky.job.JobConfig;
+import org.dinky.job.JobManager;
+import org.dinky.parser.SqlType;
+import org.dinky.trans.Operations;
+import org.dinky.utils.SqlLexer;
+import org.dinky.utils.SqlUtil;
+
+import org.apache.flink.runtime.util.EnvironmentInformation;
+import org.apache.flink.table.api.TableResult;
+import org.apache.flink.table.catalog.GenericInMemoryCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches explain results, job plans and stream graphs of statements that were planned before.
+ *
+ * <p>A plan is keyed by a hash of the normalized statements, the job config they are planned with, the row
+ * permissions of the user, the Flink version and the code of the Dinky UDFs the statements name. The versions of
+ * the persistent catalogs the planning environment knew are recorded with the plan, DDL executed against one of them
+ * bumps its version and so invalidates every plan of the same environment that may have read it. The DDL a plan runs
+ * itself does not count against it. Changes made to a catalog outside Dinky or from another environment are only
+ * picked up once the plan expires.
+ */
+@Slf4j
+public final class PlanCache {
+
+    public enum Kind {
+        EXPLAIN,
+        JOB_PLAN,
+        STREAM_GRAPH
+    }
+
+    private static final int CAPACITY = 256;
+    private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    /** Statements whose plan depends on more than their text: jars, files and pipelines built at runtime. */
+    private static final Set<SqlType> UNCACHEABLE_TYPES =
+            EnumSet.of(SqlType.ADD, SqlType.ADD_JAR, SqlType.ADD_FILE, SqlType.EXECUTE);
+
+    private static final Pattern CATALOG_DDL = Pattern.compile(
+            "^(?:CREATE|DROP|ALTER)\\s+(?:OR\\s+REPLACE\\s+)?(TEMPORARY\\s+)?(?:SYSTEM\\s+)?"
+                    + "(CATALOG|DATABASE|TABLE|VIEW|FUNCTION)\\s+(?:IF\\s+(?:NOT\\s+)?EXISTS\\s+)?"
+                    + "((?:`[^`]*`|[^\\s.`(]+)(?:\\s*\\.\\s*(?:`[^`]*`|[^\\s.`(]+))*)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern IDENTIFIER_PART = Pattern.compile("`([^`]*)`|([^\\s.`(]+)");
+
+    private static final Cache<String, CachedPlan> PLANS = CacheUtil.newLRUCache(CAPACITY, TIMEOUT);
+    /** Catalog versions by environment and catalog name, the same name may point elsewhere in another environment. */
+    private static final Map<String, AtomicLong> CATALOG_VERSIONS = new ConcurrentHashMap<>();
+    /** Catalog versions bumped by the DDL of the statement the current thread is planning. */
+    private static final ThreadLocal<Map<String, Long>> OWN_CHANGES = new ThreadLocal<>();
+
+    private PlanCache() {}
+
+    @AllArgsConstructor
+    private static class CachedPlan {
+        private final Object plan;
+        /** Version of each persistent catalog of the planning environment once planning finished. */
+        private final Map<String, Long> catalogVersions;
+
+        private boolean isValid() {
+            return catalogVersions.entrySet().stream()
+                    .allMatch(e -> getCatalogVersion(e.getKey()) == e.getValue());
+        }
+    }
+
+    /**
+     * Get the plan of the statement from the cache, or plan it and cache the result.
+     *
+     * @param kind what is planned
+     * @param jobManager the job manager the statement is planned with
+     * @param statement the statement
+     * @param planner plans the statement on a cache miss
+     * @param cacheable whether a plan may be cached, failed plans are not
+     * @return the plan, shared with later hits, callers must not modify it
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(
+            Kind kind, JobManager jobManager, String statement, Supplier<T> planner, Predicate<T> cacheable) {
+        List<String> statements = normalize(statement);
+        if (statements.stream().anyMatch(s -> UNCACHEABLE_TYPES.contains(Operations.getOperationType(s)))) {
+            return planner.get();
+        }
+        String key = buildKey(kind, jobManager.getConfig(), statements);
+        CachedPlan cached = PLANS.get(key);
+        if (cached != null && cached.isValid()) {
+            log.debug("Use the cached {} of the statement", kind);
+            return (T) cached.plan;
+        }
+        // DDL of other statements during planning still invalidates the plan, only its own DDL is left out
+        Map<String, Long> versionsBefore = new HashMap<>();
+        CATALOG_VERSIONS.forEach((name, version) -> versionsBefore.put(name, version.get()));
+        Map<String, Long> ownChanges = new HashMap<>();
+        Map<String, Long> outerChanges = OWN_CHANGES.get();
+        OWN_CHANGES.set(ownChanges);
+        T plan;
+        try {
+            plan = planner.get();
+        } finally {
+            OWN_CHANGES.set(outerChanges);
+            if (outerChanges != null) {
+                ownChanges.forEach((name, count) -> outerChanges.merge(name, count, Long::sum));
+            }
+        }
+        if (plan != null && cacheable.test(plan)) {
+            String scope = getScope(jobManager.getExecutor());
+            Map<String, Long> catalogVersions = new HashMap<>();
+            for (String catalog : getPersistentCatalogs(jobManager.getExecutor())) {
+                String name = versionKey(scope, catalog);
+                catalogVersions.put(name, versionsBefore.getOrDefault(name, 0L) + ownChanges.getOrDefault(name, 0L));
+            }
+            PLANS.put(key, new CachedPlan(plan, catalogVersions));
+        }
+        return plan;
+    }
+
+    /**
+     * Get the persistent catalogs a DDL statement changes. Call it before the statement is executed, a dropped
+     * catalog is no longer known afterwards.
+     *
+     * @param executor the executor the statement is executed with
+     * @param statement the statement
+     * @return catalog names, empty if the statement is not catalog DDL or only changes the session
+     */
+    public static List<String> getChangedCatalogs(Executor executor, String statement) {
+        Matcher matcher = CATALOG_DDL.matcher(SqlUtil.removeNote(statement));
+        // a catalog itself is only registered with the session, its content is what persists
+        if (!matcher.find() || matcher.group(1) != null || "CATALOG".equalsIgnoreCase(matcher.group(2))) {
+            return Collections.emptyList();
+        }
+        List<String> parts = new ArrayList<>();
+        Matcher part = IDENTIFIER_PART.matcher(matcher.group(3));
+        while (part.find()) {
+            parts.add(part.group(1) != null ? part.group(1) : part.group(2));
+        }
+        CustomTableEnvironment tableEnvironment = executor.getCustomTableEnvironment();
+        String catalog;
+        switch (matcher.group(2).toUpperCase()) {
+            case "DATABASE":
+                catalog = parts.size() == 2 ? parts.get(0) : tableEnvironment.getCurrentCatalog();
+                break;
+            default:
+                catalog = parts.size() == 3 ? parts.get(0) : tableEnvironment.getCurrentCatalog();
+        }
+        boolean inMemory = tableEnvironment
+                .getCatalog(catalog)
+                .map(GenericInMemoryCatalog.class::isInstance)
+                .orElse(false);
+        return inMemory ? Collections.emptyList() : Collections.singletonList(catalog);
+    }
+
+    /**
+     * Execute a DDL statement and invalidate the cached plans that depend on the catalogs it changes, even if it
+     * failed halfway.
+     *
+     * @param executor the executor the statement is executed with
+     * @param statement the statement
+     * @return the result of the statement
+     */
+    public static TableResult executeDdl(Executor executor, String statement) {
+        List<String> changedCatalogs = getChangedCatalogs(executor, statement);
+        try {
+            return executor.executeSql(statement);
+        } finally {
+            invalidateCatalogs(executor, changedCatalogs);
+        }
+    }
+
+    /**
+     * Invalidate the cached plans of the executor's environment that depend on the catalogs.
+     *
+     * @param executor the executor the catalogs were changed with
+     * @param catalogs catalogs changed by DDL
+     */
+    public static void invalidateCatalogs(Executor executor, Collection<String> catalogs) {
+        String scope = getScope(executor);
+        Map<String, Long> ownChanges = OWN_CHANGES.get();
+        for (String catalog : catalogs) {
+            String name = versionKey(scope, catalog);
+            CATALOG_VERSIONS.computeIfAbsent(name, c -> new AtomicLong()).incrementAndGet();
+            if (ownChanges != null) {
+                ownChanges.merge(name, 1L, Long::sum);
+            }
+            log.debug("Catalog {} of {} changed, invalidate the plans that depend on it", catalog, scope);
+        }
+    }
+
+    private static long getCatalogVersion(String name) {
+        AtomicLong version = CATALOG_VERSIONS.get(name);
+        return version == null ? 0L : version.get();
+    }
+
+    /** The environment an executor plans in: the local one or the remote cluster it submits to. */
+    private static String getScope(Executor executor) {
+        ExecutorConfig config = executor.getExecutorConfig();
+        if (config == null || !config.isRemote()) {
+            return "local";
+        }
+        return config.getType() + "@" + config.getHost() + ":" + config.getPort();
+    }
+
+    private static String versionKey(String scope, String catalog) {
+        return scope + '\n' + catalog;
+    }
+
+    private static List<String> getPersistentCatalogs(Executor executor) {
+        CustomTableEnvironment tableEnvironment = executor.getCustomTableEnvironment();
+        List<String> catalogs = new ArrayList<>();
+        for (String catalog : tableEnvironment.listCatalogs()) {
+            boolean inMemory = tableEnvironment
+                    .getCatalog(catalog)
+                    .map(GenericInMemoryCatalog.class::isInstance)
+                    .orElse(true);
+            if (!inMemory) {
+                catalogs.add(catalog);
+            }
+        }
+        return catalogs;
+    }
+
+    /** Comments and blank statements are dropped, so that editing them does not miss the cache. */
+    private static List<String> normalize(String statement) {
+        List<String> statements = new ArrayList<>();
+        for (SqlLexer.Statement item : SqlLexer.split(SqlUtil.removeNote(statement))) {
+            String sql = item.getSql().trim();
+            if (!sql.isEmpty()) {
+                statements.add(sql);
+            }
+        }
+        return statements;
+    }
+
+    private static String buildKey(Kind kind, JobConfig config, List<String> statements) {
+        StringBuilder sb = new StringBuilder()
+                .append(kind)
+                .append('\n')
+                .append(EnvironmentInformation.getVersion())
+                .append('\n')
+                .append(config.getType())
+                .append(',')
+                .append(config.getCheckpoint())
+                .append(',')
+                .append(config.getParallelism())
+                .append(',')
+                .append(config.isFragment())
+                .append(',')
+                .append(config.isStatementSet())
+                .append(',')
+                .append(config.isBatchModel())
+                .append(',')
+                .append(config.getJobName())
+                .append('\n')
+                .append(sorted(config.getConfigJson()))
+                .append(sorted(config.getVariables()))
+                .append(sorted(config.getUdfRefer()))
+                .append(sorted(RowLevelPermissionsContext.get()))
+                .append(config.getJarFiles() == null ? "" : Arrays.toString(config.getJarFiles()))
+                .append(config.getPyFiles() == null ? "" : Arrays.toString(config.getPyFiles()))
+                .append('\n');
+        for (String statement : statements) {
+            sb.append(statement).append("\n;\n");
+        }
+        appendUdfCode(sb, statements);
+        return DigestUtil.sha256Hex(sb.toString());
+    }
+
+    /** A UDF compiled from the code of a Dinky task is planned with its current code, which the statement omits. */
+    private static void appendUdfCode(StringBuilder sb, List<String> statements) {
+        Map<String, UDF> udfs = new TreeMap<>(UdfCodePool.getUdfCodePool());
+        for (UDF udf : udfs.values()) {
+            String className = udf.getClassName();
+            if (statements.stream().anyMatch(statement -> statement.contains(className))) {
+                sb.append(className)
+                        .append(',')
+                        .append(udf.getFunctionLanguage())
+                        .append(',')
+                        .append(DigestUtil.sha256Hex(String.valueOf(udf.getCode())))
+                        .append(',')
+                        .append(UdfCodePool.getGitPackage(className))
+                        .append('\n');
+            }
+        }
+    }
+
+    private static Map<String, String> sorted(Map<String, String> map) {
+        return map == null ? Collections.emptyMap() : new TreeMap<>(map);
+    }
+}
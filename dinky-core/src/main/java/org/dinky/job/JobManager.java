@@ -37,10 +37,12 @@ import org.dinky.data.result.IResult;
 import org.dinky.data.result.ResultBuilder;
 import org.dinky.data.result.ResultPool;
 import org.dinky.data.result.SelectResult;
+import org.dinky.data.result.SqlExplainResult;
 import org.dinky.executor.Executor;
 import org.dinky.executor.ExecutorConfig;
 import org.dinky.executor.ExecutorFactory;
 import org.dinky.explainer.Explainer;
+import org.dinky.explainer.PlanCache;
 import org.dinky.function.util.UDFUtil;
 import org.dinky.gateway.Gateway;
 import org.dinky.gateway.config.FlinkConfig;
@@ -345,7 +347,7 @@ public class JobManager {
                     getExecutor().getDinkyClassLoader().addURLs(allFilePath);
                 }
                 LocalDateTime startTime = LocalDateTime.now();
-                TableResult tableResult = executor.executeSql(newStatement);
+                TableResult tableResult = PlanCache.executeDdl(executor, newStatement);
                 result = ResultBuilder.build(
                                 operationType, null, config.getMaxRowNum(), false, false, executor.getTimeZone())
                         .getResult(tableResult);
@@ -368,22 +370,44 @@ public class JobManager {
     }
 
     public ExplainResult explainSql(String statement) {
-        return Explainer.build(executor, useStatementSet, this)
-                .initialize(config, statement)
-                .explainSql(statement);
+        ExplainResult explainResult = PlanCache.get(
+                PlanCache.Kind.EXPLAIN,
+                this,
+                statement,
+                () -> Explainer.build(executor, useStatementSet, this)
+                        .initialize(config, statement)
+                        .explainSql(statement),
+                ExplainResult::isCorrect);
+        // the cached result is shared, callers may modify their copy
+        List<SqlExplainResult> sqlExplainResults = explainResult.getSqlExplainResults().stream()
+                .map(result -> SqlExplainResult.newBuilder(result).build())
+                .collect(Collectors.toList());
+        return new ExplainResult(explainResult.isCorrect(), explainResult.getTotal(), sqlExplainResults);
     }
 
     public ObjectNode getStreamGraph(String statement) {
-        return Explainer.build(executor, useStatementSet, this)
-                .initialize(config, statement)
-                .getStreamGraph(statement);
+        ObjectNode streamGraph = PlanCache.get(
+                PlanCache.Kind.STREAM_GRAPH,
+                this,
+                statement,
+                () -> Explainer.build(executor, useStatementSet, this)
+                        .initialize(config, statement)
+                        .getStreamGraph(statement),
+                graph -> graph.size() > 0);
+        // the cached graph is shared, callers may modify their copy
+        return streamGraph == null ? null : streamGraph.deepCopy();
     }
 
     public String getJobPlanJson(String statement) {
-        return Explainer.build(executor, useStatementSet, this)
-                .initialize(config, statement)
-                .getJobPlanInfo(statement)
-                .getJsonPlan();
+        return PlanCache.get(
+                PlanCache.Kind.JOB_PLAN,
+                this,
+                statement,
+                () -> Explainer.build(executor, useStatementSet, this)
+                        .initialize(config, statement)
+                        .getJobPlanInfo(statement)
+                        .getJsonPlan(),
+                Asserts::isNotNullString);
     }
 
     public boolean cancelNormal(String jobId) {
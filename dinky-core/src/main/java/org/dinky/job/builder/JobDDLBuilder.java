@@ -19,6 +19,7 @@
 
 package org.dinky.job.builder;
 
+import org.dinky.explainer.PlanCache;
 import org.dinky.job.JobBuilder;
 import org.dinky.job.JobManager;
 import org.dinky.job.StatementParam;
@@ -44,7 +45,7 @@ public class JobDDLBuilder extends JobBuilder {
     public void run() throws Exception {
         for (StatementParam item : jobParam.getDdl()) {
             jobManager.setCurrentSql(item.getValue());
-            executor.executeSql(item.getValue());
+            PlanCache.executeDdl(executor, item.getValue());
         }
     }
 }
@@ -54,6 +54,13 @@ public class Operations {
 
     private static final Operation[] ALL_OPERATIONS = getAllOperations();
 
+    private static final int MAX_HANDLE_LENGTH = Arrays.stream(ALL_OPERATIONS)
+            .map(Operation::getHandle)
+            .filter(Objects::nonNull)
+            .mapToInt(String::length)
+            .max()
+            .orElse(0);
+
     private static final List<UDF> JAVA_STATIC_UDF_LIST = getCustomStaticUdfs();
     /**
      * get all {@link Operation} children ordinary class,
@@ -89,15 +96,11 @@ public class Operations {
     }
 
     public static SqlType getOperationType(String sql) {
-        String sqlTrim = sql.replaceAll(SQL_EMPTY_STR, " ").trim().toUpperCase();
-        return Arrays.stream(SqlType.values())
-                .filter(sqlType -> sqlType.match(sqlTrim))
-                .findFirst()
-                .orElse(SqlType.UNKNOWN);
+        return SqlType.of(sql);
     }
 
     public static Operation buildOperation(String statement) {
-        String sql = statement.replace("\n", " ").replaceAll("\\s+", " ").trim().toUpperCase();
+        String sql = normalizeHead(statement, MAX_HANDLE_LENGTH);
 
         return Arrays.stream(ALL_OPERATIONS)
                 .filter(p -> p.getHandle() != null && sql.startsWith(p.getHandle()))
@@ -106,6 +109,28 @@ public class Operations {
                 .orElse(null);
     }
 
+    /**
+     * Upper case the head of the statement with whitespace runs collapsed, only the head is compared
+     * with operation handles, so the rest of a long statement is not copied.
+     */
+    private static String normalizeHead(String statement, int maxLength) {
+        StringBuilder sb = new StringBuilder(Math.min(statement.length(), maxLength));
+        boolean whitespace = false;
+        for (int i = 0; i < statement.length() && sb.length() < maxLength; i++) {
+            char c = statement.charAt(i);
+            if (Character.isWhitespace(c)) {
+                whitespace = sb.length() > 0;
+            } else {
+                if (whitespace) {
+                    sb.append(' ');
+                    whitespace = false;
+                }
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
     public static List<UDF> getCustomStaticUdfs() {
         if (CollectionUtils.isNotEmpty(JAVA_STATIC_UDF_LIST)) {
             return JAVA_STATIC_UDF_LIST;
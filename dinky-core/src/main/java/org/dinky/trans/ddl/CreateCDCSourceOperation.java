@@ -24,6 +24,7 @@ import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.CDCBuilderFactory;
 import org.dinky.cdc.SinkBuilder;
 import org.dinky.cdc.SinkBuilderFactory;
+import org.dinky.data.model.Column;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
@@ -39,8 +40,11 @@ import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.table.api.TableResult;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -87,6 +91,9 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
 
             final List<Schema> schemaList = new LinkedList<>();
             final List<String> schemaTableNameList = new LinkedList<>();
+            // Source columns are read for a whole schema at once, sink tables are created in bulk at the end
+            final Map<String, Map<String, List<Column>>> sourceColumns = new HashMap<>();
+            final Map<Driver, SinkSchemaProvisioner> provisioners = new IdentityHashMap<>();
             // Scenario of dividing databases and tables
             if (SplitUtil.isEnabled(cdcSource.getSplit())) {
                 logger.info("Split table or database mode is enabled...");
@@ -117,14 +124,14 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
                     // Real Table Name
                     String realSchemaName = schemaTableName.split("\\.")[0];
                     String tableName = schemaTableName.split("\\.")[1];
-                    table.setColumns(driver.listColumnsSortByPK(realSchemaName, tableName));
+                    table.setColumns(listColumnsSortByPK(driver, sourceColumns, realSchemaName, tableName));
                     schemaList.add(schema);
 
                     if (null != sinkDriver) {
                         Table sinkTable = (Table) table.clone();
                         sinkTable.setSchema(sinkBuilder.getSinkSchemaName(table));
                         sinkTable.setName(sinkBuilder.getSinkTableName(table));
-                        checkAndCreateSinkTable(sinkDriver, sinkTable);
+                        addSinkTable(provisioners, config, sinkDriver, sinkTable);
                     }
                 }
             } else {
@@ -145,14 +152,16 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
                                 for (String tableReg : tableRegList) {
                                     if (table.getSchemaTableName().matches(tableReg.trim())
                                             && !schema.getTables().contains(Table.build(table.getName()))) {
-                                        table.setColumns(driver.listColumnsSortByPK(schemaName, table.getName()));
+                                        table.setColumns(listColumnsSortByPK(
+                                                driver, sourceColumns, schemaName, table.getName()));
                                         schema.getTables().add(table);
                                         schemaTableNameList.add(table.getSchemaTableName());
                                         break;
                                     }
                                 }
                             } else {
-                                table.setColumns(driver.listColumnsSortByPK(schemaName, table.getName()));
+                                table.setColumns(
+                                        listColumnsSortByPK(driver, sourceColumns, schemaName, table.getName()));
                                 schemaTableNameList.add(table.getSchemaTableName());
                                 schema.getTables().add(table);
                             }
@@ -164,13 +173,17 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
                             Table sinkTable = (Table) table.clone();
                             sinkTable.setSchema(sinkBuilder.getSinkSchemaName(table));
                             sinkTable.setName(sinkBuilder.getSinkTableName(table));
-                            checkAndCreateSinkTable(sinkDriver, sinkTable);
+                            addSinkTable(provisioners, config, sinkDriver, sinkTable);
                         }
                     }
                     schemaList.add(schema);
                 }
             }
 
+            for (SinkSchemaProvisioner provisioner : provisioners.values()) {
+                provisioner.provision();
+            }
+
             logger.info("A total of {} tables were detected...", schemaTableNameList.size());
             for (int i = 0; i < schemaTableNameList.size(); i++) {
                 logger.info("{}: {}", i + 1, schemaTableNameList.get(i));
@@ -220,9 +233,28 @@ public class CreateCDCSourceOperation extends AbstractOperation implements Opera
         return driver;
     }
 
-    void checkAndCreateSinkTable(Driver driver, Table table) throws Exception {
-        if (null != driver && !driver.existTable(table)) {
-            driver.generateCreateTable(table);
+    void addSinkTable(
+            Map<Driver, SinkSchemaProvisioner> provisioners, FlinkCDCConfig config, Driver driver, Table table) {
+        provisioners
+                .computeIfAbsent(driver, d -> {
+                    String parallelism = config.getSink().get(FlinkCDCConfig.AUTO_CREATE_PARALLELISM);
+                    return new SinkSchemaProvisioner(
+                            d,
+                            Asserts.isNotNullString(parallelism)
+                                    ? Integer.parseInt(parallelism.trim())
+                                    : SinkSchemaProvisioner.DEFAULT_PARALLELISM);
+                })
+                .addTable(table);
+    }
+
+    private static List<Column> listColumnsSortByPK(
+            Driver driver, Map<String, Map<String, List<Column>>> cache, String schemaName, String tableName) {
+        List<Column> columns = cache.computeIfAbsent(schemaName, driver::listSchemaColumns).get(tableName);
+        if (columns == null) {
+            return driver.listColumnsSortByPK(schemaName, tableName);
         }
+        List<Column> sorted = new ArrayList<>(columns);
+        sorted.sort(Comparator.comparing(Column::isKeyFlag).reversed());
+        return sorted;
     }
 }
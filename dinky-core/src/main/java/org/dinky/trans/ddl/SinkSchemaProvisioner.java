@@ -0,0 +1,264 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.trans.ddl;
+
+import org.dinky.assertion.Asserts;
+import org.dinky.data.model.Column;
+import org.dinky.data.model.Table;
+import org.dinky.metadata.driver.Driver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.Getter;
+
+/**
+ * SinkSchemaProvisioner
+ *
+ * <p>Creates the sink tables of a CDCSOURCE in bulk. The existing columns of each sink schema are read with one
+ * query and compared with the source tables. Only the DDL of missing tables and missing columns is executed, in
+ * batches on a bounded number of connections. Columns whose type differs are reported and left as they are,
+ * changing the type of a live sink column can truncate its data.
+ */
+public class SinkSchemaProvisioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SinkSchemaProvisioner.class);
+
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /** A metadata driver pools at most 8 connections. */
+    private static final int MAX_PARALLELISM = 8;
+
+    private static final int BATCH_SIZE = 20;
+
+    private final Driver driver;
+    private final int parallelism;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    public SinkSchemaProvisioner(Driver driver, int parallelism) {
+        this.driver = driver;
+        this.parallelism = Math.max(1, Math.min(parallelism, MAX_PARALLELISM));
+    }
+
+    /**
+     * Add a sink table. When several source tables are routed to the same sink table, the first one is used.
+     *
+     * @param table sink table with its columns
+     */
+    public void addTable(Table table) {
+        tables.putIfAbsent(table.getSchemaTableName(), table);
+    }
+
+    /** Diff the sink tables against the sink database and execute the missing DDL. */
+    public Plan provision() throws Exception {
+        if (tables.isEmpty()) {
+            return new Plan();
+        }
+        long start = System.currentTimeMillis();
+        Map<String, Map<String, List<Column>>> existing = new HashMap<>();
+        for (Table table : tables.values()) {
+            if (!existing.containsKey(table.getSchema())) {
+                existing.put(table.getSchema(), driver.listSchemaColumns(table.getSchema()));
+            }
+        }
+        Plan plan = diff(
+                tables.values(),
+                existing,
+                driver.getType(),
+                table -> driver.generateCreateTableSql(table).replaceAll("\r\n", " "),
+                driver::generateAddColumnSql);
+        logger.info("Sink schema plan: {}", plan.getSummary());
+        plan.getChangedColumns()
+                .forEach(column -> logger.warn("Sink column {} differs from its source, it is left unchanged", column));
+        plan.getUnsupportedColumns()
+                .forEach(column -> logger.warn("Sink column {} is missing, the driver can not add it", column));
+        execute(plan.getStatements());
+        logger.info("Sink schema provisioned in {} ms", System.currentTimeMillis() - start);
+        return plan;
+    }
+
+    static Plan diff(
+            Collection<Table> tables,
+            Map<String, Map<String, List<Column>>> existing,
+            String sinkType,
+            Function<Table, String> createTableSql,
+            BiFunction<Table, Column, String> addColumnSql) {
+        Map<String, Map<String, List<Column>>> lookup = new HashMap<>();
+        existing.forEach((schema, columns) -> {
+            Map<String, List<Column>> byTable = new HashMap<>();
+            columns.forEach((name, tableColumns) -> byTable.putIfAbsent(lowerCase(name), tableColumns));
+            lookup.put(schema, byTable);
+        });
+        Plan plan = new Plan();
+        for (Table table : tables) {
+            String tableName = table.getSchemaTableName();
+            List<Column> current = lookup.getOrDefault(table.getSchema(), Collections.emptyMap())
+                    .get(lowerCase(table.getName()));
+            if (current == null) {
+                plan.createdTables.add(tableName);
+                plan.statements.add(createTableSql.apply(table));
+                continue;
+            }
+            Map<String, Column> currentByName = new HashMap<>();
+            current.forEach(column -> currentByName.putIfAbsent(lowerCase(column.getName()), column));
+            // Type names only compare between databases of the same kind
+            boolean sameType = Asserts.isEqualsIgnoreCase(table.getDriverType(), sinkType);
+            boolean upToDate = true;
+            for (Column column : table.getColumns()) {
+                String columnName = tableName + "." + column.getName();
+                Column target = currentByName.get(lowerCase(column.getName()));
+                if (target == null) {
+                    upToDate = false;
+                    String sql = addColumnSql.apply(table, column);
+                    if (Asserts.isNullString(sql)) {
+                        plan.unsupportedColumns.add(columnName);
+                    } else {
+                        plan.addedColumns.add(columnName);
+                        plan.statements.add(sql);
+                    }
+                } else if (sameType && isChanged(column, target)) {
+                    upToDate = false;
+                    plan.changedColumns.add(columnName);
+                }
+            }
+            if (upToDate) {
+                plan.upToDateTables++;
+            }
+        }
+        return plan;
+    }
+
+    private static boolean isChanged(Column source, Column target) {
+        return !Asserts.isEqualsIgnoreCase(source.getType(), target.getType())
+                || differs(source.getLength(), target.getLength())
+                || differs(source.getPrecision(), target.getPrecision())
+                || differs(source.getScale(), target.getScale());
+    }
+
+    private static boolean differs(Integer source, Integer target) {
+        return source != null && target != null && source > 0 && target > 0 && !Objects.equals(source, target);
+    }
+
+    private static String lowerCase(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    private void execute(List<String> statements) throws Exception {
+        if (statements.isEmpty()) {
+            return;
+        }
+        List<List<String>> batches = Lists.partition(statements, BATCH_SIZE);
+        int threads = Math.min(parallelism, batches.size());
+        if (threads == 1) {
+            for (String sql : statements) {
+                driver.execute(sql);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                threads,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("sink-schema-provision-%d")
+                        .setDaemon(true)
+                        .build());
+        try {
+            List<Future<?>> futures = new ArrayList<>(batches.size());
+            for (List<String> batch : batches) {
+                futures.add(executor.submit(() -> {
+                    executeBatch(batch);
+                    return null;
+                }));
+            }
+            Exception failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void executeBatch(List<String> batch) throws Exception {
+        // The driver keeps one connection per thread, each worker takes its own from the pool
+        driver.connect();
+        try {
+            for (String sql : batch) {
+                driver.execute(sql);
+            }
+        } finally {
+            driver.close();
+        }
+    }
+
+    /** What the provisioner found and did. */
+    @Getter
+    public static class Plan {
+
+        private final List<String> createdTables = new ArrayList<>();
+        private final List<String> addedColumns = new ArrayList<>();
+        private final List<String> changedColumns = new ArrayList<>();
+        private final List<String> unsupportedColumns = new ArrayList<>();
+        private final List<String> statements = new ArrayList<>();
+        private int upToDateTables;
+
+        public String getSummary() {
+            return String.format(
+                    "%d tables created, %d columns added, %d tables up to date, "
+                            + "%d columns differ in type (unchanged), %d columns not addable, %d statements",
+                    createdTables.size(),
+                    addedColumns.size(),
+                    upToDateTables,
+                    changedColumns.size(),
+                    unsupportedColumns.size(),
+                    statements.size());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/** VariableTemplateTest */
+class VariableTemplateTest {
+
+    @Test
+    void render() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("a", "1");
+        VariableTemplate template = VariableTemplate.parse("select ${a}, '${}c}', ${b\n}, ${a}${missing} from t");
+        assertThat(template.hasPlaceholder()).isTrue();
+        assertThat(template.render(values::get)).isEqualTo("select 1, '', ${b\n}, 1 from t");
+    }
+
+    @Test
+    void renderWithoutPlaceholder() {
+        String statement = "select '$' from t";
+        VariableTemplate template = VariableTemplate.compile(statement);
+        assertThat(template.hasPlaceholder()).isFalse();
+        assertThat(template.render(key -> "x")).isSameAs(statement);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.explainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.dinky.executor.Executor;
+import org.dinky.executor.ExecutorConfig;
+import org.dinky.executor.ExecutorFactory;
+import org.dinky.job.JobConfig;
+import org.dinky.job.JobManager;
+
+import org.apache.flink.table.catalog.Catalog;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** PlanCacheTest */
+class PlanCacheTest {
+
+    private final Executor executor = ExecutorFactory.getDefaultExecutor();
+    private final AtomicInteger plannings = new AtomicInteger();
+    private JobManager jobManager;
+
+    @BeforeEach
+    void setUp() {
+        // a catalog that is not held in memory, e.g. a hive metastore
+        executor.getCustomTableEnvironment().registerCatalog("hive", mock(Catalog.class));
+        jobManager = jobManager(executor);
+    }
+
+    @Test
+    void changedCatalogs() {
+        assertThat(PlanCache.getChangedCatalogs(executor, "create table hive.db.t (a int) with ('connector' = 'x')"))
+                .containsExactly("hive");
+        assertThat(PlanCache.getChangedCatalogs(executor, "create database hive.db")).containsExactly("hive");
+        assertThat(PlanCache.getChangedCatalogs(executor, "drop table if exists `hive`.`db`.`t`"))
+                .containsExactly("hive");
+    }
+
+    @Test
+    void sessionOnlyChanges() {
+        // default_catalog is held in memory by the session
+        assertThat(PlanCache.getChangedCatalogs(executor, "create table t (a int) with ('connector' = 'x')"))
+                .isEmpty();
+        assertThat(PlanCache.getChangedCatalogs(executor, "create temporary table hive.db.t (a int)"))
+                .isEmpty();
+        assertThat(PlanCache.getChangedCatalogs(executor, "insert into hive.db.t select 1"))
+                .isEmpty();
+        // catalogs themselves are registered with the session only
+        assertThat(PlanCache.getChangedCatalogs(executor, "CREATE CATALOG hive WITH ('type' = 'hive')"))
+                .isEmpty();
+        assertThat(PlanCache.getChangedCatalogs(executor, "DROP CATALOG IF EXISTS `my catalog`"))
+                .isEmpty();
+    }
+
+    @Test
+    void cacheHit() {
+        String statement = "select 1 /* get hit */";
+
+        assertThat(get(statement, () -> "plan")).isEqualTo("plan");
+        assertThat(get(statement, () -> "other")).isEqualTo("plan");
+        // comments are not part of the key
+        assertThat(get("select 1 -- another comment\n", () -> "other")).isEqualTo("plan");
+        assertThat(plannings).hasValue(1);
+    }
+
+    @Test
+    void failedPlanNotCached() {
+        String statement = "select 2 /* failed */";
+
+        assertThat(get(statement, () -> "")).isEmpty();
+        assertThat(get(statement, () -> "plan")).isEqualTo("plan");
+        assertThat(plannings).hasValue(2);
+    }
+
+    @Test
+    void invalidateOnDdl() {
+        String statement = "select * from hive.db.invalidate";
+
+        get(statement, () -> "plan");
+        PlanCache.invalidateCatalogs(executor, Collections.singletonList("hive"));
+
+        assertThat(get(statement, () -> "new plan")).isEqualTo("new plan");
+        assertThat(get(statement, () -> "other")).isEqualTo("new plan");
+        assertThat(plannings).hasValue(2);
+    }
+
+    @Test
+    void ownDdlDoesNotInvalidate() {
+        String statement = "create table hive.db.own (a int);\nselect * from hive.db.own";
+        Supplier<String> planner = () -> {
+            PlanCache.invalidateCatalogs(executor, PlanCache.getChangedCatalogs(executor, "create table hive.db.own"));
+            return "plan";
+        };
+
+        get(statement, planner);
+        assertThat(get(statement, planner)).isEqualTo("plan");
+        assertThat(plannings).hasValue(1);
+    }
+
+    @Test
+    void otherEnvironmentDoesNotInvalidate() {
+        Executor remote = mock(Executor.class);
+        when(remote.getExecutorConfig())
+                .thenReturn(ExecutorConfig.builder()
+                        .type("standalone")
+                        .host("127.0.0.1")
+                        .port(8081)
+                        .build());
+        when(remote.getCustomTableEnvironment()).thenReturn(executor.getCustomTableEnvironment());
+        String statement = "select * from hive.db.environment";
+
+        get(statement, () -> "plan");
+        PlanCache.invalidateCatalogs(remote, Collections.singletonList("hive"));
+        assertThat(get(statement, () -> "other")).isEqualTo("plan");
+
+        PlanCache.invalidateCatalogs(executor, Collections.singletonList("hive"));
+        assertThat(get(statement, () -> "new plan")).isEqualTo("new plan");
+        assertThat(plannings).hasValue(2);
+    }
+
+    private String get(String statement, Supplier<String> planner) {
+        return PlanCache.get(
+                PlanCache.Kind.JOB_PLAN,
+                jobManager,
+                statement,
+                () -> {
+                    plannings.incrementAndGet();
+                    return planner.get();
+                },
+                plan -> !plan.isEmpty());
+    }
+
+    private static JobManager jobManager(Executor executor) {
+        JobManager jobManager = new JobManager();
+        jobManager.setConfig(JobConfig.builder().type("local").build());
+        jobManager.setExecutor(executor);
+        return jobManager;
+    }
+}
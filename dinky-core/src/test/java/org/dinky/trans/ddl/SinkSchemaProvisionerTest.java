@@ -0,0 +1,99 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.trans.ddl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.dinky.data.model.Column;
+import org.dinky.data.model.Table;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/** SinkSchemaProvisionerTest */
+class SinkSchemaProvisionerTest {
+
+    private static Column column(String name, String type, Integer length) {
+        return Column.builder().name(name).type(type).length(length).build();
+    }
+
+    private static Table table(String name, Column... columns) {
+        Table table = new Table(name, "ods", Arrays.asList(columns));
+        table.setDriverType("MySql");
+        return table;
+    }
+
+    private static SinkSchemaProvisioner.Plan diff(List<Table> tables, Map<String, List<Column>> existing) {
+        return SinkSchemaProvisioner.diff(
+                tables,
+                Collections.singletonMap("ods", existing),
+                "MySql",
+                table -> "CREATE " + table.getName(),
+                (table, column) -> "ALTER " + table.getName() + " ADD " + column.getName());
+    }
+
+    @Test
+    void testDiff() {
+        Map<String, List<Column>> existing = new HashMap<>();
+        existing.put("Orders", Arrays.asList(column("id", "bigint", null), column("name", "varchar", 64)));
+        existing.put("users", Arrays.asList(column("id", "bigint", null), column("name", "varchar", 32)));
+        existing.put("items", Collections.singletonList(column("ID", "BIGINT", null)));
+
+        SinkSchemaProvisioner.Plan plan = diff(
+                Arrays.asList(
+                        table("orders", column("id", "bigint", null), column("name", "varchar", 64)),
+                        table("users", column("id", "bigint", null), column("name", "varchar", 64)),
+                        table("items", column("id", "bigint", null), column("price", "decimal", null)),
+                        table("payments", column("id", "bigint", null))),
+                existing);
+
+        assertThat(plan.getCreatedTables()).containsExactly("ods.payments");
+        assertThat(plan.getAddedColumns()).containsExactly("ods.items.price");
+        assertThat(plan.getChangedColumns()).containsExactly("ods.users.name");
+        assertThat(plan.getUpToDateTables()).isEqualTo(1);
+        assertThat(plan.getStatements()).containsExactly("ALTER items ADD price", "CREATE payments");
+    }
+
+    @Test
+    void testOtherSourceTypeAndUnsupportedDriver() {
+        Table table = table("users", column("id", "int8", null), column("age", "int4", null));
+        table.setDriverType("PostgreSql");
+        Map<String, List<Column>> existing =
+                Collections.singletonMap("users", Collections.singletonList(column("id", "bigint", null)));
+
+        SinkSchemaProvisioner.Plan plan = SinkSchemaProvisioner.diff(
+                Collections.singletonList(table),
+                Collections.singletonMap("ods", existing),
+                "MySql",
+                t -> "CREATE " + t.getName(),
+                (t, c) -> null);
+
+        // Types of another kind of database are not compared
+        assertThat(plan.getChangedColumns()).isEmpty();
+        assertThat(plan.getUnsupportedColumns()).containsExactly("ods.users.age");
+        assertThat(plan.getStatements()).isEmpty();
+        assertThat(plan.getSummary()).contains("1 columns not addable");
+    }
+}
@@ -308,75 +308,7 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
                 columnList.add(metaData.getColumnLabel(i));
             }
             while (results.next()) {
-                Column field = new Column();
-                String columnName = results.getString(dbQuery.columnName());
-                if (columnList.contains(dbQuery.columnKey())) {
-                    String key = results.getString(dbQuery.columnKey());
-                    field.setKeyFlag(Asserts.isNotNullString(key) && Asserts.isEqualsIgnoreCase(dbQuery.isPK(), key));
-                }
-                field.setName(columnName);
-                if (columnList.contains(dbQuery.columnType())) {
-                    String columnType = results.getString(dbQuery.columnType());
-                    if (columnType.contains("(")) {
-                        String type = columnType.replaceAll("\\(.*\\)", "");
-                        if (!columnType.contains(",")) {
-                            Integer length = Integer.valueOf(columnType.replaceAll("\\D", ""));
-                            field.setLength(length);
-                        } else {
-                            // some database does not have precision
-                            if (dbQuery.precision() != null) {
-                                // 例如浮点类型的长度和精度是一样的，decimal(10,2)
-                                field.setLength(results.getInt(dbQuery.precision()));
-                            }
-                        }
-                        field.setType(type);
-                    } else {
-                        field.setType(columnType);
-                    }
-                }
-                if (columnList.contains(dbQuery.columnComment())
-                        && Asserts.isNotNull(results.getString(dbQuery.columnComment()))) {
-                    String columnComment =
-                            results.getString(dbQuery.columnComment()).replaceAll("\"|'", "");
-                    field.setComment(columnComment);
-                }
-                if (columnList.contains(dbQuery.columnLength())) {
-                    int length = results.getInt(dbQuery.columnLength());
-                    if (!results.wasNull()) {
-                        field.setLength(length);
-                    }
-                }
-                if (columnList.contains(dbQuery.isNullable())) {
-                    field.setNullable(Asserts.isEqualsIgnoreCase(
-                            results.getString(dbQuery.isNullable()), dbQuery.nullableValue()));
-                }
-                if (columnList.contains(dbQuery.characterSet())) {
-                    field.setCharacterSet(results.getString(dbQuery.characterSet()));
-                }
-                if (columnList.contains(dbQuery.collation())) {
-                    field.setCollation(results.getString(dbQuery.collation()));
-                }
-                if (columnList.contains(dbQuery.columnPosition())) {
-                    field.setPosition(results.getInt(dbQuery.columnPosition()));
-                }
-                if (columnList.contains(dbQuery.precision())) {
-                    field.setPrecision(results.getInt(dbQuery.precision()));
-                }
-                if (columnList.contains(dbQuery.scale())) {
-                    field.setScale(results.getInt(dbQuery.scale()));
-                }
-                if (columnList.contains(dbQuery.defaultValue())) {
-                    field.setDefaultValue(results.getString(dbQuery.defaultValue()));
-                }
-                if (columnList.contains(dbQuery.autoIncrement())) {
-                    field.setAutoIncrement(
-                            Asserts.isEqualsIgnoreCase(results.getString(dbQuery.autoIncrement()), "auto_increment"));
-                }
-                if (columnList.contains(dbQuery.defaultValue())) {
-                    field.setDefaultValue(results.getString(dbQuery.defaultValue()));
-                }
-                field.setJavaType(getTypeConvert().convert(field, config));
-                columns.add(field);
+                columns.add(readColumn(results, dbQuery, columnList));
             }
         } catch (SQLException e) {
             log.error("ListColumns error", e);
@@ -387,6 +319,109 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         return columns;
     }
 
+    @Override
+    public Map<String, List<Column>> listSchemaColumns(String schemaName) {
+        IDBQuery dbQuery = getDBQuery();
+        String sql = dbQuery.schemaColumnsSql(schemaName);
+        if (Asserts.isNullString(sql)) {
+            return super.listSchemaColumns(schemaName);
+        }
+        Map<String, List<Column>> columns = new LinkedHashMap<>();
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+        try {
+            preparedStatement = conn.get().prepareStatement(sql);
+            results = preparedStatement.executeQuery();
+            ResultSetMetaData metaData = results.getMetaData();
+            List<String> columnList = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columnList.add(metaData.getColumnLabel(i));
+            }
+            while (results.next()) {
+                String tableName = results.getString(dbQuery.columnTableName());
+                columns.computeIfAbsent(tableName, k -> new ArrayList<>())
+                        .add(readColumn(results, dbQuery, columnList));
+            }
+        } catch (SQLException e) {
+            log.error("ListSchemaColumns error", e);
+            throw new BusException(e.getMessage());
+        } finally {
+            close(preparedStatement, results);
+        }
+        return columns;
+    }
+
+    private Column readColumn(ResultSet results, IDBQuery dbQuery, List<String> columnList) throws SQLException {
+        Column field = new Column();
+        String columnName = results.getString(dbQuery.columnName());
+        if (columnList.contains(dbQuery.columnKey())) {
+            String key = results.getString(dbQuery.columnKey());
+            field.setKeyFlag(Asserts.isNotNullString(key) && Asserts.isEqualsIgnoreCase(dbQuery.isPK(), key));
+        }
+        field.setName(columnName);
+        if (columnList.contains(dbQuery.columnType())) {
+            String columnType = results.getString(dbQuery.columnType());
+            if (columnType.contains("(")) {
+                String type = columnType.replaceAll("\\(.*\\)", "");
+                if (!columnType.contains(",")) {
+                    Integer length = Integer.valueOf(columnType.replaceAll("\\D", ""));
+                    field.setLength(length);
+                } else {
+                    // some database does not have precision
+                    if (dbQuery.precision() != null) {
+                        // 例如浮点类型的长度和精度是一样的，decimal(10,2)
+                        field.setLength(results.getInt(dbQuery.precision()));
+                    }
+                }
+                field.setType(type);
+            } else {
+                field.setType(columnType);
+            }
+        }
+        if (columnList.contains(dbQuery.columnComment())
+                && Asserts.isNotNull(results.getString(dbQuery.columnComment()))) {
+            String columnComment = results.getString(dbQuery.columnComment()).replaceAll("\"|'", "");
+            field.setComment(columnComment);
+        }
+        if (columnList.contains(dbQuery.columnLength())) {
+            int length = results.getInt(dbQuery.columnLength());
+            if (!results.wasNull()) {
+                field.setLength(length);
+            }
+        }
+        if (columnList.contains(dbQuery.isNullable())) {
+            field.setNullable(
+                    Asserts.isEqualsIgnoreCase(results.getString(dbQuery.isNullable()), dbQuery.nullableValue()));
+        }
+        if (columnList.contains(dbQuery.characterSet())) {
+            field.setCharacterSet(results.getString(dbQuery.characterSet()));
+        }
+        if (columnList.contains(dbQuery.collation())) {
+            field.setCollation(results.getString(dbQuery.collation()));
+        }
+        if (columnList.contains(dbQuery.columnPosition())) {
+            field.setPosition(results.getInt(dbQuery.columnPosition()));
+        }
+        if (columnList.contains(dbQuery.precision())) {
+            field.setPrecision(results.getInt(dbQuery.precision()));
+        }
+        if (columnList.contains(dbQuery.scale())) {
+            field.setScale(results.getInt(dbQuery.scale()));
+        }
+        if (columnList.contains(dbQuery.defaultValue())) {
+            field.setDefaultValue(results.getString(dbQuery.defaultValue()));
+        }
+        if (columnList.contains(dbQuery.autoIncrement())) {
+            field.setAutoIncrement(
+                    Asserts.isEqualsIgnoreCase(results.getString(dbQuery.autoIncrement()), "auto_increment"));
+        }
+        if (columnList.contains(dbQuery.defaultValue())) {
+            field.setDefaultValue(results.getString(dbQuery.defaultValue()));
+        }
+        field.setJavaType(getTypeConvert().convert(field, config));
+        return field;
+    }
+
     @Override
     public List<Column> listColumnsSortByPK(String schemaName, String tableName) {
         List<Column> columnList = listColumns(schemaName, tableName);
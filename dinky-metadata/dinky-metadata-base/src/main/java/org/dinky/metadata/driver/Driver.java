@@ -33,6 +33,7 @@ import org.dinky.metadata.enums.DriverType;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.utils.JsonUtils;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -117,7 +118,8 @@ public interface Driver extends AutoCloseable {
             type = DriverType.STARROCKS.getValue();
         } else if (Asserts.isEqualsIgnoreCase(connector, "clickhouse")) {
             type = DriverType.CLICKHOUSE.getValue();
-        } else if (Asserts.isEqualsIgnoreCase(connector, "jdbc")) {
+        } else if (Asserts.isEqualsIgnoreCase(connector, "jdbc")
+                || Asserts.isEqualsIgnoreCase(connector, "datastream-jdbc")) {
             if (url.startsWith("jdbc:mysql")) {
                 type = DriverType.MYSQL.getValue();
             } else if (url.startsWith("jdbc:postgresql")) {
@@ -175,6 +177,21 @@ public interface Driver extends AutoCloseable {
 
     List<Column> listColumnsSortByPK(String schemaName, String tableName);
 
+    /**
+     * List the columns of all tables in a schema, keyed by table name and in column order. Drivers that can read
+     * them in one query override this, by default the tables are listed and read one by one.
+     *
+     * @param schemaName schema name
+     * @return columns by table name
+     */
+    default Map<String, List<Column>> listSchemaColumns(String schemaName) {
+        Map<String, List<Column>> columns = new LinkedHashMap<>();
+        for (Table table : listTables(schemaName)) {
+            columns.put(table.getName(), listColumns(schemaName, table.getName()));
+        }
+        return columns;
+    }
+
     List<Schema> getSchemasAndTables();
 
     List<Table> getTablesAndColumns(String schemaName);
@@ -201,6 +218,17 @@ public interface Driver extends AutoCloseable {
 
     String generateCreateTableSql(Table table);
 
+    /**
+     * SQL that adds a column to an existing table.
+     *
+     * @param table  the table, with its schema and name
+     * @param column the column to add
+     * @return the SQL, or null if the driver can not generate it
+     */
+    default String generateAddColumnSql(Table table, Column column) {
+        return null;
+    }
+
     /*
      * boolean insert(Table table, JsonNode data);
      *
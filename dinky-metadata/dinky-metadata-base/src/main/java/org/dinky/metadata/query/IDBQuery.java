@@ -35,6 +35,21 @@ public interface IDBQuery {
     /** 表字段信息查询 SQL */
     String columnsSql(String schemaName, String tableName);
 
+    /**
+     * Column query SQL for all tables of a schema at once, ordered by table and column position. Each row
+     * carries the table name in {@link #columnTableName()}.
+     *
+     * @return the SQL, or null if the database has no such query
+     */
+    default String schemaColumnsSql(String schemaName) {
+        return null;
+    }
+
+    /** Table name of a row returned by {@link #schemaColumnsSql(String)} */
+    default String columnTableName() {
+        return "TABLE_NAME";
+    }
+
     /** 建表 SQL */
     String createTableSql(String schemaName, String tableName);
 
@@ -95,53 +95,17 @@ public class MySqlDriver extends AbstractJdbcDriver {
         return genTable(table);
     }
 
+    @Override
+    public String generateAddColumnSql(Table table, Column column) {
+        return MessageFormat.format(
+                "ALTER TABLE `{0}`.`{1}` ADD COLUMN {2};",
+                table.getSchema(),
+                table.getName(),
+                genColumn(column).trim());
+    }
+
     private String genTable(Table table) {
-        String columnStrs = table.getColumns().stream()
-                .map(column -> {
-                    String unit = "";
-                    if (column.getPrecision() != null
-                            && column.getScale() != null
-                            && column.getPrecision() > 0
-                            && column.getScale() > 0) {
-                        unit = String.format("(%s,%s)", column.getPrecision(), column.getScale());
-                    } else if (null != column.getLength()) {
-                        unit = String.format("(%s)", column.getLength());
-                    }
-                    // Avoid parsing mismatches when the numeric data type column declared by UNSIGNED/ZEROFILL keyword
-                    String columnType = column.getType();
-
-                    final String dv = column.getDefaultValue();
-                    // If it defaults to a numeric type, there is no need to include single quotes or a bit type
-                    String defaultValueTag = " DEFAULT '%s'";
-                    if (NumberUtil.isNumber(dv)
-                            || columnType.startsWith("bit")
-                            || (StrUtil.isNotEmpty(dv)
-                                    && dv.toLowerCase().trim().matches("^current_timestamp.*"))) {
-                        defaultValueTag = " DEFAULT %s";
-                    }
-                    String defaultValue = Asserts.isNotNull(dv)
-                            ? String.format(defaultValueTag, StrUtil.isEmpty(dv) ? "''" : dv)
-                            : String.format("%s NULL ", !column.isNullable() ? " NOT " : "");
-
-                    if (columnType.contains("unsigned") || columnType.contains("zerofill")) {
-                        String[] arr = columnType.split(" ");
-                        arr[0] = arr[0].concat(unit);
-                        columnType = String.join(" ", arr);
-                        unit = "";
-                    }
-
-                    return String.format(
-                            "  `%s`  %s%s%s%s%s",
-                            column.getName(),
-                            columnType,
-                            unit,
-                            defaultValue,
-                            column.isAutoIncrement() ? " AUTO_INCREMENT " : "",
-                            Asserts.isNotNullString(column.getComment())
-                                    ? String.format(" COMMENT '%s'", column.getComment())
-                                    : "");
-                })
-                .collect(Collectors.joining(",\n"));
+        String columnStrs = table.getColumns().stream().map(this::genColumn).collect(Collectors.joining(",\n"));
 
         List<String> columnKeys = table.getColumns().stream()
                 .filter(Column::isKeyFlag)
@@ -164,6 +128,50 @@ public class MySqlDriver extends AbstractJdbcDriver {
                 Asserts.isNotNullString(table.getComment()) ? String.format(" COMMENT='%s'", table.getComment()) : "");
     }
 
+    private String genColumn(Column column) {
+        String unit = "";
+        if (column.getPrecision() != null
+                && column.getScale() != null
+                && column.getPrecision() > 0
+                && column.getScale() > 0) {
+            unit = String.format("(%s,%s)", column.getPrecision(), column.getScale());
+        } else if (null != column.getLength()) {
+            unit = String.format("(%s)", column.getLength());
+        }
+        // Avoid parsing mismatches when the numeric data type column declared by UNSIGNED/ZEROFILL keyword
+        String columnType = column.getType();
+
+        final String dv = column.getDefaultValue();
+        // If it defaults to a numeric type, there is no need to include single quotes or a bit type
+        String defaultValueTag = " DEFAULT '%s'";
+        if (NumberUtil.isNumber(dv)
+                || columnType.startsWith("bit")
+                || (StrUtil.isNotEmpty(dv) && dv.toLowerCase().trim().matches("^current_timestamp.*"))) {
+            defaultValueTag = " DEFAULT %s";
+        }
+        String defaultValue = Asserts.isNotNull(dv)
+                ? String.format(defaultValueTag, StrUtil.isEmpty(dv) ? "''" : dv)
+                : String.format("%s NULL ", !column.isNullable() ? " NOT " : "");
+
+        if (columnType.contains("unsigned") || columnType.contains("zerofill")) {
+            String[] arr = columnType.split(" ");
+            arr[0] = arr[0].concat(unit);
+            columnType = String.join(" ", arr);
+            unit = "";
+        }
+
+        return String.format(
+                "  `%s`  %s%s%s%s%s",
+                column.getName(),
+                columnType,
+                unit,
+                defaultValue,
+                column.isAutoIncrement() ? " AUTO_INCREMENT " : "",
+                Asserts.isNotNullString(column.getComment())
+                        ? String.format(" COMMENT '%s'", column.getComment())
+                        : "");
+    }
+
     @Override
     public StringBuilder genQueryOption(QueryData queryData) {
 
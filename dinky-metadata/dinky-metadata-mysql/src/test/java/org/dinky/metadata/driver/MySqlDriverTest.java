@@ -77,4 +77,14 @@ class MySqlDriverTest {
                 + " ENGINE=null;";
         assertThat(gen_table_sql, equalTo(expect));
     }
+
+    @Test
+    void genAddColumn() {
+        MySqlDriver sqlDriver = new MySqlDriver();
+        String sql = sqlDriver.generateAddColumnSql(table, table.getColumns().get(2));
+
+        String expect = "ALTER TABLE `SchemaOrigin`.`TableNameOrigin` ADD COLUMN "
+                + "`column3`  double NOT  NULL  COMMENT 'comment \"abc\"';";
+        assertThat(sql, equalTo(expect));
+    }
 }
@@ -78,6 +78,39 @@ public class PostgreSqlQuery extends AbstractDBQuery {
                 + "ORDER BY col.table_schema, col.table_name, col.ordinal_position";
     }
 
+    @Override
+    public String schemaColumnsSql(String schemaName) {
+        return "SELECT col.table_name                                  as table_name\n"
+                + "     , col.column_name                              as name\n"
+                + "     , COALESCE(col.character_maximum_length,datetime_precision)"
+                + "                                                    as length\n"
+                + "     , col.is_nullable                              as is_nullable\n"
+                + "     , col.numeric_precision                        as numeric_precision\n"
+                + "     , col.numeric_scale                            as numeric_scale\n"
+                + "     , col.ordinal_position                         as ordinal_position\n"
+                + "     , col.udt_name                                 as type\n"
+                + "     , (CASE  WHEN (SELECT COUNT(*) FROM pg_constraint AS PC WHERE b.attnum"
+                + " = ANY(PC.conkey) AND PC.contype = 'p' and PC.conrelid = c.oid) > 0 \n"
+                + "THEN 'PRI' ELSE '' END)                             as key\n"
+                + "     , col_description(c.oid, col.ordinal_position) as comment\n"
+                + "     , col.column_default                           as column_default\n"
+                + "FROM information_schema.columns AS col\n"
+                + "         LEFT JOIN pg_namespace ns ON ns.nspname = col.table_schema\n"
+                + "         LEFT JOIN pg_class c ON col.table_name = c.relname AND"
+                + " c.relnamespace = ns.oid\n"
+                + "         LEFT JOIN pg_attribute b ON b.attrelid = c.oid AND b.attname ="
+                + " col.column_name\n"
+                + "WHERE col.table_schema = '"
+                + schemaName
+                + "'\n"
+                + "ORDER BY col.table_schema, col.table_name, col.ordinal_position";
+    }
+
+    @Override
+    public String columnTableName() {
+        return "table_name";
+    }
+
     @Override
     public String schemaName() {
         return "schema_name";
@@ -76,6 +76,7 @@ public class ProcessClient {
                                 .getDolphinschedulerToken()
                                 .getValue())
                 .form(ParamUtil.getPageParams(processName))
+                .keepAlive(true)
                 .timeout(20000)
                 .execute()
                 .body();
@@ -132,6 +133,7 @@ public class ProcessClient {
                         SystemConfiguration.getInstances()
                                 .getDolphinschedulerToken()
                                 .getValue())
+                .keepAlive(true)
                 .timeout(20000)
                 .execute()
                 .body();
@@ -184,6 +186,7 @@ public class ProcessClient {
                                 .getDolphinschedulerToken()
                                 .getValue())
                 .form(params)
+                .keepAlive(true)
                 .timeout(20000)
                 .execute();
         String content = httpResponse.body();
@@ -68,6 +68,7 @@ public class ProjectClient {
                                 .getDolphinschedulerToken()
                                 .getValue())
                 .form(map)
+                .keepAlive(true)
                 .timeout(5000)
                 .execute();
         if (httpResponse.getStatus() != 200) {
@@ -98,6 +99,7 @@ public class ProjectClient {
                 .form(ParamUtil.getPageParams(SystemConfiguration.getInstances()
                         .getDolphinschedulerProjectName()
                         .getValue()))
+                .keepAlive(true)
                 .timeout(5000)
                 .execute();
 
@@ -101,6 +101,7 @@ public class TaskClient {
                                 .getDolphinschedulerToken()
                                 .getValue())
                 .form(pageParams)
+                .keepAlive(true)
                 .timeout(5000)
                 .execute()
                 .body();
@@ -139,6 +140,7 @@ public class TaskClient {
                         SystemConfiguration.getInstances()
                                 .getDolphinschedulerToken()
                                 .getValue())
+                .keepAlive(true)
                 .timeout(20000)
                 .execute()
                 .body();
@@ -177,6 +179,7 @@ public class TaskClient {
                                 .getDolphinschedulerToken()
                                 .getValue())
                 .form(pageParams)
+                .keepAlive(true)
                 .timeout(5000)
                 .execute()
                 .body();
@@ -215,6 +218,7 @@ public class TaskClient {
                                 .getDolphinschedulerToken()
                                 .getValue())
                 .form(params)
+                .keepAlive(true)
                 .timeout(5000)
                 .execute()
                 .body();
@@ -244,6 +248,7 @@ public class TaskClient {
                                 .getDolphinschedulerToken()
                                 .getValue())
                 .form(params)
+                .keepAlive(true)
                 .timeout(5000)
                 .execute()
                 .body();
@@ -284,6 +289,7 @@ public class TaskClient {
                                 .getDolphinschedulerToken()
                                 .getValue())
                 .form(params)
+                .keepAlive(true)
                 .timeout(5000)
                 .execute()
                 .body();
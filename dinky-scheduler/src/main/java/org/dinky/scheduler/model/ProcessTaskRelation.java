@@ -69,9 +69,13 @@ public class ProcessTaskRelation {
     private Date updateTime;
 
     public static ProcessTaskRelation generateProcessTaskRelation(long taskCode) {
+        return generateProcessTaskRelation(0, taskCode);
+    }
+
+    public static ProcessTaskRelation generateProcessTaskRelation(long preTaskCode, long taskCode) {
         ProcessTaskRelation processTaskRelation = new ProcessTaskRelation();
         processTaskRelation.setName("");
-        processTaskRelation.setPreTaskCode(0);
+        processTaskRelation.setPreTaskCode(preTaskCode);
         processTaskRelation.setPreTaskVersion(0);
         processTaskRelation.setPostTaskCode(taskCode);
         processTaskRelation.setPostTaskVersion(1);
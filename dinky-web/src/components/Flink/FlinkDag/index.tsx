@@ -47,6 +47,67 @@ export type DagProps = {
 };
 const { Paragraph } = Typography;
 
+type CheckpointStateTableProps = {
+  path: string;
+  operatorId: string;
+  stateType: string;
+  stateName: string;
+  initial: { headers: string[]; datas: any[]; total?: number | null };
+};
+
+const CheckpointStateTable = (props: CheckpointStateTableProps) => {
+  const { path, operatorId, stateType, stateName, initial } = props;
+  const [table, setTable] = useState(initial);
+  const [current, setCurrent] = useState(1);
+  const [pageSize, setPageSize] = useState(20);
+  const [loading, setLoading] = useState(false);
+
+  const loadPage = (pageNum: number, size: number) => {
+    setLoading(true);
+    getDataByParamsReturnResult(API_CONSTANTS.READ_CHECKPOINT_PAGE, {
+      path,
+      operatorId,
+      stateType,
+      stateName,
+      pageNum,
+      pageSize: size
+    })
+      .then((res) => {
+        if (!res || res.code !== 0) {
+          return;
+        }
+        setTable(res.data);
+        setCurrent(pageNum);
+        setPageSize(size);
+      })
+      .finally(() => setLoading(false));
+  };
+
+  // keyed states are only counted once a later page is requested, until then offer one more page
+  const total =
+    table.total ?? (table.datas.length < pageSize ? table.datas.length : table.datas.length + 1);
+
+  return (
+    <Table
+      loading={loading}
+      dataSource={table.datas}
+      pagination={{ current, pageSize, total, showSizeChanger: true, onChange: loadPage }}
+      columns={(table.headers as string[]).map((z) => {
+        return {
+          title: z,
+          dataIndex: z,
+          key: z,
+          render: (text) => (
+            <Paragraph copyable ellipsis={{ rows: 3 }}>
+              {text}
+            </Paragraph>
+          )
+        };
+      })}
+    />
+  );
+};
+
 const RenderCheckpoint = (id: string, checkPoints: any) => {
   const [selectPath, setSelectPath] = useState<string>('');
   const key = id + selectPath;
@@ -86,20 +147,12 @@ const RenderCheckpoint = (id: string, checkPoints: any) => {
                   key: y,
                   label: y,
                   children: (
-                    <Table
-                      dataSource={datum[y].datas}
-                      columns={(datum[y].headers as string[]).map((z) => {
-                        return {
-                          title: z,
-                          dataIndex: z,
-                          key: z,
-                          render: (text) => (
-                            <Paragraph copyable ellipsis={{ rows: 3 }}>
-                              {text}
-                            </Paragraph>
-                          )
-                        };
-                      })}
+                    <CheckpointStateTable
+                      path={selectPath}
+                      operatorId={id}
+                      stateType={x}
+                      stateName={y}
+                      initial={datum[y]}
                     />
                   )
                 };
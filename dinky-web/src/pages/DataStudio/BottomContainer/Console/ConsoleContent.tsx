@@ -65,11 +65,40 @@ const buildExpandKeys = (node: ProcessStep) => {
   return keys;
 };
 
+const findNode = (node: ProcessStep | undefined, key: Key): ProcessStep | undefined => {
+  if (!node || node.key === key) {
+    return node;
+  }
+  for (const child of node.children ?? []) {
+    const found = findNode(child, key);
+    if (found) {
+      return found;
+    }
+  }
+  return undefined;
+};
+
+/**
+ * SSE only carries the log lines appended since the last push, so they are appended to the logs
+ * already received for the same process.
+ */
+const mergeLog = (prev: ProcessStep | undefined, data: ProcessStep): ProcessStep => {
+  const merge = (node: ProcessStep): ProcessStep => {
+    const prevLog = prev?.key === data.key ? findNode(prev, node.key)?.log ?? '' : '';
+    return {
+      ...node,
+      log: prevLog + (node.log ?? ''),
+      children: (node.children ?? []).map(merge)
+    };
+  };
+  return merge(data);
+};
+
 const ConsoleContent = (props: ConsoleProps) => {
   const { tab } = props;
   const refObject = useRef<HTMLDivElement>(null);
 
-  const [selectNode, setSelectNode] = useState<ProcessStep>();
+  const [selectKey, setSelectKey] = useState<Key>();
   const [processNode, setProcessNode] = useState<ProcessStep>();
   const [expandedKeys, setExpandedKeys] = useState<Key[]>([]);
 
@@ -79,23 +108,18 @@ const ConsoleContent = (props: ConsoleProps) => {
     subscribeTopic: model.subscribeTopic
   }));
 
-  const onUpdate = (data: ProcessStep) => {
+  const selectNode = (selectKey !== undefined && findNode(processNode, selectKey)) || processNode;
+
+  const onUpdate = (data: ProcessStep, incremental: boolean = false) => {
     setProcessNode((prevState: any) => {
       //如果key不一致代表重新提交了任务，清空旧状态
       if (prevState && prevState?.key != data?.key) {
-        setSelectNode(undefined);
+        setSelectKey(undefined);
       }
-      return data;
-    });
-    setSelectNode((prevState: any) => {
-      if (prevState && data?.lastUpdateStep && prevState?.key === data?.lastUpdateStep?.key) {
-        //更新当前节点
-        return data?.lastUpdateStep;
-      } else if (!prevState || prevState?.key === data?.key) {
-        //未选择节点状态下选择根节点
+      if (!data) {
         return data;
       }
-      return prevState;
+      return incremental ? mergeLog(prevState, data) : data;
     });
   };
 
@@ -108,13 +132,13 @@ const ConsoleContent = (props: ConsoleProps) => {
     { onSuccess: async (res) => onUpdate(res) }
   );
 
-  useEffect(() => subscribeTopic([topic], (data: SseData) => onUpdate(data?.data)), []);
+  useEffect(() => subscribeTopic([topic], (data: SseData) => onUpdate(data?.data, true)), []);
   const onSelect = (
     _selectedKeys: Key[],
     info: {
       node: ProcessStep;
     }
-  ) => setSelectNode(info.node);
+  ) => setSelectKey(info.node.key);
 
   const renderTitle = (node: any) => {
     const startDate = new Date(node.startTime);
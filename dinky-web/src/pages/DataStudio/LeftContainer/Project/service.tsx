@@ -20,10 +20,32 @@
 import { TaskDataType } from '@/pages/DataStudio/model';
 import { postAll, putDataJson } from '@/services/api';
 import { queryDataByParams } from '@/services/BusinessCrud';
+import { METHOD_CONSTANTS } from '@/services/constants';
 import { API_CONSTANTS } from '@/services/endpoints';
+import { request } from '@umijs/max';
+
+// The last tree served per query, revalidated with its ETag so an unchanged tree is not sent again
+const taskTreeCache: Record<string, { etag: string; data: any }> = {};
 
 export async function getTaskData(params: any) {
-  return (await postAll(API_CONSTANTS.CATALOGUE_GET_CATALOGUE_TREE_DATA, params)).data;
+  const key = JSON.stringify(params ?? {});
+  const cached = taskTreeCache[key];
+  const response = await request(API_CONSTANTS.CATALOGUE_GET_CATALOGUE_TREE_DATA, {
+    method: METHOD_CONSTANTS.POST,
+    data: params,
+    headers: cached ? { 'If-None-Match': cached.etag } : {},
+    getResponse: true,
+    validateStatus: (status: number) => (status >= 200 && status < 300) || status === 304
+  });
+  if (response.status === 304 && cached) {
+    return cached.data;
+  }
+  const data = response.data?.data;
+  const etag = response.headers?.etag;
+  if (etag) {
+    taskTreeCache[key] = { etag, data };
+  }
+  return data;
 }
 export async function getTaskSortTypeData() {
   return (await postAll(API_CONSTANTS.CATALOGUE_GET_CATALOGUE_SORT_TYPE_DATA)).data;
@@ -20,7 +20,7 @@
 import VersionList from '@/components/VersionList';
 import { getCurrentData } from '@/pages/DataStudio/function';
 import { StateType } from '@/pages/DataStudio/model';
-import { handleOption, handleRemoveById } from '@/services/BusinessCrud';
+import { handleOption, handleRemoveById, queryDataByParams } from '@/services/BusinessCrud';
 import { API_CONSTANTS } from '@/services/endpoints';
 import { TaskVersionListItem } from '@/types/Studio/data';
 import { convertCodeEditTheme } from '@/utils/function';
@@ -143,8 +143,13 @@ const HistoryVersion = (props: any) => {
         data={versionList.data}
         onDeleteListen={deleteVersion}
         onRollBackListen={onRollBackVersion}
-        onSelectListen={(item) => {
-          setVersionDiffRow(item);
+        onSelectListen={async (item) => {
+          // the version list carries no statements, load the one to compare
+          const version = await queryDataByParams<TaskVersionListItem>(
+            API_CONSTANTS.GET_JOB_VERSION_DETAIL,
+            { taskId: item.taskId, versionId: item.versionId }
+          );
+          setVersionDiffRow({ ...item, statement: version?.statement });
           setVersionDiffVisible(true);
         }}
       />
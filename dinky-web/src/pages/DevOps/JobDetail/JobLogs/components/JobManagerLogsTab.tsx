@@ -36,20 +36,21 @@ const JobManagerLogsTab = (props: JobProps) => {
 
   const [activeKey, setActiveKey] = useState('LOG');
 
-  const log = useRequest({
-    url: API_CONSTANTS.GET_JOBMANAGER_LOG,
-    params: { address: jmaddr }
-  });
+  // The stream endpoints return the whole log as plain text instead of a json result
+  const log = useRequest(
+    { url: API_CONSTANTS.STREAM_LOG, params: { address: jmaddr }, responseType: 'text' },
+    { formatResult: (res: string) => res }
+  );
 
-  const stdout = useRequest({
-    url: API_CONSTANTS.GET_JOBMANAGER_STDOUT,
-    params: { address: jmaddr }
-  });
+  const stdout = useRequest(
+    { url: API_CONSTANTS.STREAM_STDOUT, params: { address: jmaddr }, responseType: 'text' },
+    { formatResult: (res: string) => res }
+  );
 
-  const dump = useRequest({
-    url: API_CONSTANTS.GET_JOBMANAGER_THREAD_DUMP,
-    params: { address: jmaddr }
-  });
+  const dump = useRequest(
+    { url: API_CONSTANTS.STREAM_THREAD_DUMP, params: { address: jmaddr }, responseType: 'text' },
+    { formatResult: (res: string) => res }
+  );
 
   const getLog = (ur: any, language?: string) => {
     return (
@@ -54,12 +54,14 @@ const TaskManagerLogsTab = (props: JobProps) => {
     params: { address: jmaddr }
   });
 
+  // The stream endpoint returns the whole log as plain text instead of a json result
   const tmLog = useRequest(
     (cid) => ({
-      url: API_CONSTANTS.GET_TASKMANAGER_LOG,
-      params: { address: jmaddr, containerId: cid }
+      url: API_CONSTANTS.STREAM_LOG,
+      params: { address: jmaddr, containerId: cid },
+      responseType: 'text'
     }),
-    { manual: true }
+    { manual: true, formatResult: (res: string) => res }
   );
 
   const refeshLog = (tm: Taskmanager) => {
@@ -21,7 +21,7 @@ import CodeShow from '@/components/CustomEditor/CodeShow';
 import VersionList from '@/components/VersionList';
 import { matchLanguage } from '@/pages/DataStudio/MiddleContainer/function';
 import { JobProps } from '@/pages/DevOps/JobDetail/data';
-import { handleRemoveById } from '@/services/BusinessCrud';
+import { handleRemoveById, queryDataByParams } from '@/services/BusinessCrud';
 import { API_CONSTANTS } from '@/services/endpoints';
 import { TaskVersionListItem } from '@/types/Studio/data';
 import { l } from '@/utils/intl';
@@ -83,7 +83,18 @@ const JobVersionTab = (props: JobProps) => {
               loading={versionList.loading}
               data={versionList.data}
               onDeleteListen={deleteVersion}
-              onSelectListen={(item) => setCurrentVersion(item)}
+              onSelectListen={async (item) => {
+                if (item.isLatest) {
+                  setCurrentVersion(item);
+                  return;
+                }
+                // the version list carries no statements, load the selected one
+                const version = await queryDataByParams<TaskVersionListItem>(
+                  API_CONSTANTS.GET_JOB_VERSION_DETAIL,
+                  { taskId: item.taskId, versionId: item.versionId }
+                );
+                setCurrentVersion({ ...item, statement: version?.statement });
+              }}
               header={l('devops.jobinfo.version.versionList')}
             />
           </Pane>
@@ -200,11 +200,10 @@ export enum API_CONSTANTS {
   GET_LATEST_HISTORY_BY_ID = '/api/history/getLatestHistoryById',
   GET_JOB_DETAIL = '/api/jobInstance/getJobInfoDetail',
   REFRESH_JOB_DETAIL = '/api/jobInstance/refreshJobInfoDetail',
-  GET_JOBMANAGER_LOG = '/api/jobInstance/getJobManagerLog',
-  GET_JOBMANAGER_STDOUT = '/api/jobInstance/getJobManagerStdOut',
-  GET_JOBMANAGER_THREAD_DUMP = '/api/jobInstance/getJobManagerThreadDump',
+  STREAM_LOG = '/api/jobInstance/streamLog',
+  STREAM_STDOUT = '/api/jobInstance/streamStdOut',
+  STREAM_THREAD_DUMP = '/api/jobInstance/streamThreadDump',
   GET_TASKMANAGER_LIST = '/api/jobInstance/getTaskManagerList',
-  GET_TASKMANAGER_LOG = '/api/jobInstance/getTaskManagerLog',
   GET_JOB_METRICS_ITEMS = '/api/jobInstance/getJobMetricsItems',
   JOB_INSTANCE_GET_LINEAGE = '/api/jobInstance/getLineage',
   GET_STATUS_COUNT = '/api/jobInstance/getStatusCount',
@@ -279,6 +278,7 @@ export enum API_CONSTANTS {
   CATALOGUE_GET_CATALOGUE_TREE_DATA = '/api/catalogue/getCatalogueTreeData',
   CATALOGUE_GET_CATALOGUE_SORT_TYPE_DATA = '/api/catalogue/getCatalogueSortType',
   GET_JOB_VERSION = '/api/task/version',
+  GET_JOB_VERSION_DETAIL = '/api/task/version/detail',
   RESTART_TASK = '/api/task/restartTask',
   SAVEPOINT = '/api/task/savepoint',
   RESTART_TASK_FROM_CHECKPOINT = '/api/task/selectSavePointRestartTask',
@@ -296,6 +296,7 @@ export enum API_CONSTANTS {
 
   // ------------------------------------ flink conf about ------------------------------------
   READ_CHECKPOINT = '/api/flinkConf/readCheckPoint',
+  READ_CHECKPOINT_PAGE = '/api/flinkConf/readCheckPointPage',
   FLINK_CONF_CONFIG_OPTIONS = '/api/flinkConf/configOptions',
 
   // ------------------------------------ suggestion ------------------------------------
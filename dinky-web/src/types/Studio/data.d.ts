@@ -114,7 +114,7 @@ export type TaskVersionListItem = {
   name?: string;
   dialect?: string;
   type?: string;
-  statement: string;
+  statement?: string;
   versionId?: string;
   createTime?: string;
   isLatest?: boolean;
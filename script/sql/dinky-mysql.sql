@@ -1363,7 +1363,9 @@ CREATE TABLE `dinky_task_version`  (
                                      `task_id` int(11) NOT NULL COMMENT 'task ID ',
                                      `tenant_id` int(11) NOT NULL DEFAULT 1 COMMENT 'tenant id',
                                      `version_id` int(11) NOT NULL COMMENT 'version ID ',
+                                     `base_version_id` int(11) DEFAULT NULL COMMENT 'version the statement delta applies to, null if the statement is stored in full',
                                      `statement` mediumtext CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT 'flink sql statement',
+                                     `statement_delta` mediumtext CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT 'compressed line delta of the statement',
                                      `name` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT 'version name',
                                      `dialect` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT 'dialect',
                                      `type` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT 'type',
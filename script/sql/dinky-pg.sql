@@ -2772,7 +2772,9 @@ CREATE TABLE dinky_task_version
     task_id        int                NOT NULL,
     tenant_id      int                NOT NULL DEFAULT 1,
     version_id     int                NOT NULL,
+    base_version_id int,
     statement      text,
+    statement_delta text,
     name           varchar(255)       NOT NULL,
     dialect        varchar(50),
     type           varchar(50),
@@ -2786,7 +2788,9 @@ COMMENT ON COLUMN dinky_task_version.id IS 'ID';
 COMMENT ON COLUMN dinky_task_version.task_id IS 'task ID ';
 COMMENT ON COLUMN dinky_task_version.tenant_id IS 'tenant id';
 COMMENT ON COLUMN dinky_task_version.version_id IS 'version ID ';
+COMMENT ON COLUMN dinky_task_version.base_version_id IS 'version the statement delta applies to, null if the statement is stored in full';
 COMMENT ON COLUMN dinky_task_version.statement IS 'flink sql statement';
+COMMENT ON COLUMN dinky_task_version.statement_delta IS 'compressed line delta of the statement';
 COMMENT ON COLUMN dinky_task_version.name IS 'version name';
 COMMENT ON COLUMN dinky_task_version.type IS 'type';
 COMMENT ON COLUMN dinky_task_version.task_configure IS 'task configuration';